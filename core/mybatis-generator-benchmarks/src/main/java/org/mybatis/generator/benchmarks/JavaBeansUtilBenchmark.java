@@ -0,0 +1,80 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mybatis.generator.internal.util.JavaBeansUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the calculation of property and class names from column and
+ * table names.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JavaBeansUtilBenchmark {
+
+    /** The column name patterns, used in turn. */
+    private static final String[] NAME_PATTERNS = {
+        "CUSTOMER_ADDRESS_LINE_%d", //$NON-NLS-1$
+        "order_date_%d", //$NON-NLS-1$
+        "lastModified%d", //$NON-NLS-1$
+        "\"Quoted Name %d\"" //$NON-NLS-1$
+    };
+
+    @Param({ "10", "100", "800" })
+    public int columns;
+
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        names = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            names[i] = String.format(NAME_PATTERNS[i % NAME_PATTERNS.length], i);
+        }
+    }
+
+    @Benchmark
+    public void propertyNames(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(JavaBeansUtil.getCamelCaseString(name, false));
+        }
+    }
+
+    @Benchmark
+    public void classNames(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(JavaBeansUtil.getCamelCaseString(name, true));
+        }
+    }
+}
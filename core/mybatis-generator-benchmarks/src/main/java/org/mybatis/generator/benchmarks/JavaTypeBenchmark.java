@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.benchmarks;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.mybatis.generator.api.dom.OutputUtilities;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks FullyQualifiedJavaType and the import calculation for the types
+ * used by a class with one property per column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JavaTypeBenchmark {
+
+    /** The type specifications, used in turn. */
+    private static final String[] TYPE_SPECIFICATIONS = {
+        "java.lang.String", //$NON-NLS-1$
+        "java.math.BigDecimal", //$NON-NLS-1$
+        "java.util.Date", //$NON-NLS-1$
+        "java.util.List<benchmark.model.Table%dExample.Criteria>", //$NON-NLS-1$
+        "java.util.Map<java.lang.String, java.util.List<benchmark.model.Table%d>>", //$NON-NLS-1$
+        "benchmark.model.Table%dKey", //$NON-NLS-1$
+        "byte[]", //$NON-NLS-1$
+        "java.util.List<? extends benchmark.model.Table%d>" //$NON-NLS-1$
+    };
+
+    @Param({ "10", "100", "800" })
+    public int columns;
+
+    /** If true, the types are the shared types returned by FullyQualifiedJavaType.of. */
+    @Param({ "false", "true" })
+    public boolean interned;
+
+    private String[] typeSpecifications;
+
+    private FullyQualifiedJavaType[] types;
+
+    private Set<FullyQualifiedJavaType> importedTypes;
+
+    @Setup
+    public void setup() {
+        typeSpecifications = new String[columns];
+        types = new FullyQualifiedJavaType[columns];
+        importedTypes = new HashSet<FullyQualifiedJavaType>();
+        for (int i = 0; i < columns; i++) {
+            typeSpecifications[i] = String.format(
+                    TYPE_SPECIFICATIONS[i % TYPE_SPECIFICATIONS.length], i);
+            types[i] = interned ? FullyQualifiedJavaType.of(typeSpecifications[i])
+                    : new FullyQualifiedJavaType(typeSpecifications[i]);
+            importedTypes.add(types[i]);
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String typeSpecification : typeSpecifications) {
+            blackhole.consume(new FullyQualifiedJavaType(typeSpecification));
+        }
+    }
+
+    @Benchmark
+    public void of(Blackhole blackhole) {
+        for (String typeSpecification : typeSpecifications) {
+            blackhole.consume(FullyQualifiedJavaType.of(typeSpecification));
+        }
+    }
+
+    @Benchmark
+    public void getShortName(Blackhole blackhole) {
+        for (FullyQualifiedJavaType type : types) {
+            blackhole.consume(type.getShortName());
+        }
+    }
+
+    @Benchmark
+    public void getImportList(Blackhole blackhole) {
+        for (FullyQualifiedJavaType type : types) {
+            List<String> importList = type.getImportList();
+            blackhole.consume(importList);
+        }
+    }
+
+    @Benchmark
+    public Set<String> calculateImports() {
+        return OutputUtilities.calculateImports(importedTypes);
+    }
+}
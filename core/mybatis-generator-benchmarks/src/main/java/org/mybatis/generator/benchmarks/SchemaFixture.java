@@ -0,0 +1,213 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.config.Configuration;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.config.xml.ConfigurationParser;
+import org.mybatis.generator.internal.NullProgressCallback;
+import org.mybatis.generator.internal.ObjectFactory;
+import org.mybatis.generator.internal.db.DatabaseIntrospector;
+
+/**
+ * Creates synthetic schemas in an in-memory HSQLDB database, and the
+ * configuration and introspected tables that match them. The tables are wide
+ * and use a realistic mix of column types, so that the benchmarks exercise
+ * the same code paths as real schemas.
+ */
+public class SchemaFixture {
+
+    /** The column types, used in turn after the primary key column. */
+    private static final String[] COLUMN_TYPES = {
+        "VARCHAR(50)", //$NON-NLS-1$
+        "INTEGER", //$NON-NLS-1$
+        "DECIMAL(10,2)", //$NON-NLS-1$
+        "TIMESTAMP", //$NON-NLS-1$
+        "BIGINT", //$NON-NLS-1$
+        "BOOLEAN", //$NON-NLS-1$
+        "DATE", //$NON-NLS-1$
+        "CHAR(1)", //$NON-NLS-1$
+        "DOUBLE", //$NON-NLS-1$
+        "VARBINARY(100)" //$NON-NLS-1$
+    };
+
+    private String url;
+
+    private int tableCount;
+
+    private int columnCount;
+
+    private Context context;
+
+    /**
+     * Creates the schema.
+     *
+     * @param name
+     *            the name of the in-memory database. Fixtures that are used
+     *            at the same time must have different names
+     * @param tableCount
+     *            the number of tables
+     * @param columnCount
+     *            the number of columns in each table, including the primary
+     *            key column
+     */
+    public SchemaFixture(String name, int tableCount, int columnCount) throws Exception {
+        super();
+        this.url = "jdbc:hsqldb:mem:" + name; //$NON-NLS-1$
+        this.tableCount = tableCount;
+        this.columnCount = columnCount;
+
+        Class.forName("org.hsqldb.jdbcDriver"); //$NON-NLS-1$
+        Connection connection = getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            for (int i = 0; i < tableCount; i++) {
+                statement.execute(getCreateTableStatement(getTableName(i)));
+            }
+            statement.close();
+        } finally {
+            connection.close();
+        }
+
+        List<String> warnings = new ArrayList<String>();
+        ConfigurationParser cp = new ConfigurationParser(warnings);
+        Configuration configuration = cp.parseConfiguration(new ByteArrayInputStream(
+                getConfiguration().getBytes("UTF-8"))); //$NON-NLS-1$
+        context = configuration.getContexts().get(0);
+
+        // generating files creates the plugins of the context, which the
+        // generators need. There are no introspected tables yet, so
+        // nothing else happens
+        context.generateFiles(new NullProgressCallback(),
+                new ArrayList<GeneratedJavaFile>(),
+                new ArrayList<GeneratedXmlFile>(), warnings);
+    }
+
+    public Connection getConnection() throws SQLException {
+        return DriverManager.getConnection(url, "sa", ""); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public static String getTableName(int index) {
+        return "TABLE_" + index; //$NON-NLS-1$
+    }
+
+    public static String getColumnName(int index) {
+        return index == 0 ? "ID" : "COLUMN_" + index; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Introspects and initializes every table of the schema, as
+     * Context.introspectTables and Context.generateFiles do.
+     *
+     * @param connection
+     *            the connection to use
+     * @return the introspected tables
+     */
+    public List<IntrospectedTable> introspectTables(Connection connection)
+            throws SQLException {
+        List<String> warnings = new ArrayList<String>();
+        DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(
+                context, connection.getMetaData(),
+                ObjectFactory.createJavaTypeResolver(context, warnings),
+                warnings);
+
+        List<IntrospectedTable> answer = new ArrayList<IntrospectedTable>();
+        for (TableConfiguration tc : context.getTableConfigurations()) {
+            List<IntrospectedTable> tables = databaseIntrospector
+                    .introspectTables(tc);
+            if (tables != null) {
+                answer.addAll(tables);
+            }
+        }
+
+        for (IntrospectedTable introspectedTable : answer) {
+            introspectedTable.initialize();
+        }
+
+        return answer;
+    }
+
+    public void shutdown() throws SQLException {
+        Connection connection = getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            statement.execute("SHUTDOWN"); //$NON-NLS-1$
+            statement.close();
+        } finally {
+            connection.close();
+        }
+    }
+
+    private String getCreateTableStatement(String tableName) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CREATE TABLE "); //$NON-NLS-1$
+        sb.append(tableName);
+        sb.append(" ("); //$NON-NLS-1$
+        sb.append(getColumnName(0));
+        sb.append(" INTEGER NOT NULL"); //$NON-NLS-1$
+        for (int i = 1; i < columnCount; i++) {
+            sb.append(", "); //$NON-NLS-1$
+            sb.append(getColumnName(i));
+            sb.append(' ');
+            sb.append(COLUMN_TYPES[(i - 1) % COLUMN_TYPES.length]);
+        }
+        sb.append(", PRIMARY KEY ("); //$NON-NLS-1$
+        sb.append(getColumnName(0));
+        sb.append("))"); //$NON-NLS-1$
+        return sb.toString();
+    }
+
+    private String getConfiguration() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"); //$NON-NLS-1$
+        sb.append("<!DOCTYPE generatorConfiguration PUBLIC"); //$NON-NLS-1$
+        sb.append(" \"-//mybatis.org//DTD MyBatis Generator Configuration 1.0//EN\""); //$NON-NLS-1$
+        sb.append(" \"http://mybatis.org/dtd/mybatis-generator-config_1_0.dtd\">"); //$NON-NLS-1$
+        sb.append("<generatorConfiguration>"); //$NON-NLS-1$
+        sb.append("<context id=\"benchmark\" targetRuntime=\"MyBatis3\">"); //$NON-NLS-1$
+        sb.append("<commentGenerator><property name=\"suppressDate\" value=\"true\"/></commentGenerator>"); //$NON-NLS-1$
+        sb.append("<jdbcConnection driverClass=\"org.hsqldb.jdbcDriver\" connectionURL=\""); //$NON-NLS-1$
+        sb.append(url);
+        sb.append("\" userId=\"sa\"/>"); //$NON-NLS-1$
+        sb.append("<javaModelGenerator targetPackage=\"benchmark.model\" targetProject=\"target\"/>"); //$NON-NLS-1$
+        sb.append("<sqlMapGenerator targetPackage=\"benchmark.mapper\" targetProject=\"target\"/>"); //$NON-NLS-1$
+        sb.append("<javaClientGenerator type=\"XMLMAPPER\" targetPackage=\"benchmark.mapper\" targetProject=\"target\"/>"); //$NON-NLS-1$
+        for (int i = 0; i < tableCount; i++) {
+            sb.append("<table tableName=\""); //$NON-NLS-1$
+            sb.append(getTableName(i));
+            sb.append("\"/>"); //$NON-NLS-1$
+        }
+        sb.append("</context>"); //$NON-NLS-1$
+        sb.append("</generatorConfiguration>"); //$NON-NLS-1$
+        return sb.toString();
+    }
+}
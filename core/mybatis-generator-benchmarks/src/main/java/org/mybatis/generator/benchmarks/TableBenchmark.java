@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.dom.DefaultXmlFormatter;
+import org.mybatis.generator.api.dom.java.CompilationUnit;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.codegen.mybatis3.model.ExampleGenerator;
+import org.mybatis.generator.codegen.mybatis3.xmlmapper.XMLMapperGenerator;
+import org.mybatis.generator.internal.NullProgressCallback;
+import org.mybatis.generator.internal.XmlFileMergerJaxp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the generation, formatting and merging of the files of a single
+ * MyBatis3 table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TableBenchmark {
+
+    @Param({ "10", "100", "800" })
+    public int columns;
+
+    private SchemaFixture fixture;
+
+    private IntrospectedTable introspectedTable;
+
+    private CompilationUnit exampleClass;
+
+    private GeneratedXmlFile mapperFile;
+
+    private File existingMapperFile;
+
+    @Setup
+    public void setup() throws Exception {
+        fixture = new SchemaFixture("table", 1, columns); //$NON-NLS-1$
+        Connection connection = fixture.getConnection();
+        try {
+            introspectedTable = fixture.introspectTables(connection).get(0);
+        } finally {
+            connection.close();
+        }
+
+        exampleClass = generateExample().get(0);
+        mapperFile = new GeneratedXmlFile(generateMapper(),
+                "TableMapper.xml", "benchmark.mapper", "target", true, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                new DefaultXmlFormatter());
+
+        existingMapperFile = File.createTempFile("TableMapper", ".xml"); //$NON-NLS-1$ //$NON-NLS-2$
+        Writer writer = new OutputStreamWriter(new FileOutputStream(
+                existingMapperFile), "UTF-8"); //$NON-NLS-1$
+        try {
+            writer.write(mapperFile.getFormattedContent());
+        } finally {
+            writer.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        existingMapperFile.delete();
+        fixture.shutdown();
+    }
+
+    @Benchmark
+    public List<CompilationUnit> generateExample() {
+        ExampleGenerator generator = new ExampleGenerator();
+        generator.setContext(fixture.getContext());
+        generator.setIntrospectedTable(introspectedTable);
+        generator.setProgressCallback(new NullProgressCallback());
+        generator.setWarnings(new ArrayList<String>());
+        return generator.getCompilationUnits();
+    }
+
+    @Benchmark
+    public Document generateMapper() {
+        XMLMapperGenerator generator = new XMLMapperGenerator();
+        generator.setContext(fixture.getContext());
+        generator.setIntrospectedTable(introspectedTable);
+        generator.setProgressCallback(new NullProgressCallback());
+        generator.setWarnings(new ArrayList<String>());
+        return generator.getDocument();
+    }
+
+    @Benchmark
+    public String formatExample() {
+        return exampleClass.getFormattedContent();
+    }
+
+    @Benchmark
+    public String formatMapper() {
+        return mapperFile.getFormattedContent();
+    }
+
+    @Benchmark
+    public String mergeMapper() throws Exception {
+        return XmlFileMergerJaxp.getMergedSource(mapperFile, existingMapperFile);
+    }
+}
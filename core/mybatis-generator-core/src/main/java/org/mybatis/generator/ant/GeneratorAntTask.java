@@ -72,6 +72,12 @@ import org.mybatis.generator.internal.DefaultShellCallback;
  * <li>"contextIds" - a comma delimited list of contaxtIds to use for this run</li>
  * <li>"fullyQualifiedTableNames" - a comma delimited list of fully qualified
  * table names to use for this run</li>
+ * <li>"reportFile" - a file to write a JSON report of the run to, with the
+ * timings, metadata round trips, files written and warnings of every context
+ * and table</li>
+ * <li>"configurationCacheDirectory" - a directory to keep a snapshot of the
+ * validated configuration file in. The snapshot is used instead of scanning
+ * and validating the XML while the file is unchanged</li>
  * </ul>
  * 
  * 
@@ -85,6 +91,8 @@ public class GeneratorAntTask extends Task {
     private boolean verbose;
     private String contextIds;
     private String fullyQualifiedTableNames;
+    private String reportFile;
+    private String configurationCacheDirectory;
 
     /**
      * 
@@ -140,11 +148,17 @@ public class GeneratorAntTask extends Task {
                     .getProperties();
 
             ConfigurationParser cp = new ConfigurationParser(p, warnings);
+            if (stringHasValue(configurationCacheDirectory)) {
+                cp.setCacheDirectory(new File(configurationCacheDirectory));
+            }
             Configuration config = cp.parseConfiguration(configurationFile);
 
             DefaultShellCallback callback = new DefaultShellCallback(overwrite);
 
             MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, callback, warnings);
+            if (stringHasValue(reportFile)) {
+                myBatisGenerator.setReportFile(new File(reportFile));
+            }
 
             myBatisGenerator.generate(new AntProgressCallback(this, verbose), contexts,
                     fullyqualifiedTables);
@@ -238,4 +252,20 @@ public class GeneratorAntTask extends Task {
     public void setFullyQualifiedTableNames(String fullyQualifiedTableNames) {
         this.fullyQualifiedTableNames = fullyQualifiedTableNames;
     }
+
+    public String getReportFile() {
+        return reportFile;
+    }
+
+    public void setReportFile(String reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    public String getConfigurationCacheDirectory() {
+        return configurationCacheDirectory;
+    }
+
+    public void setConfigurationCacheDirectory(String configurationCacheDirectory) {
+        this.configurationCacheDirectory = configurationCacheDirectory;
+    }
 }
@@ -22,7 +22,10 @@ import java.util.Properties;
 public interface ConnectionFactory {
     /**
      * Should return a connection to the database in use for this context.
-     * The generator will call this method only one time for each context.
+     * The generator will call this method only one time for each context,
+     * unless the context is configured to introspect tables concurrently. In
+     * that case the method may be called once for each concurrent
+     * introspection, possibly from different threads.
      * The generator will close the connection.
      * 
      * @return
@@ -0,0 +1,50 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * This interface can be implemented to receive the generated files as soon as
+ * they are generated, rather than after the whole run. Files are passed in
+ * groups: the files of one table, in the order of the tables in the
+ * configuration, followed by the files that plugins generate for the context
+ * as a whole.
+ * 
+ * <p>In a streaming run (see {@link MyBatisGenerator#setStreaming(boolean)}),
+ * the generator does not keep the files after passing them to the callback, so
+ * an implementation that keeps them defeats the purpose of streaming.
+ */
+public interface GeneratedFileCallback {
+    /**
+     * Called when a group of files has been generated. The method is always
+     * called on the thread that called the generate method of MyBatisGenerator.
+     * 
+     * @param generatedJavaFiles
+     *            the generated Java files, which may be empty
+     * @param generatedXmlFiles
+     *            the generated XML files, which may be empty
+     * @throws InterruptedException
+     *             if the run should be canceled
+     * @throws IOException
+     *             if the files cannot be handled. The run fails with this
+     *             exception
+     */
+    void filesGenerated(List<GeneratedJavaFile> generatedJavaFiles,
+            List<GeneratedXmlFile> generatedXmlFiles)
+            throws InterruptedException, IOException;
+}
@@ -15,6 +15,9 @@
  */
 package org.mybatis.generator.api;
 
+import java.io.IOException;
+
+import org.mybatis.generator.api.dom.DefaultJavaFormatter;
 import org.mybatis.generator.api.dom.java.CompilationUnit;
 
 /**
@@ -79,6 +82,27 @@ public class GeneratedJavaFile extends GeneratedFile {
         return javaFormatter.getFormattedContent(compilationUnit);
     }
 
+    /**
+     * Writes the formatted content of this file to the output. The content is
+     * the same as the value returned by <code>getFormattedContent</code>. If
+     * the default Java formatter is used, the compilation unit is written
+     * directly to the output in a single pass.
+     *
+     * @param out
+     *            the output
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    public void render(Appendable out) throws IOException {
+        // subclasses of the default formatter may change the formatted
+        // content, so only the default formatter itself is streamed
+        if (javaFormatter.getClass() == DefaultJavaFormatter.class) {
+            ((DefaultJavaFormatter) javaFormatter).render(compilationUnit, out);
+        } else {
+            out.append(getFormattedContent());
+        }
+    }
+
     /* (non-Javadoc)
      * @see org.mybatis.generator.api.GeneratedFile#getFileName()
      */
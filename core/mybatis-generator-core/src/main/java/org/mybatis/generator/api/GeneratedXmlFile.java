@@ -15,6 +15,9 @@
  */
 package org.mybatis.generator.api;
 
+import java.io.IOException;
+
+import org.mybatis.generator.api.dom.DefaultXmlFormatter;
 import org.mybatis.generator.api.dom.xml.Document;
 
 /**
@@ -74,6 +77,45 @@ public class GeneratedXmlFile extends GeneratedFile {
         return xmlFormatter.getFormattedContent(document);
     }
 
+    /**
+     * Gets the document.
+     *
+     * @return the document
+     */
+    public Document getDocument() {
+        return document;
+    }
+
+    /**
+     * Gets the xml formatter.
+     *
+     * @return the xml formatter
+     */
+    public XmlFormatter getXmlFormatter() {
+        return xmlFormatter;
+    }
+
+    /**
+     * Writes the formatted content of this file to the output. The content is
+     * the same as the value returned by <code>getFormattedContent</code>. If
+     * the default XML formatter is used, the document is written directly to
+     * the output in a single pass.
+     *
+     * @param out
+     *            the output
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    public void render(Appendable out) throws IOException {
+        // subclasses of the default formatter may change the formatted
+        // content, so only the default formatter itself is streamed
+        if (xmlFormatter.getClass() == DefaultXmlFormatter.class) {
+            ((DefaultXmlFormatter) xmlFormatter).render(document, out);
+        } else {
+            out.append(getFormattedContent());
+        }
+    }
+
     /**
      * Gets the file name.
      *
@@ -16,29 +16,37 @@
 package org.mybatis.generator.api;
 
 import static org.mybatis.generator.internal.util.ClassloaderUtility.getCustomClassloader;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
 import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 
-import org.mybatis.generator.codegen.RootClassInfo;
 import org.mybatis.generator.config.Configuration;
 import org.mybatis.generator.config.Context;
-import org.mybatis.generator.config.MergeConstants;
+import org.mybatis.generator.config.JavaClientGeneratorConfiguration;
+import org.mybatis.generator.config.JavaModelGeneratorConfiguration;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.config.SqlMapGeneratorConfiguration;
 import org.mybatis.generator.exception.InvalidConfigurationException;
-import org.mybatis.generator.exception.ShellException;
+import org.mybatis.generator.internal.BufferedProgressCallback;
 import org.mybatis.generator.internal.DefaultShellCallback;
-import org.mybatis.generator.internal.ObjectFactory;
+import org.mybatis.generator.internal.GeneratedFileWriter;
+import org.mybatis.generator.internal.GenerationManifest;
+import org.mybatis.generator.internal.GenerationSession;
 import org.mybatis.generator.internal.NullProgressCallback;
-import org.mybatis.generator.internal.XmlFileMergerJaxp;
+import org.mybatis.generator.internal.ParallelTaskExecutor;
+import org.mybatis.generator.internal.PluginProfiler;
+import org.mybatis.generator.internal.RunReport;
+import org.mybatis.generator.internal.SharedIntrospection;
 
 /**
  * This class is the main interface to MyBatis generator. A typical execution of the tool involves these steps:
@@ -55,6 +63,9 @@ import org.mybatis.generator.internal.XmlFileMergerJaxp;
  */
 public class MyBatisGenerator {
 
+    /** The number of generated files that are written before they are reported in streaming mode. */
+    private static final int STREAMING_BATCH_SIZE = 256;
+
     /** The configuration. */
     private Configuration configuration;
 
@@ -70,8 +81,47 @@ public class MyBatisGenerator {
     /** The warnings. */
     private List<String> warnings;
 
-    /** The projects. */
-    private Set<String> projects;
+    /** The number of tables to introspect concurrently in each context. */
+    private int introspectionThreads = 1;
+
+    /** The number of tables to generate concurrently in each context. */
+    private int generationThreads = 1;
+
+    /** The number of files to write concurrently. */
+    private int writeThreads = 1;
+
+    /** The number of contexts to run concurrently. */
+    private int contextThreads = 1;
+
+    /** If true, contexts with a metadata cache read all metadata from the database. */
+    private boolean refreshMetadataCache;
+
+    /** The session used by every run, or null to use a new session for each run. */
+    private GenerationSession generationSession;
+
+    /** If true, the time of every plugin hook is recorded and reported. */
+    private boolean profilePlugins;
+
+    /** The file the plugin profile is written to, or null. */
+    private File pluginProfileFile;
+
+    /** If true, generated files are written and released as soon as each table is generated. */
+    private boolean streaming;
+
+    /** The callback that receives the generated files in streaming mode. */
+    private GeneratedFileCallback generatedFileCallback;
+
+    /** The file the run report is written to, or null. */
+    private File reportFile;
+
+    /** The number of files written without merging in the last run. */
+    private int writtenFileCount;
+
+    /** The number of files merged and written in the last run. */
+    private int mergedFileCount;
+
+    /** The number of files left untouched in the last run because their content did not change. */
+    private int unchangedFileCount;
 
     /**
      * Constructs a MyBatisGenerator object.
@@ -114,7 +164,6 @@ public class MyBatisGenerator {
         }
         generatedJavaFiles = new ArrayList<GeneratedJavaFile>();
         generatedXmlFiles = new ArrayList<GeneratedXmlFile>();
-        projects = new HashSet<String>();
 
         this.configuration.validate();
     }
@@ -224,8 +273,9 @@ public class MyBatisGenerator {
 
         generatedJavaFiles.clear();
         generatedXmlFiles.clear();
-        ObjectFactory.reset();
-        RootClassInfo.reset();
+        writtenFileCount = 0;
+        mergedFileCount = 0;
+        unchangedFileCount = 0;
 
         // calculate the contexts to run
         List<Context> contextsToRun;
@@ -240,12 +290,143 @@ public class MyBatisGenerator {
             }
         }
 
-        // setup custom classloader if required
-        if (configuration.getClassPathEntries().size() > 0) {
-            ClassLoader classLoader = getCustomClassloader(configuration.getClassPathEntries());
-            ObjectFactory.addExternalClassLoader(classLoader);
+        // each run has its own class loaders and root class info, so that
+        // runs in the same JVM don't interfere with each other
+        GenerationSession session = generationSession;
+        if (session == null) {
+            session = new GenerationSession();
+            if (configuration.getClassPathEntries().size() > 0) {
+                ClassLoader classLoader = getCustomClassloader(configuration.getClassPathEntries());
+                session.addExternalClassLoader(classLoader);
+            }
+        }
+
+        // class loaders added with the deprecated methods of ObjectFactory
+        // belong to this run only
+        if (session != GenerationSession.getDefault()) {
+            GenerationSession.getDefault().moveClassLoadersTo(session);
+        }
+
+        PluginProfiler pluginProfiler = profilePlugins || pluginProfileFile != null
+                ? new PluginProfiler() : null;
+        RunReport runReport = reportFile != null ? new RunReport(writeFiles) : null;
+        SharedIntrospection sharedIntrospection = new SharedIntrospection(contextsToRun);
+        for (Context context : contextsToRun) {
+            context.setGenerationSession(session);
+            context.setPluginProfiler(pluginProfiler);
+            context.setRunReport(runReport);
+            context.setSharedIntrospection(sharedIntrospection);
+        }
+
+        GenerationSession previousSession = GenerationSession.setCurrent(session);
+        try {
+            generateContexts(callback, contextsToRun, fullyQualifiedTableNames, writeFiles,
+                    pluginProfiler, runReport);
+        } finally {
+            GenerationSession.setCurrent(previousSession);
+            sharedIntrospection.close();
+            if (runReport != null) {
+                runReport.close();
+            }
+        }
+    }
+
+    private void generateContexts(ProgressCallback callback, List<Context> contextsToRun,
+            Set<String> fullyQualifiedTableNames, boolean writeFiles,
+            PluginProfiler pluginProfiler, RunReport runReport) throws SQLException,
+            IOException, InterruptedException {
+
+        GeneratedFileWriter fileWriter = writeFiles ? new GeneratedFileWriter(
+                shellCallback, writeThreads) : null;
+        if (fileWriter != null) {
+            fileWriter.setRunReport(runReport);
+        }
+        List<GenerationManifest> manifests = new ArrayList<GenerationManifest>();
+        StreamingFileCallback streamingFileCallback = streaming ? new StreamingFileCallback(
+                callback, fileWriter, manifests) : null;
+        boolean completed = false;
+        try {
+            if (contextThreads > 1 && contextsToRun.size() > 1) {
+                generateContextsConcurrently(callback, contextsToRun,
+                        fullyQualifiedTableNames, fileWriter, manifests,
+                        streamingFileCallback, runReport);
+            } else {
+                generateContextsSerially(callback, contextsToRun,
+                        fullyQualifiedTableNames, fileWriter, manifests,
+                        streamingFileCallback, runReport);
+            }
+
+            // now save the files
+            long phaseStart = System.nanoTime();
+            int firstWarning = warnings.size();
+            if (fileWriter != null) {
+                if (streamingFileCallback != null) {
+                    streamingFileCallback.flush(true);
+                } else {
+                    callback.saveStarted(generatedXmlFiles.size()
+                        + generatedJavaFiles.size());
+                    reportFiles(callback, fileWriter, manifests,
+                            generatedXmlFiles, generatedJavaFiles);
+                }
+
+                writtenFileCount = fileWriter.getWrittenFileCount();
+                mergedFileCount = fileWriter.getMergedFileCount();
+                unchangedFileCount = fileWriter.getUnchangedFileCount();
+                callback.startTask(getString("Progress.20", //$NON-NLS-1$
+                        Integer.toString(writtenFileCount),
+                        Integer.toString(mergedFileCount),
+                        Integer.toString(unchangedFileCount)));
+
+                for (GenerationManifest manifest : manifests) {
+                    manifest.save(fileWriter, callback, warnings);
+                }
+
+                for (String project : fileWriter.getProjects()) {
+                    shellCallback.refreshProject(project);
+                }
+            }
+            if (runReport != null) {
+                runReport.saveFinished(System.nanoTime() - phaseStart);
+                runReport.addWarnings(null, "save", //$NON-NLS-1$
+                        warnings.subList(firstWarning, warnings.size()));
+            }
+            completed = true;
+        } finally {
+            if (!completed && fileWriter != null) {
+                fileWriter.cancel();
+            }
+        }
+
+        if (pluginProfiler != null) {
+            int firstWarning = warnings.size();
+            pluginProfiler.report(callback, warnings);
+            if (pluginProfileFile != null) {
+                pluginProfiler.write(pluginProfileFile);
+            }
+            if (runReport != null) {
+                runReport.addWarnings(null, "pluginProfile", //$NON-NLS-1$
+                        warnings.subList(firstWarning, warnings.size()));
+            }
+        }
+
+        if (runReport != null) {
+            runReport.runFinished();
+            runReport.write(reportFile);
         }
 
+        callback.done();
+    }
+
+    /**
+     * Introspects all contexts, then generates the contexts one at a time. The files of each
+     * context are passed to the writer as soon as the context has been generated.
+     */
+    private void generateContextsSerially(ProgressCallback callback,
+            List<Context> contextsToRun, Set<String> fullyQualifiedTableNames,
+            GeneratedFileWriter fileWriter, List<GenerationManifest> manifests,
+            StreamingFileCallback streamingFileCallback, RunReport runReport)
+            throws SQLException, IOException, InterruptedException {
+
         // now run the introspections...
         int totalSteps = 0;
         for (Context context : contextsToRun) {
@@ -253,9 +434,21 @@ public class MyBatisGenerator {
         }
         callback.introspectionStarted(totalSteps);
 
+        long phaseStart = System.nanoTime();
         for (Context context : contextsToRun) {
+            long contextStart = System.nanoTime();
+            int firstWarning = warnings.size();
             context.introspectTables(callback, warnings,
-                    fullyQualifiedTableNames);
+                    fullyQualifiedTableNames, introspectionThreads,
+                    refreshMetadataCache);
+            if (runReport != null) {
+                runReport.contextIntrospected(context.getId(), System.nanoTime() - contextStart);
+                runReport.addWarnings(context.getId(), "introspection", //$NON-NLS-1$
+                        warnings.subList(firstWarning, warnings.size()));
+            }
+        }
+        if (runReport != null) {
+            runReport.introspectionFinished(System.nanoTime() - phaseStart);
         }
 
         // now run the generates
@@ -265,173 +458,665 @@ public class MyBatisGenerator {
         }
         callback.generationStarted(totalSteps);
 
+        phaseStart = System.nanoTime();
         for (Context context : contextsToRun) {
-            context.generateFiles(callback, generatedJavaFiles,
-                    generatedXmlFiles, warnings);
-        }
+            // the manifest only tracks files that are actually written
+            GenerationManifest manifest = null;
+            if (fileWriter != null) {
+                manifest = GenerationManifest.getInstance(context,
+                        fullyQualifiedTableNames != null
+                                && fullyQualifiedTableNames.size() > 0,
+                        warnings);
+                if (manifest != null) {
+                    manifests.add(manifest);
+                }
+            }
 
-        // now save the files
-        if (writeFiles) {
-            callback.saveStarted(generatedXmlFiles.size()
-                + generatedJavaFiles.size());
+            long contextStart = System.nanoTime();
+            int firstWarning = warnings.size();
+            int firstJavaFile = generatedJavaFiles.size();
+            int firstXmlFile = generatedXmlFiles.size();
+            if (streamingFileCallback != null) {
+                context.generateFiles(callback, streamingFileCallback,
+                        warnings, generationThreads, manifest);
+            } else {
+                context.generateFiles(callback, generatedJavaFiles,
+                        generatedXmlFiles, warnings, generationThreads,
+                        manifest);
+            }
+            if (runReport != null) {
+                runReport.contextGenerated(context.getId(), System.nanoTime() - contextStart);
+                runReport.addWarnings(context.getId(), "generation", //$NON-NLS-1$
+                        warnings.subList(firstWarning, warnings.size()));
+            }
+            if (streamingFileCallback != null) {
+                continue;
+            }
+
+            // start writing the files of this context while the
+            // remaining contexts are generated
+            if (fileWriter != null) {
+                for (GeneratedXmlFile gxf : generatedXmlFiles.subList(
+                        firstXmlFile, generatedXmlFiles.size())) {
+                    fileWriter.write(gxf, callback);
+                }
 
-            for (GeneratedXmlFile gxf : generatedXmlFiles) {
-                projects.add(gxf.getTargetProject());
-                writeGeneratedXmlFile(gxf, callback);
+                for (GeneratedJavaFile gjf : generatedJavaFiles.subList(
+                        firstJavaFile, generatedJavaFiles.size())) {
+                    fileWriter.write(gjf, callback);
+                }
             }
+        }
+
+        if (runReport != null) {
+            runReport.generationFinished(System.nanoTime() - phaseStart);
+        }
+    }
+
+
+    /**
+     * Runs every context on a thread of its own, from introspection until its files are passed
+     * to the writer. The results are merged on this thread in configuration order, so the
+     * generated files, warnings and progress messages are the same as in a serial run. The
+     * progress messages and warnings of the generation phase are reported once all contexts
+     * are done, but the files of each context are passed to the writer as soon as the context
+     * and the contexts before it have been generated.
+     */
+    private void generateContextsConcurrently(final ProgressCallback callback,
+            final List<Context> contextsToRun, Set<String> fullyQualifiedTableNames,
+            final GeneratedFileWriter fileWriter, final List<GenerationManifest> manifests,
+            final StreamingFileCallback streamingFileCallback, final RunReport runReport)
+            throws SQLException, IOException, InterruptedException {
+
+        int totalSteps = 0;
+        for (Context context : contextsToRun) {
+            totalSteps += context.getIntrospectionSteps();
+        }
+        callback.introspectionStarted(totalSteps);
 
-            for (GeneratedJavaFile gjf : generatedJavaFiles) {
-                projects.add(gjf.getTargetProject());
-                writeGeneratedJavaFile(gjf, callback);
+        int[] predecessors = findConflictingContexts(contextsToRun, callback);
+        if (runReport != null) {
+            for (Context context : contextsToRun) {
+                runReport.addContext(context.getId());
             }
+        }
+
+        long phaseStart = System.nanoTime();
+        boolean partialTableSet = fullyQualifiedTableNames != null
+                && fullyQualifiedTableNames.size() > 0;
+        ParallelTaskExecutor<ContextResult> executor = new ParallelTaskExecutor<ContextResult>(
+                "mbg-context", contextThreads); //$NON-NLS-1$
+        CountDownLatch[] finishedContexts = new CountDownLatch[contextsToRun.size()];
+        for (int i = 0; i < contextsToRun.size(); i++) {
+            finishedContexts[i] = new CountDownLatch(1);
+            executor.submit(new ContextTask(contextsToRun.get(i), fullyQualifiedTableNames,
+                    partialTableSet, fileWriter != null, streamingFileCallback != null,
+                    predecessors[i] == -1 ? null : finishedContexts[predecessors[i]],
+                    finishedContexts[i]));
+        }
+
+        List<ContextResult> results;
+        try {
+            results = executor.awaitAll(callback,
+                    new ParallelTaskExecutor.ResultListener<ContextResult>() {
+                        public void resultAvailable(int index, ContextResult result)
+                                throws InterruptedException {
+                            String contextId = contextsToRun.get(index).getId();
+                            result.introspectionCallback.replay(callback);
+                            warnings.addAll(result.introspectionWarnings);
+                            if (runReport != null) {
+                                runReport.contextIntrospected(contextId,
+                                        result.introspectionNanos);
+                                runReport.addWarnings(contextId, "introspection", //$NON-NLS-1$
+                                        result.introspectionWarnings);
+                            }
+                            if (result.manifest != null) {
+                                manifests.add(result.manifest);
+                            }
 
-            for (String project : projects) {
-                shellCallback.refreshProject(project);
+                            // start writing the files of this context while the
+                            // remaining contexts are generated
+                            try {
+                                writeContextFiles(result, callback, fileWriter,
+                                        streamingFileCallback);
+                            } catch (IOException e) {
+                                throw new FileWriteException(e);
+                            }
+                            callback.checkCancel();
+                        }
+                    });
+        } catch (FileWriteException e) {
+            throw e.getCause();
+        } catch (ExecutionException e) {
+            Throwable cause = ParallelTaskExecutor.unwrap(e);
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
             }
+            throw new RuntimeException(cause);
         }
 
-        callback.done();
+        long introspectionEnd = phaseStart;
+        totalSteps = 0;
+        for (ContextResult result : results) {
+            introspectionEnd = Math.max(introspectionEnd, result.introspectionEnd);
+            totalSteps += result.generationSteps;
+        }
+        if (runReport != null) {
+            runReport.introspectionFinished(introspectionEnd - phaseStart);
+        }
+
+        callback.generationStarted(totalSteps);
+        for (int i = 0; i < results.size(); i++) {
+            String contextId = contextsToRun.get(i).getId();
+            ContextResult result = results.get(i);
+            warnings.addAll(result.manifestWarnings);
+            result.generationCallback.replay(callback);
+            warnings.addAll(result.generationWarnings);
+            if (runReport != null) {
+                runReport.contextGenerated(contextId, result.generationNanos);
+                runReport.addWarnings(contextId, "generation", //$NON-NLS-1$
+                        result.generationWarnings);
+            }
+        }
+        if (runReport != null) {
+            runReport.generationFinished(System.nanoTime() - introspectionEnd);
+        }
     }
 
-    private void writeGeneratedJavaFile(GeneratedJavaFile gjf, ProgressCallback callback)
+    /**
+     * Adds the files generated by a context to the generated files of the run and passes them
+     * to the writer, or passes them to the streaming callback table by table.
+     */
+    private void writeContextFiles(ContextResult result, ProgressCallback callback,
+            GeneratedFileWriter fileWriter, StreamingFileCallback streamingFileCallback)
             throws InterruptedException, IOException {
-        File targetFile;
-        String source;
-        try {
-            File directory = shellCallback.getDirectory(gjf
-                    .getTargetProject(), gjf.getTargetPackage());
-            targetFile = new File(directory, gjf.getFileName());
-            if (targetFile.exists()) {
-                if (shellCallback.isMergeSupported()) {
-                    source = shellCallback.mergeJavaFile(gjf
-                            .getFormattedContent(), targetFile,
-                            MergeConstants.OLD_ELEMENT_TAGS,
-                            gjf.getFileEncoding());
-                } else if (shellCallback.isOverwriteEnabled()) {
-                    source = gjf.getFormattedContent();
-                    warnings.add(getString("Warning.11", //$NON-NLS-1$
-                            targetFile.getAbsolutePath()));
-                } else {
-                    source = gjf.getFormattedContent();
-                    targetFile = getUniqueFileName(directory, gjf
-                            .getFileName());
-                    warnings.add(getString(
-                            "Warning.2", targetFile.getAbsolutePath())); //$NON-NLS-1$
+        if (streamingFileCallback != null) {
+            for (int i = 0; i < result.javaFileBatches.size(); i++) {
+                streamingFileCallback.filesGenerated(result.javaFileBatches.get(i),
+                        result.xmlFileBatches.get(i));
+            }
+            // the executor keeps the results until all contexts are done
+            result.javaFileBatches = null;
+            result.xmlFileBatches = null;
+            return;
+        }
+
+        generatedJavaFiles.addAll(result.generatedJavaFiles);
+        generatedXmlFiles.addAll(result.generatedXmlFiles);
+        if (fileWriter != null) {
+            for (GeneratedXmlFile gxf : result.generatedXmlFiles) {
+                fileWriter.write(gxf, callback);
+            }
+
+            for (GeneratedJavaFile gjf : result.generatedJavaFiles) {
+                fileWriter.write(gjf, callback);
+            }
+        }
+    }
+
+    /**
+     * Finds the contexts that must not run concurrently because they generate into the same
+     * target directories, or into nested packages of the same target project, or because they
+     * share a generation manifest. Every set of conflicting contexts is reported, and is run one
+     * context after another in configuration order.
+     *
+     * @return for every context, the index of the conflicting context that must be finished
+     *         before the context starts, or -1
+     */
+    private static int[] findConflictingContexts(List<Context> contexts,
+            ProgressCallback callback) {
+        List<List<String[]>> targets = new ArrayList<List<String[]>>();
+        int[] groups = new int[contexts.size()];
+        for (int i = 0; i < contexts.size(); i++) {
+            targets.add(getTargets(contexts.get(i)));
+            groups[i] = i;
+            for (int j = 0; j < i; j++) {
+                if (groups[j] != groups[i] && isConflict(targets.get(i), targets.get(j))) {
+                    int oldGroup = groups[i];
+                    for (int k = 0; k <= i; k++) {
+                        if (groups[k] == oldGroup) {
+                            groups[k] = groups[j];
+                        }
+                    }
                 }
-            } else {
-                source = gjf.getFormattedContent();
             }
+        }
 
-            callback.checkCancel();
-            callback.startTask(getString(
-                    "Progress.15", targetFile.getName())); //$NON-NLS-1$
-            writeFile(targetFile, source, gjf.getFileEncoding());
-        } catch (ShellException e) {
-            warnings.add(e.getMessage());
+        int[] predecessors = new int[contexts.size()];
+        int[] lastContexts = new int[contexts.size()];
+        Arrays.fill(lastContexts, -1);
+        for (int i = 0; i < contexts.size(); i++) {
+            predecessors[i] = lastContexts[groups[i]];
+            lastContexts[groups[i]] = i;
         }
+
+        for (int group = 0; group < contexts.size(); group++) {
+            StringBuilder contextIds = new StringBuilder();
+            int count = 0;
+            for (int i = 0; i < contexts.size(); i++) {
+                if (groups[i] == group) {
+                    if (count++ > 0) {
+                        contextIds.append(", "); //$NON-NLS-1$
+                    }
+                    contextIds.append(contexts.get(i).getId());
+                }
+            }
+            if (count > 1) {
+                callback.startTask(getString("Progress.28", contextIds.toString())); //$NON-NLS-1$
+            }
+        }
+
+        return predecessors;
     }
 
-    private void writeGeneratedXmlFile(GeneratedXmlFile gxf, ProgressCallback callback)
-            throws InterruptedException, IOException {
-        File targetFile;
-        String source;
-        try {
-            File directory = shellCallback.getDirectory(gxf
-                    .getTargetProject(), gxf.getTargetPackage());
-            targetFile = new File(directory, gxf.getFileName());
-            if (targetFile.exists()) {
-                if (gxf.isMergeable()) {
-                    source = XmlFileMergerJaxp.getMergedSource(gxf,
-                            targetFile);
-                } else if (shellCallback.isOverwriteEnabled()) {
-                    source = gxf.getFormattedContent();
-                    warnings.add(getString("Warning.11", //$NON-NLS-1$
-                            targetFile.getAbsolutePath()));
-                } else {
-                    source = gxf.getFormattedContent();
-                    targetFile = getUniqueFileName(directory, gxf
-                            .getFileName());
-                    warnings.add(getString(
-                            "Warning.2", targetFile.getAbsolutePath())); //$NON-NLS-1$
+    /**
+     * Returns the targets of a context: a target project and package for every generator, and
+     * the generation manifest file (with a null project).
+     */
+    private static List<String[]> getTargets(Context context) {
+        List<String[]> targets = new ArrayList<String[]>();
+        JavaModelGeneratorConfiguration javaModelGeneratorConfiguration = context
+                .getJavaModelGeneratorConfiguration();
+        targets.add(new String[] { javaModelGeneratorConfiguration.getTargetProject(),
+                javaModelGeneratorConfiguration.getTargetPackage() });
+        SqlMapGeneratorConfiguration sqlMapGeneratorConfiguration = context
+                .getSqlMapGeneratorConfiguration();
+        if (sqlMapGeneratorConfiguration != null) {
+            targets.add(new String[] { sqlMapGeneratorConfiguration.getTargetProject(),
+                    sqlMapGeneratorConfiguration.getTargetPackage() });
+        }
+        JavaClientGeneratorConfiguration javaClientGeneratorConfiguration = context
+                .getJavaClientGeneratorConfiguration();
+        if (javaClientGeneratorConfiguration != null) {
+            targets.add(new String[] { javaClientGeneratorConfiguration.getTargetProject(),
+                    javaClientGeneratorConfiguration.getTargetPackage() });
+        }
+        String manifest = context.getProperty(PropertyRegistry.CONTEXT_GENERATION_MANIFEST);
+        if (stringHasValue(manifest)) {
+            targets.add(new String[] { null, new File(manifest).getAbsolutePath() });
+        }
+        return targets;
+    }
+
+    private static boolean isConflict(List<String[]> targets1, List<String[]> targets2) {
+        for (String[] target1 : targets1) {
+            for (String[] target2 : targets2) {
+                if (target1[0] == null || target2[0] == null) {
+                    if (target1[0] == target2[0] && target1[1].equals(target2[1])) {
+                        return true;
+                    }
+                } else if (target1[0].equals(target2[0])
+                        && isSameOrNestedPackage(target1[1], target2[1])) {
+                    return true;
                 }
-            } else {
-                source = gxf.getFormattedContent();
             }
+        }
+        return false;
+    }
 
-            callback.checkCancel();
-            callback.startTask(getString(
-                    "Progress.15", targetFile.getName())); //$NON-NLS-1$
-            writeFile(targetFile, source, "UTF-8"); //$NON-NLS-1$
-        } catch (ShellException e) {
-            warnings.add(e.getMessage());
+    private static boolean isSameOrNestedPackage(String package1, String package2) {
+        if (!stringHasValue(package1) || !stringHasValue(package2)) {
+            // every package is nested in the default package
+            return true;
         }
+        return package1.equals(package2) || package1.startsWith(package2 + '.')
+                || package2.startsWith(package1 + '.');
     }
-    
+
     /**
-     * Writes, or overwrites, the contents of the specified file.
-     *
-     * @param file
-     *            the file
-     * @param content
-     *            the content
-     * @param fileEncoding
-     *            the file encoding
-     * @throws IOException
-     *             Signals that an I/O exception has occurred.
+     * Carries an IOException thrown while writing the files of a context out of the result
+     * listener of the concurrent contexts.
      */
-    private void writeFile(File file, String content, String fileEncoding) throws IOException {
-        FileOutputStream fos = new FileOutputStream(file, false);
-        OutputStreamWriter osw;
-        if (fileEncoding == null) {
-            osw = new OutputStreamWriter(fos);
-        } else {
-            osw = new OutputStreamWriter(fos, fileEncoding);
+    private static class FileWriteException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        FileWriteException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public IOException getCause() {
+            return (IOException) super.getCause();
         }
-        
-        BufferedWriter bw = new BufferedWriter(osw);
-        bw.write(content);
-        bw.close();
     }
 
     /**
-     * Gets the unique file name.
-     *
-     * @param directory
-     *            the directory
-     * @param fileName
-     *            the file name
-     * @return the unique file name
+     * The result of introspecting and generating a single context on a worker thread.
+     */
+    private static class ContextResult {
+        private BufferedProgressCallback introspectionCallback = new BufferedProgressCallback();
+        private BufferedProgressCallback generationCallback = new BufferedProgressCallback();
+        private List<String> introspectionWarnings = new ArrayList<String>();
+        private List<String> manifestWarnings = new ArrayList<String>();
+        private List<String> generationWarnings = new ArrayList<String>();
+        private GenerationManifest manifest;
+        private List<GeneratedJavaFile> generatedJavaFiles = new ArrayList<GeneratedJavaFile>();
+        private List<GeneratedXmlFile> generatedXmlFiles = new ArrayList<GeneratedXmlFile>();
+        private List<List<GeneratedJavaFile>> javaFileBatches = new ArrayList<List<GeneratedJavaFile>>();
+        private List<List<GeneratedXmlFile>> xmlFileBatches = new ArrayList<List<GeneratedXmlFile>>();
+        private int generationSteps;
+        private long introspectionNanos;
+        private long introspectionEnd;
+        private long generationNanos;
+    }
+
+    /**
+     * Introspects and generates a single context, after the conflicting context before it (if
+     * any) has finished. In streaming mode, the files of every table are kept as a batch so that
+     * they can be passed to the streaming callback in the same way as in a serial run.
+     */
+    private class ContextTask implements Callable<ContextResult> {
+        private Context context;
+        private Set<String> fullyQualifiedTableNames;
+        private boolean partialTableSet;
+        private boolean writeFiles;
+        private boolean streaming;
+        private CountDownLatch predecessor;
+        private CountDownLatch finished;
+
+        ContextTask(Context context, Set<String> fullyQualifiedTableNames,
+                boolean partialTableSet, boolean writeFiles, boolean streaming,
+                CountDownLatch predecessor, CountDownLatch finished) {
+            super();
+            this.context = context;
+            this.fullyQualifiedTableNames = fullyQualifiedTableNames;
+            this.partialTableSet = partialTableSet;
+            this.writeFiles = writeFiles;
+            this.streaming = streaming;
+            this.predecessor = predecessor;
+            this.finished = finished;
+        }
+
+        public ContextResult call() throws Exception {
+            try {
+                if (predecessor != null) {
+                    predecessor.await();
+                }
+
+                final ContextResult result = new ContextResult();
+                long startNanos = System.nanoTime();
+                context.introspectTables(result.introspectionCallback,
+                        result.introspectionWarnings, fullyQualifiedTableNames,
+                        introspectionThreads, refreshMetadataCache);
+                result.introspectionEnd = System.nanoTime();
+                result.introspectionNanos = result.introspectionEnd - startNanos;
+                result.generationSteps = context.getGenerationSteps();
+
+                // the manifest only tracks files that are actually written
+                if (writeFiles) {
+                    result.manifest = GenerationManifest.getInstance(context,
+                            partialTableSet, result.manifestWarnings);
+                }
+
+                startNanos = System.nanoTime();
+                if (streaming) {
+                    context.generateFiles(result.generationCallback,
+                            new GeneratedFileCallback() {
+                                public void filesGenerated(
+                                        List<GeneratedJavaFile> javaFiles,
+                                        List<GeneratedXmlFile> xmlFiles) {
+                                    result.javaFileBatches.add(javaFiles);
+                                    result.xmlFileBatches.add(xmlFiles);
+                                }
+                            }, result.generationWarnings, generationThreads,
+                            result.manifest);
+                } else {
+                    context.generateFiles(result.generationCallback,
+                            result.generatedJavaFiles, result.generatedXmlFiles,
+                            result.generationWarnings, generationThreads,
+                            result.manifest);
+                }
+                result.generationNanos = System.nanoTime() - startNanos;
+
+                return result;
+            } finally {
+                finished.countDown();
+            }
+        }
+    }
+
+    /**
+     * Waits for the files passed to the writer to be written, records them in the manifests and
+     * reports them.
+     */
+    private void reportFiles(ProgressCallback callback, GeneratedFileWriter fileWriter,
+            List<GenerationManifest> manifests, List<GeneratedXmlFile> xmlFiles,
+            List<GeneratedJavaFile> javaFiles) throws InterruptedException, IOException {
+        fileWriter.awaitAll(callback);
+
+        // the manifests need the target files, which are released by report
+        for (GenerationManifest manifest : manifests) {
+            manifest.filesWritten(fileWriter);
+        }
+
+        for (GeneratedXmlFile gxf : xmlFiles) {
+            fileWriter.report(gxf, callback, warnings);
+        }
+
+        for (GeneratedJavaFile gjf : javaFiles) {
+            fileWriter.report(gjf, callback, warnings);
+        }
+    }
+
+    /**
+     * Passes the files of each table to the generated file callback, and to the file writer.
+     * Once a batch of files has been passed to the writer, waits for the batch to be written and
+     * reports it, so that no more than a batch of generated files is kept.
      */
-    private File getUniqueFileName(File directory, String fileName) {
-        File answer = null;
+    private class StreamingFileCallback implements GeneratedFileCallback {
+        private ProgressCallback callback;
+        private GeneratedFileWriter fileWriter;
+        private List<GenerationManifest> manifests;
+        private List<GeneratedXmlFile> pendingXmlFiles = new ArrayList<GeneratedXmlFile>();
+        private List<GeneratedJavaFile> pendingJavaFiles = new ArrayList<GeneratedJavaFile>();
 
-        // try up to 1000 times to generate a unique file name
-        StringBuilder sb = new StringBuilder();
-        for (int i = 1; i < 1000; i++) {
-            sb.setLength(0);
-            sb.append(fileName);
-            sb.append('.');
-            sb.append(i);
+        StreamingFileCallback(ProgressCallback callback, GeneratedFileWriter fileWriter,
+                List<GenerationManifest> manifests) {
+            super();
+            this.callback = callback;
+            this.fileWriter = fileWriter;
+            this.manifests = manifests;
+        }
+
+        public void filesGenerated(List<GeneratedJavaFile> javaFiles,
+                List<GeneratedXmlFile> xmlFiles) throws InterruptedException, IOException {
+            if (generatedFileCallback != null) {
+                generatedFileCallback.filesGenerated(javaFiles, xmlFiles);
+            }
+
+            if (fileWriter == null) {
+                return;
+            }
+
+            for (GeneratedXmlFile gxf : xmlFiles) {
+                fileWriter.write(gxf, callback);
+                pendingXmlFiles.add(gxf);
+            }
+
+            for (GeneratedJavaFile gjf : javaFiles) {
+                fileWriter.write(gjf, callback);
+                pendingJavaFiles.add(gjf);
+            }
 
-            File testFile = new File(directory, sb.toString());
-            if (!testFile.exists()) {
-                answer = testFile;
-                break;
+            if (pendingXmlFiles.size() + pendingJavaFiles.size() >= STREAMING_BATCH_SIZE) {
+                flush(false);
             }
         }
 
-        if (answer == null) {
-            throw new RuntimeException(getString(
-                    "RuntimeError.3", directory.getAbsolutePath())); //$NON-NLS-1$
+        void flush(boolean last) throws InterruptedException, IOException {
+            if (last) {
+                callback.saveStarted(pendingXmlFiles.size() + pendingJavaFiles.size());
+            }
+            reportFiles(callback, fileWriter, manifests, pendingXmlFiles, pendingJavaFiles);
+            pendingXmlFiles.clear();
+            pendingJavaFiles.clear();
         }
+    }
 
-        return answer;
+    /**
+     * Sets the generation session used by the generate methods. By default, every call to a
+     * generate method uses a new session with a class loader for the class path entries of the
+     * configuration. Long running processes can use one session for many runs of the same
+     * configuration so that class loaders, root class information and (if the session retains
+     * them) database connections are reused. The session must already contain a class loader for
+     * the class path entries of the configuration.
+     *
+     * @param generationSession
+     *            the session, or null to use a new session for every run
+     */
+    public void setGenerationSession(GenerationSession generationSession) {
+        this.generationSession = generationSession;
+    }
+
+    /**
+     * Sets whether the generate methods record the number of calls, and the cumulative and maximum
+     * time, of every hook method of every plugin class. At the end of each run, a warning with the
+     * total time and the slowest hook of each plugin is added to the warnings, and the time of every
+     * hook is reported to the progress callback. Profiling adds a small overhead to every plugin
+     * call. The default is false.
+     *
+     * @param profilePlugins
+     *            true to profile the plugins
+     */
+    public void setProfilePlugins(boolean profilePlugins) {
+        this.profilePlugins = profilePlugins;
+    }
+
+    /**
+     * Sets a file the plugin profile of each run is written to, as CSV with the columns plugin,
+     * hook, calls, totalNanos and maxNanos. Setting a file also profiles the plugins (see
+     * {@link #setProfilePlugins(boolean)}).
+     *
+     * @param pluginProfileFile
+     *            the file, or null if the profile should not be written to a file
+     */
+    public void setPluginProfileFile(File pluginProfileFile) {
+        this.pluginProfileFile = pluginProfileFile;
+    }
+
+    /**
+     * Sets a file that a report of each run is written to, as a JSON document. The report has
+     * the time of the introspection, generation and save phases, the time and the number of
+     * metadata round trips to the database of every context and table, the time spent
+     * merging and writing the files of every table, the number of files and bytes written,
+     * merged or left unchanged, the peak heap, and the warnings of the run with the context
+     * and phase that added them. The report is written at the end of a successful run.
+     *
+     * @param reportFile
+     *            the file, or null if no report should be written
+     */
+    public void setReportFile(File reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    /**
+     * Sets the number of tables that will be introspected concurrently in each context. Each
+     * concurrent introspection uses its own database connection. The default is 1 (tables
+     * are introspected one at a time on a single connection). Contexts that specify the
+     * "introspectionThreads" property use the value of the property instead.
+     *
+     * @param introspectionThreads
+     *            the number of concurrent introspections per context
+     */
+    public void setIntrospectionThreads(int introspectionThreads) {
+        this.introspectionThreads = introspectionThreads;
+    }
+
+    /**
+     * Sets the number of tables that will be generated concurrently in each context. The
+     * default is 1 (tables are generated one at a time). Contexts that specify the
+     * "generationThreads" property use the value of the property instead. Contexts that
+     * contain a plugin that does not implement {@link ThreadSafePlugin}, or a custom comment
+     * generator or formatter that is not marked as thread safe, are always generated one
+     * table at a time. Generated files are returned in the same order regardless of this
+     * setting.
+     *
+     * @param generationThreads
+     *            the number of concurrent table generations per context
+     */
+    public void setGenerationThreads(int generationThreads) {
+        this.generationThreads = generationThreads;
+    }
+
+    /**
+     * Sets the number of files that will be written concurrently. Files are always written on
+     * background threads, starting as soon as each context has been generated, so that writing
+     * overlaps with the generation of the remaining contexts. The default is 1. Higher values
+     * help most when the target directories are on a slow or network file system. Note that
+     * custom Java and XML formatters are called from the writer threads.
+     *
+     * @param writeThreads
+     *            the number of concurrent file writes
+     */
+    public void setWriteThreads(int writeThreads) {
+        this.writeThreads = writeThreads;
+    }
+
+    /**
+     * Sets the number of contexts that will be run concurrently. Each context is introspected,
+     * generated and passed to the writer on a thread of its own, which helps most when the
+     * contexts connect to different databases. The default is 1 (contexts are run one at a
+     * time). Generated files, warnings and progress messages are returned in the same order
+     * regardless of this setting. Contexts that generate into the same target directories, or
+     * share a generation manifest, are found before the run starts and are always run one after
+     * another. Plugins of different contexts may be called at the same time.
+     *
+     * @param contextThreads
+     *            the number of concurrent contexts
+     */
+    public void setContextThreads(int contextThreads) {
+        this.contextThreads = contextThreads;
+    }
+
+    /**
+     * Sets whether contexts that use a metadata cache (see the "metadataCache" context
+     * property) should ignore the cached metadata and read everything from the database
+     * again. The refreshed metadata is written to the cache. The default is false.
+     *
+     * @param refreshMetadataCache
+     *            true to refresh the metadata cache
+     */
+    public void setRefreshMetadataCache(boolean refreshMetadataCache) {
+        this.refreshMetadataCache = refreshMetadataCache;
+    }
+
+    /**
+     * Sets whether the generate methods stream the generated files. When streaming, the files
+     * of each table are written, and the table and its files are released, as soon as the table
+     * has been generated, so that the memory used does not grow with the number of tables. The
+     * generated files are passed to the generated file callback (if any) instead of being
+     * returned by {@link #getGeneratedJavaFiles()} and {@link #getGeneratedXmlFiles()}. Plugins
+     * that generate files for the context as a whole should only keep the information they need
+     * for those files (see {@link Plugin#contextGenerateAdditionalJavaFiles()}). The default is
+     * false.
+     *
+     * @param streaming
+     *            true to stream the generated files
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Sets a callback that receives the generated files of each table in streaming mode (see
+     * {@link #setStreaming(boolean)}). This is useful if you prefer to process the generated
+     * files yourself, and do not want to keep all of them in memory.
+     *
+     * @param generatedFileCallback
+     *            the callback, or null
+     */
+    public void setGeneratedFileCallback(GeneratedFileCallback generatedFileCallback) {
+        this.generatedFileCallback = generatedFileCallback;
     }
 
     /**
      * Returns the list of generated Java files after a call to one of the generate methods.
      * This is useful if you prefer to process the generated files yourself and do not want
-     * the generator to write them to disk.
+     * the generator to write them to disk. The list is empty in streaming mode.
      *  
      * @return the list of generated Java files
      */
@@ -442,11 +1127,42 @@ public class MyBatisGenerator {
     /**
      * Returns the list of generated XML files after a call to one of the generate methods.
      * This is useful if you prefer to process the generated files yourself and do not want
-     * the generator to write them to disk.
+     * the generator to write them to disk. The list is empty in streaming mode.
      *  
      * @return the list of generated XML files
      */
     public List<GeneratedXmlFile> getGeneratedXmlFiles() {
         return generatedXmlFiles;
     }
+
+    /**
+     * Returns the number of files that were written, without merging, by the last call to one of the generate
+     * methods. This includes new files and files that were overwritten.
+     *
+     * @return the number of files written
+     */
+    public int getWrittenFileCount() {
+        return writtenFileCount;
+    }
+
+    /**
+     * Returns the number of files that were merged with an existing file and written by the last call to one of
+     * the generate methods.
+     *
+     * @return the number of files merged
+     */
+    public int getMergedFileCount() {
+        return mergedFileCount;
+    }
+
+    /**
+     * Returns the number of files that were not written by the last call to one of the generate methods because
+     * the existing file already had exactly the same content. Unchanged files keep their timestamps, so incremental
+     * builds will not recompile them.
+     *
+     * @return the number of unchanged files
+     */
+    public int getUnchangedFileCount() {
+        return unchangedFileCount;
+    }
 }
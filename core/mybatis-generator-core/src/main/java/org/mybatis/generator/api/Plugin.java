@@ -57,6 +57,10 @@ import org.mybatis.generator.config.Context;
  * Plugins are called, and initialized, in the same order they are specified in
  * the configuration.
  * <p>
+ * Plugins that implement {@link ThreadSafePlugin} allow the tables of a context
+ * to be generated concurrently. The per-table methods of those plugins may be
+ * called for different tables at the same time on different threads.
+ * <p>
  * The clientXXX, modelXXX, and sqlMapXXX methods are called by the code
  * generators. If you replace the default code generators with other
  * implementations, these methods may not be called.
@@ -136,6 +140,12 @@ public interface Plugin {
      * your implementation. This method is called once, after all other Java
      * files have been generated.
      * 
+     * <p>In a streaming run (see {@link MyBatisGenerator#setStreaming(boolean)}),
+     * the files of the tables have already been written and released when this
+     * method is called. Plugins that generate files from information about all
+     * tables should gather a small summary of each table in the table methods,
+     * rather than keeping the introspected tables or the generated classes.
+     * 
      * @return a List of GeneratedJavaFiles - these files will be saved
      *         with the other files from this run.
      */
@@ -158,7 +168,8 @@ public interface Plugin {
     /**
      * This method can be used to generate any additional XML file needed by
      * your implementation. This method is called once, after all other XML
-     * files have been generated.
+     * files have been generated. See {@link #contextGenerateAdditionalJavaFiles()}
+     * for the information that is available in a streaming run.
      * 
      * @return a List of GeneratedXmlFiles - these files will be saved
      *         with the other files from this run.
@@ -36,8 +36,8 @@ public interface ShellCallback {
     
     /**
      * This method is called to ask the shell to resolve a project/package combination into a directory on the file
-     * system. This method is called repeatedly (once for each generated file), so it would be wise for an implementing
-     * class to cache results.
+     * system. The generator only calls this method once for each distinct project/package combination in a run, but
+     * implementing classes may still wish to cache results if they are used in other ways.
      * 
      * The returned <code>java.io.File</code> object:
      * <ul>
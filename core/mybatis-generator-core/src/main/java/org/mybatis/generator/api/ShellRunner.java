@@ -19,6 +19,7 @@ import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -32,7 +33,10 @@ import org.mybatis.generator.config.Configuration;
 import org.mybatis.generator.config.xml.ConfigurationParser;
 import org.mybatis.generator.exception.InvalidConfigurationException;
 import org.mybatis.generator.exception.XMLParserException;
+import org.mybatis.generator.internal.ConfigurationWatcher;
 import org.mybatis.generator.internal.DefaultShellCallback;
+import org.mybatis.generator.internal.GenerationSession;
+import org.mybatis.generator.internal.GeneratorDaemon;
 import org.mybatis.generator.logging.LogFactory;
 
 /**
@@ -46,7 +50,23 @@ public class ShellRunner {
     private static final String CONTEXT_IDS = "-contextids"; //$NON-NLS-1$
     private static final String TABLES = "-tables"; //$NON-NLS-1$
     private static final String VERBOSE = "-verbose"; //$NON-NLS-1$
+    private static final String INTROSPECTION_THREADS = "-introspectionThreads"; //$NON-NLS-1$
+    private static final String GENERATION_THREADS = "-generationThreads"; //$NON-NLS-1$
+    private static final String WRITE_THREADS = "-writeThreads"; //$NON-NLS-1$
+    private static final String CONTEXT_THREADS = "-contextThreads"; //$NON-NLS-1$
+    private static final String REFRESH_METADATA_CACHE = "-refreshMetadataCache"; //$NON-NLS-1$
+    private static final String PROFILE_PLUGINS = "-profilePlugins"; //$NON-NLS-1$
+    private static final String PLUGIN_PROFILE_FILE = "-pluginProfileFile"; //$NON-NLS-1$
+    private static final String STREAMING = "-streaming"; //$NON-NLS-1$
+    private static final String REPORT = "-report"; //$NON-NLS-1$
+    private static final String CONFIG_CACHE = "-configCache"; //$NON-NLS-1$
     private static final String FORCE_JAVA_LOGGING = "-forceJavaLogging"; //$NON-NLS-1$
+    private static final String DAEMON = "-daemon"; //$NON-NLS-1$
+    private static final String DAEMON_PORT = "-daemonPort"; //$NON-NLS-1$
+    private static final String WATCH = "-watch"; //$NON-NLS-1$
+    private static final String WATCH_DIRECTORIES = "-watchDirectories"; //$NON-NLS-1$
+    /** Sent to the daemon with a run, never read from the command line. */
+    private static final String WORKING_DIRECTORY = "-workingDirectory"; //$NON-NLS-1$
     private static final String HELP_1 = "-?"; //$NON-NLS-1$
     private static final String HELP_2 = "-h"; //$NON-NLS-1$
 
@@ -65,13 +85,16 @@ public class ShellRunner {
             return; // only to satisfy compiler, never returns
         }
 
+        if (arguments.containsKey(DAEMON)) {
+            runDaemon(arguments);
+            return;
+        }
+
         if (!arguments.containsKey(CONFIG_FILE)) {
             writeLine(getString("RuntimeError.0")); //$NON-NLS-1$
             return;
         }
 
-        List<String> warnings = new ArrayList<String>();
-
         String configfile = arguments.get(CONFIG_FILE);
         File configurationFile = new File(configfile);
         if (!configurationFile.exists()) {
@@ -79,6 +102,107 @@ public class ShellRunner {
             return;
         }
 
+        if (arguments.containsKey(WATCH)) {
+            runWatch(arguments);
+            return;
+        }
+
+        if (arguments.containsKey(DAEMON_PORT)) {
+            // the daemon may be running in a different directory. Paths in
+            // the configuration are resolved against the working directory
+            arguments.put(CONFIG_FILE, configurationFile.getAbsolutePath());
+            for (String argument : new String[] { PLUGIN_PROFILE_FILE,
+                    REPORT, CONFIG_CACHE }) {
+                if (arguments.containsKey(argument)) {
+                    arguments.put(argument, new File(arguments.get(argument))
+                            .getAbsolutePath());
+                }
+            }
+            arguments.put(WORKING_DIRECTORY, System.getProperty("user.dir")); //$NON-NLS-1$
+            String port = arguments.remove(DAEMON_PORT);
+            try {
+                if (GeneratorDaemon.forward(Integer.parseInt(port), arguments,
+                        System.out)) {
+                    return;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+
+            writeLine(getString("Progress.24", port)); //$NON-NLS-1$
+        }
+
+        run(arguments, null, System.out);
+    }
+
+    /**
+     * Runs the generator with the parsed command line arguments.
+     *
+     * @param arguments
+     *            the arguments
+     * @param daemon
+     *            the daemon that supplies the configuration, or null to parse
+     *            the configuration file
+     * @param out
+     *            the stream that receives the output
+     */
+    private static void run(Map<String, String> arguments,
+            GeneratorDaemon daemon, PrintStream out) {
+        List<String> warnings = new ArrayList<String>();
+
+        File configurationFile = new File(arguments.get(CONFIG_FILE));
+
+        try {
+            if (daemon == null) {
+                ConfigurationParser cp = new ConfigurationParser(warnings);
+                if (arguments.containsKey(CONFIG_CACHE)) {
+                    cp.setCacheDirectory(new File(arguments.get(CONFIG_CACHE)));
+                }
+                Configuration config = cp.parseConfiguration(configurationFile);
+                generate(arguments, config, null, null, warnings, out);
+            } else {
+                File workingDirectory = arguments.containsKey(WORKING_DIRECTORY) ? new File(
+                        arguments.get(WORKING_DIRECTORY)) : null;
+                GeneratorDaemon.CachedConfiguration cachedConfiguration = daemon
+                        .getConfiguration(configurationFile, workingDirectory);
+                warnings.addAll(cachedConfiguration.getWarnings());
+                // the contexts of a configuration hold the state of a run, so
+                // runs of the same configuration can't overlap
+                synchronized (cachedConfiguration) {
+                    generate(arguments, cachedConfiguration.getConfiguration(),
+                            cachedConfiguration.getGenerationSession(), null,
+                            warnings, out);
+                }
+            }
+        } catch (XMLParserException e) {
+            writeParserErrors(e, out);
+        } catch (IOException e) {
+            e.printStackTrace(out);
+        }
+    }
+
+    /**
+     * Generates code for a parsed configuration and writes the results.
+     *
+     * @param arguments
+     *            the command line arguments
+     * @param config
+     *            the configuration
+     * @param generationSession
+     *            the session to use, or null to use a new session
+     * @param changedContextIds
+     *            the contexts to generate, or null to generate the contexts
+     *            specified in the arguments
+     * @param warnings
+     *            the warnings, which may already contain parse warnings
+     * @param out
+     *            the stream that receives the output
+     */
+    private static void generate(Map<String, String> arguments,
+            Configuration config, GenerationSession generationSession,
+            Set<String> changedContextIds, List<String> warnings,
+            PrintStream out) {
         Set<String> fullyqualifiedTables = new HashSet<String>();
         if (arguments.containsKey(TABLES)) {
             StringTokenizer st = new StringTokenizer(arguments.get(TABLES), ","); //$NON-NLS-1$
@@ -102,38 +226,68 @@ public class ShellRunner {
             }
         }
 
-        try {
-            ConfigurationParser cp = new ConfigurationParser(warnings);
-            Configuration config = cp.parseConfiguration(configurationFile);
+        if (changedContextIds != null) {
+            if (contexts.isEmpty()) {
+                contexts.addAll(changedContextIds);
+            } else {
+                contexts.retainAll(changedContextIds);
+            }
+
+            if (contexts.isEmpty()) {
+                return;
+            }
+        }
 
+        try {
             DefaultShellCallback shellCallback = new DefaultShellCallback(
                     arguments.containsKey(OVERWRITE));
 
             MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, shellCallback, warnings);
+            if (arguments.containsKey(INTROSPECTION_THREADS)) {
+                myBatisGenerator.setIntrospectionThreads(
+                        Integer.parseInt(arguments.get(INTROSPECTION_THREADS)));
+            }
+            if (arguments.containsKey(GENERATION_THREADS)) {
+                myBatisGenerator.setGenerationThreads(
+                        Integer.parseInt(arguments.get(GENERATION_THREADS)));
+            }
+            if (arguments.containsKey(WRITE_THREADS)) {
+                myBatisGenerator.setWriteThreads(
+                        Integer.parseInt(arguments.get(WRITE_THREADS)));
+            }
+            if (arguments.containsKey(CONTEXT_THREADS)) {
+                myBatisGenerator.setContextThreads(
+                        Integer.parseInt(arguments.get(CONTEXT_THREADS)));
+            }
+            myBatisGenerator.setRefreshMetadataCache(
+                    arguments.containsKey(REFRESH_METADATA_CACHE));
+            myBatisGenerator.setProfilePlugins(
+                    arguments.containsKey(PROFILE_PLUGINS));
+            if (arguments.containsKey(PLUGIN_PROFILE_FILE)) {
+                myBatisGenerator.setPluginProfileFile(
+                        new File(arguments.get(PLUGIN_PROFILE_FILE)));
+            }
+            myBatisGenerator.setStreaming(arguments.containsKey(STREAMING));
+            if (arguments.containsKey(REPORT)) {
+                myBatisGenerator.setReportFile(new File(arguments.get(REPORT)));
+            }
+            myBatisGenerator.setGenerationSession(generationSession);
 
-            ProgressCallback progressCallback = arguments.containsKey(VERBOSE) ? new VerboseProgressCallback()
+            ProgressCallback progressCallback = arguments.containsKey(VERBOSE) ? new VerboseProgressCallback(out)
                     : null;
 
             myBatisGenerator.generate(progressCallback, contexts, fullyqualifiedTables);
 
-        } catch (XMLParserException e) {
-            writeLine(getString("Progress.3")); //$NON-NLS-1$
-            writeLine();
-            for (String error : e.getErrors()) {
-                writeLine(error);
-            }
-
-            return;
         } catch (SQLException e) {
-            e.printStackTrace();
+            e.printStackTrace(out);
             return;
         } catch (IOException e) {
-            e.printStackTrace();
+            e.printStackTrace(out);
             return;
         } catch (InvalidConfigurationException e) {
-            writeLine(getString("Progress.16")); //$NON-NLS-1$
+            out.println(getString("Progress.16")); //$NON-NLS-1$
             for (String error : e.getErrors()) {
-                writeLine(error);
+                out.println(error);
             }
             return;
         } catch (InterruptedException e) {
@@ -141,14 +295,93 @@ public class ShellRunner {
         }
 
         for (String warning : warnings) {
-            writeLine(warning);
+            out.println(warning);
         }
 
         if (warnings.size() == 0) {
-            writeLine(getString("Progress.4")); //$NON-NLS-1$
+            out.println(getString("Progress.4")); //$NON-NLS-1$
         } else {
-            writeLine();
-            writeLine(getString("Progress.5")); //$NON-NLS-1$
+            out.println();
+            out.println(getString("Progress.5")); //$NON-NLS-1$
+        }
+    }
+
+    private static void writeParserErrors(XMLParserException e, PrintStream out) {
+        out.println(getString("Progress.3")); //$NON-NLS-1$
+        out.println();
+        for (String error : e.getErrors()) {
+            out.println(error);
+        }
+    }
+
+    private static void runWatch(final Map<String, String> arguments) {
+        List<File> directories = new ArrayList<File>();
+        if (arguments.containsKey(WATCH_DIRECTORIES)) {
+            StringTokenizer st = new StringTokenizer(
+                    arguments.get(WATCH_DIRECTORIES), ","); //$NON-NLS-1$
+            while (st.hasMoreTokens()) {
+                String s = st.nextToken().trim();
+                if (s.length() > 0) {
+                    directories.add(new File(s));
+                }
+            }
+        }
+
+        ConfigurationWatcher watcher = new ConfigurationWatcher(new File(
+                arguments.get(CONFIG_FILE)), null, directories);
+        try {
+            watcher.watch(new ConfigurationWatcher.Listener() {
+                public void generate(Configuration configuration,
+                        GenerationSession generationSession,
+                        Set<String> contextIds, List<String> warnings) {
+                    if (contextIds != null) {
+                        writeLine(getString("Progress.26", contextIds.toString())); //$NON-NLS-1$
+                    }
+                    ShellRunner.generate(arguments, configuration,
+                            generationSession, contextIds, warnings,
+                            System.out);
+                    writeLine(getString("Progress.25")); //$NON-NLS-1$
+                }
+
+                public void parseFailed(Exception e) {
+                    if (e instanceof XMLParserException) {
+                        writeParserErrors((XMLParserException) e, System.out);
+                    } else {
+                        e.printStackTrace(System.out);
+                    }
+                    writeLine(getString("Progress.25")); //$NON-NLS-1$
+                }
+            });
+        } catch (InterruptedException e) {
+            // stopped
+        }
+    }
+
+    private static void runDaemon(Map<String, String> arguments) {
+        int port = arguments.containsKey(DAEMON_PORT) ? Integer
+                .parseInt(arguments.get(DAEMON_PORT))
+                : GeneratorDaemon.DEFAULT_PORT;
+
+        GeneratorDaemon daemon = new GeneratorDaemon(port,
+                new GeneratorDaemon.RequestHandler() {
+                    public void handleRequest(Map<String, String> requestArguments,
+                            GeneratorDaemon daemon, PrintStream out) {
+                        if (requestArguments.containsKey(CONFIG_FILE)) {
+                            run(requestArguments, daemon, out);
+                        } else {
+                            out.println(getString("RuntimeError.0")); //$NON-NLS-1$
+                        }
+                    }
+                });
+
+        try {
+            daemon.open();
+            writeLine(getString("Progress.23", //$NON-NLS-1$
+                    Integer.toString(daemon.getPort())));
+            daemon.run();
+        } catch (IOException e) {
+            writeLine(getString("RuntimeError.28", //$NON-NLS-1$
+                    Integer.toString(port), e.getMessage()));
         }
     }
 
@@ -186,12 +419,54 @@ public class ShellRunner {
                 arguments.put(OVERWRITE, "Y"); //$NON-NLS-1$
             } else if (VERBOSE.equalsIgnoreCase(args[i])) {
                 arguments.put(VERBOSE, "Y"); //$NON-NLS-1$
+            } else if (REFRESH_METADATA_CACHE.equalsIgnoreCase(args[i])) {
+                arguments.put(REFRESH_METADATA_CACHE, "Y"); //$NON-NLS-1$
+            } else if (PROFILE_PLUGINS.equalsIgnoreCase(args[i])) {
+                arguments.put(PROFILE_PLUGINS, "Y"); //$NON-NLS-1$
+            } else if (STREAMING.equalsIgnoreCase(args[i])) {
+                arguments.put(STREAMING, "Y"); //$NON-NLS-1$
+            } else if (PLUGIN_PROFILE_FILE.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(PLUGIN_PROFILE_FILE, args[i + 1]);
+                } else {
+                    errors.add(getString(
+                            "RuntimeError.19", PLUGIN_PROFILE_FILE)); //$NON-NLS-1$
+                }
+                i++;
+            } else if (REPORT.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(REPORT, args[i + 1]);
+                } else {
+                    errors.add(getString(
+                            "RuntimeError.19", REPORT)); //$NON-NLS-1$
+                }
+                i++;
+            } else if (CONFIG_CACHE.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(CONFIG_CACHE, args[i + 1]);
+                } else {
+                    errors.add(getString(
+                            "RuntimeError.19", CONFIG_CACHE)); //$NON-NLS-1$
+                }
+                i++;
             } else if (HELP_1.equalsIgnoreCase(args[i])) {
                 arguments.put(HELP_1, "Y"); //$NON-NLS-1$
             } else if (HELP_2.equalsIgnoreCase(args[i])) {
                 // put HELP_1 in the map here too - so we only
                 // have to check for one entry in the mainline
                 arguments.put(HELP_1, "Y"); //$NON-NLS-1$
+            } else if (DAEMON.equalsIgnoreCase(args[i])) {
+                arguments.put(DAEMON, "Y"); //$NON-NLS-1$
+            } else if (WATCH.equalsIgnoreCase(args[i])) {
+                arguments.put(WATCH, "Y"); //$NON-NLS-1$
+            } else if (WATCH_DIRECTORIES.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(WATCH_DIRECTORIES, args[i + 1]);
+                } else {
+                    errors.add(getString(
+                            "RuntimeError.19", WATCH_DIRECTORIES)); //$NON-NLS-1$
+                }
+                i++;
             } else if (FORCE_JAVA_LOGGING.equalsIgnoreCase(args[i])) {
                 LogFactory.forceJavaLogging();
             } else if (CONTEXT_IDS.equalsIgnoreCase(args[i])) {
@@ -209,6 +484,20 @@ public class ShellRunner {
                     errors.add(getString("RuntimeError.19", TABLES)); //$NON-NLS-1$
                 }
                 i++;
+            } else if (getPositiveIntegerArgument(args[i]) != null) {
+                String key = getPositiveIntegerArgument(args[i]);
+                if ((i + 1) < args.length) {
+                    if (isPositiveInteger(args[i + 1])) {
+                        arguments.put(key, args[i + 1]);
+                    } else {
+                        errors.add(getString(
+                                "RuntimeError.23", key, args[i + 1])); //$NON-NLS-1$
+                    }
+                } else {
+                    errors.add(getString(
+                            "RuntimeError.19", key)); //$NON-NLS-1$
+                }
+                i++;
             } else {
                 errors.add(getString("RuntimeError.20", args[i])); //$NON-NLS-1$
             }
@@ -224,4 +513,23 @@ public class ShellRunner {
 
         return arguments;
     }
+
+    private static String getPositiveIntegerArgument(String arg) {
+        for (String key : new String[] { INTROSPECTION_THREADS,
+                GENERATION_THREADS, WRITE_THREADS, CONTEXT_THREADS, DAEMON_PORT }) {
+            if (key.equalsIgnoreCase(arg)) {
+                return key;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isPositiveInteger(String s) {
+        try {
+            return Integer.parseInt(s) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,29 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api;
+
+/**
+ * This is a marker interface for comment generators that can be called
+ * from several threads at the same time.
+ * 
+ * <p>A context holds a single comment generator, which is shared by all
+ * threads when the tables of the context are generated concurrently (see the
+ * "generationThreads" property). If a context is configured with a comment
+ * generator that does not implement this interface, and is not the default
+ * implementation, the tables in that context are generated one at a time.
+ */
+public interface ThreadSafeCommentGenerator extends CommentGenerator {
+}
@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api;
+
+/**
+ * This is a marker interface for plugins that can be called from several
+ * threads at the same time.
+ * 
+ * <p>When a context is configured to generate more than one table at a time
+ * (see the "generationThreads" property), the per-table methods of every
+ * plugin in the context may be called concurrently for different tables. In
+ * that case the plugin instance is shared by all threads, so any state the
+ * plugin keeps across calls must be safe for concurrent access. Each
+ * individual table is still processed on a single thread, and the one-time
+ * methods (setXXX, validate, contextGenerateAdditionalJavaFiles() and
+ * contextGenerateAdditionalXmlFiles()) are always called from the thread that
+ * started the generator.
+ * 
+ * <p>If any plugin in a context does not implement this interface, the tables
+ * in that context are generated one at a time, in configuration order, as in
+ * earlier versions of the generator.
+ */
+public interface ThreadSafePlugin extends Plugin {
+}
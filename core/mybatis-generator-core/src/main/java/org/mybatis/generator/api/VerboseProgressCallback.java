@@ -15,6 +15,8 @@
  */
 package org.mybatis.generator.api;
 
+import java.io.PrintStream;
+
 import org.mybatis.generator.internal.NullProgressCallback;
 
 /**
@@ -23,15 +25,29 @@ import org.mybatis.generator.internal.NullProgressCallback;
  */
 public class VerboseProgressCallback extends NullProgressCallback {
 
+    /** The stream that receives the progress messages. */
+    private PrintStream out;
+
     /**
      * 
      */
     public VerboseProgressCallback() {
+        this(System.out);
+    }
+
+    /**
+     * Constructs a callback that writes progress messages to a stream.
+     *
+     * @param out
+     *            the stream
+     */
+    public VerboseProgressCallback(PrintStream out) {
         super();
+        this.out = out;
     }
 
     @Override
     public void startTask(String taskName) {
-        System.out.println(taskName);
+        out.println(taskName);
     }
 }
@@ -15,6 +15,8 @@
  */
 package org.mybatis.generator.api.dom;
 
+import java.io.IOException;
+
 import org.mybatis.generator.api.JavaFormatter;
 import org.mybatis.generator.api.dom.java.CompilationUnit;
 import org.mybatis.generator.config.Context;
@@ -33,6 +35,22 @@ public class DefaultJavaFormatter implements JavaFormatter {
         return compilationUnit.getFormattedContent();
     }
 
+    /**
+     * Writes the formatted content of a compilation unit to the output in a
+     * single pass, without building the content as a string first.
+     *
+     * @param compilationUnit
+     *            the compilation unit
+     * @param out
+     *            the output
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    public void render(CompilationUnit compilationUnit, Appendable out)
+            throws IOException {
+        compilationUnit.render(out);
+    }
+
     public void setContext(Context context) {
         this.context = context;
     }
@@ -15,6 +15,8 @@
  */
 package org.mybatis.generator.api.dom;
 
+import java.io.IOException;
+
 import org.mybatis.generator.api.XmlFormatter;
 import org.mybatis.generator.api.dom.xml.Document;
 import org.mybatis.generator.config.Context;
@@ -33,6 +35,21 @@ public class DefaultXmlFormatter implements XmlFormatter {
         return document.getFormattedContent();
     }
 
+    /**
+     * Writes the formatted content of a document to the output in a single
+     * pass, without building the content as a string first.
+     *
+     * @param document
+     *            the document
+     * @param out
+     *            the output
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    public void render(Document document, Appendable out) throws IOException {
+        document.render(out);
+    }
+
     public void setContext(Context context) {
         this.context = context;
     }
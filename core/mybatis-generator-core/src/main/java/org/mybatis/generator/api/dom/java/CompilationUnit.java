@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 
@@ -33,6 +34,18 @@ public interface CompilationUnit {
      */
     String getFormattedContent();
 
+    /**
+     * Writes the formatted content of this compilation unit to the output in
+     * a single pass. The output is the same as the value returned by
+     * <code>getFormattedContent</code>.
+     *
+     * @param out
+     *            the output to write to, for example a <code>Writer</code>
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    void render(Appendable out) throws IOException;
+
     /**
      * Gets the imported types.
      *
@@ -15,6 +15,8 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import java.io.IOException;
+
 import org.mybatis.generator.api.dom.OutputUtilities;
 
 /**
@@ -95,42 +97,84 @@ public class Field extends JavaElement {
 
     public String getFormattedContent(int indentLevel, CompilationUnit compilationUnit) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, indentLevel, new TypeNameResolver(compilationUnit));
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
 
-        addFormattedJavadoc(sb, indentLevel);
-        addFormattedAnnotations(sb, indentLevel);
+    /**
+     * Writes the formatted content to the output. Only instances of this
+     * class itself are written directly. Subclasses may override
+     * <code>getFormattedContent</code>, so they are written through it.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    void render(Appendable out, int indentLevel, TypeNameResolver typeNames) throws IOException {
+        if (getClass() == Field.class) {
+            renderContent(out, indentLevel, typeNames);
+        } else {
+            out.append(getFormattedContent(indentLevel, typeNames.getCompilationUnit()));
+        }
+    }
+
+    /**
+     * Writes the formatted content of this class to the output, without
+     * calling <code>getFormattedContent</code>.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void renderContent(Appendable out, int indentLevel, TypeNameResolver typeNames) throws IOException {
+        addFormattedJavadoc(out, indentLevel);
+        addFormattedAnnotations(out, indentLevel);
 
-        OutputUtilities.javaIndent(sb, indentLevel);
-        sb.append(getVisibility().getValue());
+        OutputUtilities.javaIndent(out, indentLevel);
+        out.append(getVisibility().getValue());
 
         if (isStatic()) {
-            sb.append("static "); //$NON-NLS-1$
+            out.append("static "); //$NON-NLS-1$
         }
 
         if (isFinal()) {
-            sb.append("final "); //$NON-NLS-1$
+            out.append("final "); //$NON-NLS-1$
         }
 
         if (isTransient()) {
-            sb.append("transient "); //$NON-NLS-1$
+            out.append("transient "); //$NON-NLS-1$
         }
         
         if (isVolatile()) {
-            sb.append("volatile "); //$NON-NLS-1$
+            out.append("volatile "); //$NON-NLS-1$
         }
         
-        sb.append(JavaDomUtils.calculateTypeName(compilationUnit, type));
+        out.append(typeNames.getTypeName(type));
 
-        sb.append(' ');
-        sb.append(name);
+        out.append(' ');
+        out.append(name);
 
         if (initializationString != null && initializationString.length() > 0) {
-            sb.append(" = "); //$NON-NLS-1$
-            sb.append(initializationString);
+            out.append(" = "); //$NON-NLS-1$
+            out.append(initializationString);
         }
 
-        sb.append(';');
-
-        return sb.toString();
+        out.append(';');
     }
 
     public boolean isTransient() {
@@ -19,11 +19,18 @@ import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
 import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * The Class FullyQualifiedJavaType.
+ * <p>
+ * Types returned by {@link #of(String)} are parsed once and shared, so they
+ * cannot be changed. Use the constructor, or one of the getNew...Instance
+ * methods, for types that will have type arguments added.
  *
  * @author Jeff Butler
  */
@@ -33,26 +40,12 @@ public class FullyQualifiedJavaType implements
     /** The Constant JAVA_LANG. */
     private static final String JAVA_LANG = "java.lang"; //$NON-NLS-1$
     
-    /** The int instance. */
-    private static FullyQualifiedJavaType intInstance = null;
-    
-    /** The string instance. */
-    private static FullyQualifiedJavaType stringInstance = null;
-    
-    /** The boolean primitive instance. */
-    private static FullyQualifiedJavaType booleanPrimitiveInstance = null;
-    
-    /** The object instance. */
-    private static FullyQualifiedJavaType objectInstance = null;
-    
-    /** The date instance. */
-    private static FullyQualifiedJavaType dateInstance = null;
-    
-    /** The criteria instance. */
-    private static FullyQualifiedJavaType criteriaInstance = null;
-    
-    /** The generated criteria instance. */
-    private static FullyQualifiedJavaType generatedCriteriaInstance = null;
+    /** The most types that are interned by {@link #of(String)}. */
+    private static final int MAX_INTERNED_TYPES = 10000;
+
+    /** The interned types, by type specification. */
+    private static final ConcurrentMap<String, FullyQualifiedJavaType> INTERNED_TYPES =
+            new ConcurrentHashMap<String, FullyQualifiedJavaType>();
 
     /** The short name without any generic arguments. */
     private String baseShortName;
@@ -88,6 +81,19 @@ public class FullyQualifiedJavaType implements
     /** The extends bounded wildcard. */
     private boolean extendsBoundedWildcard;
 
+    /** True if this type is shared by {@link #of(String)} and cannot be changed. */
+    private boolean interned;
+
+    // the following three values are only calculated once for interned types
+    /** The fully qualified name. */
+    private String fullyQualifiedName;
+
+    /** The short name. */
+    private String shortName;
+
+    /** The import list. */
+    private List<String> importList;
+
     /**
      * Use this constructor to construct a generic type with the specified type parameters.
      *
@@ -95,9 +101,49 @@ public class FullyQualifiedJavaType implements
      *            the full type specification
      */
     public FullyQualifiedJavaType(String fullTypeSpecification) {
+        this(fullTypeSpecification, false);
+    }
+
+    private FullyQualifiedJavaType(String fullTypeSpecification, boolean interned) {
         super();
+        this.interned = interned;
         typeArguments = new ArrayList<FullyQualifiedJavaType>();
         parse(fullTypeSpecification);
+        if (interned) {
+            typeArguments = Collections.unmodifiableList(typeArguments);
+            fullyQualifiedName = calculateFullyQualifiedName();
+            shortName = calculateShortName();
+            importList = Collections.unmodifiableList(calculateImportList());
+        }
+    }
+
+    /**
+     * Returns the shared type for the specified type specification. The type is
+     * only parsed the first time it is requested, and its names and import list
+     * are calculated once. The returned type, and its type arguments, cannot be
+     * changed - {@link #addTypeArgument(FullyQualifiedJavaType)} throws an
+     * exception. This method is thread safe.
+     *
+     * @param fullTypeSpecification
+     *            the full type specification
+     * @return the type
+     */
+    public static FullyQualifiedJavaType of(String fullTypeSpecification) {
+        FullyQualifiedJavaType answer = INTERNED_TYPES.get(fullTypeSpecification);
+        if (answer == null) {
+            answer = new FullyQualifiedJavaType(fullTypeSpecification, true);
+            // the number of different types is normally small, but don't
+            // let an unusual caller fill the heap
+            if (INTERNED_TYPES.size() < MAX_INTERNED_TYPES) {
+                FullyQualifiedJavaType existing = INTERNED_TYPES.putIfAbsent(
+                        fullTypeSpecification, answer);
+                if (existing != null) {
+                    answer = existing;
+                }
+            }
+        }
+
+        return answer;
     }
 
     /**
@@ -115,6 +161,14 @@ public class FullyQualifiedJavaType implements
      * @return Returns the fullyQualifiedName.
      */
     public String getFullyQualifiedName() {
+        if (fullyQualifiedName != null) {
+            return fullyQualifiedName;
+        }
+
+        return calculateFullyQualifiedName();
+    }
+
+    private String calculateFullyQualifiedName() {
         StringBuilder sb = new StringBuilder();
         if (wildcardType) {
             sb.append('?');
@@ -160,6 +214,14 @@ public class FullyQualifiedJavaType implements
      * @return the import list
      */
     public List<String> getImportList() {
+        if (importList != null) {
+            return importList;
+        }
+
+        return calculateImportList();
+    }
+
+    private List<String> calculateImportList() {
         List<String> answer = new ArrayList<String>();
         if (isExplicitlyImported()) {
             int index = baseShortName.indexOf('.');
@@ -198,6 +260,14 @@ public class FullyQualifiedJavaType implements
      * @return Returns the shortName - including any type arguments.
      */
     public String getShortName() {
+        if (shortName != null) {
+            return shortName;
+        }
+
+        return calculateShortName();
+    }
+
+    private String calculateShortName() {
         StringBuilder sb = new StringBuilder();
         if (wildcardType) {
             sb.append('?');
@@ -300,11 +370,7 @@ public class FullyQualifiedJavaType implements
      * @return the int instance
      */
     public static final FullyQualifiedJavaType getIntInstance() {
-        if (intInstance == null) {
-            intInstance = new FullyQualifiedJavaType("int"); //$NON-NLS-1$
-        }
-
-        return intInstance;
+        return of("int"); //$NON-NLS-1$
     }
 
     /**
@@ -363,11 +429,7 @@ public class FullyQualifiedJavaType implements
      * @return the string instance
      */
     public static final FullyQualifiedJavaType getStringInstance() {
-        if (stringInstance == null) {
-            stringInstance = new FullyQualifiedJavaType("java.lang.String"); //$NON-NLS-1$
-        }
-
-        return stringInstance;
+        return of("java.lang.String"); //$NON-NLS-1$
     }
 
     /**
@@ -376,11 +438,7 @@ public class FullyQualifiedJavaType implements
      * @return the boolean primitive instance
      */
     public static final FullyQualifiedJavaType getBooleanPrimitiveInstance() {
-        if (booleanPrimitiveInstance == null) {
-            booleanPrimitiveInstance = new FullyQualifiedJavaType("boolean"); //$NON-NLS-1$
-        }
-
-        return booleanPrimitiveInstance;
+        return of("boolean"); //$NON-NLS-1$
     }
 
     /**
@@ -389,11 +447,7 @@ public class FullyQualifiedJavaType implements
      * @return the object instance
      */
     public static final FullyQualifiedJavaType getObjectInstance() {
-        if (objectInstance == null) {
-            objectInstance = new FullyQualifiedJavaType("java.lang.Object"); //$NON-NLS-1$
-        }
-
-        return objectInstance;
+        return of("java.lang.Object"); //$NON-NLS-1$
     }
 
     /**
@@ -402,11 +456,7 @@ public class FullyQualifiedJavaType implements
      * @return the date instance
      */
     public static final FullyQualifiedJavaType getDateInstance() {
-        if (dateInstance == null) {
-            dateInstance = new FullyQualifiedJavaType("java.util.Date"); //$NON-NLS-1$
-        }
-
-        return dateInstance;
+        return of("java.util.Date"); //$NON-NLS-1$
     }
 
     /**
@@ -415,11 +465,7 @@ public class FullyQualifiedJavaType implements
      * @return the criteria instance
      */
     public static final FullyQualifiedJavaType getCriteriaInstance() {
-        if (criteriaInstance == null) {
-            criteriaInstance = new FullyQualifiedJavaType("Criteria"); //$NON-NLS-1$
-        }
-
-        return criteriaInstance;
+        return of("Criteria"); //$NON-NLS-1$
     }
 
     /**
@@ -428,12 +474,7 @@ public class FullyQualifiedJavaType implements
      * @return the generated criteria instance
      */
     public static final FullyQualifiedJavaType getGeneratedCriteriaInstance() {
-        if (generatedCriteriaInstance == null) {
-            generatedCriteriaInstance = new FullyQualifiedJavaType(
-                    "GeneratedCriteria"); //$NON-NLS-1$
-        }
-
-        return generatedCriteriaInstance;
+        return of("GeneratedCriteria"); //$NON-NLS-1$
     }
 
     /*
@@ -450,8 +491,14 @@ public class FullyQualifiedJavaType implements
      *
      * @param type
      *            the type
+     * @throws UnsupportedOperationException
+     *             if this type was returned by {@link #of(String)}
      */
     public void addTypeArgument(FullyQualifiedJavaType type) {
+        if (interned) {
+            throw new UnsupportedOperationException(getString(
+                    "RuntimeError.29", getFullyQualifiedName())); //$NON-NLS-1$
+        }
         typeArguments.add(type);
     }
 
@@ -590,8 +637,7 @@ public class FullyQualifiedJavaType implements
                 openCount--;
             } else if (",".equals(token)) { //$NON-NLS-1$
                 if (openCount == 0) {
-                    typeArguments
-                            .add(new FullyQualifiedJavaType(sb.toString()));
+                    typeArguments.add(newTypeArgument(sb.toString()));
                     sb.setLength(0);
                 } else {
                     sb.append(token);
@@ -608,10 +654,16 @@ public class FullyQualifiedJavaType implements
 
         String finalType = sb.toString();
         if (stringHasValue(finalType)) {
-            typeArguments.add(new FullyQualifiedJavaType(finalType));
+            typeArguments.add(newTypeArgument(finalType));
         }
     }
 
+    private FullyQualifiedJavaType newTypeArgument(String typeSpecification) {
+        // the type arguments of an interned type must not change either
+        return interned ? of(typeSpecification.trim())
+                : new FullyQualifiedJavaType(typeSpecification);
+    }
+
     /**
      * Returns the package name of a fully qualified type.
      * 
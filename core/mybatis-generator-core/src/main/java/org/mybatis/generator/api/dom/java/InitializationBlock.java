@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -76,20 +77,60 @@ public class InitializationBlock {
     
     public String getFormattedContent(int indentLevel) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, indentLevel);
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the formatted content to the output. Only instances of this
+     * class itself are written directly. Subclasses may override
+     * <code>getFormattedContent</code>, so they are written through it.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    public void render(Appendable out, int indentLevel) throws IOException {
+        if (getClass() == InitializationBlock.class) {
+            renderContent(out, indentLevel);
+        } else {
+            out.append(getFormattedContent(indentLevel));
+        }
+    }
 
+    /**
+     * Writes the formatted content of this class to the output, without
+     * calling <code>getFormattedContent</code>.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void renderContent(Appendable out, int indentLevel) throws IOException {
         for (String javaDocLine : javaDocLines) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(javaDocLine);
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append(javaDocLine);
+            OutputUtilities.newLine(out);
         }
 
-        OutputUtilities.javaIndent(sb, indentLevel);
+        OutputUtilities.javaIndent(out, indentLevel);
 
         if (isStatic) {
-            sb.append("static "); //$NON-NLS-1$
+            out.append("static "); //$NON-NLS-1$
         }
 
-        sb.append('{');
+        out.append('{');
         indentLevel++;
 
         ListIterator<String> listIter = bodyLines.listIterator();
@@ -99,9 +140,9 @@ public class InitializationBlock {
                 indentLevel--;
             }
 
-            OutputUtilities.newLine(sb);
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(line);
+            OutputUtilities.newLine(out);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append(line);
 
             if ((line.endsWith("{") && !line.startsWith("switch")) //$NON-NLS-1$ //$NON-NLS-2$
                     || line.endsWith(":")) { //$NON-NLS-1$
@@ -124,10 +165,8 @@ public class InitializationBlock {
         }
 
         indentLevel--;
-        OutputUtilities.newLine(sb);
-        OutputUtilities.javaIndent(sb, indentLevel);
-        sb.append('}');
-
-        return sb.toString();
+        OutputUtilities.newLine(out);
+        OutputUtilities.javaIndent(out, indentLevel);
+        out.append('}');
     }
 }
@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -155,112 +156,154 @@ public class InnerEnum extends JavaElement {
      */
     public String getFormattedContent(int indentLevel, CompilationUnit compilationUnit) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, indentLevel, new TypeNameResolver(compilationUnit));
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the formatted content to the output. Only instances of this
+     * class itself are written directly. Subclasses may override
+     * <code>getFormattedContent</code>, so they are written through it.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    void render(Appendable out, int indentLevel, TypeNameResolver typeNames) throws IOException {
+        if (getClass() == InnerEnum.class) {
+            renderContent(out, indentLevel, typeNames);
+        } else {
+            out.append(getFormattedContent(indentLevel, typeNames.getCompilationUnit()));
+        }
+    }
 
-        addFormattedJavadoc(sb, indentLevel);
-        addFormattedAnnotations(sb, indentLevel);
+    /**
+     * Writes the formatted content of this class to the output, without
+     * calling <code>getFormattedContent</code>.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    void renderContent(Appendable out, int indentLevel, TypeNameResolver typeNames) throws IOException {
+        addFormattedJavadoc(out, indentLevel);
+        addFormattedAnnotations(out, indentLevel);
 
-        OutputUtilities.javaIndent(sb, indentLevel);
+        OutputUtilities.javaIndent(out, indentLevel);
         if (getVisibility() == JavaVisibility.PUBLIC) {
-            sb.append(getVisibility().getValue());
+            out.append(getVisibility().getValue());
         }
 
-        sb.append("enum "); //$NON-NLS-1$
-        sb.append(getType().getShortName());
+        out.append("enum "); //$NON-NLS-1$
+        out.append(getType().getShortName());
 
         if (superInterfaceTypes.size() > 0) {
-            sb.append(" implements "); //$NON-NLS-1$
+            out.append(" implements "); //$NON-NLS-1$
 
             boolean comma = false;
             for (FullyQualifiedJavaType fqjt : superInterfaceTypes) {
                 if (comma) {
-                    sb.append(", "); //$NON-NLS-1$
+                    out.append(", "); //$NON-NLS-1$
                 } else {
                     comma = true;
                 }
 
-                sb.append(JavaDomUtils.calculateTypeName(compilationUnit, fqjt));
+                out.append(typeNames.getTypeName(fqjt));
             }
         }
 
-        sb.append(" {"); //$NON-NLS-1$
+        out.append(" {"); //$NON-NLS-1$
         indentLevel++;
 
         Iterator<String> strIter = enumConstants.iterator();
         while (strIter.hasNext()) {
-            OutputUtilities.newLine(sb);
-            OutputUtilities.javaIndent(sb, indentLevel);
+            OutputUtilities.newLine(out);
+            OutputUtilities.javaIndent(out, indentLevel);
             String enumConstant = strIter.next();
-            sb.append(enumConstant);
+            out.append(enumConstant);
 
             if (strIter.hasNext()) {
-                sb.append(',');
+                out.append(',');
             } else {
-                sb.append(';');
+                out.append(';');
             }
         }
 
         if (fields.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
 
         Iterator<Field> fldIter = fields.iterator();
         while (fldIter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             Field field = fldIter.next();
-            sb.append(field.getFormattedContent(indentLevel, compilationUnit));
+            field.render(out, indentLevel, typeNames);
             if (fldIter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
 
         if (methods.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
 
         Iterator<Method> mtdIter = methods.iterator();
         while (mtdIter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             Method method = mtdIter.next();
-            sb.append(method.getFormattedContent(indentLevel, false, compilationUnit));
+            method.render(out, indentLevel, false, typeNames);
             if (mtdIter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
 
         if (innerClasses.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
 
         Iterator<InnerClass> icIter = innerClasses.iterator();
         while (icIter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             InnerClass innerClass = icIter.next();
-            sb.append(innerClass.getFormattedContent(indentLevel, compilationUnit));
+            innerClass.render(out, indentLevel, typeNames);
             if (icIter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
 
         if (innerEnums.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
 
         Iterator<InnerEnum> ieIter = innerEnums.iterator();
         while (ieIter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             InnerEnum innerEnum = ieIter.next();
-            sb.append(innerEnum.getFormattedContent(indentLevel, compilationUnit));
+            innerEnum.render(out, indentLevel, typeNames);
             if (ieIter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
 
         indentLevel--;
-        OutputUtilities.newLine(sb);
-        OutputUtilities.javaIndent(sb, indentLevel);
-        sb.append('}');
-
-        return sb.toString();
+        OutputUtilities.newLine(out);
+        OutputUtilities.javaIndent(out, indentLevel);
+        out.append('}');
     }
 
     /**
@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -69,7 +70,7 @@ public class InnerInterface extends JavaElement {
      *            the type
      */
     public InnerInterface(String type) {
-        this(new FullyQualifiedJavaType(type));
+        this(FullyQualifiedJavaType.of(type));
     }
 
     public List<Field> getFields() {
@@ -90,82 +91,124 @@ public class InnerInterface extends JavaElement {
      */
     public String getFormattedContent(int indentLevel, CompilationUnit compilationUnit) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, indentLevel, new TypeNameResolver(compilationUnit));
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the formatted content to the output. Only instances of this
+     * class itself are written directly. Subclasses may override
+     * <code>getFormattedContent</code>, so they are written through it.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    void render(Appendable out, int indentLevel, TypeNameResolver typeNames) throws IOException {
+        if (getClass() == InnerInterface.class) {
+            renderContent(out, indentLevel, typeNames);
+        } else {
+            out.append(getFormattedContent(indentLevel, typeNames.getCompilationUnit()));
+        }
+    }
 
-        addFormattedJavadoc(sb, indentLevel);
-        addFormattedAnnotations(sb, indentLevel);
+    /**
+     * Writes the formatted content of this class to the output, without
+     * calling <code>getFormattedContent</code>.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    void renderContent(Appendable out, int indentLevel, TypeNameResolver typeNames) throws IOException {
+        addFormattedJavadoc(out, indentLevel);
+        addFormattedAnnotations(out, indentLevel);
 
-        javaIndent(sb, indentLevel);
-        sb.append(getVisibility().getValue());
+        javaIndent(out, indentLevel);
+        out.append(getVisibility().getValue());
 
         if (isStatic()) {
-            sb.append("static "); //$NON-NLS-1$
+            out.append("static "); //$NON-NLS-1$
         }
 
         if (isFinal()) {
-            sb.append("final "); //$NON-NLS-1$
+            out.append("final "); //$NON-NLS-1$
         }
 
-        sb.append("interface "); //$NON-NLS-1$
-        sb.append(getType().getShortName());
+        out.append("interface "); //$NON-NLS-1$
+        out.append(getType().getShortName());
 
         if (getSuperInterfaceTypes().size() > 0) {
-            sb.append(" extends "); //$NON-NLS-1$
+            out.append(" extends "); //$NON-NLS-1$
 
             boolean comma = false;
             for (FullyQualifiedJavaType fqjt : getSuperInterfaceTypes()) {
                 if (comma) {
-                    sb.append(", "); //$NON-NLS-1$
+                    out.append(", "); //$NON-NLS-1$
                 } else {
                     comma = true;
                 }
 
-                sb.append(JavaDomUtils.calculateTypeName(compilationUnit, fqjt));
+                out.append(typeNames.getTypeName(fqjt));
             }
         }
 
-        sb.append(" {"); //$NON-NLS-1$
+        out.append(" {"); //$NON-NLS-1$
         indentLevel++;
 
         Iterator<Field> fldIter = fields.iterator();
         while (fldIter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             Field field = fldIter.next();
-            sb.append(field.getFormattedContent(indentLevel, compilationUnit));
+            field.render(out, indentLevel, typeNames);
         }
 
         if (fields.size() > 0 && methods.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
         
         Iterator<Method> mtdIter = getMethods().iterator();
         while (mtdIter.hasNext()) {
-            newLine(sb);
+            newLine(out);
             Method method = mtdIter.next();
-            sb.append(method.getFormattedContent(indentLevel, true, compilationUnit));
+            method.render(out, indentLevel, true, typeNames);
             if (mtdIter.hasNext()) {
-                newLine(sb);
+                newLine(out);
             }
         }
 
         if (innerInterfaces.size() > 0) {
-            newLine(sb);
+            newLine(out);
         }
         Iterator<InnerInterface> iiIter = innerInterfaces.iterator();
         while (iiIter.hasNext()) {
-            newLine(sb);
+            newLine(out);
             InnerInterface innerInterface = iiIter.next();
-            sb.append(innerInterface.getFormattedContent(indentLevel, compilationUnit));
+            innerInterface.render(out, indentLevel, typeNames);
             if (iiIter.hasNext()) {
-                newLine(sb);
+                newLine(out);
             }
         }
 
         indentLevel--;
-        newLine(sb);
-        javaIndent(sb, indentLevel);
-        sb.append('}');
-
-        return sb.toString();
+        newLine(out);
+        javaIndent(out, indentLevel);
+        out.append('}');
     }
 
     /**
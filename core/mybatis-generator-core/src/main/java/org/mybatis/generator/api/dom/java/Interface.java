@@ -19,6 +19,7 @@ import static org.mybatis.generator.api.dom.OutputUtilities.calculateImports;
 import static org.mybatis.generator.api.dom.OutputUtilities.newLine;
 import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -61,7 +62,7 @@ public class Interface extends InnerInterface implements CompilationUnit {
      *            the type
      */
     public Interface(String type) {
-        this(new FullyQualifiedJavaType(type));
+        this(FullyQualifiedJavaType.of(type));
     }
 
     /* (non-Javadoc)
@@ -85,8 +86,14 @@ public class Interface extends InnerInterface implements CompilationUnit {
      * @see org.mybatis.generator.api.dom.java.CompilationUnit#getFormattedContent()
      */
     public String getFormattedContent() {
-
-        return getFormattedContent(0, this);
+        StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb);
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
     }
 
     /**
@@ -98,45 +105,60 @@ public class Interface extends InnerInterface implements CompilationUnit {
      * @return the formatted content
      */
     public String getFormattedContent(int indentLevel, CompilationUnit compilationUnit) {
-        StringBuilder sb = new StringBuilder();
+        return getFormattedContent();
+    }
+
+    /* (non-Javadoc)
+     * @see org.mybatis.generator.api.dom.java.CompilationUnit#render(java.lang.Appendable)
+     */
+    public void render(Appendable out) throws IOException {
+        // subclasses may override getFormattedContent, so only this class
+        // itself is written directly to the output
+        if (getClass() == Interface.class) {
+            renderContent(out);
+        } else {
+            out.append(getFormattedContent());
+        }
+    }
+
+    private void renderContent(Appendable out) throws IOException {
+        TypeNameResolver typeNames = new TypeNameResolver(this);
 
         for (String commentLine : fileCommentLines) {
-            sb.append(commentLine);
-            newLine(sb);
+            out.append(commentLine);
+            newLine(out);
         }
 
         if (stringHasValue(getType().getPackageName())) {
-            sb.append("package "); //$NON-NLS-1$
-            sb.append(getType().getPackageName());
-            sb.append(';');
-            newLine(sb);
-            newLine(sb);
+            out.append("package "); //$NON-NLS-1$
+            out.append(getType().getPackageName());
+            out.append(';');
+            newLine(out);
+            newLine(out);
         }
 
         for (String staticImport : staticImports) {
-            sb.append("import static "); //$NON-NLS-1$
-            sb.append(staticImport);
-            sb.append(';');
-            newLine(sb);
+            out.append("import static "); //$NON-NLS-1$
+            out.append(staticImport);
+            out.append(';');
+            newLine(out);
         }
         
         if (staticImports.size() > 0) {
-            newLine(sb);
+            newLine(out);
         }
         
         Set<String> importStrings = calculateImports(importedTypes);
         for (String importString : importStrings) {
-            sb.append(importString);
-            newLine(sb);
+            out.append(importString);
+            newLine(out);
         }
 
         if (importStrings.size() > 0) {
-            newLine(sb);
+            newLine(out);
         }
 
-        sb.append(super.getFormattedContent(0, this));
-
-        return sb.toString();
+        super.renderContent(out, 0, typeNames);
     }
 
     /* (non-Javadoc)
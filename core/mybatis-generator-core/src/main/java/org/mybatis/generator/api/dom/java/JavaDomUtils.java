@@ -43,7 +43,7 @@ public class JavaDomUtils {
     
     private static String calculateParameterizedTypeName(CompilationUnit compilationUnit, FullyQualifiedJavaType fqjt) {
         StringBuilder sb = new StringBuilder();
-        sb.append(calculateTypeName(compilationUnit, new FullyQualifiedJavaType(fqjt.getFullyQualifiedNameWithoutTypeParameters())));
+        sb.append(calculateTypeName(compilationUnit, FullyQualifiedJavaType.of(fqjt.getFullyQualifiedNameWithoutTypeParameters())));
         sb.append('<');
         boolean comma = false;
         for (FullyQualifiedJavaType ft : fqjt.getTypeArguments()) {
@@ -70,7 +70,7 @@ public class JavaDomUtils {
     }
     
     private static boolean typeIsAlreadyImported(CompilationUnit compilationUnit, FullyQualifiedJavaType fullyQualifiedJavaType) {
-        FullyQualifiedJavaType nonGenericType = new FullyQualifiedJavaType(fullyQualifiedJavaType.getFullyQualifiedNameWithoutTypeParameters());
+        FullyQualifiedJavaType nonGenericType = FullyQualifiedJavaType.of(fullyQualifiedJavaType.getFullyQualifiedNameWithoutTypeParameters());
         return compilationUnit.getImportedTypes().contains(nonGenericType);
     }
 }
@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -162,6 +163,44 @@ public abstract class JavaElement {
         }
     }
 
+    /**
+     * Writes the formatted javadoc to the output.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    public void addFormattedJavadoc(Appendable out, int indentLevel)
+            throws IOException {
+        for (String javaDocLine : javaDocLines) {
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append(javaDocLine);
+            OutputUtilities.newLine(out);
+        }
+    }
+
+    /**
+     * Writes the formatted annotations to the output.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    public void addFormattedAnnotations(Appendable out, int indentLevel)
+            throws IOException {
+        for (String annotation : annotations) {
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append(annotation);
+            OutputUtilities.newLine(out);
+        }
+    }
+
     /**
      * Checks if is final.
      *
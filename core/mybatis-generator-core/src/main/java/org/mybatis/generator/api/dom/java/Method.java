@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -169,99 +170,148 @@ public class Method extends JavaElement {
      */
     public String getFormattedContent(int indentLevel, boolean interfaceMethod, CompilationUnit compilationUnit) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, indentLevel, interfaceMethod, new TypeNameResolver(compilationUnit));
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
 
-        addFormattedJavadoc(sb, indentLevel);
-        addFormattedAnnotations(sb, indentLevel);
+    /**
+     * Writes the formatted content to the output. Only instances of this
+     * class itself are written directly. Subclasses may override
+     * <code>getFormattedContent</code>, so they are written through it.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @param interfaceMethod
+     *            true if the method is declared in an interface
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    void render(Appendable out, int indentLevel, boolean interfaceMethod, TypeNameResolver typeNames) throws IOException {
+        if (getClass() == Method.class) {
+            renderContent(out, indentLevel, interfaceMethod, typeNames);
+        } else {
+            out.append(getFormattedContent(indentLevel, interfaceMethod,
+                    typeNames.getCompilationUnit()));
+        }
+    }
+
+    /**
+     * Writes the formatted content of this class to the output, without
+     * calling <code>getFormattedContent</code>.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @param interfaceMethod
+     *            true if the method is declared in an interface
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void renderContent(Appendable out, int indentLevel, boolean interfaceMethod, TypeNameResolver typeNames) throws IOException {
+        addFormattedJavadoc(out, indentLevel);
+        addFormattedAnnotations(out, indentLevel);
 
-        OutputUtilities.javaIndent(sb, indentLevel);
+        OutputUtilities.javaIndent(out, indentLevel);
 
         if (interfaceMethod) {
             if (isStatic()) {
-                sb.append("static "); //$NON-NLS-1$
+                out.append("static "); //$NON-NLS-1$
             } else if (isDefault()) {
-                sb.append("default "); //$NON-NLS-1$
+                out.append("default "); //$NON-NLS-1$
             }
         } else {
-            sb.append(getVisibility().getValue());
+            out.append(getVisibility().getValue());
 
             if (isStatic()) {
-                sb.append("static "); //$NON-NLS-1$
+                out.append("static "); //$NON-NLS-1$
             }
 
             if (isFinal()) {
-                sb.append("final "); //$NON-NLS-1$
+                out.append("final "); //$NON-NLS-1$
             }
             
             if (isSynchronized()) {
-                sb.append("synchronized "); //$NON-NLS-1$
+                out.append("synchronized "); //$NON-NLS-1$
             }
             
             if (isNative()) {
-                sb.append("native "); //$NON-NLS-1$
+                out.append("native "); //$NON-NLS-1$
             } else if (bodyLines.size() == 0) {
-                sb.append("abstract "); //$NON-NLS-1$
+                out.append("abstract "); //$NON-NLS-1$
             }
         }
 
         if (!getTypeParameters().isEmpty()) {
-            sb.append("<");
+            out.append("<");
             boolean comma = false;
             for (TypeParameter typeParameter : getTypeParameters()) {
                 if (comma) {
-                    sb.append(", "); //$NON-NLS-1$
+                    out.append(", "); //$NON-NLS-1$
                 } else {
                     comma = true;
                 }
 
-                sb.append(typeParameter.getFormattedContent(compilationUnit));
+                typeParameter.render(out, typeNames);
             }
-            sb.append("> ");
+            out.append("> ");
         }
 
         if (!constructor) {
             if (getReturnType() == null) {
-                sb.append("void"); //$NON-NLS-1$
+                out.append("void"); //$NON-NLS-1$
             } else {
-                sb.append(JavaDomUtils.calculateTypeName(compilationUnit, getReturnType()));
+                out.append(typeNames.getTypeName(getReturnType()));
             }
-            sb.append(' ');
+            out.append(' ');
         }
 
-        sb.append(getName());
-        sb.append('(');
+        out.append(getName());
+        out.append('(');
 
         boolean comma = false;
         for (Parameter parameter : getParameters()) {
             if (comma) {
-                sb.append(", "); //$NON-NLS-1$
+                out.append(", "); //$NON-NLS-1$
             } else {
                 comma = true;
             }
 
-            sb.append(parameter.getFormattedContent(compilationUnit));
+            parameter.render(out, typeNames);
         }
 
-        sb.append(')');
+        out.append(')');
 
         if (getExceptions().size() > 0) {
-            sb.append(" throws "); //$NON-NLS-1$
+            out.append(" throws "); //$NON-NLS-1$
             comma = false;
             for (FullyQualifiedJavaType fqjt : getExceptions()) {
                 if (comma) {
-                    sb.append(", "); //$NON-NLS-1$
+                    out.append(", "); //$NON-NLS-1$
                 } else {
                     comma = true;
                 }
 
-                sb.append(JavaDomUtils.calculateTypeName(compilationUnit, fqjt));
+                out.append(typeNames.getTypeName(fqjt));
             }
         }
 
         // if no body lines, then this is an abstract method
         if (bodyLines.size() == 0 || isNative()) {
-            sb.append(';');
+            out.append(';');
         } else {
-            sb.append(" {"); //$NON-NLS-1$
+            out.append(" {"); //$NON-NLS-1$
             indentLevel++;
 
             ListIterator<String> listIter = bodyLines.listIterator();
@@ -271,9 +321,9 @@ public class Method extends JavaElement {
                     indentLevel--;
                 }
 
-                OutputUtilities.newLine(sb);
-                OutputUtilities.javaIndent(sb, indentLevel);
-                sb.append(line);
+                OutputUtilities.newLine(out);
+                OutputUtilities.javaIndent(out, indentLevel);
+                out.append(line);
 
                 if ((line.endsWith("{") && !line.startsWith("switch")) //$NON-NLS-1$ //$NON-NLS-2$
                         || line.endsWith(":")) { //$NON-NLS-1$
@@ -296,12 +346,10 @@ public class Method extends JavaElement {
             }
 
             indentLevel--;
-            OutputUtilities.newLine(sb);
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append('}');
+            OutputUtilities.newLine(out);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append('}');
         }
-
-        return sb.toString();
     }
 
     /**
@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -74,21 +75,59 @@ public class Parameter {
 
     public String getFormattedContent(CompilationUnit compilationUnit) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, new TypeNameResolver(compilationUnit));
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the formatted content to the output. Only instances of this
+     * class itself are written directly. Subclasses may override
+     * <code>getFormattedContent</code>, so they are written through it.
+     *
+     * @param out
+     *            the output
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    void render(Appendable out, TypeNameResolver typeNames) throws IOException {
+        if (getClass() == Parameter.class) {
+            renderContent(out, typeNames);
+        } else {
+            out.append(getFormattedContent(typeNames.getCompilationUnit()));
+        }
+    }
 
+    /**
+     * Writes the formatted content of this class to the output, without
+     * calling <code>getFormattedContent</code>.
+     *
+     * @param out
+     *            the output
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void renderContent(Appendable out, TypeNameResolver typeNames) throws IOException {
         for (String annotation : annotations) {
-            sb.append(annotation);
-            sb.append(' ');
+            out.append(annotation);
+            out.append(' ');
         }
 
-        sb.append(JavaDomUtils.calculateTypeName(compilationUnit, type));
+        out.append(typeNames.getTypeName(type));
         
-        sb.append(' ');
+        out.append(' ');
         if (isVarargs) {
-            sb.append("... "); //$NON-NLS-1$
+            out.append("... "); //$NON-NLS-1$
         }
-        sb.append(name);
-
-        return sb.toString();
+        out.append(name);
     }
 
     @Override
@@ -19,6 +19,7 @@ import static org.mybatis.generator.api.dom.OutputUtilities.calculateImports;
 import static org.mybatis.generator.api.dom.OutputUtilities.newLine;
 import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -61,7 +62,7 @@ public class TopLevelClass extends InnerClass implements CompilationUnit {
      *            the type name
      */
     public TopLevelClass(String typeName) {
-        this(new FullyQualifiedJavaType(typeName));
+        this(FullyQualifiedJavaType.of(typeName));
     }
 
     /**
@@ -80,7 +81,7 @@ public class TopLevelClass extends InnerClass implements CompilationUnit {
      *            the imported type
      */
     public void addImportedType(String importedType) {
-        addImportedType(new FullyQualifiedJavaType(importedType));
+        addImportedType(FullyQualifiedJavaType.of(importedType));
     }
     
     /* (non-Javadoc)
@@ -101,44 +102,66 @@ public class TopLevelClass extends InnerClass implements CompilationUnit {
      */
     public String getFormattedContent() {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb);
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    /* (non-Javadoc)
+     * @see org.mybatis.generator.api.dom.java.CompilationUnit#render(java.lang.Appendable)
+     */
+    public void render(Appendable out) throws IOException {
+        // subclasses may override getFormattedContent, so only this class
+        // itself is written directly to the output
+        if (getClass() == TopLevelClass.class) {
+            renderContent(out);
+        } else {
+            out.append(getFormattedContent());
+        }
+    }
+
+    private void renderContent(Appendable out) throws IOException {
+        TypeNameResolver typeNames = new TypeNameResolver(this);
 
         for (String fileCommentLine : fileCommentLines) {
-            sb.append(fileCommentLine);
-            newLine(sb);
+            out.append(fileCommentLine);
+            newLine(out);
         }
 
         if (stringHasValue(getType().getPackageName())) {
-            sb.append("package "); //$NON-NLS-1$
-            sb.append(getType().getPackageName());
-            sb.append(';');
-            newLine(sb);
-            newLine(sb);
+            out.append("package "); //$NON-NLS-1$
+            out.append(getType().getPackageName());
+            out.append(';');
+            newLine(out);
+            newLine(out);
         }
 
         for (String staticImport : staticImports) {
-            sb.append("import static "); //$NON-NLS-1$
-            sb.append(staticImport);
-            sb.append(';');
-            newLine(sb);
+            out.append("import static "); //$NON-NLS-1$
+            out.append(staticImport);
+            out.append(';');
+            newLine(out);
         }
         
         if (staticImports.size() > 0) {
-            newLine(sb);
+            newLine(out);
         }
         
         Set<String> importStrings = calculateImports(importedTypes);
         for (String importString : importStrings) {
-            sb.append(importString);
-            newLine(sb);
+            out.append(importString);
+            newLine(out);
         }
 
         if (importStrings.size() > 0) {
-            newLine(sb);
+            newLine(out);
         }
 
-        sb.append(super.getFormattedContent(0, this));
-
-        return sb.toString();
+        super.renderContent(out, 0, typeNames);
     }
 
     /* (non-Javadoc)
@@ -0,0 +1,137 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api.dom.java;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calculates the names of types as they are written into a compilation unit,
+ * using the same rules as <code>JavaDomUtils.calculateTypeName</code>. The
+ * imported type names are read once, and the name of every type is only
+ * calculated once, so a resolver must only be used while the imports of the
+ * compilation unit do not change - typically for a single render.
+ */
+class TypeNameResolver {
+
+    /** The compilation unit, or null if all names should be short names. */
+    private CompilationUnit compilationUnit;
+
+    /** The package of the compilation unit. */
+    private String packageName;
+
+    /** The fully qualified names of the imported types. */
+    private Set<String> importedTypeNames;
+
+    /** The calculated names, by type instance. */
+    private Map<FullyQualifiedJavaType, String> typeNames;
+
+    /** The calculated names of the raw types of parameterized types. */
+    private Map<String, String> rawTypeNames;
+
+    /**
+     * Instantiates a new type name resolver.
+     * 
+     * @param compilationUnit
+     *            the compilation unit being written, may be null
+     */
+    TypeNameResolver(CompilationUnit compilationUnit) {
+        super();
+        this.compilationUnit = compilationUnit;
+        typeNames = new IdentityHashMap<FullyQualifiedJavaType, String>();
+        rawTypeNames = new HashMap<String, String>();
+        if (compilationUnit != null) {
+            packageName = compilationUnit.getType().getPackageName();
+            importedTypeNames = new HashSet<String>();
+            for (FullyQualifiedJavaType importedType : compilationUnit
+                    .getImportedTypes()) {
+                importedTypeNames.add(importedType.getFullyQualifiedName());
+            }
+        }
+    }
+
+    /**
+     * Returns the compilation unit being written.
+     *
+     * @return the compilation unit, or null
+     */
+    CompilationUnit getCompilationUnit() {
+        return compilationUnit;
+    }
+
+    /**
+     * Returns the name to write for a type in the compilation unit.
+     * 
+     * @param fqjt
+     *            the type
+     * @return the short name if the type is imported or does not need an
+     *         import, otherwise the fully qualified name
+     */
+    String getTypeName(FullyQualifiedJavaType fqjt) {
+        String answer = typeNames.get(fqjt);
+        if (answer == null) {
+            answer = calculateTypeName(fqjt);
+            typeNames.put(fqjt, answer);
+        }
+
+        return answer;
+    }
+
+    private String calculateTypeName(FullyQualifiedJavaType fqjt) {
+        if (fqjt.getTypeArguments().isEmpty()) {
+            return calculateSimpleTypeName(fqjt);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        String rawTypeName = fqjt.getFullyQualifiedNameWithoutTypeParameters();
+        String name = rawTypeNames.get(rawTypeName);
+        if (name == null) {
+            name = calculateSimpleTypeName(FullyQualifiedJavaType.of(
+                    rawTypeName));
+            rawTypeNames.put(rawTypeName, name);
+        }
+        sb.append(name);
+        sb.append('<');
+        boolean comma = false;
+        for (FullyQualifiedJavaType ft : fqjt.getTypeArguments()) {
+            if (comma) {
+                sb.append(", "); //$NON-NLS-1$
+            } else {
+                comma = true;
+            }
+            sb.append(getTypeName(ft));
+        }
+        sb.append('>');
+
+        return sb.toString();
+    }
+
+    private String calculateSimpleTypeName(FullyQualifiedJavaType fqjt) {
+        if (compilationUnit == null
+                || fqjt.isPrimitive()
+                || !fqjt.isExplicitlyImported()
+                || fqjt.getPackageName().equals(packageName)
+                || importedTypeNames.contains(fqjt
+                        .getFullyQualifiedNameWithoutTypeParameters())) {
+            return fqjt.getShortName();
+        } else {
+            return fqjt.getFullyQualifiedName();
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -53,23 +54,61 @@ public class TypeParameter {
 
     public String getFormattedContent(CompilationUnit compilationUnit) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, new TypeNameResolver(compilationUnit));
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the formatted content to the output. Only instances of this
+     * class itself are written directly. Subclasses may override
+     * <code>getFormattedContent</code>, so they are written through it.
+     *
+     * @param out
+     *            the output
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    void render(Appendable out, TypeNameResolver typeNames) throws IOException {
+        if (getClass() == TypeParameter.class) {
+            renderContent(out, typeNames);
+        } else {
+            out.append(getFormattedContent(typeNames.getCompilationUnit()));
+        }
+    }
 
-        sb.append(name);
+    /**
+     * Writes the formatted content of this class to the output, without
+     * calling <code>getFormattedContent</code>.
+     *
+     * @param out
+     *            the output
+     * @param typeNames
+     *            the names to use for types
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void renderContent(Appendable out, TypeNameResolver typeNames) throws IOException {
+        out.append(name);
         if (!extendsTypes.isEmpty()) {
 
-            sb.append(" extends ");
+            out.append(" extends ");
             boolean addAnd = false;
             for (FullyQualifiedJavaType type : extendsTypes) {
                 if (addAnd) {
-                    sb.append(" & ");
+                    out.append(" & ");
                 } else {
                     addAnd = true;
                 }
-                sb.append(JavaDomUtils.calculateTypeName(compilationUnit, type));
+                out.append(typeNames.getTypeName(type));
             }
         }
-
-        return sb.toString();
     }
 
     @Override
@@ -15,6 +15,8 @@
  */
 package org.mybatis.generator.api.dom.xml;
 
+import java.io.IOException;
+
 /**
  * The Class Attribute.
  *
@@ -67,14 +69,31 @@ public class Attribute implements Comparable<Attribute>{
      */
     public String getFormattedContent() {
         StringBuilder sb = new StringBuilder();
-        sb.append(name);
-        sb.append("=\""); //$NON-NLS-1$
-        sb.append(value);
-        sb.append('\"');
+        try {
+            render(sb);
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
 
         return sb.toString();
     }
 
+    /**
+     * Writes the formatted content of this attribute to the output.
+     *
+     * @param out
+     *            the output to write to
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    public void render(Appendable out) throws IOException {
+        out.append(name);
+        out.append("=\""); //$NON-NLS-1$
+        out.append(value);
+        out.append('\"');
+    }
+
     @Override
     public int compareTo(Attribute o) {
         if (this.name == null) {
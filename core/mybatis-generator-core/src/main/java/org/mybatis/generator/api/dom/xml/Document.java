@@ -15,6 +15,8 @@
  */
 package org.mybatis.generator.api.dom.xml;
 
+import java.io.IOException;
+
 import org.mybatis.generator.api.dom.OutputUtilities;
 
 /**
@@ -98,23 +100,52 @@ public class Document {
      */
     public String getFormattedContent() {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb);
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
 
-        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"); //$NON-NLS-1$
+        return sb.toString();
+    }
 
-        if (publicId != null && systemId != null) {
-            OutputUtilities.newLine(sb);
-            sb.append("<!DOCTYPE "); //$NON-NLS-1$
-            sb.append(rootElement.getName());
-            sb.append(" PUBLIC \""); //$NON-NLS-1$
-            sb.append(publicId);
-            sb.append("\" \""); //$NON-NLS-1$
-            sb.append(systemId);
-            sb.append("\">"); //$NON-NLS-1$
+    /**
+     * Writes the formatted content of this document to the output. The whole
+     * document is written in a single pass, without building intermediate
+     * strings for the nested elements.
+     *
+     * @param out
+     *            the output to write to, for example a <code>Writer</code>
+     *            or a <code>StringBuilder</code>
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    public void render(Appendable out) throws IOException {
+        // subclasses may override getFormattedContent, so only this class
+        // itself is written directly to the output
+        if (getClass() == Document.class) {
+            renderContent(out);
+        } else {
+            out.append(getFormattedContent());
         }
+    }
 
-        OutputUtilities.newLine(sb);
-        sb.append(rootElement.getFormattedContent(0));
+    private void renderContent(Appendable out) throws IOException {
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"); //$NON-NLS-1$
 
-        return sb.toString();
+        if (publicId != null && systemId != null) {
+            OutputUtilities.newLine(out);
+            out.append("<!DOCTYPE "); //$NON-NLS-1$
+            out.append(rootElement.getName());
+            out.append(" PUBLIC \""); //$NON-NLS-1$
+            out.append(publicId);
+            out.append("\" \""); //$NON-NLS-1$
+            out.append(systemId);
+            out.append("\">"); //$NON-NLS-1$
+        }
+
+        OutputUtilities.newLine(out);
+        rootElement.render(out, 0);
     }
 }
@@ -15,6 +15,8 @@
  */
 package org.mybatis.generator.api.dom.xml;
 
+import java.io.IOException;
+
 /**
  * @author Jeff Butler
  */
@@ -28,4 +30,24 @@ public abstract class Element {
     }
 
     public abstract String getFormattedContent(int indentLevel);
+
+    /**
+     * Writes the formatted content of this element to the output. Unlike
+     * <code>getFormattedContent</code>, nested elements are written directly
+     * to the same output rather than being built up as separate strings.
+     * 
+     * <p>The default implementation writes the value returned by
+     * <code>getFormattedContent</code>, so that subclasses that only implement
+     * that method are still rendered correctly.
+     * 
+     * @param out
+     *            the output to write to
+     * @param indentLevel
+     *            the indent level
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    public void render(Appendable out, int indentLevel) throws IOException {
+        out.append(getFormattedContent(indentLevel));
+    }
 }
@@ -15,6 +15,8 @@
  */
 package org.mybatis.generator.api.dom.xml;
 
+import java.io.IOException;
+
 import org.mybatis.generator.api.dom.OutputUtilities;
 
 /**
@@ -49,6 +51,21 @@ public class TextElement extends Element {
         return sb.toString();
     }
 
+    /* (non-Javadoc)
+     * @see org.mybatis.generator.api.dom.xml.Element#render(java.lang.Appendable, int)
+     */
+    @Override
+    public void render(Appendable out, int indentLevel) throws IOException {
+        // subclasses may override getFormattedContent, so only this class
+        // itself is written directly to the output
+        if (getClass() == TextElement.class) {
+            OutputUtilities.xmlIndent(out, indentLevel);
+            out.append(content);
+        } else {
+            out.append(getFormattedContent(indentLevel));
+        }
+    }
+
     /**
      * Gets the content.
      *
@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.api.dom.xml;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -130,34 +131,69 @@ public class XmlElement extends Element {
     @Override
     public String getFormattedContent(int indentLevel) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, indentLevel);
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    /* (non-Javadoc)
+     * @see org.mybatis.generator.api.dom.xml.Element#render(java.lang.Appendable, int)
+     */
+    @Override
+    public void render(Appendable out, int indentLevel) throws IOException {
+        // subclasses may override getFormattedContent, so only this class
+        // itself is written directly to the output
+        if (getClass() == XmlElement.class) {
+            renderContent(out, indentLevel);
+        } else {
+            out.append(getFormattedContent(indentLevel));
+        }
+    }
 
-        OutputUtilities.xmlIndent(sb, indentLevel);
-        sb.append('<');
-        sb.append(name);
+    private void renderContent(Appendable out, int indentLevel) throws IOException {
+        OutputUtilities.xmlIndent(out, indentLevel);
+        out.append('<');
+        out.append(name);
 
-        Collections.sort(attributes);
+        sortAttributes();
         for (Attribute att : attributes) {
-            sb.append(' ');
-            sb.append(att.getFormattedContent());
+            out.append(' ');
+            att.render(out);
         }
 
         if (elements.size() > 0) {
-            sb.append(">"); //$NON-NLS-1$
+            out.append(">"); //$NON-NLS-1$
             for (Element element : elements) {
-                OutputUtilities.newLine(sb);
-                sb.append(element.getFormattedContent(indentLevel + 1));
+                OutputUtilities.newLine(out);
+                element.render(out, indentLevel + 1);
             }
-            OutputUtilities.newLine(sb);
-            OutputUtilities.xmlIndent(sb, indentLevel);
-            sb.append("</"); //$NON-NLS-1$
-            sb.append(name);
-            sb.append('>');
+            OutputUtilities.newLine(out);
+            OutputUtilities.xmlIndent(out, indentLevel);
+            out.append("</"); //$NON-NLS-1$
+            out.append(name);
+            out.append('>');
 
         } else {
-            sb.append(" />"); //$NON-NLS-1$
+            out.append(" />"); //$NON-NLS-1$
         }
+    }
 
-        return sb.toString();
+    /**
+     * Sorts the attributes by name. Attributes are usually added in order, or
+     * were sorted by an earlier render, so the list is only sorted if it is
+     * out of order.
+     */
+    private void sortAttributes() {
+        for (int i = 1; i < attributes.size(); i++) {
+            if (attributes.get(i - 1).compareTo(attributes.get(i)) > 0) {
+                Collections.sort(attributes);
+                return;
+            }
+        }
     }
 
     /**
@@ -20,14 +20,11 @@ import static org.mybatis.generator.internal.util.messages.Messages.getString;
 import java.beans.BeanInfo;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.mybatis.generator.api.IntrospectedColumn;
 import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
-import org.mybatis.generator.internal.ObjectFactory;
+import org.mybatis.generator.internal.GenerationSession;
 
 /**
  * 
@@ -36,33 +33,35 @@ import org.mybatis.generator.internal.ObjectFactory;
  */
 public class RootClassInfo {
 
-    private static Map<String, RootClassInfo> rootClassInfoMap;
-
-    static {
-        rootClassInfoMap = Collections
-                .synchronizedMap(new HashMap<String, RootClassInfo>());
-    }
-
+    /**
+     * Returns the root class info for a class from the current generation
+     * session.
+     *
+     * @param className
+     *            the root class name
+     * @param warnings
+     *            the list that receives warnings about the class
+     * @return the root class info
+     * @deprecated use {@link GenerationSession#getRootClassInfo(String, List)}
+     *             with the session of the context
+     */
+    @Deprecated
     public static RootClassInfo getInstance(String className,
             List<String> warnings) {
-        RootClassInfo classInfo = rootClassInfoMap.get(className);
-        if (classInfo == null) {
-            classInfo = new RootClassInfo(className, warnings);
-            rootClassInfoMap.put(className, classInfo);
-        }
-
-        return classInfo;
+        return GenerationSession.getCurrent().getRootClassInfo(className,
+                warnings);
     }
 
     /**
-     * Clears the internal map containing root class info.  This method should be called at the beginning of
-     * a generation run to clear the cached root class info in case there has been a change.
-     * For example, when using the eclipse launcher, the cache would be kept until eclipse
-     * was restarted.
-     * 
+     * Clears the root class info of the default generation session. Each
+     * generation run uses a new session, so this method is no longer needed
+     * to see changes in root classes between runs.
+     *
+     * @deprecated generation runs no longer share root class info
      */
+    @Deprecated
     public static void reset() {
-        rootClassInfoMap.clear();
+        GenerationSession.getDefault().clear();
     }
 
     private PropertyDescriptor[] propertyDescriptors;
@@ -70,7 +69,28 @@ public class RootClassInfo {
     private List<String> warnings;
     private boolean genericMode = false;
 
-    private RootClassInfo(String className, List<String> warnings) {
+    private RootClassInfo(RootClassInfo rootClassInfo, List<String> warnings) {
+        super();
+        this.className = rootClassInfo.className;
+        this.propertyDescriptors = rootClassInfo.propertyDescriptors;
+        this.genericMode = rootClassInfo.genericMode;
+        this.warnings = warnings;
+    }
+
+    /**
+     * Reads the properties of a root class. Use
+     * {@link GenerationSession#getRootClassInfo(String, List)} to read each
+     * class only once per run.
+     *
+     * @param className
+     *            the root class name
+     * @param warnings
+     *            the list that receives warnings about the class
+     * @param session
+     *            the session used to load the class
+     */
+    public RootClassInfo(String className, List<String> warnings,
+            GenerationSession session) {
         super();
         this.className = className;
         this.warnings = warnings;
@@ -79,14 +99,14 @@ public class RootClassInfo {
             return;
         }
         
-        FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType(className);
+        FullyQualifiedJavaType fqjt = FullyQualifiedJavaType.of(className);
         String nameWithoutGenerics = fqjt.getFullyQualifiedNameWithoutTypeParameters();
         if (!nameWithoutGenerics.equals(className)) {
             genericMode = true;
         }
 
         try {
-            Class<?> clazz = ObjectFactory.externalClassForName(nameWithoutGenerics);
+            Class<?> clazz = session.externalClassForName(nameWithoutGenerics);
             BeanInfo bi = Introspector.getBeanInfo(clazz);
             propertyDescriptors = bi.getPropertyDescriptors();
         } catch (Exception e) {
@@ -95,6 +115,18 @@ public class RootClassInfo {
         }
     }
 
+    /**
+     * Returns root class info for the same class that adds warnings about
+     * individual properties to a different list.
+     *
+     * @param warnings
+     *            the list that receives warnings
+     * @return the root class info
+     */
+    public RootClassInfo withWarnings(List<String> warnings) {
+        return this.warnings == warnings ? this : new RootClassInfo(this, warnings);
+    }
+
     public boolean containsProperty(IntrospectedColumn introspectedColumn) {
         if (propertyDescriptors == null) {
             return false;
@@ -38,6 +38,7 @@ import org.mybatis.generator.codegen.ibatis2.model.PrimaryKeyGenerator;
 import org.mybatis.generator.codegen.ibatis2.model.RecordWithBLOBsGenerator;
 import org.mybatis.generator.codegen.ibatis2.sqlmap.SqlMapGenerator;
 import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.internal.FlightRecorder;
 import org.mybatis.generator.internal.ObjectFactory;
 
 /**
@@ -147,8 +148,8 @@ public class IntrospectedTableIbatis2Java2Impl extends IntrospectedTable {
         List<GeneratedJavaFile> answer = new ArrayList<GeneratedJavaFile>();
 
         for (AbstractJavaGenerator javaGenerator : javaModelGenerators) {
-            List<CompilationUnit> compilationUnits = javaGenerator
-                    .getCompilationUnits();
+            List<CompilationUnit> compilationUnits = FlightRecorder
+                    .getCompilationUnits(javaGenerator);
             for (CompilationUnit compilationUnit : compilationUnits) {
                 GeneratedJavaFile gjf = new GeneratedJavaFile(compilationUnit,
                         context.getJavaModelGeneratorConfiguration()
@@ -160,8 +161,8 @@ public class IntrospectedTableIbatis2Java2Impl extends IntrospectedTable {
         }
 
         for (AbstractJavaGenerator javaGenerator : daoGenerators) {
-            List<CompilationUnit> compilationUnits = javaGenerator
-                    .getCompilationUnits();
+            List<CompilationUnit> compilationUnits = FlightRecorder
+                    .getCompilationUnits(javaGenerator);
             for (CompilationUnit compilationUnit : compilationUnits) {
                 GeneratedJavaFile gjf = new GeneratedJavaFile(compilationUnit,
                         context.getJavaClientGeneratorConfiguration()
@@ -179,7 +180,7 @@ public class IntrospectedTableIbatis2Java2Impl extends IntrospectedTable {
     public List<GeneratedXmlFile> getGeneratedXmlFiles() {
         List<GeneratedXmlFile> answer = new ArrayList<GeneratedXmlFile>();
 
-        Document document = sqlMapGenerator.getDocument();
+        Document document = FlightRecorder.getDocument(sqlMapGenerator);
         GeneratedXmlFile gxf = new GeneratedXmlFile(document,
                 getIbatis2SqlMapFileName(), getIbatis2SqlMapPackage(), context
                         .getSqlMapGeneratorConfiguration().getTargetProject(),
@@ -104,9 +104,9 @@ public class DAOGenerator extends AbstractJavaClientGenerator {
     }
 
     protected TopLevelClass getTopLevelClassShell() {
-        FullyQualifiedJavaType interfaceType = new FullyQualifiedJavaType(
+        FullyQualifiedJavaType interfaceType = FullyQualifiedJavaType.of(
                 introspectedTable.getDAOInterfaceType());
-        FullyQualifiedJavaType implementationType = new FullyQualifiedJavaType(
+        FullyQualifiedJavaType implementationType = FullyQualifiedJavaType.of(
                 introspectedTable.getDAOImplementationType());
 
         CommentGenerator commentGenerator = context.getCommentGenerator();
@@ -145,7 +145,7 @@ public class DAOGenerator extends AbstractJavaClientGenerator {
     }
 
     protected Interface getInterfaceShell() {
-        Interface answer = new Interface(new FullyQualifiedJavaType(
+        Interface answer = new Interface(FullyQualifiedJavaType.of(
                 introspectedTable.getDAOInterfaceType()));
         answer.setVisibility(JavaVisibility.PUBLIC);
 
@@ -157,7 +157,7 @@ public class DAOGenerator extends AbstractJavaClientGenerator {
         }
 
         if (stringHasValue(rootInterface)) {
-            FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType(
+            FullyQualifiedJavaType fqjt = FullyQualifiedJavaType.of(
                     rootInterface);
             answer.addSuperInterface(fqjt);
             answer.addImportedType(fqjt);
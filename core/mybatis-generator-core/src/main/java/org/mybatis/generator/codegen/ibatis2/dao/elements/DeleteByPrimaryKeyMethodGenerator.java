@@ -50,7 +50,7 @@ public class DeleteByPrimaryKeyMethodGenerator extends
         if (!introspectedTable.getRules().generatePrimaryKeyClass()) {
             // no primary key class, but primary key is enabled. Primary
             // key columns must be in the base class.
-            FullyQualifiedJavaType keyType = new FullyQualifiedJavaType(
+            FullyQualifiedJavaType keyType = FullyQualifiedJavaType.of(
                     introspectedTable.getBaseRecordType());
             topLevelClass.addImportedType(keyType);
 
@@ -109,7 +109,7 @@ public class DeleteByPrimaryKeyMethodGenerator extends
                 .getDeleteByPrimaryKeyMethodName(introspectedTable));
 
         if (introspectedTable.getRules().generatePrimaryKeyClass()) {
-            FullyQualifiedJavaType type = new FullyQualifiedJavaType(
+            FullyQualifiedJavaType type = FullyQualifiedJavaType.of(
                     introspectedTable.getPrimaryKeyType());
             importedTypes.add(type);
             method.addParameter(new Parameter(type, "_key")); //$NON-NLS-1$
@@ -82,7 +82,7 @@ public class SelectByExampleWithBLOBsMethodGenerator extends
     }
 
     private Method getMethodShell(Set<FullyQualifiedJavaType> importedTypes) {
-        FullyQualifiedJavaType type = new FullyQualifiedJavaType(
+        FullyQualifiedJavaType type = FullyQualifiedJavaType.of(
                 introspectedTable.getExampleType());
         importedTypes.add(type);
         importedTypes.add(FullyQualifiedJavaType.getNewListInstance());
@@ -95,11 +95,11 @@ public class SelectByExampleWithBLOBsMethodGenerator extends
         if (generateForJava5) {
             FullyQualifiedJavaType fqjt;
             if (introspectedTable.getRules().generateRecordWithBLOBsClass()) {
-                fqjt = new FullyQualifiedJavaType(introspectedTable
+                fqjt = FullyQualifiedJavaType.of(introspectedTable
                         .getRecordWithBLOBsType());
             } else {
                 // the blob fields must be rolled up into the base class
-                fqjt = new FullyQualifiedJavaType(introspectedTable
+                fqjt = FullyQualifiedJavaType.of(introspectedTable
                         .getBaseRecordType());
             }
 
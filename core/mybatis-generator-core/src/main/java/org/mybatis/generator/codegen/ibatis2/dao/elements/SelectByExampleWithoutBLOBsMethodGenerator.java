@@ -84,7 +84,7 @@ public class SelectByExampleWithoutBLOBsMethodGenerator extends
     }
 
     private Method getMethodShell(Set<FullyQualifiedJavaType> importedTypes) {
-        FullyQualifiedJavaType type = new FullyQualifiedJavaType(
+        FullyQualifiedJavaType type = FullyQualifiedJavaType.of(
                 introspectedTable.getExampleType());
         importedTypes.add(type);
         importedTypes.add(FullyQualifiedJavaType.getNewListInstance());
@@ -98,10 +98,10 @@ public class SelectByExampleWithoutBLOBsMethodGenerator extends
         if (generateForJava5) {
             FullyQualifiedJavaType fqjt;
             if (introspectedTable.getRules().generateBaseRecordClass()) {
-                fqjt = new FullyQualifiedJavaType(introspectedTable
+                fqjt = FullyQualifiedJavaType.of(introspectedTable
                         .getBaseRecordType());
             } else if (introspectedTable.getRules().generatePrimaryKeyClass()) {
-                fqjt = new FullyQualifiedJavaType(introspectedTable
+                fqjt = FullyQualifiedJavaType.of(introspectedTable
                         .getPrimaryKeyType());
             } else {
                 throw new RuntimeException(getString("RuntimeError.12")); //$NON-NLS-1$
@@ -26,7 +26,7 @@ import org.mybatis.generator.api.dom.java.Parameter;
  */
 public class GenericCIDAOTemplate extends AbstractDAOTemplate {
 
-    private FullyQualifiedJavaType sqlMapClientType = new FullyQualifiedJavaType(
+    private FullyQualifiedJavaType sqlMapClientType = FullyQualifiedJavaType.of(
             "com.ibatis.sqlmap.client.SqlMapClient"); //$NON-NLS-1$
 
     /**
@@ -38,7 +38,7 @@ public class GenericCIDAOTemplate extends AbstractDAOTemplate {
 
     @Override
     protected void configureCheckedExceptions() {
-        addCheckedException(new FullyQualifiedJavaType("java.sql.SQLException")); //$NON-NLS-1$
+        addCheckedException(FullyQualifiedJavaType.of("java.sql.SQLException")); //$NON-NLS-1$
     }
 
     @Override
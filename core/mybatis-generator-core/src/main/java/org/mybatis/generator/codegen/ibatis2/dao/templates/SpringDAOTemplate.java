@@ -62,7 +62,7 @@ public class SpringDAOTemplate extends AbstractDAOTemplate {
 
     @Override
     protected void configureSuperClass() {
-        setSuperClass(new FullyQualifiedJavaType(
+        setSuperClass(FullyQualifiedJavaType.of(
                 "org.springframework.orm.ibatis.support.SqlMapClientDaoSupport")); //$NON-NLS-1$
     }
 
@@ -34,7 +34,6 @@ import org.mybatis.generator.api.dom.java.JavaVisibility;
 import org.mybatis.generator.api.dom.java.Method;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
 import org.mybatis.generator.codegen.AbstractJavaGenerator;
-import org.mybatis.generator.codegen.RootClassInfo;
 
 /**
  * 
@@ -84,7 +83,7 @@ public class BaseRecordGenerator extends AbstractJavaGenerator {
 
         String rootClass = getRootClass();
         for (IntrospectedColumn introspectedColumn : introspectedColumns) {
-            if (RootClassInfo.getInstance(rootClass, warnings)
+            if (context.getGenerationSession().getRootClassInfo(rootClass, warnings)
                     .containsProperty(introspectedColumn)) {
                 continue;
             }
@@ -123,12 +122,12 @@ public class BaseRecordGenerator extends AbstractJavaGenerator {
     private FullyQualifiedJavaType getSuperClass() {
         FullyQualifiedJavaType superClass;
         if (introspectedTable.getRules().generatePrimaryKeyClass()) {
-            superClass = new FullyQualifiedJavaType(introspectedTable
+            superClass = FullyQualifiedJavaType.of(introspectedTable
                     .getPrimaryKeyType());
         } else {
             String rootClass = getRootClass();
             if (rootClass != null) {
-                superClass = new FullyQualifiedJavaType(rootClass);
+                superClass = FullyQualifiedJavaType.of(rootClass);
             } else {
                 superClass = null;
             }
@@ -33,7 +33,6 @@ import org.mybatis.generator.api.dom.java.JavaVisibility;
 import org.mybatis.generator.api.dom.java.Method;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
 import org.mybatis.generator.codegen.AbstractJavaGenerator;
-import org.mybatis.generator.codegen.RootClassInfo;
 
 /**
  * 
@@ -68,7 +67,7 @@ public class RecordWithBLOBsGenerator extends AbstractJavaGenerator {
         String rootClass = getRootClass();
         for (IntrospectedColumn introspectedColumn : introspectedTable
                 .getBLOBColumns()) {
-            if (RootClassInfo.getInstance(rootClass, warnings)
+            if (context.getGenerationSession().getRootClassInfo(rootClass, warnings)
                     .containsProperty(introspectedColumn)) {
                 continue;
             }
@@ -57,7 +57,7 @@ public abstract class AbstractJavaMapperMethodGenerator extends
         
         if (stringHasValue(introspectedColumn.getTypeHandler())) {
             FullyQualifiedJavaType fqjt =
-                new FullyQualifiedJavaType(introspectedColumn.getTypeHandler());
+                FullyQualifiedJavaType.of(introspectedColumn.getTypeHandler());
             interfaze.addImportedType(fqjt);
             sb.append(", typeHandler="); //$NON-NLS-1$
             sb.append(fqjt.getShortName());
@@ -103,9 +103,9 @@ public abstract class AbstractJavaMapperMethodGenerator extends
         IntrospectedColumn introspectedColumn = introspectedTable.getColumn(gk.getColumn());
         if (introspectedColumn != null) {
             if (gk.isJdbcStandard()) {
-                interfaze.addImportedType(new FullyQualifiedJavaType("org.apache.ibatis.annotations.Options")); //$NON-NLS-1$
+                interfaze.addImportedType(FullyQualifiedJavaType.of("org.apache.ibatis.annotations.Options")); //$NON-NLS-1$
             } else {
-                interfaze.addImportedType(new FullyQualifiedJavaType("org.apache.ibatis.annotations.SelectKey")); //$NON-NLS-1$
+                interfaze.addImportedType(FullyQualifiedJavaType.of("org.apache.ibatis.annotations.SelectKey")); //$NON-NLS-1$
                 FullyQualifiedJavaType fqjt = introspectedColumn.getFullyQualifiedJavaType();
                 interfaze.addImportedType(fqjt);
             }
@@ -47,13 +47,13 @@ public class UpdateByExampleSelectiveMethodGenerator extends
                 "record", "@Param(\"record\")")); //$NON-NLS-1$ //$NON-NLS-2$
         importedTypes.add(parameterType);
 
-        FullyQualifiedJavaType exampleType = new FullyQualifiedJavaType(
+        FullyQualifiedJavaType exampleType = FullyQualifiedJavaType.of(
                 introspectedTable.getExampleType());
         method.addParameter(new Parameter(exampleType,
                 "example", "@Param(\"example\")")); //$NON-NLS-1$ //$NON-NLS-2$
         importedTypes.add(exampleType);
 
-        importedTypes.add(new FullyQualifiedJavaType(
+        importedTypes.add(FullyQualifiedJavaType.of(
                 "org.apache.ibatis.annotations.Param")); //$NON-NLS-1$
 
         context.getCommentGenerator().addGeneralMethodComment(method,
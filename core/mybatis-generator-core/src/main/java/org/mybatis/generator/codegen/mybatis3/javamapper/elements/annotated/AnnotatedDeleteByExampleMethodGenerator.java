@@ -33,7 +33,7 @@ public class AnnotatedDeleteByExampleMethodGenerator extends
 
     @Override
     public void addMapperAnnotations(Method method) {
-        FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType(introspectedTable.getMyBatis3SqlProviderType());
+        FullyQualifiedJavaType fqjt = FullyQualifiedJavaType.of(introspectedTable.getMyBatis3SqlProviderType());
         StringBuilder sb = new StringBuilder();
         sb.append("@DeleteProvider(type="); //$NON-NLS-1$
         sb.append(fqjt.getShortName());
@@ -46,6 +46,6 @@ public class AnnotatedDeleteByExampleMethodGenerator extends
 
     @Override
     public void addExtraImports(Interface interfaze) {
-        interfaze.addImportedType(new FullyQualifiedJavaType("org.apache.ibatis.annotations.DeleteProvider")); //$NON-NLS-1$
+        interfaze.addImportedType(FullyQualifiedJavaType.of("org.apache.ibatis.annotations.DeleteProvider")); //$NON-NLS-1$
     }
 }
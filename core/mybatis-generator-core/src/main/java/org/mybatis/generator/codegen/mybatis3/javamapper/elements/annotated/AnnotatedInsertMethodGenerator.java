@@ -126,6 +126,6 @@ public class AnnotatedInsertMethodGenerator extends
         if (gk != null) {
             addGeneratedKeyImports(interfaze, gk);
         }
-        interfaze.addImportedType(new FullyQualifiedJavaType("org.apache.ibatis.annotations.Insert")); //$NON-NLS-1$
+        interfaze.addImportedType(FullyQualifiedJavaType.of("org.apache.ibatis.annotations.Insert")); //$NON-NLS-1$
     }
 }
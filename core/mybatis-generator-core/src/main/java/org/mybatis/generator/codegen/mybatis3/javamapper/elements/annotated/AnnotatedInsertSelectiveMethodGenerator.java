@@ -34,7 +34,7 @@ public class AnnotatedInsertSelectiveMethodGenerator extends
 
     @Override
     public void addMapperAnnotations(Method method) {
-        FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType(introspectedTable.getMyBatis3SqlProviderType());
+        FullyQualifiedJavaType fqjt = FullyQualifiedJavaType.of(introspectedTable.getMyBatis3SqlProviderType());
         StringBuilder sb = new StringBuilder();
         sb.append("@InsertProvider(type="); //$NON-NLS-1$
         sb.append(fqjt.getShortName());
@@ -56,6 +56,6 @@ public class AnnotatedInsertSelectiveMethodGenerator extends
         if (gk != null) {
             addGeneratedKeyImports(interfaze, gk);
         }
-        interfaze.addImportedType(new FullyQualifiedJavaType("org.apache.ibatis.annotations.InsertProvider")); //$NON-NLS-1$
+        interfaze.addImportedType(FullyQualifiedJavaType.of("org.apache.ibatis.annotations.InsertProvider")); //$NON-NLS-1$
     }
 }
@@ -110,6 +110,6 @@ public class AnnotatedUpdateByPrimaryKeyWithBLOBsMethodGenerator extends
 
     @Override
     public void addExtraImports(Interface interfaze) {
-        interfaze.addImportedType(new FullyQualifiedJavaType("org.apache.ibatis.annotations.Update")); //$NON-NLS-1$
+        interfaze.addImportedType(FullyQualifiedJavaType.of("org.apache.ibatis.annotations.Update")); //$NON-NLS-1$
     }
 }
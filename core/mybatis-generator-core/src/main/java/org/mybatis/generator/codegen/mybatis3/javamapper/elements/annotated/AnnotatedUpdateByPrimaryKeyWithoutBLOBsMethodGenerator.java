@@ -119,6 +119,6 @@ public class AnnotatedUpdateByPrimaryKeyWithoutBLOBsMethodGenerator extends
 
     @Override
     public void addExtraImports(Interface interfaze) {
-        interfaze.addImportedType(new FullyQualifiedJavaType("org.apache.ibatis.annotations.Update")); //$NON-NLS-1$
+        interfaze.addImportedType(FullyQualifiedJavaType.of("org.apache.ibatis.annotations.Update")); //$NON-NLS-1$
     }
 }
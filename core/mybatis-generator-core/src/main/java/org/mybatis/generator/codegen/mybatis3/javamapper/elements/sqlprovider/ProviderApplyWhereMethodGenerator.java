@@ -144,14 +144,14 @@ public class ProviderApplyWhereMethodGenerator extends
         	importedTypes.add(NEW_BUILDER_IMPORT);
         }
         
-        importedTypes.add(new FullyQualifiedJavaType(
+        importedTypes.add(FullyQualifiedJavaType.of(
                 "java.util.List")); //$NON-NLS-1$
         
-        FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType(introspectedTable.getExampleType());
+        FullyQualifiedJavaType fqjt = FullyQualifiedJavaType.of(introspectedTable.getExampleType());
         importedTypes.add(fqjt);
-        importedTypes.add(new FullyQualifiedJavaType(
+        importedTypes.add(FullyQualifiedJavaType.of(
                 String.format("%s.Criteria", fqjt.getFullyQualifiedName()))); //$NON-NLS-1$
-        importedTypes.add(new FullyQualifiedJavaType(
+        importedTypes.add(FullyQualifiedJavaType.of(
                 String.format("%s.Criterion", fqjt.getFullyQualifiedName()))); //$NON-NLS-1$
 
         Method method = new Method("applyWhere"); //$NON-NLS-1$
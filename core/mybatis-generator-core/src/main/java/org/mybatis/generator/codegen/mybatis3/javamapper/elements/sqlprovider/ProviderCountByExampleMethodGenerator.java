@@ -52,7 +52,7 @@ public class ProviderCountByExampleMethodGenerator extends
         	importedTypes.add(NEW_BUILDER_IMPORT);
         }
         
-        FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType(introspectedTable.getExampleType());
+        FullyQualifiedJavaType fqjt = FullyQualifiedJavaType.of(introspectedTable.getExampleType());
         importedTypes.add(fqjt);
 
         Method method = new Method(
@@ -57,12 +57,12 @@ public class ProviderUpdateByExampleSelectiveMethodGenerator extends
         	importedTypes.add(NEW_BUILDER_IMPORT);
         }
 
-        importedTypes.add(new FullyQualifiedJavaType("java.util.Map")); //$NON-NLS-1$
+        importedTypes.add(FullyQualifiedJavaType.of("java.util.Map")); //$NON-NLS-1$
         
         Method method = new Method(introspectedTable.getUpdateByExampleSelectiveStatementId());
         method.setReturnType(FullyQualifiedJavaType.getStringInstance());
         method.setVisibility(JavaVisibility.PUBLIC);
-        method.addParameter(new Parameter(new FullyQualifiedJavaType("java.util.Map<java.lang.String, java.lang.Object>"), //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.of("java.util.Map<java.lang.String, java.lang.Object>"), //$NON-NLS-1$
                 "parameter")); //$NON-NLS-1$
         
         FullyQualifiedJavaType record =
@@ -72,7 +72,7 @@ public class ProviderUpdateByExampleSelectiveMethodGenerator extends
                 record.getShortName(), record.getShortName()));
 
         FullyQualifiedJavaType example =
-            new FullyQualifiedJavaType(introspectedTable.getExampleType());
+            FullyQualifiedJavaType.of(introspectedTable.getExampleType());
         importedTypes.add(example);
         method.addBodyLine(String.format("%s example = (%s) parameter.get(\"example\");", //$NON-NLS-1$
                 example.getShortName(), example.getShortName()));
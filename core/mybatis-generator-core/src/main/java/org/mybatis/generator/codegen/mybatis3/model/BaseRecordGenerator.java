@@ -35,7 +35,6 @@ import org.mybatis.generator.api.dom.java.Method;
 import org.mybatis.generator.api.dom.java.Parameter;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
 import org.mybatis.generator.codegen.AbstractJavaGenerator;
-import org.mybatis.generator.codegen.RootClassInfo;
 
 /**
  * 
@@ -56,7 +55,7 @@ public class BaseRecordGenerator extends AbstractJavaGenerator {
         Plugin plugins = context.getPlugins();
         CommentGenerator commentGenerator = context.getCommentGenerator();
 
-        FullyQualifiedJavaType type = new FullyQualifiedJavaType(
+        FullyQualifiedJavaType type = FullyQualifiedJavaType.of(
                 introspectedTable.getBaseRecordType());
         TopLevelClass topLevelClass = new TopLevelClass(type);
         topLevelClass.setVisibility(JavaVisibility.PUBLIC);
@@ -81,7 +80,7 @@ public class BaseRecordGenerator extends AbstractJavaGenerator {
         
         String rootClass = getRootClass();
         for (IntrospectedColumn introspectedColumn : introspectedColumns) {
-            if (RootClassInfo.getInstance(rootClass, warnings)
+            if (context.getGenerationSession().getRootClassInfo(rootClass, warnings)
                     .containsProperty(introspectedColumn)) {
                 continue;
             }
@@ -122,12 +121,12 @@ public class BaseRecordGenerator extends AbstractJavaGenerator {
     private FullyQualifiedJavaType getSuperClass() {
         FullyQualifiedJavaType superClass;
         if (introspectedTable.getRules().generatePrimaryKeyClass()) {
-            superClass = new FullyQualifiedJavaType(introspectedTable
+            superClass = FullyQualifiedJavaType.of(introspectedTable
                     .getPrimaryKeyType());
         } else {
             String rootClass = getRootClass();
             if (rootClass != null) {
-                superClass = new FullyQualifiedJavaType(rootClass);
+                superClass = FullyQualifiedJavaType.of(rootClass);
             } else {
                 superClass = null;
             }
@@ -35,7 +35,6 @@ import org.mybatis.generator.api.dom.java.Method;
 import org.mybatis.generator.api.dom.java.Parameter;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
 import org.mybatis.generator.codegen.AbstractJavaGenerator;
-import org.mybatis.generator.codegen.RootClassInfo;
 
 /**
  * 
@@ -63,7 +62,7 @@ public class PrimaryKeyGenerator extends AbstractJavaGenerator {
 
         String rootClass = getRootClass();
         if (rootClass != null) {
-            topLevelClass.setSuperClass(new FullyQualifiedJavaType(rootClass));
+            topLevelClass.setSuperClass(FullyQualifiedJavaType.of(rootClass));
             topLevelClass.addImportedType(topLevelClass.getSuperClass());
         }
 
@@ -79,7 +78,7 @@ public class PrimaryKeyGenerator extends AbstractJavaGenerator {
 
         for (IntrospectedColumn introspectedColumn : introspectedTable
                 .getPrimaryKeyColumns()) {
-            if (RootClassInfo.getInstance(rootClass, warnings)
+            if (context.getGenerationSession().getRootClassInfo(rootClass, warnings)
                     .containsProperty(introspectedColumn)) {
                 continue;
             }
@@ -17,17 +17,31 @@ package org.mybatis.generator.config;
 
 import static org.mybatis.generator.internal.util.StringUtility.composeFullyQualifiedTableName;
 import static org.mybatis.generator.internal.util.StringUtility.isTrue;
+import static org.mybatis.generator.internal.util.StringUtility.stringContainsSQLWildcard;
 import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
 import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 import org.mybatis.generator.api.CommentGenerator;
 import org.mybatis.generator.api.ConnectionFactory;
+import org.mybatis.generator.api.GeneratedFileCallback;
 import org.mybatis.generator.api.GeneratedJavaFile;
 import org.mybatis.generator.api.GeneratedXmlFile;
 import org.mybatis.generator.api.JavaFormatter;
@@ -35,13 +49,36 @@ import org.mybatis.generator.api.Plugin;
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.JavaTypeResolver;
 import org.mybatis.generator.api.ProgressCallback;
+import org.mybatis.generator.api.ThreadSafeCommentGenerator;
+import org.mybatis.generator.api.ThreadSafeJavaFormatter;
+import org.mybatis.generator.api.ThreadSafePlugin;
+import org.mybatis.generator.api.ThreadSafeXmlFormatter;
 import org.mybatis.generator.api.XmlFormatter;
+import org.mybatis.generator.api.dom.DefaultJavaFormatter;
+import org.mybatis.generator.api.dom.DefaultXmlFormatter;
 import org.mybatis.generator.api.dom.xml.Attribute;
 import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.internal.BufferedProgressCallback;
+import org.mybatis.generator.internal.DefaultCommentGenerator;
+import org.mybatis.generator.internal.FlightRecorder;
+import org.mybatis.generator.internal.GenerationManifest;
+import org.mybatis.generator.internal.GenerationSession;
 import org.mybatis.generator.internal.JDBCConnectionFactory;
 import org.mybatis.generator.internal.ObjectFactory;
+import org.mybatis.generator.internal.ParallelTaskExecutor;
 import org.mybatis.generator.internal.PluginAggregator;
+import org.mybatis.generator.internal.PluginProfiler;
+import org.mybatis.generator.internal.RunReport;
+import org.mybatis.generator.internal.SharedIntrospection;
+import org.mybatis.generator.internal.db.BulkMetadata;
+import org.mybatis.generator.internal.db.BulkMetadataSource;
+import org.mybatis.generator.internal.db.CachingMetadataSource;
+import org.mybatis.generator.internal.db.ConnectionPool;
 import org.mybatis.generator.internal.db.DatabaseIntrospector;
+import org.mybatis.generator.internal.db.JdbcMetadataSource;
+import org.mybatis.generator.internal.db.MetadataCache;
+import org.mybatis.generator.internal.db.MetadataSource;
+import org.mybatis.generator.internal.db.MetadataSourcePool;
 
 /**
  * The Class Context.
@@ -49,6 +86,12 @@ import org.mybatis.generator.internal.db.DatabaseIntrospector;
  * @author Jeff Butler
  */
 public class Context extends PropertyHolder {
+
+    /**
+     * The number of tables per thread that are generated ahead of the file
+     * callback when tables are released after generation.
+     */
+    private static final int TABLES_PER_GENERATION_THREAD = 4;
     
     /** The id. */
     private String id;
@@ -91,6 +134,9 @@ public class Context extends PropertyHolder {
     /** The plugin aggregator. */
     private PluginAggregator pluginAggregator;
 
+    /** The plugins, which may record Flight Recorder events for the aggregator. */
+    private Plugin plugins;
+
     /** The plugin configurations. */
     private List<PluginConfiguration> pluginConfigurations;
 
@@ -109,6 +155,18 @@ public class Context extends PropertyHolder {
     /** The xml formatter. */
     private XmlFormatter xmlFormatter;
     
+    /** The session of the generation run that uses this context. */
+    private GenerationSession generationSession;
+    
+    /** The profiler of the plugins in the current run, or null if plugins are not profiled. */
+    private PluginProfiler pluginProfiler;
+
+    /** The report of the current generation run, or null. */
+    private RunReport runReport;
+
+    /** The connections and metadata shared with other contexts of the current run, or null. */
+    private SharedIntrospection sharedIntrospection;
+    
     /**
      * Constructs a Context object.
      * 
@@ -194,6 +252,15 @@ public class Context extends PropertyHolder {
         pluginConfigurations.add(pluginConfiguration);
     }
 
+    /**
+     * Gets the plugin configurations.
+     *
+     * @return the plugin configurations
+     */
+    public List<PluginConfiguration> getPluginConfigurations() {
+        return pluginConfigurations;
+    }
+
     /**
      * This method does a simple validate, it makes sure that all required fields have been filled in. It does not do
      * any more complex operations such as validating that database tables exist or validating that named columns exist
@@ -256,6 +323,51 @@ public class Context extends PropertyHolder {
         for (PluginConfiguration pluginConfiguration : pluginConfigurations) {
             pluginConfiguration.validate(errors, id);
         }
+
+        validatePositiveIntegerProperty(
+                PropertyRegistry.CONTEXT_INTROSPECTION_THREADS, errors);
+        validatePositiveIntegerProperty(
+                PropertyRegistry.CONTEXT_GENERATION_THREADS, errors);
+        validatePositiveIntegerProperty(
+                PropertyRegistry.CONTEXT_METADATA_CACHE_TIME_TO_LIVE, errors);
+    }
+
+    /**
+     * Adds an error if the specified property is set, but is not a positive integer.
+     *
+     * @param propertyName
+     *            the property name
+     * @param errors
+     *            the errors
+     */
+    private void validatePositiveIntegerProperty(String propertyName,
+            List<String> errors) {
+        String value = getProperty(propertyName);
+        if (value != null && getPositiveIntegerProperty(propertyName) == 0) {
+            errors.add(getString("ValidationError.28", propertyName, id)); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Returns the value of a property that must be a positive integer.
+     *
+     * @param propertyName
+     *            the property name
+     * @return the value of the property, or 0 if the property is not set or is
+     *         not a positive integer
+     */
+    private int getPositiveIntegerProperty(String propertyName) {
+        String value = getProperty(propertyName);
+        if (!stringHasValue(value)) {
+            return 0;
+        }
+
+        try {
+            int answer = Integer.parseInt(value.trim());
+            return answer > 0 ? answer : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 
     /**
@@ -493,6 +605,64 @@ public class Context extends PropertyHolder {
         return xmlFormatter;
     }
     
+    /**
+     * Gets the session of the generation run that uses this context. If no
+     * session has been set, this is the current session of the calling thread.
+     *
+     * @return the generation session
+     */
+    public GenerationSession getGenerationSession() {
+        return generationSession == null ? GenerationSession.getCurrent()
+                : generationSession;
+    }
+
+    /**
+     * Sets the session of the generation run that uses this context. This is
+     * called by MyBatisGenerator at the start of each run.
+     *
+     * @param generationSession
+     *            the generation session
+     */
+    public void setGenerationSession(GenerationSession generationSession) {
+        this.generationSession = generationSession;
+    }
+
+    /**
+     * Sets the profiler that records the time of the plugin hooks in the
+     * generation run that uses this context. This is called by MyBatisGenerator
+     * at the start of each run.
+     *
+     * @param pluginProfiler
+     *            the plugin profiler, or null if plugins should not be profiled
+     */
+    public void setPluginProfiler(PluginProfiler pluginProfiler) {
+        this.pluginProfiler = pluginProfiler;
+    }
+
+    /**
+     * Sets the report that records the time of each table in the generation
+     * run that uses this context. This is called by MyBatisGenerator at the
+     * start of each run.
+     *
+     * @param runReport
+     *            the run report, or null if the run is not reported
+     */
+    public void setRunReport(RunReport runReport) {
+        this.runReport = runReport;
+    }
+
+    /**
+     * Sets the connections and metadata that this context shares with other
+     * contexts of the generation run that use the same database. This is
+     * called by MyBatisGenerator at the start of each run.
+     *
+     * @param sharedIntrospection
+     *            the shared introspection, or null if nothing is shared
+     */
+    public void setSharedIntrospection(SharedIntrospection sharedIntrospection) {
+        this.sharedIntrospection = sharedIntrospection;
+    }
+
     /**
      * Gets the comment generator configuration.
      *
@@ -519,7 +689,7 @@ public class Context extends PropertyHolder {
      * @return the plugins
      */
     public Plugin getPlugins() {
-        return pluginAggregator;
+        return plugins;
     }
 
     /**
@@ -619,38 +789,214 @@ public class Context extends PropertyHolder {
     public void introspectTables(ProgressCallback callback,
             List<String> warnings, Set<String> fullyQualifiedTableNames)
             throws SQLException, InterruptedException {
+        introspectTables(callback, warnings, fullyQualifiedTableNames, 0);
+    }
+
+    /**
+     * Introspect tables based on the configuration specified in the
+     * constructor. This method is long running.
+     * 
+     * <p>If more than one introspection thread is requested, the tables are
+     * spread across that many connections obtained from the connection
+     * factory. The introspected tables, and any warnings, are always returned
+     * in the same order as a single threaded introspection.
+     * 
+     * @param callback
+     *            a progress callback if progress information is desired, or
+     *            <code>null</code>
+     * @param warnings
+     *            any warning generated from this method will be added to the
+     *            List. Warnings are always Strings.
+     * @param fullyQualifiedTableNames
+     *            a set of table names to generate. The elements of the set must
+     *            be Strings that exactly match what's specified in the
+     *            configuration. For example, if table name = "foo" and schema =
+     *            "bar", then the fully qualified table name is "foo.bar". If
+     *            the Set is null or empty, then all tables in the configuration
+     *            will be used for code generation.
+     * @param introspectionThreads
+     *            the number of tables to introspect concurrently. This value
+     *            is only used if the "introspectionThreads" property is not
+     *            set on this context. A value less than 2 means that tables are
+     *            introspected one at a time on a single connection.
+     * 
+     * @throws SQLException
+     *             if some error arises while introspecting the specified
+     *             database tables.
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     */
+    public void introspectTables(ProgressCallback callback,
+            List<String> warnings, Set<String> fullyQualifiedTableNames,
+            int introspectionThreads) throws SQLException, InterruptedException {
+        introspectTables(callback, warnings, fullyQualifiedTableNames,
+                introspectionThreads, false);
+    }
+
+    /**
+     * Introspect tables based on the configuration specified in the
+     * constructor. This method is long running.
+     * 
+     * <p>If the "metadataCache" property is set, database metadata is read
+     * from the cache file when possible, and the database is only contacted
+     * for metadata that is not in the cache (or has expired). In that case
+     * no connection is opened at all if every table can be introspected from
+     * the cache.
+     * 
+     * @param callback
+     *            a progress callback if progress information is desired, or
+     *            <code>null</code>
+     * @param warnings
+     *            any warning generated from this method will be added to the
+     *            List. Warnings are always Strings.
+     * @param fullyQualifiedTableNames
+     *            a set of table names to generate. The elements of the set must
+     *            be Strings that exactly match what's specified in the
+     *            configuration. For example, if table name = "foo" and schema =
+     *            "bar", then the fully qualified table name is "foo.bar". If
+     *            the Set is null or empty, then all tables in the configuration
+     *            will be used for code generation.
+     * @param introspectionThreads
+     *            the number of tables to introspect concurrently. This value
+     *            is only used if the "introspectionThreads" property is not
+     *            set on this context. A value less than 2 means that tables are
+     *            introspected one at a time on a single connection.
+     * @param refreshMetadataCache
+     *            if true, and a metadata cache is configured, all metadata is
+     *            read from the database and the cache is updated
+     * 
+     * @throws SQLException
+     *             if some error arises while introspecting the specified
+     *             database tables.
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     */
+    public void introspectTables(ProgressCallback callback,
+            List<String> warnings, Set<String> fullyQualifiedTableNames,
+            int introspectionThreads, boolean refreshMetadataCache)
+            throws SQLException, InterruptedException {
 
         introspectedTables = new ArrayList<IntrospectedTable>();
-        JavaTypeResolver javaTypeResolver = ObjectFactory
-                .createJavaTypeResolver(this, warnings);
 
-        Connection connection = null;
+        List<TableConfiguration> tablesToIntrospect = new ArrayList<TableConfiguration>();
+        int enabledTables = 0;
+        boolean anyWildcards = false;
+        for (TableConfiguration tc : tableConfigurations) {
+            String tableName = composeFullyQualifiedTableName(tc.getCatalog(), tc
+                            .getSchema(), tc.getTableName(), '.');
+
+            if (fullyQualifiedTableNames != null
+                    && fullyQualifiedTableNames.size() > 0
+                    && !fullyQualifiedTableNames.contains(tableName)) {
+                continue;
+            }
+
+            tablesToIntrospect.add(tc);
+            if (tc.areAnyStatementsEnabled()) {
+                enabledTables++;
+                anyWildcards |= !tc.isWildcardEscapingEnabled()
+                        && (stringContainsSQLWildcard(tc.getSchema())
+                                || stringContainsSQLWildcard(tc.getTableName()));
+            }
+        }
+
+        int threads = getPositiveIntegerProperty(PropertyRegistry.CONTEXT_INTROSPECTION_THREADS);
+        if (threads == 0) {
+            threads = introspectionThreads;
+        }
+        if (!anyWildcards) {
+            // a table configuration with wildcards can match many tables, and
+            // the matched tables are introspected concurrently
+            threads = Math.min(threads, enabledTables);
+        }
+
+        ConnectionFactory connectionFactory = getGenerationSession()
+                .getConnectionFactory(id, getConnectionFactory());
+        if (sharedIntrospection != null) {
+            connectionFactory = sharedIntrospection.getConnectionFactory(this,
+                    connectionFactory);
+        }
+        ConnectionPool connectionPool = new ConnectionPool(connectionFactory,
+                threads);
+        MetadataCache metadataCache = loadMetadataCache(warnings);
 
         try {
             callback.startTask(getString("Progress.0")); //$NON-NLS-1$
-            connection = getConnection();
+            if (metadataCache == null) {
+                // connect up front so that connection errors are reported
+                // before any work is started
+                connectionPool.open();
+            } else {
+                updateSchemaFingerprint(metadataCache, connectionPool, warnings);
+            }
+
+            MetadataSourceFactory metadataSourceFactory = new MetadataSourceFactory(
+                    connectionPool, metadataCache, refreshMetadataCache);
+            if (threads > 1) {
+                introspectTablesConcurrently(callback, warnings,
+                        tablesToIntrospect, threads, metadataSourceFactory);
+            } else {
+                introspectTablesSerially(callback, warnings,
+                        tablesToIntrospect, metadataSourceFactory);
+            }
+        } finally {
+            connectionPool.close();
+            saveMetadataCache(metadataCache, warnings);
+        }
+    }
+
+    /**
+     * Introspects tables one at a time on a single connection.
+     *
+     * @param callback
+     *            the progress callback
+     * @param warnings
+     *            the warnings
+     * @param tablesToIntrospect
+     *            the table configurations to introspect
+     * @param metadataSourceFactory
+     *            the factory for the metadata sources
+     * @throws SQLException
+     *             if some error arises while introspecting the specified
+     *             database tables.
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     */
+    private void introspectTablesSerially(ProgressCallback callback,
+            List<String> warnings, List<TableConfiguration> tablesToIntrospect,
+            MetadataSourceFactory metadataSourceFactory) throws SQLException,
+            InterruptedException {
+        JavaTypeResolver javaTypeResolver = ObjectFactory
+                .createJavaTypeResolver(this, warnings);
+
+        PooledMetadataSource pooledMetadataSource = metadataSourceFactory
+                .createPooledMetadataSource();
 
+        try {
             DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(
-                    this, connection.getMetaData(), javaTypeResolver, warnings);
+                    this, metadataSourceFactory
+                            .createMetadataSource(pooledMetadataSource),
+                    javaTypeResolver, warnings);
 
-            for (TableConfiguration tc : tableConfigurations) {
+            for (TableConfiguration tc : tablesToIntrospect) {
                 String tableName = composeFullyQualifiedTableName(tc.getCatalog(), tc
                                 .getSchema(), tc.getTableName(), '.');
 
-                if (fullyQualifiedTableNames != null
-                        && fullyQualifiedTableNames.size() > 0
-                        && !fullyQualifiedTableNames.contains(tableName)) {
-                    continue;
-                }
-
                 if (!tc.areAnyStatementsEnabled()) {
                     warnings.add(getString("Warning.0", tableName)); //$NON-NLS-1$
                     continue;
                 }
 
                 callback.startTask(getString("Progress.1", tableName)); //$NON-NLS-1$
+                long startNanos = System.nanoTime();
+                int roundTrips = pooledMetadataSource.getRoundTrips();
                 List<IntrospectedTable> tables = databaseIntrospector
                         .introspectTables(tc);
+                if (runReport != null) {
+                    runReport.tableIntrospected(id, tableName,
+                            System.nanoTime() - startNanos,
+                            pooledMetadataSource.getRoundTrips() - roundTrips);
+                }
 
                 if (tables != null) {
                     introspectedTables.addAll(tables);
@@ -659,10 +1005,474 @@ public class Context extends PropertyHolder {
                 callback.checkCancel();
             }
         } finally {
-            closeConnection(connection);
+            pooledMetadataSource.release();
+        }
+    }
+
+    /**
+     * Introspects tables on several threads, each with its own connection. Every
+     * table is introspected with its own warning list so that the warnings can
+     * be reported in configuration order when all tables are done.
+     *
+     * @param callback
+     *            the progress callback
+     * @param warnings
+     *            the warnings
+     * @param tablesToIntrospect
+     *            the table configurations to introspect
+     * @param threads
+     *            the number of threads (and connections) to use
+     * @param metadataSourceFactory
+     *            the factory for the metadata sources
+     * @throws SQLException
+     *             if some error arises while introspecting the specified
+     *             database tables.
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     */
+    private void introspectTablesConcurrently(final ProgressCallback callback,
+            final List<String> warnings,
+            final List<TableConfiguration> tablesToIntrospect, int threads,
+            MetadataSourceFactory metadataSourceFactory) throws SQLException,
+            InterruptedException {
+        final List<TableConfiguration> enabledTables = new ArrayList<TableConfiguration>();
+        ParallelTaskExecutor<TableIntrospectionResult> executor =
+                new ParallelTaskExecutor<TableIntrospectionResult>(
+                        "mbg-introspection-" + id, threads); //$NON-NLS-1$
+        // the tables matched by wildcards run on a single executor shared by
+        // all table configurations
+        ExecutorService tableExecutorService = ParallelTaskExecutor
+                .newExecutorService("mbg-tables-" + id, threads); //$NON-NLS-1$
+        for (TableConfiguration tc : tablesToIntrospect) {
+            if (tc.areAnyStatementsEnabled()) {
+                enabledTables.add(tc);
+                executor.submit(new TableIntrospectionTask(tc,
+                        metadataSourceFactory, threads, tableExecutorService));
+            }
+        }
+
+        List<TableIntrospectionResult> results;
+        try {
+            results = executor.awaitAll(callback,
+                    new ParallelTaskExecutor.ResultListener<TableIntrospectionResult>() {
+                        public void resultAvailable(int index,
+                                TableIntrospectionResult result) {
+                            TableConfiguration tc = enabledTables.get(index);
+                            callback.startTask(getString("Progress.1", //$NON-NLS-1$
+                                    composeFullyQualifiedTableName(tc.getCatalog(),
+                                            tc.getSchema(), tc.getTableName(), '.')));
+                        }
+                    });
+        } catch (ExecutionException e) {
+            Throwable cause = ParallelTaskExecutor.unwrap(e);
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            tableExecutorService.shutdownNow();
+        }
+
+        // merge the results in configuration order
+        int resultIndex = 0;
+        for (TableConfiguration tc : tablesToIntrospect) {
+            if (!tc.areAnyStatementsEnabled()) {
+                warnings.add(getString("Warning.0", //$NON-NLS-1$
+                        composeFullyQualifiedTableName(tc.getCatalog(),
+                                tc.getSchema(), tc.getTableName(), '.')));
+                continue;
+            }
+
+            TableIntrospectionResult result = results.get(resultIndex++);
+            if (runReport != null) {
+                runReport.tableIntrospected(id, composeFullyQualifiedTableName(
+                        tc.getCatalog(), tc.getSchema(), tc.getTableName(), '.'),
+                        result.nanos, result.metadataRoundTrips);
+            }
+            warnings.addAll(result.warnings);
+            if (result.introspectedTables != null) {
+                introspectedTables.addAll(result.introspectedTables);
+            }
+        }
+    }
+
+    /**
+     * The result of introspecting a single table configuration.
+     */
+    private static class TableIntrospectionResult {
+        private List<IntrospectedTable> introspectedTables;
+        private List<String> warnings = new ArrayList<String>();
+        private long nanos;
+        private int metadataRoundTrips;
+    }
+
+    /**
+     * Introspects a single table configuration on a connection borrowed from
+     * the pool. The connection is only borrowed if some metadata is not in
+     * the metadata cache. If the table configuration matches several tables,
+     * the tables are finished concurrently on the shared table executor, with
+     * connections borrowed from the same pool.
+     */
+    private class TableIntrospectionTask implements
+            Callable<TableIntrospectionResult> {
+        private TableConfiguration tc;
+        private MetadataSourceFactory metadataSourceFactory;
+        private int threads;
+        private ExecutorService tableExecutorService;
+
+        TableIntrospectionTask(TableConfiguration tc,
+                MetadataSourceFactory metadataSourceFactory, int threads,
+                ExecutorService tableExecutorService) {
+            super();
+            this.tc = tc;
+            this.metadataSourceFactory = metadataSourceFactory;
+            this.threads = threads;
+            this.tableExecutorService = tableExecutorService;
+        }
+
+        public TableIntrospectionResult call() throws Exception {
+            TableIntrospectionResult result = new TableIntrospectionResult();
+            long startNanos = System.nanoTime();
+            PooledMetadataSource pooledMetadataSource = metadataSourceFactory
+                    .createPooledMetadataSource();
+            TableMetadataSourcePool metadataSourcePool = new TableMetadataSourcePool(
+                    metadataSourceFactory, pooledMetadataSource, threads,
+                    tableExecutorService);
+            try {
+                JavaTypeResolver javaTypeResolver = ObjectFactory
+                        .createJavaTypeResolver(Context.this, result.warnings);
+                DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(
+                        Context.this, metadataSourceFactory
+                                .createMetadataSource(pooledMetadataSource),
+                        javaTypeResolver, result.warnings);
+                databaseIntrospector.setMetadataSourcePool(metadataSourcePool);
+                result.introspectedTables = databaseIntrospector
+                        .introspectTables(tc);
+            } finally {
+                pooledMetadataSource.release();
+            }
+            result.nanos = System.nanoTime() - startNanos;
+            result.metadataRoundTrips = pooledMetadataSource.getRoundTrips()
+                    + metadataSourcePool.getRoundTrips();
+
+            return result;
+        }
+    }
+
+    /**
+     * Lends metadata sources to the threads that finish the tables matched by
+     * a table configuration with wildcards. Every source borrows its
+     * connection from the connection pool of the context, so the threads of a
+     * context never hold more connections than the pool allows.
+     */
+    private static class TableMetadataSourcePool implements MetadataSourcePool {
+        private MetadataSourceFactory metadataSourceFactory;
+        private PooledMetadataSource introspectorMetadataSource;
+        private int threads;
+        private ExecutorService executorService;
+        private Map<MetadataSource, PooledMetadataSource> borrowed =
+                new IdentityHashMap<MetadataSource, PooledMetadataSource>();
+        private int roundTrips;
+
+        TableMetadataSourcePool(MetadataSourceFactory metadataSourceFactory,
+                PooledMetadataSource introspectorMetadataSource, int threads,
+                ExecutorService executorService) {
+            super();
+            this.metadataSourceFactory = metadataSourceFactory;
+            this.introspectorMetadataSource = introspectorMetadataSource;
+            this.threads = threads;
+            this.executorService = executorService;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public ExecutorService getExecutorService() {
+            return executorService;
+        }
+
+        public void releaseIntrospectorConnection() {
+            introspectorMetadataSource.release();
+        }
+
+        public MetadataSource acquire() {
+            PooledMetadataSource pooledMetadataSource = metadataSourceFactory
+                    .createPooledMetadataSource();
+            MetadataSource answer = metadataSourceFactory
+                    .createMetadataSource(pooledMetadataSource);
+            synchronized (this) {
+                borrowed.put(answer, pooledMetadataSource);
+            }
+
+            return answer;
+        }
+
+        public void release(MetadataSource metadataSource) {
+            PooledMetadataSource pooledMetadataSource;
+            synchronized (this) {
+                pooledMetadataSource = borrowed.remove(metadataSource);
+            }
+
+            if (pooledMetadataSource != null) {
+                pooledMetadataSource.release();
+                synchronized (this) {
+                    roundTrips += pooledMetadataSource.getRoundTrips();
+                }
+            }
+        }
+
+        synchronized int getRoundTrips() {
+            return roundTrips;
         }
     }
 
+    /**
+     * A metadata source that borrows a connection from the pool the first
+     * time metadata is read from the database, and keeps it until it is
+     * released. It counts the calls that are sent to the database.
+     */
+    private static class PooledMetadataSource extends JdbcMetadataSource {
+        private ConnectionPool connectionPool;
+        private Connection connection;
+        private int roundTrips;
+
+        PooledMetadataSource(ConnectionPool connectionPool) {
+            super(null);
+            this.connectionPool = connectionPool;
+        }
+
+        @Override
+        protected DatabaseMetaData getDatabaseMetaData() throws SQLException {
+            // every metadata method of the superclass calls this method once
+            roundTrips++;
+            if (connection == null) {
+                try {
+                    connection = connectionPool.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException(e.getMessage(), e);
+                }
+            }
+
+            return connection.getMetaData();
+        }
+
+        int getRoundTrips() {
+            return roundTrips;
+        }
+
+        void release() {
+            if (connection != null) {
+                connectionPool.release(connection);
+                connection = null;
+            }
+        }
+    }
+
+    /**
+     * Creates the metadata sources used to introspect the tables of this
+     * context. Every thread gets its own sources, but they share the
+     * connection pool, the metadata cache, and any metadata read in bulk.
+     */
+    private class MetadataSourceFactory {
+        private ConnectionPool connectionPool;
+        private MetadataCache metadataCache;
+        private boolean refreshMetadataCache;
+        private BulkMetadata bulkMetadata;
+
+        MetadataSourceFactory(ConnectionPool connectionPool,
+                MetadataCache metadataCache, boolean refreshMetadataCache) {
+            super();
+            this.connectionPool = connectionPool;
+            this.metadataCache = metadataCache;
+            this.refreshMetadataCache = refreshMetadataCache;
+            if (isTrue(getProperty(PropertyRegistry.CONTEXT_BULK_INTROSPECTION))) {
+                bulkMetadata = new BulkMetadata();
+            }
+        }
+
+        PooledMetadataSource createPooledMetadataSource() {
+            return new PooledMetadataSource(connectionPool);
+        }
+
+        /**
+         * Returns the metadata source used to introspect tables. If bulk
+         * introspection is enabled, metadata is read a schema at a time. If
+         * other contexts of the run use the same database, the source answers
+         * from the metadata they have read. If a metadata cache is configured,
+         * the source answers from the cache when it can.
+         *
+         * @param pooledMetadataSource
+         *            the source that reads metadata from the database
+         * @return the metadata source
+         */
+        MetadataSource createMetadataSource(
+                PooledMetadataSource pooledMetadataSource) {
+            MetadataSource answer = pooledMetadataSource;
+            if (bulkMetadata != null) {
+                answer = new BulkMetadataSource(bulkMetadata,
+                        pooledMetadataSource);
+            }
+
+            if (sharedIntrospection != null) {
+                answer = sharedIntrospection.getMetadataSource(Context.this,
+                        answer);
+            }
+
+            if (metadataCache != null) {
+                long timeToLive = getPositiveIntegerProperty(
+                        PropertyRegistry.CONTEXT_METADATA_CACHE_TIME_TO_LIVE) * 1000L;
+                answer = new CachingMetadataSource(metadataCache,
+                        getMetadataCacheKey(), answer, timeToLive,
+                        refreshMetadataCache);
+            }
+
+            return answer;
+        }
+    }
+
+    /**
+     * Returns the metadata cache configured for this context, after reading
+     * the cache file. If the cache file cannot be read, a warning is added
+     * and the cache starts out empty.
+     *
+     * @param warnings
+     *            the warnings
+     * @return the metadata cache, or null if no cache is configured
+     */
+    private MetadataCache loadMetadataCache(List<String> warnings) {
+        String fileName = getProperty(PropertyRegistry.CONTEXT_METADATA_CACHE);
+        if (!stringHasValue(fileName)) {
+            return null;
+        }
+
+        MetadataCache metadataCache = MetadataCache.getInstance(new File(fileName));
+        try {
+            metadataCache.load();
+        } catch (IOException e) {
+            warnings.add(getString("Warning.30", //$NON-NLS-1$
+                    metadataCache.getFile().getPath(), e.getMessage()));
+        }
+
+        return metadataCache;
+    }
+
+    /**
+     * Writes any changes in the metadata cache to the cache file, and releases
+     * the cache.
+     *
+     * @param metadataCache
+     *            the metadata cache, or null
+     * @param warnings
+     *            the warnings
+     */
+    private void saveMetadataCache(MetadataCache metadataCache,
+            List<String> warnings) {
+        if (metadataCache == null) {
+            return;
+        }
+
+        try {
+            metadataCache.save();
+        } catch (IOException e) {
+            warnings.add(getString("Warning.31", //$NON-NLS-1$
+                    metadataCache.getFile().getPath(), e.getMessage()));
+        } finally {
+            metadataCache.release();
+        }
+    }
+
+    /**
+     * Runs the schema fingerprint query, if one is configured, and discards
+     * the cached metadata of this context's connection if the fingerprint
+     * has changed. If the query fails (for example, because the database is
+     * not available) the cached metadata is used as is.
+     *
+     * @param metadataCache
+     *            the metadata cache
+     * @param connectionPool
+     *            the connection pool
+     * @param warnings
+     *            the warnings
+     * @throws InterruptedException
+     *             if the connection pool has been closed
+     */
+    private void updateSchemaFingerprint(MetadataCache metadataCache,
+            ConnectionPool connectionPool, List<String> warnings)
+            throws InterruptedException {
+        String query = getProperty(PropertyRegistry.CONTEXT_METADATA_CACHE_FINGERPRINT_QUERY);
+        if (!stringHasValue(query)) {
+            return;
+        }
+
+        StringBuilder fingerprint = new StringBuilder();
+        try {
+            Connection connection = connectionPool.acquire();
+            try {
+                Statement statement = connection.createStatement();
+                try {
+                    ResultSet rs = statement.executeQuery(query);
+                    ResultSetMetaData rsmd = rs.getMetaData();
+                    while (rs.next()) {
+                        for (int i = 1; i <= rsmd.getColumnCount(); i++) {
+                            fingerprint.append(rs.getString(i));
+                            fingerprint.append('\t');
+                        }
+                        fingerprint.append('\n');
+                    }
+                    rs.close();
+                } finally {
+                    statement.close();
+                }
+            } finally {
+                connectionPool.release(connection);
+            }
+        } catch (SQLException e) {
+            warnings.add(getString("Warning.32", id, e.getMessage())); //$NON-NLS-1$
+            return;
+        }
+
+        metadataCache.updateFingerprint(getMetadataCacheKey(),
+                fingerprint.toString());
+    }
+
+    /**
+     * Returns the key that identifies this context's database in the metadata
+     * cache. The key is built from the connection URL and user, or from the
+     * connection factory type and properties. Passwords are never part of the
+     * key.
+     *
+     * @return the key
+     */
+    private String getMetadataCacheKey() {
+        StringBuilder sb = new StringBuilder();
+        if (jdbcConnectionConfiguration != null) {
+            sb.append(jdbcConnectionConfiguration.getConnectionURL());
+            if (stringHasValue(jdbcConnectionConfiguration.getUserId())) {
+                sb.append(" user="); //$NON-NLS-1$
+                sb.append(jdbcConnectionConfiguration.getUserId());
+            }
+        } else {
+            sb.append(connectionFactoryConfiguration.getConfigurationType());
+            Map<Object, Object> properties = new TreeMap<Object, Object>(
+                    connectionFactoryConfiguration.getProperties());
+            for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+                String name = entry.getKey().toString();
+                if (!name.toLowerCase().contains("password")) { //$NON-NLS-1$
+                    sb.append(' ');
+                    sb.append(name);
+                    sb.append('=');
+                    sb.append(entry.getValue());
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
     /**
      * Gets the generation steps.
      *
@@ -698,75 +1508,492 @@ public class Context extends PropertyHolder {
             List<GeneratedJavaFile> generatedJavaFiles,
             List<GeneratedXmlFile> generatedXmlFiles, List<String> warnings)
             throws InterruptedException {
+        generateFiles(callback, generatedJavaFiles, generatedXmlFiles,
+                warnings, 0);
+    }
+
+    /**
+     * Generate files.
+     *
+     * @param callback
+     *            the callback
+     * @param generatedJavaFiles
+     *            the generated java files
+     * @param generatedXmlFiles
+     *            the generated xml files
+     * @param warnings
+     *            the warnings
+     * @param generationThreads
+     *            the number of tables to generate concurrently
+     * @throws InterruptedException
+     *             the interrupted exception
+     */
+    public void generateFiles(ProgressCallback callback,
+            List<GeneratedJavaFile> generatedJavaFiles,
+            List<GeneratedXmlFile> generatedXmlFiles, List<String> warnings,
+            int generationThreads) throws InterruptedException {
+        generateFiles(callback, generatedJavaFiles, generatedXmlFiles,
+                warnings, generationThreads, null);
+    }
 
-        pluginAggregator = new PluginAggregator();
+    /**
+     * Generate files.
+     * 
+     * <p>If more than one generation thread is requested, every plugin in
+     * this context implements ThreadSafePlugin, and the comment generator and
+     * formatters are thread safe, the tables are generated concurrently. The generated files, warnings, and progress messages are
+     * always reported in the same order as a single threaded generation.
+     *
+     * @param callback
+     *            the callback
+     * @param generatedJavaFiles
+     *            the generated java files
+     * @param generatedXmlFiles
+     *            the generated xml files
+     * @param warnings
+     *            the warnings
+     * @param generationThreads
+     *            the number of tables to generate concurrently. This value is
+     *            only used if the "generationThreads" property is not set on
+     *            this context. A value less than 2 means that tables are
+     *            generated one at a time.
+     * @param manifest
+     *            the generation manifest of this context. If not null, only
+     *            the tables that changed since the last run are generated, and
+     *            the generated files are recorded in the manifest.
+     * @throws InterruptedException
+     *             the interrupted exception
+     */
+    public void generateFiles(ProgressCallback callback,
+            final List<GeneratedJavaFile> generatedJavaFiles,
+            final List<GeneratedXmlFile> generatedXmlFiles, List<String> warnings,
+            int generationThreads, GenerationManifest manifest)
+            throws InterruptedException {
+        GeneratedFileCallback fileCallback = new GeneratedFileCallback() {
+            public void filesGenerated(List<GeneratedJavaFile> javaFiles,
+                    List<GeneratedXmlFile> xmlFiles) {
+                generatedJavaFiles.addAll(javaFiles);
+                generatedXmlFiles.addAll(xmlFiles);
+            }
+        };
+
+        try {
+            generateFiles(callback, fileCallback, warnings, generationThreads,
+                    manifest, false);
+        } catch (IOException e) {
+            // cannot happen - adding to the lists does not throw
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Generates files and passes them to a callback as soon as they are
+     * generated. The files of each table are passed as soon as the table has
+     * been generated, in configuration order, followed by the files that
+     * plugins generate for the context as a whole.
+     * 
+     * <p>This method does not keep the generated files, and each introspected
+     * table is released as soon as its files have been passed to the callback,
+     * so the memory used does not depend on the number of tables. When tables
+     * are generated concurrently, only a few tables per thread are generated
+     * ahead of the callback. The tables must be introspected again before this
+     * context can generate files again.
+     *
+     * @param callback
+     *            the progress callback
+     * @param fileCallback
+     *            the callback that receives the generated files
+     * @param warnings
+     *            the warnings
+     * @param generationThreads
+     *            the number of tables to generate concurrently. This value is
+     *            only used if the "generationThreads" property is not set on
+     *            this context.
+     * @param manifest
+     *            the generation manifest of this context, or null
+     * @throws InterruptedException
+     *             if the progress callback or the file callback reports a
+     *             cancel
+     * @throws IOException
+     *             if the file callback throws an IOException
+     */
+    public void generateFiles(ProgressCallback callback,
+            GeneratedFileCallback fileCallback, List<String> warnings,
+            int generationThreads, GenerationManifest manifest)
+            throws InterruptedException, IOException {
+        generateFiles(callback, fileCallback, warnings, generationThreads,
+                manifest, true);
+    }
+
+    /**
+     * Returns the comment generator or formatter of this context that is
+     * shared by all generation threads, but is neither the default
+     * implementation nor marked as thread safe.
+     *
+     * @return the class name of the component and the name of the marker
+     *         interface it should implement, or null if all components are
+     *         thread safe
+     */
+    private String[] getNonThreadSafeComponent() {
+        Object component = getCommentGenerator();
+        if (component.getClass() != DefaultCommentGenerator.class
+                && !(component instanceof ThreadSafeCommentGenerator)) {
+            return new String[] { component.getClass().getName(),
+                    ThreadSafeCommentGenerator.class.getSimpleName() };
+        }
+
+        component = getJavaFormatter();
+        if (component.getClass() != DefaultJavaFormatter.class
+                && !(component instanceof ThreadSafeJavaFormatter)) {
+            return new String[] { component.getClass().getName(),
+                    ThreadSafeJavaFormatter.class.getSimpleName() };
+        }
+
+        component = getXmlFormatter();
+        if (component.getClass() != DefaultXmlFormatter.class
+                && !(component instanceof ThreadSafeXmlFormatter)) {
+            return new String[] { component.getClass().getName(),
+                    ThreadSafeXmlFormatter.class.getSimpleName() };
+        }
+
+        return null;
+    }
+
+    private void generateFiles(ProgressCallback callback,
+            GeneratedFileCallback fileCallback, List<String> warnings,
+            int generationThreads, GenerationManifest manifest,
+            boolean releaseTables) throws InterruptedException, IOException {
+
+        pluginAggregator = new PluginAggregator(pluginProfiler);
+        int pluginCount = 0;
+        String nonThreadSafePlugin = null;
         for (PluginConfiguration pluginConfiguration : pluginConfigurations) {
             Plugin plugin = ObjectFactory.createPlugin(this,
                     pluginConfiguration);
             if (plugin.validate(warnings)) {
                 pluginAggregator.addPlugin(plugin);
+                pluginCount++;
+                if (nonThreadSafePlugin == null
+                        && !(plugin instanceof ThreadSafePlugin)) {
+                    nonThreadSafePlugin = pluginConfiguration.getConfigurationType();
+                }
             } else {
                 warnings.add(getString("Warning.24", //$NON-NLS-1$
                         pluginConfiguration.getConfigurationType(), id));
             }
         }
+        plugins = FlightRecorder.record(pluginAggregator, pluginCount, id);
 
         if (introspectedTables != null) {
-            for (IntrospectedTable introspectedTable : introspectedTables) {
-                callback.checkCancel();
+            List<IntrospectedTable> tablesToGenerate = introspectedTables;
+            if (manifest != null) {
+                tablesToGenerate = manifest.selectTablesToGenerate(
+                        introspectedTables, callback);
+            }
+
+            if (releaseTables) {
+                // the tables are released one at a time from a copy of
+                // the list
+                tablesToGenerate = new ArrayList<IntrospectedTable>(
+                        tablesToGenerate);
+                introspectedTables = null;
+            }
+
+            // load the root classes up front so that a root class that cannot
+            // be loaded is reported in the same place no matter how many
+            // tables are generated concurrently
+            for (IntrospectedTable introspectedTable : tablesToGenerate) {
+                String rootClass = introspectedTable
+                        .getTableConfigurationProperty(PropertyRegistry.ANY_ROOT_CLASS);
+                if (rootClass == null) {
+                    rootClass = javaModelGeneratorConfiguration
+                            .getProperty(PropertyRegistry.ANY_ROOT_CLASS);
+                }
+                if (rootClass != null) {
+                    getGenerationSession().getRootClassInfo(rootClass, warnings);
+                }
+            }
+
+            int threads = getPositiveIntegerProperty(PropertyRegistry.CONTEXT_GENERATION_THREADS);
+            if (threads == 0) {
+                threads = generationThreads;
+            }
+            threads = Math.min(threads, tablesToGenerate.size());
+
+            if (threads > 1 && nonThreadSafePlugin != null) {
+                warnings.add(getString("Warning.29", //$NON-NLS-1$
+                        nonThreadSafePlugin, id));
+                threads = 1;
+            }
 
-                introspectedTable.initialize();
-                introspectedTable.calculateGenerators(warnings, callback);
-                generatedJavaFiles.addAll(introspectedTable
-                        .getGeneratedJavaFiles());
-                generatedXmlFiles.addAll(introspectedTable
-                        .getGeneratedXmlFiles());
+            if (threads > 1) {
+                String[] nonThreadSafeComponent = getNonThreadSafeComponent();
+                if (nonThreadSafeComponent != null) {
+                    warnings.add(getString("Warning.39", //$NON-NLS-1$
+                            nonThreadSafeComponent[0], id,
+                            nonThreadSafeComponent[1]));
+                    threads = 1;
+                }
+            }
 
-                generatedJavaFiles.addAll(pluginAggregator
-                        .contextGenerateAdditionalJavaFiles(introspectedTable));
-                generatedXmlFiles.addAll(pluginAggregator
-                        .contextGenerateAdditionalXmlFiles(introspectedTable));
+            if (threads > 1) {
+                generateTablesConcurrently(callback, fileCallback, warnings,
+                        threads, tablesToGenerate, manifest, releaseTables);
+            } else {
+                for (int i = 0; i < tablesToGenerate.size(); i++) {
+                    callback.checkCancel();
+
+                    IntrospectedTable introspectedTable = tablesToGenerate.get(i);
+                    List<GeneratedJavaFile> tableJavaFiles = new ArrayList<GeneratedJavaFile>();
+                    List<GeneratedXmlFile> tableXmlFiles = new ArrayList<GeneratedXmlFile>();
+                    long startNanos = System.nanoTime();
+                    generateTable(introspectedTable, warnings, callback,
+                            tableJavaFiles, tableXmlFiles);
+                    if (runReport != null) {
+                        runReport.tableGenerated(id, introspectedTable
+                                .getFullyQualifiedTable().toString(),
+                                System.nanoTime() - startNanos,
+                                tableJavaFiles, tableXmlFiles);
+                    }
+
+                    if (manifest != null) {
+                        manifest.tableGenerated(introspectedTable,
+                                tableJavaFiles, tableXmlFiles);
+                    }
+                    if (releaseTables) {
+                        tablesToGenerate.set(i, null);
+                    }
+                    fileCallback.filesGenerated(tableJavaFiles, tableXmlFiles);
+                }
             }
         }
 
-        generatedJavaFiles.addAll(pluginAggregator
-                .contextGenerateAdditionalJavaFiles());
-        generatedXmlFiles.addAll(pluginAggregator
-                .contextGenerateAdditionalXmlFiles());
+        if (manifest == null || manifest.isContextGenerationRequired()) {
+            long startNanos = System.nanoTime();
+            List<GeneratedJavaFile> contextJavaFiles = plugins
+                    .contextGenerateAdditionalJavaFiles();
+            List<GeneratedXmlFile> contextXmlFiles = plugins
+                    .contextGenerateAdditionalXmlFiles();
+            if (runReport != null) {
+                runReport.contextFilesGenerated(id, System.nanoTime()
+                        - startNanos, contextJavaFiles, contextXmlFiles);
+            }
+            if (manifest != null) {
+                manifest.contextGenerated(contextJavaFiles, contextXmlFiles);
+            }
+            fileCallback.filesGenerated(contextJavaFiles, contextXmlFiles);
+        }
     }
 
     /**
-     * Gets the connection.
+     * Generates tables on several threads. Every table is generated with its
+     * own warning list and a buffered progress callback so that the results
+     * can be reported in configuration order as they become available.
      *
-     * @return the connection
-     * @throws SQLException
-     *             the SQL exception
+     * @param callback
+     *            the progress callback
+     * @param fileCallback
+     *            the callback that receives the generated files
+     * @param warnings
+     *            the warnings
+     * @param threads
+     *            the number of threads to use
+     * @param tablesToGenerate
+     *            the tables to generate
+     * @param manifest
+     *            the generation manifest, or null
+     * @param releaseTables
+     *            if true, only a few tables per thread are generated ahead of
+     *            the file callback, and each table is removed from the list
+     *            once its files have been passed on
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     * @throws IOException
+     *             if the file callback throws an IOException
      */
-    private Connection getConnection() throws SQLException {
-        ConnectionFactory connectionFactory;
-        if (jdbcConnectionConfiguration != null) {
-            connectionFactory = new JDBCConnectionFactory(jdbcConnectionConfiguration);
-        } else {
-            connectionFactory = ObjectFactory.createConnectionFactory(this);
+    private void generateTablesConcurrently(final ProgressCallback callback,
+            final GeneratedFileCallback fileCallback,
+            final List<String> warnings, int threads,
+            final List<IntrospectedTable> tablesToGenerate,
+            final GenerationManifest manifest, final boolean releaseTables)
+            throws InterruptedException, IOException {
+
+        // create the shared comment generator and formatters before the
+        // workers need them
+        getCommentGenerator();
+        getJavaFormatter();
+        getXmlFormatter();
+
+        // when tables are released, only a few tables per thread are
+        // generated ahead of the file callback
+        ParallelTaskExecutor<TableGenerationResult> executor =
+                new ParallelTaskExecutor<TableGenerationResult>(
+                        "mbg-generation-" + id, threads, //$NON-NLS-1$
+                        releaseTables ? threads * TABLES_PER_GENERATION_THREAD : 0);
+        for (IntrospectedTable introspectedTable : tablesToGenerate) {
+            executor.submit(new TableGenerationTask(introspectedTable));
         }
-        
-        return connectionFactory.getConnection();
+
+        try {
+            executor.awaitAll(callback,
+                    new ParallelTaskExecutor.ResultListener<TableGenerationResult>() {
+                        public void resultAvailable(int index,
+                                TableGenerationResult result)
+                                throws InterruptedException {
+                            result.progressCallback.replay(callback);
+                            warnings.addAll(result.warnings);
+                            IntrospectedTable introspectedTable = tablesToGenerate
+                                    .get(index);
+                            if (runReport != null) {
+                                runReport.tableGenerated(id, introspectedTable
+                                        .getFullyQualifiedTable().toString(),
+                                        result.nanos,
+                                        result.generatedJavaFiles,
+                                        result.generatedXmlFiles);
+                            }
+                            if (manifest != null) {
+                                manifest.tableGenerated(
+                                        introspectedTable,
+                                        result.generatedJavaFiles,
+                                        result.generatedXmlFiles);
+                            }
+                            if (releaseTables) {
+                                tablesToGenerate.set(index, null);
+                            }
+                            try {
+                                fileCallback.filesGenerated(
+                                        result.generatedJavaFiles,
+                                        result.generatedXmlFiles);
+                            } catch (IOException e) {
+                                throw new FileCallbackException(e);
+                            }
+                            // the executor keeps the results until all
+                            // tables are done
+                            result.generatedJavaFiles = null;
+                            result.generatedXmlFiles = null;
+                            callback.checkCancel();
+                        }
+                    });
+        } catch (FileCallbackException e) {
+            throw e.getCause();
+        } catch (ExecutionException e) {
+            Throwable cause = ParallelTaskExecutor.unwrap(e);
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Carries an IOException thrown by the file callback out of the result
+     * listener of a parallel table generation.
+     */
+    private static class FileCallbackException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        FileCallbackException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * The result of generating a single introspected table.
+     */
+    private static class TableGenerationResult {
+        private List<GeneratedJavaFile> generatedJavaFiles = new ArrayList<GeneratedJavaFile>();
+        private List<GeneratedXmlFile> generatedXmlFiles = new ArrayList<GeneratedXmlFile>();
+        private List<String> warnings = new ArrayList<String>();
+        private BufferedProgressCallback progressCallback = new BufferedProgressCallback();
+        private long nanos;
     }
 
     /**
-     * Close connection.
+     * Generates the files for a single introspected table.
+     */
+    private class TableGenerationTask implements
+            Callable<TableGenerationResult> {
+        private IntrospectedTable introspectedTable;
+
+        TableGenerationTask(IntrospectedTable introspectedTable) {
+            super();
+            this.introspectedTable = introspectedTable;
+        }
+
+        public TableGenerationResult call() throws Exception {
+            TableGenerationResult result = new TableGenerationResult();
+            result.progressCallback.checkCancel();
+
+            long startNanos = System.nanoTime();
+            generateTable(introspectedTable, result.warnings,
+                    result.progressCallback, result.generatedJavaFiles,
+                    result.generatedXmlFiles);
+            result.nanos = System.nanoTime() - startNanos;
+
+            return result;
+        }
+    }
+
+    /**
+     * Generates the files for a single introspected table.
      *
-     * @param connection
-     *            the connection
+     * @param introspectedTable
+     *            the introspected table
+     * @param warnings
+     *            the warnings
+     * @param callback
+     *            the progress callback
+     * @param generatedJavaFiles
+     *            the list that receives the generated Java files
+     * @param generatedXmlFiles
+     *            the list that receives the generated XML files
      */
-    private void closeConnection(Connection connection) {
-        if (connection != null) {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                // ignore
-            }
+    private void generateTable(IntrospectedTable introspectedTable,
+            List<String> warnings, ProgressCallback callback,
+            List<GeneratedJavaFile> generatedJavaFiles,
+            List<GeneratedXmlFile> generatedXmlFiles) {
+        introspectedTable.initialize();
+
+        FlightRecorder.Event event = FlightRecorder.begin(
+                FlightRecorder.EventType.CALCULATE_GENERATORS, id,
+                FlightRecorder.getTableName(introspectedTable),
+                introspectedTable.getClass().getName());
+        try {
+            introspectedTable.calculateGenerators(warnings, callback);
+            event.setCount(introspectedTable.getGenerationSteps());
+        } finally {
+            event.end();
         }
+
+        generatedJavaFiles.addAll(introspectedTable.getGeneratedJavaFiles());
+        generatedXmlFiles.addAll(introspectedTable.getGeneratedXmlFiles());
+
+        generatedJavaFiles.addAll(plugins
+                .contextGenerateAdditionalJavaFiles(introspectedTable));
+        generatedXmlFiles.addAll(plugins
+                .contextGenerateAdditionalXmlFiles(introspectedTable));
+    }
+
+    /**
+     * Gets the connection factory for this context.
+     *
+     * @return the connection factory
+     */
+    private ConnectionFactory getConnectionFactory() {
+        ConnectionFactory connectionFactory;
+        if (jdbcConnectionConfiguration != null) {
+            connectionFactory = new JDBCConnectionFactory(jdbcConnectionConfiguration,
+                    getGenerationSession());
+        } else {
+            connectionFactory = ObjectFactory.createConnectionFactory(this);
+        }
+
+        return connectionFactory;
     }
 
     /**
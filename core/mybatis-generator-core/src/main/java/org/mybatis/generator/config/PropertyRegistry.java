@@ -47,6 +47,8 @@ public class PropertyRegistry {
     public static final String TABLE_RUNTIME_TABLE_NAME = "runtimeTableName"; //$NON-NLS-1$
     public static final String TABLE_MODEL_ONLY = "modelOnly"; //$NON-NLS-1$
     public static final String TABLE_SELECT_ALL_ORDER_BY_CLAUSE = "selectAllOrderByClause"; //$NON-NLS-1$
+    public static final String TABLE_INCLUDE_PATTERN = "includeTablePattern"; //$NON-NLS-1$
+    public static final String TABLE_EXCLUDE_PATTERN = "excludeTablePattern"; //$NON-NLS-1$
 
     public static final String CONTEXT_BEGINNING_DELIMITER = "beginningDelimiter"; //$NON-NLS-1$
     public static final String CONTEXT_ENDING_DELIMITER = "endingDelimiter"; //$NON-NLS-1$
@@ -54,6 +56,14 @@ public class PropertyRegistry {
     public static final String CONTEXT_JAVA_FILE_ENCODING = "javaFileEncoding"; //$NON-NLS-1$
     public static final String CONTEXT_JAVA_FORMATTER = "javaFormatter"; //$NON-NLS-1$
     public static final String CONTEXT_XML_FORMATTER = "xmlFormatter"; //$NON-NLS-1$
+    public static final String CONTEXT_INTROSPECTION_THREADS = "introspectionThreads"; //$NON-NLS-1$
+    public static final String CONTEXT_GENERATION_THREADS = "generationThreads"; //$NON-NLS-1$
+    public static final String CONTEXT_METADATA_CACHE = "metadataCache"; //$NON-NLS-1$
+    public static final String CONTEXT_METADATA_CACHE_TIME_TO_LIVE = "metadataCacheTimeToLive"; //$NON-NLS-1$
+    public static final String CONTEXT_METADATA_CACHE_FINGERPRINT_QUERY = "metadataCacheFingerprintQuery"; //$NON-NLS-1$
+    public static final String CONTEXT_BULK_INTROSPECTION = "bulkIntrospection"; //$NON-NLS-1$
+    public static final String CONTEXT_GENERATION_MANIFEST = "generationManifest"; //$NON-NLS-1$
+    public static final String CONTEXT_DELETE_ORPHANED_FILES = "deleteOrphanedFiles"; //$NON-NLS-1$
 
     public static final String CLIENT_USE_LEGACY_BUILDER = "useLegacyBuilder"; //$NON-NLS-1$
     
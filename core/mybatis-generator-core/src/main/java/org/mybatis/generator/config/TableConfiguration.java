@@ -27,6 +27,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.mybatis.generator.api.dom.xml.Attribute;
 import org.mybatis.generator.api.dom.xml.XmlElement;
@@ -849,6 +851,34 @@ public class TableConfiguration extends PropertyHolder {
         for (IgnoredColumnPattern ignoredColumnPattern : ignoredColumnPatterns) {
             ignoredColumnPattern.validate(errors, fqTableName);
         }
+
+        validateTablePattern(errors, fqTableName,
+                PropertyRegistry.TABLE_INCLUDE_PATTERN);
+        validateTablePattern(errors, fqTableName,
+                PropertyRegistry.TABLE_EXCLUDE_PATTERN);
+    }
+
+    /**
+     * Validates a table name pattern property, if it is set.
+     *
+     * @param errors
+     *            the errors
+     * @param fqTableName
+     *            the fully qualified table name
+     * @param propertyName
+     *            the name of the property holding the pattern
+     */
+    private void validateTablePattern(List<String> errors, String fqTableName,
+            String propertyName) {
+        String regex = getProperty(propertyName);
+        if (regex != null) {
+            try {
+                Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                errors.add(getString("ValidationError.29", //$NON-NLS-1$
+                        propertyName, fqTableName, e.getDescription()));
+            }
+        }
     }
 
     /**
@@ -0,0 +1,290 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.config.xml;
+
+import static org.mybatis.generator.internal.util.DigestUtility.digest;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * A directory of snapshots of validated configuration documents. The snapshot
+ * of a configuration file holds the elements and attributes of the document
+ * as they were after DTD validation (including attributes with default
+ * values), in a compact binary form, together with a digest of the file and
+ * the warnings reported by the validating parser.
+ * 
+ * <p>Rebuilding the document from a snapshot skips the XML scanner and the DTD
+ * validation, which are most of the cost of parsing a large configuration
+ * file. The rebuilt document is walked by the same parser as a parsed one, so
+ * property references are resolved on every run and a snapshot only depends
+ * on the content of the configuration file. Documents that declare entities
+ * in an internal DTD subset are never cached, because the content of an
+ * external entity is not part of the configuration file.
+ */
+public class ConfigurationCache {
+
+    /** Identifies a snapshot file ("MBGC"). */
+    private static final int MAGIC = 0x4d424743;
+
+    /** The version of the snapshot format. Snapshots of other versions are ignored. */
+    private static final int FORMAT_VERSION = 2;
+
+    /** The directory that holds the snapshots. */
+    private File directory;
+
+    /**
+     * Instantiates a new configuration cache.
+     * 
+     * @param directory
+     *            the directory that holds the snapshots. The directory does
+     *            not need to exist
+     */
+    public ConfigurationCache(File directory) {
+        super();
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the snapshot file of a configuration file. The name of the
+     * snapshot is derived from the path of the configuration file, so every
+     * configuration file has a single snapshot that is replaced when the file
+     * changes.
+     * 
+     * @param configurationFile
+     *            the configuration file
+     * @return the snapshot file
+     */
+    public File getSnapshotFile(File configurationFile) {
+        String path;
+        try {
+            path = configurationFile.getCanonicalPath();
+        } catch (IOException e) {
+            path = configurationFile.getAbsolutePath();
+        }
+
+        return new File(directory, "config-" //$NON-NLS-1$
+                + digest(path) + ".snapshot"); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns true if a snapshot of a document only depends on the content of
+     * its configuration file. This is not the case if the document has an
+     * internal DTD subset, which may declare external entities that pull in
+     * the content of other files.
+     * 
+     * @param document
+     *            the validated document
+     * @return true if the document can be cached
+     */
+    public static boolean isCacheable(Document document) {
+        DocumentType documentType = document.getDoctype();
+        if (documentType == null) {
+            return true;
+        }
+
+        String internalSubset = documentType.getInternalSubset();
+        return internalSubset == null || internalSubset.trim().length() == 0;
+    }
+
+    /**
+     * Rebuilds the document of a configuration file from its snapshot.
+     * 
+     * @param configurationFile
+     *            the configuration file
+     * @param content
+     *            the current content of the configuration file
+     * @param warnings
+     *            receives the warnings that were reported when the
+     *            configuration file was parsed
+     * @return the document, or null if there is no snapshot or the snapshot
+     *         was taken of a different content
+     * @throws IOException
+     *             if the snapshot exists but cannot be read
+     */
+    public Document load(File configurationFile, byte[] content,
+            List<String> warnings) throws IOException {
+        File file = getSnapshotFile(configurationFile);
+        if (!file.exists()) {
+            return null;
+        }
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(getString("RuntimeError.30", file.getPath())); //$NON-NLS-1$
+            }
+
+            if (in.readInt() != FORMAT_VERSION
+                    || !in.readUTF().equals(digest(content))) {
+                return null;
+            }
+
+            String publicId = in.readUTF();
+            String systemId = in.readUTF();
+            String rootName = in.readUTF();
+
+            List<String> snapshotWarnings = new ArrayList<String>();
+            int warningCount = in.readInt();
+            for (int i = 0; i < warningCount; i++) {
+                snapshotWarnings.add(in.readUTF());
+            }
+
+            DOMImplementation domImplementation = DocumentBuilderFactory
+                    .newInstance().newDocumentBuilder().getDOMImplementation();
+            DocumentType documentType = domImplementation.createDocumentType(
+                    rootName, publicId, systemId);
+            Document document = domImplementation.createDocument(null,
+                    rootName, documentType);
+            readElement(in, document, document.getDocumentElement());
+
+            warnings.addAll(snapshotWarnings);
+            return document;
+        } catch (ParserConfigurationException e) {
+            throw new IOException(e.getMessage());
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes the snapshot of a configuration document. The snapshot is
+     * written to a temporary file first, and then renamed, so that a failed
+     * write never leaves a damaged snapshot behind.
+     * 
+     * @param configurationFile
+     *            the configuration file
+     * @param content
+     *            the content of the configuration file that was parsed
+     * @param document
+     *            the validated document
+     * @param warnings
+     *            the warnings reported by the validating parser
+     * @throws IOException
+     *             if the snapshot cannot be written
+     * @see #isCacheable(Document)
+     */
+    public void save(File configurationFile, byte[] content, Document document,
+            List<String> warnings) throws IOException {
+        if (!isCacheable(document)) {
+            return;
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(getString("RuntimeError.25", directory.getPath())); //$NON-NLS-1$
+        }
+
+        File file = getSnapshotFile(configurationFile);
+        File tempFile = File.createTempFile("." + file.getName() + ".", null, directory); //$NON-NLS-1$ //$NON-NLS-2$
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tempFile)));
+            try {
+                DocumentType documentType = document.getDoctype();
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(digest(content));
+                out.writeUTF(documentType.getPublicId());
+                out.writeUTF(documentType.getSystemId() == null ? "" //$NON-NLS-1$
+                        : documentType.getSystemId());
+                out.writeUTF(document.getDocumentElement().getNodeName());
+                out.writeInt(warnings.size());
+                for (String warning : warnings) {
+                    out.writeUTF(warning);
+                }
+                writeElement(out, document.getDocumentElement());
+            } finally {
+                out.close();
+            }
+
+            if (!tempFile.renameTo(file)) {
+                // some platforms will not rename over an existing file
+                file.delete();
+                if (!tempFile.renameTo(file)) {
+                    throw new IOException(getString("RuntimeError.24", file.getPath())); //$NON-NLS-1$
+                }
+            }
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Writes the attributes and child elements of an element. Text and
+     * comments are not written because the configuration parsers ignore them.
+     */
+    private static void writeElement(DataOutputStream out, Element element)
+            throws IOException {
+        NamedNodeMap attributes = element.getAttributes();
+        out.writeInt(attributes.getLength());
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Node attribute = attributes.item(i);
+            out.writeUTF(attribute.getNodeName());
+            out.writeUTF(attribute.getNodeValue());
+        }
+
+        List<Element> children = new ArrayList<Element>();
+        NodeList nodeList = element.getChildNodes();
+        for (int i = 0; i < nodeList.getLength(); i++) {
+            Node childNode = nodeList.item(i);
+            if (childNode.getNodeType() == Node.ELEMENT_NODE) {
+                children.add((Element) childNode);
+            }
+        }
+
+        out.writeInt(children.size());
+        for (Element child : children) {
+            out.writeUTF(child.getNodeName());
+            writeElement(out, child);
+        }
+    }
+
+    private static void readElement(DataInputStream in, Document document,
+            Element element) throws IOException {
+        int attributeCount = in.readInt();
+        for (int i = 0; i < attributeCount; i++) {
+            element.setAttribute(in.readUTF(), in.readUTF());
+        }
+
+        int childCount = in.readInt();
+        for (int i = 0; i < childCount; i++) {
+            Element child = document.createElement(in.readUTF());
+            readElement(in, document, child);
+            element.appendChild(child);
+        }
+    }
+}
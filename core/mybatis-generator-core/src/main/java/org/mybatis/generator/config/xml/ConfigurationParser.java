@@ -30,11 +30,16 @@ package org.mybatis.generator.config.xml;
 
 import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
@@ -46,6 +51,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.mybatis.generator.codegen.XmlConstants;
 import org.mybatis.generator.config.Configuration;
 import org.mybatis.generator.exception.XMLParserException;
+import org.mybatis.generator.internal.GenerationSession;
 import org.w3c.dom.Document;
 import org.w3c.dom.DocumentType;
 import org.w3c.dom.Element;
@@ -59,6 +65,9 @@ public class ConfigurationParser {
     private List<String> warnings;
     private List<String> parseErrors;
     private Properties extraProperties;
+    private GenerationSession generationSession;
+    private List<URL> propertiesUrls;
+    private File cacheDirectory;
 
     public ConfigurationParser(List<String> warnings) {
         this(null, warnings);
@@ -85,7 +94,23 @@ public class ConfigurationParser {
      * @param warnings
      */
     public ConfigurationParser(Properties extraProperties, List<String> warnings) {
+        this(extraProperties, warnings, null);
+    }
+
+    /**
+     * This constructor accepts a generation session whose resource class loaders
+     * are used to find properties files that are referenced by resource name in
+     * the configuration file. Other constructors use the current session.
+     * 
+     * @param extraProperties an (optional) set of properties used to resolve property
+     *   references in the configuration file
+     * @param warnings
+     * @param generationSession the generation session, or null to use the current session
+     */
+    public ConfigurationParser(Properties extraProperties, List<String> warnings,
+            GenerationSession generationSession) {
         super();
+        this.generationSession = generationSession;
         this.extraProperties = extraProperties;
 
         if (warnings == null) {
@@ -97,12 +122,91 @@ public class ConfigurationParser {
         parseErrors = new ArrayList<String>();
     }
 
+    /**
+     * Returns the URLs of the properties files referenced by the last
+     * configuration parsed.
+     *
+     * @return the properties file URLs
+     */
+    public List<URL> getPropertiesUrls() {
+        if (propertiesUrls == null) {
+            return new ArrayList<URL>();
+        }
+
+        return propertiesUrls;
+    }
+
+    /**
+     * Sets the directory that holds snapshots of validated configuration
+     * documents. When a directory is set, {@link #parseConfiguration(File)}
+     * rebuilds the document from its snapshot, without scanning and
+     * validating the XML, as long as the file is unchanged. Configurations
+     * read from a reader or a stream, and configurations with an internal DTD
+     * subset (which may declare external entities), are never cached.
+     *
+     * @param cacheDirectory
+     *            the snapshot directory, or null to always parse the file
+     */
+    public void setCacheDirectory(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
     public Configuration parseConfiguration(File inputFile) throws IOException,
             XMLParserException {
 
-        FileReader fr = new FileReader(inputFile);
+        if (cacheDirectory == null) {
+            FileReader fr = new FileReader(inputFile);
 
-        return parseConfiguration(fr);
+            return parseConfiguration(fr);
+        }
+
+        byte[] content = readFile(inputFile);
+        ConfigurationCache cache = new ConfigurationCache(cacheDirectory);
+        Document document = null;
+        try {
+            document = cache.load(inputFile, content, warnings);
+        } catch (IOException e) {
+            warnings.add(getString("Warning.37", //$NON-NLS-1$
+                    cache.getSnapshotFile(inputFile).getPath(), e.getMessage()));
+        }
+
+        if (document != null) {
+            parseErrors.clear();
+            return parseConfiguration(document);
+        }
+
+        int firstWarning = warnings.size();
+        // decode the file the same way as the FileReader above
+        document = parseDocument(new InputSource(new InputStreamReader(
+                new ByteArrayInputStream(content))));
+        List<String> parseWarnings = new ArrayList<String>(warnings.subList(
+                firstWarning, warnings.size()));
+        Configuration configuration = parseConfiguration(document);
+
+        try {
+            cache.save(inputFile, content, document, parseWarnings);
+        } catch (IOException e) {
+            warnings.add(getString("Warning.38", //$NON-NLS-1$
+                    cache.getSnapshotFile(inputFile).getPath(), e.getMessage()));
+        }
+
+        return configuration;
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(
+                (int) file.length());
+        InputStream is = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, count);
+            }
+        } finally {
+            is.close();
+        }
+        return baos.toByteArray();
     }
 
     public Configuration parseConfiguration(Reader reader) throws IOException,
@@ -123,7 +227,13 @@ public class ConfigurationParser {
 
     private Configuration parseConfiguration(InputSource inputSource)
             throws IOException, XMLParserException {
+        return parseConfiguration(parseDocument(inputSource));
+    }
+
+    private Document parseDocument(InputSource inputSource)
+            throws IOException, XMLParserException {
         parseErrors.clear();
+        propertiesUrls = null;
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         factory.setValidating(true);
 
@@ -152,43 +262,54 @@ public class ConfigurationParser {
                 throw new XMLParserException(parseErrors);
             }
 
-            Configuration config;
-            Element rootNode = document.getDocumentElement();
-            DocumentType docType = document.getDoctype();
-            if (rootNode.getNodeType() == Node.ELEMENT_NODE
-                    && docType.getPublicId().equals(
-                            XmlConstants.IBATOR_CONFIG_PUBLIC_ID)) {
-                config = parseIbatorConfiguration(rootNode);
-            } else if (rootNode.getNodeType() == Node.ELEMENT_NODE
-                    && docType.getPublicId().equals(
-                            XmlConstants.MYBATIS_GENERATOR_CONFIG_PUBLIC_ID)) {
-                config = parseMyBatisGeneratorConfiguration(rootNode);
-            } else {
-                throw new XMLParserException(getString("RuntimeError.5")); //$NON-NLS-1$
-            }
-
-            if (parseErrors.size() > 0) {
-                throw new XMLParserException(parseErrors);
-            }
-
-            return config;
+            return document;
         } catch (ParserConfigurationException e) {
             parseErrors.add(e.getMessage());
             throw new XMLParserException(parseErrors);
         }
     }
 
+    private Configuration parseConfiguration(Document document)
+            throws XMLParserException {
+        propertiesUrls = null;
+
+        Configuration config;
+        Element rootNode = document.getDocumentElement();
+        DocumentType docType = document.getDoctype();
+        if (rootNode.getNodeType() == Node.ELEMENT_NODE
+                && docType.getPublicId().equals(
+                        XmlConstants.IBATOR_CONFIG_PUBLIC_ID)) {
+            config = parseIbatorConfiguration(rootNode);
+        } else if (rootNode.getNodeType() == Node.ELEMENT_NODE
+                && docType.getPublicId().equals(
+                        XmlConstants.MYBATIS_GENERATOR_CONFIG_PUBLIC_ID)) {
+            config = parseMyBatisGeneratorConfiguration(rootNode);
+        } else {
+            throw new XMLParserException(getString("RuntimeError.5")); //$NON-NLS-1$
+        }
+
+        if (parseErrors.size() > 0) {
+            throw new XMLParserException(parseErrors);
+        }
+
+        return config;
+    }
+
     private Configuration parseIbatorConfiguration(Element rootNode)
             throws XMLParserException {
         IbatorConfigurationParser parser = new IbatorConfigurationParser(
-        		extraProperties);
-        return parser.parseIbatorConfiguration(rootNode);
+        		extraProperties, generationSession);
+        Configuration configuration = parser.parseIbatorConfiguration(rootNode);
+        propertiesUrls = parser.getPropertiesUrls();
+        return configuration;
     }
 
     private Configuration parseMyBatisGeneratorConfiguration(Element rootNode)
             throws XMLParserException {
         MyBatisGeneratorConfigurationParser parser = new MyBatisGeneratorConfigurationParser(
-        		extraProperties);
-        return parser.parseConfiguration(rootNode);
+        		extraProperties, generationSession);
+        Configuration configuration = parser.parseConfiguration(rootNode);
+        propertiesUrls = parser.getPropertiesUrls();
+        return configuration;
     }
 }
@@ -25,6 +25,7 @@ import org.mybatis.generator.config.JavaClientGeneratorConfiguration;
 import org.mybatis.generator.config.ModelType;
 import org.mybatis.generator.config.PluginConfiguration;
 import org.mybatis.generator.exception.XMLParserException;
+import org.mybatis.generator.internal.GenerationSession;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -41,6 +42,11 @@ public class IbatorConfigurationParser extends MyBatisGeneratorConfigurationPars
         super(properties);
     }
 
+    public IbatorConfigurationParser(Properties properties,
+            GenerationSession generationSession) {
+        super(properties, generationSession);
+    }
+
     public Configuration parseIbatorConfiguration(Element rootNode)
             throws XMLParserException {
 
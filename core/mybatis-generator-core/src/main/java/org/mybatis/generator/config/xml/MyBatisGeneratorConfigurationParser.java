@@ -35,6 +35,8 @@ import static org.mybatis.generator.internal.util.messages.Messages.getString;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import org.mybatis.generator.config.ColumnOverride;
@@ -57,7 +59,7 @@ import org.mybatis.generator.config.PropertyHolder;
 import org.mybatis.generator.config.SqlMapGeneratorConfiguration;
 import org.mybatis.generator.config.TableConfiguration;
 import org.mybatis.generator.exception.XMLParserException;
-import org.mybatis.generator.internal.ObjectFactory;
+import org.mybatis.generator.internal.GenerationSession;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
@@ -71,8 +73,25 @@ import org.w3c.dom.NodeList;
 public class MyBatisGeneratorConfigurationParser {
     private Properties extraProperties;
     private Properties configurationProperties;
+    private GenerationSession generationSession;
+    private List<URL> propertiesUrls = new ArrayList<URL>();
 
     public MyBatisGeneratorConfigurationParser(Properties extraProperties) {
+        this(extraProperties, null);
+    }
+
+    /**
+     * Constructs a parser that finds properties files referenced by resource
+     * name with the resource class loaders of a generation session.
+     *
+     * @param extraProperties
+     *            an (optional) set of properties used to resolve property
+     *            references in the configuration file
+     * @param generationSession
+     *            the generation session, or null to use the current session
+     */
+    public MyBatisGeneratorConfigurationParser(Properties extraProperties,
+            GenerationSession generationSession) {
         super();
         if (extraProperties == null) {
             this.extraProperties = new Properties();
@@ -80,6 +99,17 @@ public class MyBatisGeneratorConfigurationParser {
             this.extraProperties = extraProperties;
         }
         configurationProperties = new Properties();
+        this.generationSession = generationSession;
+    }
+
+    /**
+     * Returns the URLs of the properties files read by the
+     * &lt;properties&gt; element of the last configuration parsed.
+     *
+     * @return the properties file URLs
+     */
+    public List<URL> getPropertiesUrls() {
+        return propertiesUrls;
     }
 
     public Configuration parseConfiguration(Element rootNode)
@@ -127,7 +157,9 @@ public class MyBatisGeneratorConfigurationParser {
 
         try {
             if (stringHasValue(resource)) {
-                resourceUrl = ObjectFactory.getResource(resource);
+                GenerationSession session = generationSession == null ? GenerationSession
+                        .getCurrent() : generationSession;
+                resourceUrl = session.getResource(resource);
                 if (resourceUrl == null) {
                     throw new XMLParserException(getString(
                             "RuntimeError.15", resource)); //$NON-NLS-1$
@@ -136,6 +168,7 @@ public class MyBatisGeneratorConfigurationParser {
                 resourceUrl = new URL(url);
             }
 
+            propertiesUrls.add(resourceUrl);
             InputStream inputStream = resourceUrl.openConnection()
                     .getInputStream();
 
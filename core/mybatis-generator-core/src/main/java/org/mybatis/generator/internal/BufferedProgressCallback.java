@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mybatis.generator.api.ProgressCallback;
+
+/**
+ * This class implements a progress callback that records task names so that
+ * they can be reported later on a different thread. It is used by work that
+ * runs on a worker thread, where the real progress callback (which may not be
+ * thread safe) cannot be called.
+ * 
+ * <p>A cancel is signaled by interrupting the worker thread, so
+ * <code>checkCancel</code> only checks the interrupted status of the current
+ * thread.
+ */
+public class BufferedProgressCallback extends NullProgressCallback {
+
+    /** The task names, in the order they were started. */
+    private List<String> taskNames;
+
+    /**
+     * Instantiates a new buffered progress callback.
+     */
+    public BufferedProgressCallback() {
+        super();
+        taskNames = new ArrayList<String>();
+    }
+
+    @Override
+    public void startTask(String taskName) {
+        taskNames.add(taskName);
+    }
+
+    @Override
+    public void checkCancel() throws InterruptedException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Reports all recorded task names to another callback, in the order they
+     * were started.
+     * 
+     * @param callback
+     *            the callback to report to
+     */
+    public void replay(ProgressCallback callback) {
+        for (String taskName : taskNames) {
+            callback.startTask(taskName);
+        }
+    }
+}
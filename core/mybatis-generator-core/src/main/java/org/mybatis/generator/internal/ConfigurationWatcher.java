@@ -0,0 +1,451 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.mybatis.generator.internal.util.ClassloaderUtility.getCustomClassloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.mybatis.generator.config.Configuration;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.xml.ConfigurationParser;
+import org.mybatis.generator.exception.XMLParserException;
+
+/**
+ * Watches a configuration file, the properties files it references, its class
+ * path entries and any number of additional directories (for example, the
+ * directories that hold DDL or migration scripts), and asks a listener to
+ * generate code whenever they change.
+ * 
+ * <p>The files are polled because the JDK versions supported by the generator
+ * have no file system notifications. A burst of changes (for example, a
+ * migration tool that writes several scripts) results in a single run: the
+ * watcher waits until the files have not changed for one poll interval.
+ * 
+ * <p>When the configuration or a properties file changes, the configuration
+ * is parsed again and only the contexts whose configuration changed are
+ * generated. When a file in one of the additional directories changes, every
+ * context is generated, because the watcher can't tell which tables a script
+ * affects. The parsed configuration and a generation session that keeps its
+ * class loaders and database connections are reused between runs.
+ */
+public class ConfigurationWatcher {
+
+    /** The poll interval used when no interval is specified, in milliseconds. */
+    public static final long DEFAULT_POLL_INTERVAL = 500L;
+
+    /**
+     * Receives the results of the watch.
+     */
+    public interface Listener {
+
+        /**
+         * Called when code should be generated.
+         *
+         * @param configuration
+         *            the configuration
+         * @param generationSession
+         *            the session to use for the run
+         * @param contextIds
+         *            the ids of the contexts to generate, or null to generate
+         *            all contexts
+         * @param warnings
+         *            the warnings reported while parsing the configuration
+         * @throws InterruptedException
+         *             if the watch should stop
+         */
+        void generate(Configuration configuration,
+                GenerationSession generationSession, Set<String> contextIds,
+                List<String> warnings) throws InterruptedException;
+
+        /**
+         * Called when the configuration file cannot be parsed. The watch
+         * continues, and the configuration is parsed again when it changes.
+         *
+         * @param e
+         *            the exception, which is an XMLParserException or an
+         *            IOException
+         */
+        void parseFailed(Exception e);
+    }
+
+    /** The configuration file. */
+    private File configurationFile;
+
+    /** The extra properties used to parse the configuration. */
+    private Properties extraProperties;
+
+    /** The additional directories. */
+    private List<File> directories;
+
+    /** The class loaders used to find properties files. */
+    private List<ClassLoader> resourceClassLoaders = new ArrayList<ClassLoader>();
+
+    /** The poll interval, in milliseconds. */
+    private long pollInterval = DEFAULT_POLL_INTERVAL;
+
+    /** The last configuration parsed successfully. */
+    private Configuration configuration;
+
+    /** The formatted configuration of each context, by context id. */
+    private Map<String, String> contextConfigurations = new HashMap<String, String>();
+
+    /** The files that affect the parsed configuration. */
+    private List<File> configurationFiles = new ArrayList<File>();
+
+    /** The session used for all runs of the configuration. */
+    private GenerationSession generationSession;
+
+    /** The stamps of the class path entries when the session was created. */
+    private Map<File, String> classPathStamps = new HashMap<File, String>();
+
+    public ConfigurationWatcher(File configurationFile,
+            Properties extraProperties, List<File> directories) {
+        super();
+        this.configurationFile = configurationFile;
+        this.extraProperties = extraProperties;
+        this.directories = directories == null ? new ArrayList<File>()
+                : directories;
+        configurationFiles.add(configurationFile);
+    }
+
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Adds a class loader used to find the properties files referenced by the
+     * configuration, like {@link GenerationSession#addResourceClassLoader}.
+     *
+     * @param classLoader
+     *            the class loader
+     */
+    public void addResourceClassLoader(ClassLoader classLoader) {
+        resourceClassLoaders.add(classLoader);
+    }
+
+    private GenerationSession createGenerationSession() {
+        GenerationSession answer = new GenerationSession();
+        for (ClassLoader classLoader : resourceClassLoaders) {
+            answer.addResourceClassLoader(classLoader);
+        }
+        return answer;
+    }
+
+    /**
+     * Generates all contexts, and then watches the files and generates the
+     * affected contexts whenever they change. This method only returns when
+     * the thread is interrupted or the listener throws an
+     * InterruptedException.
+     *
+     * @param listener
+     *            the listener
+     * @throws InterruptedException
+     *             when the watch is stopped
+     */
+    public void watch(Listener listener) throws InterruptedException {
+        try {
+            List<String> warnings = new ArrayList<String>();
+            boolean parsed = parseConfiguration(listener, warnings) != null;
+            Map<File, String> stamps = getStamps();
+            if (parsed) {
+                listener.generate(configuration, generationSession, null,
+                        warnings);
+            }
+
+            while (true) {
+                Thread.sleep(pollInterval);
+                Map<File, String> current = getStamps();
+                if (current.equals(stamps)) {
+                    continue;
+                }
+
+                // wait for the files to settle
+                Map<File, String> previous;
+                do {
+                    previous = current;
+                    Thread.sleep(pollInterval);
+                    current = getStamps();
+                } while (!current.equals(previous));
+
+                boolean configurationChanged = configuration == null;
+                boolean directoriesChanged = false;
+                Set<File> files = new HashSet<File>(stamps.keySet());
+                files.addAll(current.keySet());
+                for (File file : files) {
+                    if (!equals(stamps.get(file), current.get(file))) {
+                        if (isConfigurationFile(file)) {
+                            configurationChanged = true;
+                        } else {
+                            directoriesChanged = true;
+                        }
+                    }
+                }
+                stamps = current;
+
+                Set<String> contextIds = null;
+                warnings = new ArrayList<String>();
+                if (configurationChanged) {
+                    Set<String> changedContextIds = parseConfiguration(
+                            listener, warnings);
+                    // the parse may have found new properties files to watch
+                    stamps = getStamps();
+                    if (changedContextIds == null) {
+                        continue;
+                    } else if (!directoriesChanged) {
+                        if (changedContextIds.isEmpty()) {
+                            continue;
+                        }
+                        contextIds = changedContextIds;
+                    }
+                }
+
+                listener.generate(configuration, generationSession,
+                        contextIds, warnings);
+            }
+        } finally {
+            if (generationSession != null) {
+                generationSession.close();
+            }
+        }
+    }
+
+    /**
+     * Parses the configuration.
+     *
+     * @param listener
+     *            the listener that is notified if the parse fails
+     * @param warnings
+     *            the list that receives parse warnings
+     * @return the ids of the contexts whose configuration changed, or null if
+     *         the configuration could not be parsed. If the class path
+     *         entries changed, all contexts are returned.
+     */
+    private Set<String> parseConfiguration(Listener listener,
+            List<String> warnings) {
+        GenerationSession parseSession = createGenerationSession();
+        ConfigurationParser cp = new ConfigurationParser(extraProperties,
+                warnings, parseSession);
+        Configuration newConfiguration;
+        try {
+            newConfiguration = cp.parseConfiguration(configurationFile);
+        } catch (XMLParserException e) {
+            listener.parseFailed(e);
+            return null;
+        } catch (IOException e) {
+            listener.parseFailed(e);
+            return null;
+        }
+
+        List<File> newConfigurationFiles = new ArrayList<File>();
+        newConfigurationFiles.add(configurationFile);
+        for (URL url : cp.getPropertiesUrls()) {
+            File file = toFile(url);
+            if (file != null) {
+                newConfigurationFiles.add(file);
+            }
+        }
+        for (String entry : newConfiguration.getClassPathEntries()) {
+            newConfigurationFiles.add(new File(entry));
+        }
+
+        Set<String> changedContextIds = new HashSet<String>();
+        Map<String, String> newContextConfigurations = new HashMap<String, String>();
+        for (Context context : newConfiguration.getContexts()) {
+            String formattedContext = formatContext(context);
+            newContextConfigurations.put(context.getId(), formattedContext);
+            if (formattedContext == null
+                    || !formattedContext.equals(contextConfigurations
+                            .get(context.getId()))) {
+                changedContextIds.add(context.getId());
+            }
+        }
+
+        // a new class path means new class loaders, and all contexts
+        // may generate different code
+        if (generationSession == null
+                || configuration == null
+                || !newConfiguration.getClassPathEntries().equals(
+                        configuration.getClassPathEntries())
+                || classPathChanged()) {
+            if (generationSession != null) {
+                generationSession.close();
+            }
+            generationSession = createGenerationSession();
+            if (newConfiguration.getClassPathEntries().size() > 0) {
+                generationSession.addExternalClassLoader(getCustomClassloader(
+                        newConfiguration.getClassPathEntries()));
+            }
+            generationSession.setRetainConnections(true);
+            changedContextIds.addAll(newContextConfigurations.keySet());
+        }
+
+        configuration = newConfiguration;
+        contextConfigurations = newContextConfigurations;
+        configurationFiles = newConfigurationFiles;
+        classPathStamps = getClassPathStamps(newConfiguration.getClassPathEntries());
+
+        return changedContextIds;
+    }
+
+    /**
+     * Returns the configuration of a context as XML, or null if the
+     * configuration is too incomplete to be written as XML. Such contexts are
+     * always generated so that the generator can report the problem.
+     *
+     * @param context
+     *            the context
+     * @return the formatted configuration
+     */
+    private static String formatContext(Context context) {
+        try {
+            return context.toXmlElement().getFormattedContent(0);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if a file affects the parsed configuration. This is the
+     * case for the configuration file, its properties files and its class
+     * path entries, including the files in class path directories.
+     *
+     * @param file
+     *            the file
+     * @return true if the configuration should be parsed again when the file
+     *         changes
+     */
+    private boolean isConfigurationFile(File file) {
+        for (File parent = file; parent != null; parent = parent.getParentFile()) {
+            if (configurationFiles.contains(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean classPathChanged() {
+        return configuration != null
+                && !classPathStamps.equals(getClassPathStamps(configuration
+                        .getClassPathEntries()));
+    }
+
+    /**
+     * Returns the stamps of the files of some class path entries.
+     *
+     * @param entries
+     *            the class path entries
+     * @return the stamps, by file
+     */
+    static Map<File, String> getClassPathStamps(List<String> entries) {
+        List<File> files = new ArrayList<File>();
+        for (String entry : entries) {
+            files.add(new File(entry));
+        }
+        return getStamps(files);
+    }
+
+    /**
+     * Returns the stamps of every watched file. The stamp of a file changes
+     * when its modification time or length changes.
+     *
+     * @return the stamps, by file
+     */
+    private Map<File, String> getStamps() {
+        Map<File, String> answer = getStamps(configurationFiles);
+
+        for (File directory : directories) {
+            addStamps(directory, answer);
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns the stamps of some files. A directory, such as a class path
+     * entry, is stamped file by file, because its own modification time does
+     * not change when the files in it are rewritten.
+     *
+     * @param files
+     *            the files
+     * @return the stamps, by file
+     */
+    static Map<File, String> getStamps(List<File> files) {
+        Map<File, String> answer = new HashMap<File, String>();
+        for (File file : files) {
+            if (file.isDirectory()) {
+                addStamps(file, answer);
+            } else {
+                answer.put(file, getStamp(file));
+            }
+        }
+        return answer;
+    }
+
+    private static void addStamps(File directory, Map<File, String> stamps) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (file.isDirectory()) {
+                addStamps(file, stamps);
+            } else {
+                stamps.put(file, getStamp(file));
+            }
+        }
+    }
+
+    private static String getStamp(File file) {
+        return file.lastModified() + "/" + file.length(); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns the file of a <code>file:</code> URL.
+     *
+     * @param url
+     *            the URL
+     * @return the file, or null if the URL does not refer to a file
+     */
+    static File toFile(URL url) {
+        if (!"file".equals(url.getProtocol())) { //$NON-NLS-1$
+            return null;
+        }
+
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException e) {
+            return new File(url.getPath());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean equals(String s1, String s2) {
+        return s1 == null ? s2 == null : s1.equals(s2);
+    }
+}
@@ -176,7 +176,11 @@ public class DefaultCommentGenerator implements CommentGenerator {
         if (suppressDate) {
             return null;
         } else if (dateFormat != null) {
-            return dateFormat.format(new Date());
+            // SimpleDateFormat is not thread safe, and tables may be
+            // generated concurrently
+            synchronized (dateFormat) {
+                return dateFormat.format(new Date());
+            }
         } else {
             return new Date().toString();
         }
@@ -0,0 +1,475 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.mybatis.generator.config.MergeConstants;
+
+/**
+ * This class holds the source of an existing XML file split into the parts
+ * needed by the XML file merger: everything up to the root element, the start
+ * tag of the root element, the children of the root element, and everything
+ * from the end tag of the root element to the end of the file. The parts are
+ * kept as offsets into the original source so that content that is not
+ * replaced by the merge can be copied to the merged file unchanged.
+ * 
+ * <p>The file is read with a StAX reader to check that it is well formed and
+ * to find the generated children of the root element. StAX readers do not
+ * reliably report the character offsets of events, so the offsets are found
+ * with a simple lexical scan of the source that is checked against the
+ * elements reported by the StAX reader.
+ */
+class ExistingXmlFile {
+
+    /** The factory used to create StAX readers on this thread. */
+    private static final ThreadLocal<XMLInputFactory> inputFactory = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            // the merge doesn't need the DTD, and reading it can cause
+            // problems on systems that aren't Internet connected
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+            factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+            return factory;
+        }
+    };
+
+    /**
+     * A child node of the root element.
+     */
+    static class Child {
+
+        /** The offset of the first character of the node. */
+        private int start;
+
+        /** The offset after the last character of the node. */
+        private int end;
+
+        /** The element name, or null if the node is not an element. */
+        private String elementName;
+
+        /** True if the node is text that contains only white space. */
+        private boolean whiteSpace;
+
+        /** True if the node is an element written by the generator. */
+        private boolean generated;
+
+        Child(int start, int end, String elementName, boolean whiteSpace) {
+            this.start = start;
+            this.end = end;
+            this.elementName = elementName;
+            this.whiteSpace = whiteSpace;
+        }
+
+        int getStart() {
+            return start;
+        }
+
+        int getEnd() {
+            return end;
+        }
+
+        boolean isWhiteSpace() {
+            return whiteSpace;
+        }
+
+        boolean isGenerated() {
+            return generated;
+        }
+    }
+
+    /** The source. */
+    private String source;
+
+    /** The name in the document type declaration, or null if there is none. */
+    private String docTypeName;
+
+    /** The name of the root element. */
+    private String rootElementName;
+
+    /** The offset of the start tag of the root element. */
+    private int rootStart;
+
+    /** The offset after the start tag of the root element. */
+    private int rootContentStart;
+
+    /** The offset of the end tag of the root element. */
+    private int rootContentEnd;
+
+    /** The children of the root element. */
+    private List<Child> children = new ArrayList<Child>();
+
+    private ExistingXmlFile(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Splits the source of an existing XML file.
+     *
+     * @param source
+     *            the source of the file
+     * @return the split file, or null if the file could not be split. In that
+     *         case the file should be merged with a DOM parser, which also
+     *         reports any errors in the file.
+     */
+    static ExistingXmlFile parse(String source) {
+        ExistingXmlFile file = new ExistingXmlFile(source);
+        if (!file.scan()) {
+            return null;
+        }
+
+        List<Child> elements = new ArrayList<Child>();
+        for (Child child : file.children) {
+            if (child.elementName != null) {
+                elements.add(child);
+            }
+        }
+
+        try {
+            if (!file.findGeneratedElements(elements)) {
+                return null;
+            }
+        } catch (XMLStreamException e) {
+            return null;
+        }
+
+        return file;
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    String getDocTypeName() {
+        return docTypeName;
+    }
+
+    String getRootElementName() {
+        return rootElementName;
+    }
+
+    int getRootStart() {
+        return rootStart;
+    }
+
+    int getRootContentStart() {
+        return rootContentStart;
+    }
+
+    int getRootContentEnd() {
+        return rootContentEnd;
+    }
+
+    List<Child> getChildren() {
+        return children;
+    }
+
+    /**
+     * Reads the file with a StAX reader and marks the generated children of
+     * the root element. An element is generated if its id starts with one of
+     * the old generated prefixes, or if the first node in the element that is
+     * not white space is a comment with one of the generated tags.
+     *
+     * @param elements
+     *            the child elements of the root element found by the scan
+     * @return false if the StAX reader doesn't report the same child elements
+     *         as the scan
+     * @throws XMLStreamException
+     *             if the file is not well formed
+     */
+    private boolean findGeneratedElements(List<Child> elements)
+            throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.get().createXMLStreamReader(
+                new StringReader(source));
+        try {
+            int depth = 0;
+            int index = -1;
+            boolean checking = false;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    checking = false;
+                    if (depth == 2) {
+                        index++;
+                        if (index == elements.size()
+                                || !elements.get(index).elementName.equals(
+                                        getQualifiedName(reader))) {
+                            return false;
+                        }
+                        Child element = elements.get(index);
+                        element.generated = hasGeneratedId(reader
+                                .getAttributeValue(null, "id")); //$NON-NLS-1$
+                        checking = !element.generated;
+                    }
+                    break;
+
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    checking = false;
+                    break;
+
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    if (checking && reader.getText().trim().length() > 0) {
+                        checking = false;
+                    }
+                    break;
+
+                case XMLStreamConstants.COMMENT:
+                    if (checking && hasGeneratedTag(reader.getText())) {
+                        elements.get(index).generated = true;
+                        checking = false;
+                    }
+                    break;
+
+                case XMLStreamConstants.DTD:
+                    break;
+
+                default:
+                    checking = false;
+                    break;
+                }
+            }
+
+            return index == elements.size() - 1;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String getQualifiedName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        if (prefix == null || prefix.length() == 0) {
+            return reader.getLocalName();
+        } else {
+            return prefix + ':' + reader.getLocalName();
+        }
+    }
+
+    private static boolean hasGeneratedId(String id) {
+        if (id != null) {
+            for (String prefix : MergeConstants.OLD_XML_ELEMENT_PREFIXES) {
+                if (id.startsWith(prefix)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean hasGeneratedTag(String comment) {
+        for (String tag : MergeConstants.OLD_ELEMENT_TAGS) {
+            if (comment.contains(tag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Scans the source for the parts of the file.
+     *
+     * @return false if the file has a form that the scan doesn't handle
+     */
+    private boolean scan() {
+        int position = 0;
+
+        // the prolog
+        while (true) {
+            position = source.indexOf('<', position);
+            if (position == -1) {
+                return false;
+            } else if (source.startsWith("<?", position)) { //$NON-NLS-1$
+                position = skipPast(position, "?>"); //$NON-NLS-1$
+            } else if (source.startsWith("<!--", position)) { //$NON-NLS-1$
+                position = skipPast(position, "-->"); //$NON-NLS-1$
+            } else if (source.startsWith("<!DOCTYPE", position)) { //$NON-NLS-1$
+                int nameStart = skipWhiteSpace(position + 9);
+                docTypeName = source.substring(nameStart, skipName(nameStart));
+                int end = skipMarkup(position);
+                if (end == -1 || source.substring(position, end).indexOf('[') != -1) {
+                    // an internal subset can declare entities, so leave
+                    // the file to the DOM parser
+                    return false;
+                }
+                position = end;
+            } else {
+                break;
+            }
+
+            if (position == -1) {
+                return false;
+            }
+        }
+
+        // the root start tag
+        rootStart = position;
+        rootElementName = source.substring(position + 1, skipName(position + 1));
+        position = skipMarkup(position);
+        if (rootElementName.length() == 0 || position == -1
+                || source.charAt(position - 2) == '/') {
+            // an empty root element has nothing to merge into
+            return false;
+        }
+        rootContentStart = position;
+
+        // the children of the root element
+        while (true) {
+            int markup = source.indexOf('<', position);
+            if (markup == -1) {
+                return false;
+            }
+
+            if (markup > position) {
+                children.add(new Child(position, markup, null,
+                        isWhiteSpace(position, markup)));
+            }
+
+            if (source.startsWith("</", markup)) { //$NON-NLS-1$
+                rootContentEnd = markup;
+                return source.startsWith(rootElementName, markup + 2);
+            }
+
+            String elementName = null;
+            if (source.startsWith("<!--", markup)) { //$NON-NLS-1$
+                position = skipPast(markup, "-->"); //$NON-NLS-1$
+            } else if (source.startsWith("<![CDATA[", markup)) { //$NON-NLS-1$
+                position = skipPast(markup, "]]>"); //$NON-NLS-1$
+            } else if (source.startsWith("<?", markup)) { //$NON-NLS-1$
+                position = skipPast(markup, "?>"); //$NON-NLS-1$
+            } else {
+                elementName = source.substring(markup + 1, skipName(markup + 1));
+                position = skipElement(markup);
+            }
+
+            if (position == -1) {
+                return false;
+            }
+
+            children.add(new Child(markup, position, elementName, false));
+        }
+    }
+
+    /**
+     * Skips an element and all of its content.
+     *
+     * @param position
+     *            the offset of the start tag
+     * @return the offset after the end tag, or -1 if the end was not found
+     */
+    private int skipElement(int position) {
+        int depth = 0;
+        while (position != -1) {
+            position = source.indexOf('<', position);
+            if (position == -1) {
+                break;
+            } else if (source.startsWith("<!--", position)) { //$NON-NLS-1$
+                position = skipPast(position, "-->"); //$NON-NLS-1$
+            } else if (source.startsWith("<![CDATA[", position)) { //$NON-NLS-1$
+                position = skipPast(position, "]]>"); //$NON-NLS-1$
+            } else if (source.startsWith("<?", position)) { //$NON-NLS-1$
+                position = skipPast(position, "?>"); //$NON-NLS-1$
+            } else if (source.startsWith("</", position)) { //$NON-NLS-1$
+                position = skipMarkup(position);
+                depth--;
+            } else {
+                position = skipMarkup(position);
+                if (position != -1 && source.charAt(position - 2) != '/') {
+                    depth++;
+                }
+            }
+
+            if (depth == 0) {
+                break;
+            }
+        }
+
+        return position;
+    }
+
+    /**
+     * Skips a tag or declaration, ignoring any '&gt;' in quoted values.
+     *
+     * @param position
+     *            the offset of the '&lt;' that starts the markup
+     * @return the offset after the '&gt;' that ends the markup, or -1 if the
+     *         end was not found
+     */
+    private int skipMarkup(int position) {
+        char quote = 0;
+        for (int i = position + 1; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+        }
+
+        return -1;
+    }
+
+    private int skipPast(int position, String end) {
+        int index = source.indexOf(end, position);
+        return index == -1 ? -1 : index + end.length();
+    }
+
+    private int skipName(int position) {
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (c <= ' ' || c == '>' || c == '/' || c == '[') {
+                break;
+            }
+            position++;
+        }
+
+        return position;
+    }
+
+    private int skipWhiteSpace(int position) {
+        while (position < source.length() && source.charAt(position) <= ' ') {
+            position++;
+        }
+
+        return position;
+    }
+
+    private boolean isWhiteSpace(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (source.charAt(i) > ' ') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
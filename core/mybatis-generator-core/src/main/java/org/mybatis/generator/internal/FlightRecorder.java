@@ -0,0 +1,363 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.Plugin;
+import org.mybatis.generator.api.dom.java.CompilationUnit;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.codegen.AbstractJavaGenerator;
+import org.mybatis.generator.codegen.AbstractXmlGenerator;
+import org.mybatis.generator.logging.Log;
+import org.mybatis.generator.logging.LogFactory;
+
+/**
+ * Emits Java Flight Recorder events for the phases of a generator run, so
+ * that a slow run can be profiled with a standard
+ * <code>-XX:StartFlightRecording</code> JVM option.
+ * 
+ * <p>Events are off by default. They are enabled by setting the system
+ * property <code>mybatis.generator.flightRecorder</code> to
+ * <code>true</code>. The generator supports JVMs without the Flight Recorder
+ * API, so the events are created with <code>jdk.jfr.EventFactory</code>
+ * through reflection. If the API is not available, the property is ignored.
+ * 
+ * <p>Every event has the id of the context, the fully qualified name of the
+ * table (where there is one), a name that depends on the event type (for
+ * example, the generator class or the file name), and a count (for example,
+ * the number of metadata calls or bytes written).
+ */
+public final class FlightRecorder {
+
+    /** The system property that enables the events. */
+    public static final String ENABLED_PROPERTY = "mybatis.generator.flightRecorder"; //$NON-NLS-1$
+
+    /**
+     * The types of events.
+     */
+    public enum EventType {
+        TABLE_INTROSPECTION("TableIntrospection", "Table Introspection", "Table Configuration", "Metadata Calls"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        METADATA_CALL("MetadataCall", "Metadata Call", "Method", "Results"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        CALCULATE_GENERATORS("CalculateGenerators", "Calculate Generators", "Introspected Table", "Generation Steps"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        JAVA_GENERATOR("JavaGenerator", "Java Generator", "Generator", "Compilation Units"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        XML_GENERATOR("XmlGenerator", "XML Generator", "Generator", "Documents"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        PLUGIN_HOOK("PluginHook", "Plugin Hook", "Hook", "Plugins"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        JAVA_MERGE("JavaMerge", "Java Merge", "File", "Characters"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        XML_MERGE("XmlMerge", "XML Merge", "File", "Characters"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        FILE_WRITE("FileWrite", "File Write", "File", "Bytes"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+        private final String name;
+        private final String label;
+        private final String nameLabel;
+        private final String countLabel;
+
+        private EventType(String name, String label, String nameLabel,
+                String countLabel) {
+            this.name = name;
+            this.label = label;
+            this.nameLabel = nameLabel;
+            this.countLabel = countLabel;
+        }
+    }
+
+    /**
+     * An event that has begun. Call <code>end</code> to commit it.
+     */
+    public static class Event {
+        private final Object event;
+        private final String contextId;
+        private final String table;
+        private final String name;
+        private long count;
+
+        private Event(Object event, String contextId, String table,
+                String name) {
+            this.event = event;
+            this.contextId = contextId;
+            this.table = table;
+            this.name = name;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public void end() {
+            if (event != null) {
+                factories.commit(event, contextId, table, name, count);
+            }
+        }
+    }
+
+    /** The event returned when events are disabled. */
+    private static final Event DISABLED = new Event(null, null, null, null);
+
+    /** The event factories, or null if events are disabled. */
+    private static final EventFactories factories = createEventFactories();
+
+    private FlightRecorder() {
+    }
+
+    public static boolean isEnabled() {
+        return factories != null;
+    }
+
+    /**
+     * Begins an event.
+     *
+     * @param type
+     *            the event type
+     * @param contextId
+     *            the context id, or null
+     * @param table
+     *            the fully qualified table name, or null
+     * @param name
+     *            the name, which depends on the event type
+     * @return the event. If events are disabled, an event that does nothing
+     */
+    public static Event begin(EventType type, String contextId, String table,
+            String name) {
+        if (factories == null) {
+            return DISABLED;
+        }
+
+        Object event = factories.begin(type);
+        return event == null ? DISABLED : new Event(event, contextId, table,
+                name);
+    }
+
+    public static String getTableName(IntrospectedTable introspectedTable) {
+        return introspectedTable.getFullyQualifiedTable().toString();
+    }
+
+    /**
+     * Calls a Java generator, emitting a Java generator event.
+     *
+     * @param javaGenerator
+     *            the generator
+     * @return the compilation units returned by the generator
+     */
+    public static List<CompilationUnit> getCompilationUnits(
+            AbstractJavaGenerator javaGenerator) {
+        if (factories == null) {
+            return javaGenerator.getCompilationUnits();
+        }
+
+        Event event = begin(EventType.JAVA_GENERATOR, javaGenerator
+                .getContext().getId(), getTableName(javaGenerator
+                .getIntrospectedTable()), javaGenerator.getClass().getName());
+        try {
+            List<CompilationUnit> answer = javaGenerator.getCompilationUnits();
+            event.setCount(answer.size());
+            return answer;
+        } finally {
+            event.end();
+        }
+    }
+
+    /**
+     * Calls an XML generator, emitting an XML generator event.
+     *
+     * @param xmlGenerator
+     *            the generator
+     * @return the document returned by the generator
+     */
+    public static Document getDocument(AbstractXmlGenerator xmlGenerator) {
+        if (factories == null) {
+            return xmlGenerator.getDocument();
+        }
+
+        Event event = begin(EventType.XML_GENERATOR, xmlGenerator
+                .getContext().getId(), getTableName(xmlGenerator
+                .getIntrospectedTable()), xmlGenerator.getClass().getName());
+        try {
+            Document answer = xmlGenerator.getDocument();
+            event.setCount(answer == null ? 0 : 1);
+            return answer;
+        } finally {
+            event.end();
+        }
+    }
+
+    /**
+     * Returns a plugin that emits a plugin hook event for every call to the
+     * plugin, or the plugin itself if events are disabled.
+     *
+     * @param plugin
+     *            the plugin, typically the plugin aggregator of a context
+     * @param pluginCount
+     *            the number of plugins called by the plugin
+     * @param contextId
+     *            the context id
+     * @return the plugin
+     */
+    public static Plugin record(final Plugin plugin, final int pluginCount,
+            final String contextId) {
+        if (factories == null) {
+            return plugin;
+        }
+
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(),
+                new Class<?>[] { Plugin.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) throws Throwable {
+                        String table = null;
+                        if (args != null) {
+                            for (Object arg : args) {
+                                if (arg instanceof IntrospectedTable) {
+                                    table = getTableName((IntrospectedTable) arg);
+                                    break;
+                                }
+                            }
+                        }
+
+                        Event event = begin(EventType.PLUGIN_HOOK, contextId,
+                                table, method.getName());
+                        try {
+                            return method.invoke(plugin, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            event.setCount(pluginCount);
+                            event.end();
+                        }
+                    }
+                });
+    }
+
+    private static EventFactories createEventFactories() {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return null;
+        }
+
+        Log log = LogFactory.getLog(FlightRecorder.class);
+        try {
+            return new EventFactories();
+        } catch (Exception e) {
+            log.debug("Flight Recorder events are not available: " + e); //$NON-NLS-1$
+            return null;
+        } catch (LinkageError e) {
+            log.debug("Flight Recorder events are not available: " + e); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    /**
+     * Creates and commits events through the reflective jdk.jfr API.
+     */
+    private static class EventFactories {
+        private final Object[] factories;
+        private final Method newEvent;
+        private final Method begin;
+        private final Method end;
+        private final Method shouldCommit;
+        private final Method set;
+        private final Method commit;
+
+        EventFactories() throws Exception {
+            Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement"); //$NON-NLS-1$
+            Constructor<?> annotationElement = annotationElementClass
+                    .getConstructor(Class.class, Object.class);
+            Class<?> nameClass = Class.forName("jdk.jfr.Name"); //$NON-NLS-1$
+            Class<?> labelClass = Class.forName("jdk.jfr.Label"); //$NON-NLS-1$
+            Class<?> categoryClass = Class.forName("jdk.jfr.Category"); //$NON-NLS-1$
+            Constructor<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor") //$NON-NLS-1$
+                    .getConstructor(Class.class, String.class, List.class);
+            Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory"); //$NON-NLS-1$
+            Method create = eventFactoryClass.getMethod("create", List.class, List.class); //$NON-NLS-1$
+
+            EventType[] types = EventType.values();
+            factories = new Object[types.length];
+            for (EventType type : types) {
+                List<Object> annotations = new ArrayList<Object>();
+                annotations.add(annotationElement.newInstance(nameClass,
+                        "org.mybatis.generator." + type.name)); //$NON-NLS-1$
+                annotations.add(annotationElement.newInstance(labelClass,
+                        type.label));
+                annotations.add(annotationElement.newInstance(categoryClass,
+                        new String[] { "MyBatis Generator" })); //$NON-NLS-1$
+
+                List<Object> fields = new ArrayList<Object>();
+                fields.add(createValueDescriptor(valueDescriptor,
+                        annotationElement, labelClass, String.class,
+                        "contextId", "Context")); //$NON-NLS-1$ //$NON-NLS-2$
+                fields.add(createValueDescriptor(valueDescriptor,
+                        annotationElement, labelClass, String.class,
+                        "table", "Table")); //$NON-NLS-1$ //$NON-NLS-2$
+                fields.add(createValueDescriptor(valueDescriptor,
+                        annotationElement, labelClass, String.class,
+                        "name", type.nameLabel)); //$NON-NLS-1$
+                fields.add(createValueDescriptor(valueDescriptor,
+                        annotationElement, labelClass, long.class,
+                        "count", type.countLabel)); //$NON-NLS-1$
+
+                factories[type.ordinal()] = create.invoke(null, annotations,
+                        fields);
+            }
+
+            newEvent = eventFactoryClass.getMethod("newEvent"); //$NON-NLS-1$
+            Class<?> eventClass = Class.forName("jdk.jfr.Event"); //$NON-NLS-1$
+            begin = eventClass.getMethod("begin"); //$NON-NLS-1$
+            end = eventClass.getMethod("end"); //$NON-NLS-1$
+            shouldCommit = eventClass.getMethod("shouldCommit"); //$NON-NLS-1$
+            set = eventClass.getMethod("set", int.class, Object.class); //$NON-NLS-1$
+            commit = eventClass.getMethod("commit"); //$NON-NLS-1$
+        }
+
+        private static Object createValueDescriptor(
+                Constructor<?> valueDescriptor,
+                Constructor<?> annotationElement, Class<?> labelClass,
+                Class<?> type, String name, String label) throws Exception {
+            List<Object> annotations = new ArrayList<Object>();
+            annotations.add(annotationElement.newInstance(labelClass, label));
+            return valueDescriptor.newInstance(type, name, annotations);
+        }
+
+        Object begin(EventType type) {
+            try {
+                Object event = newEvent.invoke(factories[type.ordinal()]);
+                begin.invoke(event);
+                return event;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        void commit(Object event, String contextId, String table,
+                String name, long count) {
+            try {
+                end.invoke(event);
+                if (((Boolean) shouldCommit.invoke(event)).booleanValue()) {
+                    set.invoke(event, 0, contextId);
+                    set.invoke(event, 1, table);
+                    set.invoke(event, 2, name);
+                    set.invoke(event, 3, count);
+                    commit.invoke(event);
+                }
+            } catch (Exception e) {
+                // the event is lost, but the run must not fail
+            }
+        }
+    }
+}
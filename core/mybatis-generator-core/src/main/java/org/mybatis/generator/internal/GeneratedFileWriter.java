@@ -0,0 +1,687 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.mybatis.generator.internal.util.DigestUtility.newDigest;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.mybatis.generator.api.GeneratedFile;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.ProgressCallback;
+import org.mybatis.generator.api.ShellCallback;
+import org.mybatis.generator.config.MergeConstants;
+import org.mybatis.generator.exception.ShellException;
+
+/**
+ * This class writes generated files to disk on a pool of background threads,
+ * so that files can be written while other files are still being generated.
+ * 
+ * <p>Everything that involves the ShellCallback (resolving directories,
+ * deciding whether to merge, overwrite or rename a file, and merging Java
+ * files) happens on the thread that calls <code>write</code>, in the order the
+ * files are submitted. Formatting the content, merging XML files, and writing
+ * the bytes happen on the worker threads. Each file is written to a temporary
+ * file in the target directory that is then renamed over the target, so an
+ * interrupted run never leaves a partially written file behind. Files whose
+ * content has not changed are not written at all, so their timestamps are
+ * preserved and incremental builds do not recompile them.
+ * 
+ * <p>Warnings and progress messages for each file are held until
+ * <code>report</code> is called for that file, so the caller can report them
+ * in a predictable order no matter when the file was actually written.
+ */
+public class GeneratedFileWriter {
+
+    /** The size of the buffer used to read existing files. */
+    private static final int DIGEST_BUFFER_SIZE = 8192;
+
+    /** The initial size of the buffer that generated files are rendered into. */
+    private static final int RENDER_BUFFER_SIZE = 16384;
+
+    /** The encoding of generated XML files. */
+    private static final String XML_ENCODING = "UTF-8"; //$NON-NLS-1$
+
+    /** The shell callback. */
+    private ShellCallback shellCallback;
+
+    /** The number of worker threads. */
+    private int threads;
+
+    /** Resolved directories (or the exception thrown while resolving them), by project and package. */
+    private Map<String, Object> directories;
+
+    /** Target files of writes that have been submitted, but may not be complete. */
+    private Set<File> pendingFiles;
+
+    /** The files submitted to the current executor, in submission order. */
+    private List<GeneratedFile> pendingGeneratedFiles;
+
+    /** The executor for the current batch of writes. */
+    private ParallelTaskExecutor<WriteResult> executor;
+
+    /** The results of all writes, by generated file. */
+    private Map<GeneratedFile, WriteResult> results;
+
+    /** The target projects of all files written. */
+    private Set<String> projects;
+
+    /** The number of files written without merging. */
+    private int writtenFileCount;
+
+    /** The number of files merged and written. */
+    private int mergedFileCount;
+
+    /** The number of files left untouched because their content did not change. */
+    private int unchangedFileCount;
+
+    /** The report that reported files are added to, or null. */
+    private RunReport runReport;
+
+    /**
+     * Instantiates a new generated file writer.
+     * 
+     * @param shellCallback
+     *            the shell callback
+     * @param threads
+     *            the number of files that may be written concurrently
+     */
+    public GeneratedFileWriter(ShellCallback shellCallback, int threads) {
+        super();
+        this.shellCallback = shellCallback;
+        this.threads = Math.max(1, threads);
+        directories = new HashMap<String, Object>();
+        pendingFiles = new HashSet<File>();
+        pendingGeneratedFiles = new ArrayList<GeneratedFile>();
+        results = new IdentityHashMap<GeneratedFile, WriteResult>();
+        projects = new HashSet<String>();
+    }
+
+    /**
+     * Sets a report that records the outcome of every file when it is
+     * reported.
+     * 
+     * @param runReport
+     *            the run report, or null
+     */
+    public void setRunReport(RunReport runReport) {
+        this.runReport = runReport;
+    }
+
+    /**
+     * Resolves the target of a generated Java file and schedules it to be
+     * written.
+     * 
+     * @param gjf
+     *            the generated Java file
+     * @param callback
+     *            the progress callback, used to check for a cancel if this
+     *            method must wait for earlier writes to the same file
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     * @throws IOException
+     *             if an earlier write failed
+     */
+    public void write(final GeneratedJavaFile gjf, ProgressCallback callback)
+            throws InterruptedException, IOException {
+        projects.add(gjf.getTargetProject());
+        WriteResult result = new WriteResult();
+        try {
+            File directory = getDirectory(gjf.getTargetProject(),
+                    gjf.getTargetPackage());
+            File targetFile = claimTargetFile(directory, gjf.getFileName(),
+                    callback);
+            String source = null;
+            if (targetFile.exists()) {
+                if (shellCallback.isMergeSupported()) {
+                    FlightRecorder.Event event = FlightRecorder.begin(
+                            FlightRecorder.EventType.JAVA_MERGE, null, null,
+                            targetFile.getPath());
+                    long startNanos = System.nanoTime();
+                    try {
+                        source = shellCallback.mergeJavaFile(gjf
+                                .getFormattedContent(), targetFile,
+                                MergeConstants.OLD_ELEMENT_TAGS,
+                                gjf.getFileEncoding());
+                        event.setCount(source == null ? 0 : source.length());
+                    } finally {
+                        event.end();
+                        result.mergeNanos = System.nanoTime() - startNanos;
+                    }
+                } else if (shellCallback.isOverwriteEnabled()) {
+                    result.warnings.add(getString("Warning.11", //$NON-NLS-1$
+                            targetFile.getAbsolutePath()));
+                } else {
+                    targetFile = getUniqueFileName(directory, gjf
+                            .getFileName());
+                    result.warnings.add(getString(
+                            "Warning.2", targetFile.getAbsolutePath())); //$NON-NLS-1$
+                }
+            }
+
+            final String mergedSource = source;
+            result.merged = source != null;
+            submit(gjf, targetFile, result, new Callable<byte[]>() {
+                public byte[] call() throws IOException {
+                    if (mergedSource == null) {
+                        EncodingWriter writer = new EncodingWriter(gjf
+                                .getFileEncoding());
+                        gjf.render(writer);
+                        return writer.toByteArray();
+                    } else {
+                        return getBytes(mergedSource, gjf.getFileEncoding());
+                    }
+                }
+            });
+        } catch (ShellException e) {
+            result.warnings.add(e.getMessage());
+            results.put(gjf, result);
+        }
+    }
+
+    /**
+     * Resolves the target of a generated XML file and schedules it to be
+     * written.
+     * 
+     * @param gxf
+     *            the generated XML file
+     * @param callback
+     *            the progress callback, used to check for a cancel if this
+     *            method must wait for earlier writes to the same file
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     * @throws IOException
+     *             if an earlier write failed
+     */
+    public void write(final GeneratedXmlFile gxf, ProgressCallback callback)
+            throws InterruptedException, IOException {
+        projects.add(gxf.getTargetProject());
+        final WriteResult result = new WriteResult();
+        try {
+            File directory = getDirectory(gxf.getTargetProject(),
+                    gxf.getTargetPackage());
+            File targetFile = claimTargetFile(directory, gxf.getFileName(),
+                    callback);
+            boolean merge = false;
+            if (targetFile.exists()) {
+                if (gxf.isMergeable()) {
+                    merge = true;
+                } else if (shellCallback.isOverwriteEnabled()) {
+                    result.warnings.add(getString("Warning.11", //$NON-NLS-1$
+                            targetFile.getAbsolutePath()));
+                } else {
+                    targetFile = getUniqueFileName(directory, gxf
+                            .getFileName());
+                    result.warnings.add(getString(
+                            "Warning.2", targetFile.getAbsolutePath())); //$NON-NLS-1$
+                }
+            }
+
+            final boolean mergeExisting = merge;
+            final File existingFile = targetFile;
+            result.merged = merge;
+            submit(gxf, targetFile, result, new Callable<byte[]>() {
+                public byte[] call() throws IOException, ShellException {
+                    if (mergeExisting) {
+                        FlightRecorder.Event event = FlightRecorder.begin(
+                                FlightRecorder.EventType.XML_MERGE, null,
+                                null, existingFile.getPath());
+                        String mergedSource;
+                        long startNanos = System.nanoTime();
+                        try {
+                            mergedSource = XmlFileMergerJaxp.getMergedSource(
+                                    gxf, existingFile);
+                            event.setCount(mergedSource.length());
+                        } finally {
+                            event.end();
+                            result.mergeNanos = System.nanoTime() - startNanos;
+                        }
+                        return getBytes(mergedSource, XML_ENCODING);
+                    } else {
+                        EncodingWriter writer = new EncodingWriter(
+                                XML_ENCODING);
+                        gxf.render(writer);
+                        return writer.toByteArray();
+                    }
+                }
+            });
+        } catch (ShellException e) {
+            result.warnings.add(e.getMessage());
+            results.put(gxf, result);
+        }
+    }
+
+    /**
+     * Waits for all scheduled writes to complete.
+     * 
+     * @param callback
+     *            the progress callback, used to check for a cancel
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     * @throws IOException
+     *             if a file could not be written
+     */
+    public void awaitAll(ProgressCallback callback)
+            throws InterruptedException, IOException {
+        if (executor == null) {
+            return;
+        }
+
+        List<WriteResult> batch;
+        try {
+            batch = executor.awaitAll(callback, null);
+        } catch (ExecutionException e) {
+            Throwable cause = ParallelTaskExecutor.unwrap(e);
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            executor = null;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            results.put(pendingGeneratedFiles.get(i), batch.get(i));
+        }
+        pendingGeneratedFiles.clear();
+        pendingFiles.clear();
+    }
+
+    /**
+     * Cancels all outstanding writes.
+     */
+    public void cancel() {
+        if (executor != null) {
+            executor.cancel();
+            executor = null;
+        }
+    }
+
+    /**
+     * Reports the warnings and progress for a file that has been written, and
+     * releases the result of the write. This should only be called after
+     * <code>awaitAll</code>, and after any call to <code>getTargetFile</code>
+     * for the file.
+     * 
+     * @param generatedFile
+     *            the generated file
+     * @param callback
+     *            the progress callback
+     * @param warnings
+     *            the list to add any warnings to
+     */
+    public void report(GeneratedFile generatedFile, ProgressCallback callback,
+            List<String> warnings) {
+        WriteResult result = results.remove(generatedFile);
+        if (result == null) {
+            return;
+        }
+
+        warnings.addAll(result.warnings);
+        if (runReport != null) {
+            runReport.fileWritten(generatedFile, result.targetFile != null,
+                    result.merged, result.unchanged, result.bytes,
+                    result.mergeNanos, result.writeNanos);
+        }
+        if (result.targetFile == null) {
+            return;
+        }
+
+        if (result.unchanged) {
+            unchangedFileCount++;
+            callback.startTask(getString(
+                    "Progress.19", result.targetFile.getName())); //$NON-NLS-1$
+        } else {
+            if (result.merged) {
+                mergedFileCount++;
+            } else {
+                writtenFileCount++;
+            }
+            callback.startTask(getString(
+                    "Progress.15", result.targetFile.getName())); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Returns the file a generated file was written to. This should only be
+     * called after <code>awaitAll</code>.
+     * 
+     * @param generatedFile
+     *            the generated file
+     * @return the file, or null if the generated file was not written
+     */
+    public File getTargetFile(GeneratedFile generatedFile) {
+        WriteResult result = results.get(generatedFile);
+        return result == null ? null : result.targetFile;
+    }
+
+    /**
+     * Returns the number of reported files that were written without merging.
+     * 
+     * @return the number of files written
+     */
+    public int getWrittenFileCount() {
+        return writtenFileCount;
+    }
+
+    /**
+     * Returns the number of reported files that were merged with an existing
+     * file and written.
+     * 
+     * @return the number of files merged
+     */
+    public int getMergedFileCount() {
+        return mergedFileCount;
+    }
+
+    /**
+     * Returns the number of reported files that were not written because the
+     * existing file already had the same content.
+     * 
+     * @return the number of unchanged files
+     */
+    public int getUnchangedFileCount() {
+        return unchangedFileCount;
+    }
+
+    /**
+     * Returns the target projects of all files passed to this writer.
+     * 
+     * @return the projects
+     */
+    public Set<String> getProjects() {
+        return projects;
+    }
+
+    private void submit(GeneratedFile generatedFile, final File targetFile,
+            final WriteResult result, final Callable<byte[]> content) {
+        if (executor == null) {
+            executor = new ParallelTaskExecutor<WriteResult>(
+                    "mbg-writer", threads); //$NON-NLS-1$
+        }
+
+        pendingFiles.add(targetFile);
+        pendingGeneratedFiles.add(generatedFile);
+        executor.submit(new Callable<WriteResult>() {
+            public WriteResult call() throws Exception {
+                long startNanos = System.nanoTime();
+                long mergeNanos = result.mergeNanos;
+                try {
+                    byte[] bytes = content.call();
+                    result.bytes = bytes.length;
+                    FlightRecorder.Event event = FlightRecorder.begin(
+                            FlightRecorder.EventType.FILE_WRITE, null, null,
+                            targetFile.getPath());
+                    try {
+                        result.unchanged = !writeFile(targetFile, bytes);
+                        event.setCount(result.unchanged ? 0 : bytes.length);
+                    } finally {
+                        event.end();
+                    }
+                    result.targetFile = targetFile;
+                } catch (ShellException e) {
+                    result.warnings.add(e.getMessage());
+                }
+                // merges of XML files are part of the task, but are
+                // measured separately
+                result.writeNanos = System.nanoTime() - startNanos
+                        - (result.mergeNanos - mergeNanos);
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Returns the directory for a project and package. The shell callback is
+     * only asked once for each combination.
+     */
+    private File getDirectory(String targetProject, String targetPackage)
+            throws ShellException {
+        String key = targetProject + '|' + targetPackage;
+        Object directory = directories.get(key);
+        if (directory == null) {
+            try {
+                directory = shellCallback.getDirectory(targetProject,
+                        targetPackage);
+            } catch (ShellException e) {
+                directory = e;
+            }
+            directories.put(key, directory);
+        }
+
+        if (directory instanceof ShellException) {
+            throw (ShellException) directory;
+        }
+
+        return (File) directory;
+    }
+
+    /**
+     * Returns the target file for a generated file. If an earlier write to the
+     * same file is still pending, waits for all pending writes so that the
+     * file can be merged or renamed exactly as it would be if the files were
+     * written one at a time.
+     */
+    private File claimTargetFile(File directory, String fileName,
+            ProgressCallback callback) throws InterruptedException,
+            IOException {
+        File targetFile = new File(directory, fileName);
+        if (pendingFiles.contains(targetFile)) {
+            awaitAll(callback);
+        }
+        return targetFile;
+    }
+
+    /**
+     * Gets the unique file name.
+     *
+     * @param directory
+     *            the directory
+     * @param fileName
+     *            the file name
+     * @return the unique file name
+     */
+    private File getUniqueFileName(File directory, String fileName) {
+        File answer = null;
+
+        // try up to 1000 times to generate a unique file name
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i < 1000; i++) {
+            sb.setLength(0);
+            sb.append(fileName);
+            sb.append('.');
+            sb.append(i);
+
+            File testFile = new File(directory, sb.toString());
+            if (!testFile.exists() && !pendingFiles.contains(testFile)) {
+                answer = testFile;
+                break;
+            }
+        }
+
+        if (answer == null) {
+            throw new RuntimeException(getString(
+                    "RuntimeError.3", directory.getAbsolutePath())); //$NON-NLS-1$
+        }
+
+        return answer;
+    }
+
+    private static byte[] getBytes(String content, String fileEncoding)
+            throws UnsupportedEncodingException {
+        return fileEncoding == null ? content.getBytes() : content
+                .getBytes(fileEncoding);
+    }
+
+    /**
+     * Writes, or replaces, the contents of the specified file. If the file
+     * already exists with exactly the same content it is left untouched, so
+     * that its timestamp does not change. Otherwise the content is written to
+     * a temporary file in the same directory, which is then renamed to the
+     * target file.
+     *
+     * @param file
+     *            the file
+     * @param bytes
+     *            the encoded content
+     * @return true if the file was written, false if it was unchanged
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static boolean writeFile(File file, byte[] bytes)
+            throws IOException {
+        if (hasContent(file, bytes)) {
+            return false;
+        }
+
+        File tempFile = File.createTempFile("." + file.getName() + '.', //$NON-NLS-1$
+                ".tmp", file.getParentFile()); //$NON-NLS-1$
+        boolean renamed = false;
+        try {
+            FileOutputStream fos = new FileOutputStream(tempFile);
+            try {
+                FileChannel channel = fos.getChannel();
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } finally {
+                fos.close();
+            }
+
+            renamed = tempFile.renameTo(file);
+            if (!renamed && file.delete()) {
+                // some platforms will not rename over an existing file
+                renamed = tempFile.renameTo(file);
+            }
+
+            if (!renamed) {
+                throw new IOException(getString(
+                        "RuntimeError.24", file.getAbsolutePath())); //$NON-NLS-1$
+            }
+        } finally {
+            if (!renamed) {
+                tempFile.delete();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if the file exists and its content has the same digest as
+     * the specified bytes. The file is streamed through the digest rather
+     * than read into memory, and files of a different length are not read at
+     * all.
+     *
+     * @param file
+     *            the file
+     * @param bytes
+     *            the new content
+     * @return true if the file already has this content
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static boolean hasContent(File file, byte[] bytes)
+            throws IOException {
+        if (!file.isFile() || file.length() != bytes.length) {
+            return false;
+        }
+
+        MessageDigest fileDigest = newDigest();
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            FileChannel channel = fis.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(DIGEST_BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                // called through Buffer so that class files built by newer
+                // compilers do not link to the covariant ByteBuffer overrides
+                ((Buffer) buffer).flip();
+                fileDigest.update(buffer);
+                ((Buffer) buffer).clear();
+            }
+        } finally {
+            fis.close();
+        }
+
+        MessageDigest contentDigest = newDigest();
+        contentDigest.update(bytes);
+        return MessageDigest.isEqual(fileDigest.digest(),
+                contentDigest.digest());
+    }
+
+    /**
+     * A writer that encodes generated content in memory, so that generated
+     * files can be rendered directly into their encoded form.
+     */
+    private static class EncodingWriter extends OutputStreamWriter {
+        private ByteArrayOutputStream bytes;
+
+        EncodingWriter(String fileEncoding) throws UnsupportedEncodingException {
+            this(new ByteArrayOutputStream(RENDER_BUFFER_SIZE), fileEncoding);
+        }
+
+        private EncodingWriter(ByteArrayOutputStream bytes, String fileEncoding)
+                throws UnsupportedEncodingException {
+            // a null encoding means the platform default
+            super(bytes, fileEncoding == null ? Charset.defaultCharset()
+                    .name() : fileEncoding);
+            this.bytes = bytes;
+        }
+
+        byte[] toByteArray() throws IOException {
+            close();
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * The outcome of writing a single file.
+     */
+    private static class WriteResult {
+        private File targetFile;
+        private boolean merged;
+        private boolean unchanged;
+        private long bytes;
+        private long mergeNanos;
+        private long writeNanos;
+        private List<String> warnings = new ArrayList<String>();
+    }
+}
@@ -0,0 +1,692 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.mybatis.generator.internal.util.DigestUtility.digest;
+import static org.mybatis.generator.internal.util.StringUtility.isTrue;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.mybatis.generator.api.GeneratedFile;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.ProgressCallback;
+import org.mybatis.generator.api.dom.xml.Element;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.PluginConfiguration;
+import org.mybatis.generator.config.PropertyRegistry;
+
+/**
+ * The generation manifest of a context. The manifest records, for every table
+ * in the context, a fingerprint of everything that affects the generated code
+ * of the table, and the files that were written for it. On the next run, tables
+ * whose fingerprint has not changed (and whose files still exist) are not
+ * generated again.
+ * 
+ * <p>The table fingerprint covers the introspected columns and keys, and the
+ * table configuration. The context fingerprint covers the rest of the context
+ * configuration (including the plugins) and the generator version. If the
+ * context fingerprint changes, or tables are added or removed, every table in
+ * the context is generated, as are the files generated by plugins for the
+ * context as a whole.
+ * 
+ * <p>Files that were recorded by an earlier run but are not generated any
+ * more are reported, or deleted if the "deleteOrphanedFiles" context property
+ * is true.
+ */
+public class GenerationManifest {
+
+    /** The first line of a manifest file. */
+    private static final String HEADER = "# MyBatis Generator manifest 1"; //$NON-NLS-1$
+
+    /** The encoding of manifest files. */
+    private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+    /** The generator version, once it has been read. */
+    private static String generatorVersion;
+
+    /** The manifest file. */
+    private File file;
+
+    /** The context. */
+    private Context context;
+
+    /** True if only some of the tables of the context are generated in this run. */
+    private boolean partialTableSet;
+
+    /** The context fingerprint recorded by the last run. */
+    private String previousContextFingerprint;
+
+    /** The files generated for the whole context by the last run. */
+    private List<String> previousContextFiles;
+
+    /** The tables recorded by the last run. */
+    private Map<String, TableEntry> previousTables;
+
+    /** The context fingerprint of this run. */
+    private String contextFingerprint;
+
+    /** True if the context level files must be generated in this run. */
+    private boolean contextGenerationRequired;
+
+    /** The tables of this run. */
+    private Map<String, TableEntry> tables;
+
+    /** The files generated for the whole context in this run. */
+    private List<GeneratedFile> contextFiles;
+
+    /** The paths of the files generated for the context as a whole, once they have been written. */
+    private List<String> writtenContextFiles;
+
+    /**
+     * Instantiates a new generation manifest.
+     * 
+     * @param file
+     *            the manifest file
+     * @param context
+     *            the context
+     * @param partialTableSet
+     *            true if only some of the tables of the context are generated
+     *            in this run
+     */
+    private GenerationManifest(File file, Context context,
+            boolean partialTableSet) {
+        super();
+        this.file = file;
+        this.context = context;
+        this.partialTableSet = partialTableSet;
+        previousContextFiles = new ArrayList<String>();
+        previousTables = new LinkedHashMap<String, TableEntry>();
+        tables = new LinkedHashMap<String, TableEntry>();
+        contextGenerationRequired = true;
+    }
+
+    /**
+     * Returns the generation manifest of a context, after reading the
+     * manifest file. If the manifest file cannot be read, a warning is added
+     * and every table will be generated.
+     * 
+     * @param context
+     *            the context
+     * @param partialTableSet
+     *            true if only some of the tables of the context are generated
+     *            in this run
+     * @param warnings
+     *            the warnings
+     * @return the manifest, or null if the context does not specify the
+     *         "generationManifest" property
+     */
+    public static GenerationManifest getInstance(Context context,
+            boolean partialTableSet, List<String> warnings) {
+        String fileName = context
+                .getProperty(PropertyRegistry.CONTEXT_GENERATION_MANIFEST);
+        if (!stringHasValue(fileName)) {
+            return null;
+        }
+
+        GenerationManifest manifest = new GenerationManifest(new File(
+                fileName).getAbsoluteFile(), context, partialTableSet);
+        if (manifest.file.exists()) {
+            try {
+                manifest.read();
+            } catch (IOException e) {
+                manifest.previousContextFingerprint = null;
+                manifest.previousContextFiles.clear();
+                manifest.previousTables.clear();
+                warnings.add(getString("Warning.33", //$NON-NLS-1$
+                        manifest.file.getPath(), e.getMessage()));
+            }
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Returns the tables that must be generated in this run. Tables that are
+     * unchanged since the last run are reported through the progress
+     * callback, and their entries are kept in the manifest.
+     * 
+     * @param introspectedTables
+     *            the introspected tables of the context
+     * @param callback
+     *            the progress callback
+     * @return the tables to generate
+     */
+    public List<IntrospectedTable> selectTablesToGenerate(
+            List<IntrospectedTable> introspectedTables,
+            ProgressCallback callback) {
+        contextFingerprint = calculateContextFingerprint(context);
+
+        Map<String, String> fingerprints = new LinkedHashMap<String, String>();
+        for (IntrospectedTable introspectedTable : introspectedTables) {
+            fingerprints.put(getTableKey(introspectedTable),
+                    calculateTableFingerprint(introspectedTable));
+        }
+
+        contextGenerationRequired = !contextFingerprint
+                .equals(previousContextFingerprint)
+                || (!partialTableSet && !fingerprints.keySet().equals(
+                        previousTables.keySet()));
+
+        List<IntrospectedTable> answer = new ArrayList<IntrospectedTable>();
+        for (IntrospectedTable introspectedTable : introspectedTables) {
+            String key = getTableKey(introspectedTable);
+            String fingerprint = fingerprints.get(key);
+            TableEntry previousEntry = previousTables.get(key);
+            if (!contextGenerationRequired && previousEntry != null
+                    && fingerprint.equals(previousEntry.fingerprint)
+                    && previousEntry.filesExist()) {
+                tables.put(key, previousEntry);
+                callback.startTask(getString("Progress.21", key)); //$NON-NLS-1$
+            } else {
+                TableEntry entry = new TableEntry(fingerprint);
+                tables.put(key, entry);
+                answer.add(introspectedTable);
+            }
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns true if the files that plugins generate for the context as a
+     * whole must be generated in this run. Those files are only generated if
+     * every table in the context is generated.
+     * 
+     * @return true if the context level files must be generated
+     */
+    public boolean isContextGenerationRequired() {
+        return contextGenerationRequired;
+    }
+
+    /**
+     * Records the files generated for a table.
+     * 
+     * @param introspectedTable
+     *            the table
+     * @param generatedJavaFiles
+     *            the Java files generated for the table
+     * @param generatedXmlFiles
+     *            the XML files generated for the table
+     */
+    public void tableGenerated(IntrospectedTable introspectedTable,
+            List<GeneratedJavaFile> generatedJavaFiles,
+            List<GeneratedXmlFile> generatedXmlFiles) {
+        TableEntry entry = tables.get(getTableKey(introspectedTable));
+        if (entry != null) {
+            entry.generatedFiles = new ArrayList<GeneratedFile>();
+            entry.generatedFiles.addAll(generatedJavaFiles);
+            entry.generatedFiles.addAll(generatedXmlFiles);
+        }
+    }
+
+    /**
+     * Records the files generated for the context as a whole.
+     * 
+     * @param generatedJavaFiles
+     *            the Java files
+     * @param generatedXmlFiles
+     *            the XML files
+     */
+    public void contextGenerated(List<GeneratedJavaFile> generatedJavaFiles,
+            List<GeneratedXmlFile> generatedXmlFiles) {
+        contextFiles = new ArrayList<GeneratedFile>();
+        contextFiles.addAll(generatedJavaFiles);
+        contextFiles.addAll(generatedXmlFiles);
+    }
+
+    /**
+     * Records the paths of the generated files that have been written since
+     * the last call, and releases the generated files. This must be called
+     * after the files have been written, and before the writer reports them.
+     * 
+     * @param fileWriter
+     *            the writer that wrote the generated files
+     */
+    public void filesWritten(GeneratedFileWriter fileWriter) {
+        if (contextFiles != null) {
+            writtenContextFiles = getPaths(contextFiles, fileWriter);
+            if (writtenContextFiles == null) {
+                // a file was not written - try again next time
+                writtenContextFiles = new ArrayList<String>();
+                contextFingerprint = null;
+            }
+            contextFiles = null;
+        }
+
+        for (TableEntry entry : tables.values()) {
+            if (entry.generatedFiles != null) {
+                entry.files = getPaths(entry.generatedFiles, fileWriter);
+                entry.generatedFiles = null;
+            }
+        }
+    }
+
+    /**
+     * Handles the files of the last run that were not generated again, and
+     * writes the manifest file. This must only be called after all files have
+     * been written successfully.
+     * 
+     * @param fileWriter
+     *            the writer that wrote the generated files
+     * @param callback
+     *            the progress callback
+     * @param warnings
+     *            the warnings
+     */
+    public void save(GeneratedFileWriter fileWriter, ProgressCallback callback,
+            List<String> warnings) {
+        filesWritten(fileWriter);
+        List<String> newContextFiles = writtenContextFiles == null ? previousContextFiles
+                : writtenContextFiles;
+
+        Iterator<TableEntry> iter = tables.values().iterator();
+        while (iter.hasNext()) {
+            TableEntry entry = iter.next();
+            if (entry.files == null) {
+                // a file was not written, or the table was not generated -
+                // try again next time
+                iter.remove();
+            }
+        }
+
+        if (partialTableSet) {
+            // keep the tables that were not part of this run
+            for (Map.Entry<String, TableEntry> previousEntry : previousTables
+                    .entrySet()) {
+                if (!tables.containsKey(previousEntry.getKey())) {
+                    tables.put(previousEntry.getKey(), previousEntry.getValue());
+                }
+            }
+        }
+
+        // find files that were generated before, but are not generated now
+        Set<String> currentFiles = new HashSet<String>(newContextFiles);
+        for (TableEntry entry : tables.values()) {
+            currentFiles.addAll(entry.files);
+        }
+
+        Set<String> orphanedFiles = new TreeSet<String>(previousContextFiles);
+        for (TableEntry entry : previousTables.values()) {
+            orphanedFiles.addAll(entry.files);
+        }
+        orphanedFiles.removeAll(currentFiles);
+
+        boolean deleteOrphanedFiles = isTrue(context
+                .getProperty(PropertyRegistry.CONTEXT_DELETE_ORPHANED_FILES));
+        for (String path : orphanedFiles) {
+            File orphanedFile = new File(path);
+            if (!orphanedFile.exists()) {
+                continue;
+            }
+
+            if (deleteOrphanedFiles && orphanedFile.delete()) {
+                callback.startTask(getString("Progress.22", path)); //$NON-NLS-1$
+            } else {
+                warnings.add(getString("Warning.35", path)); //$NON-NLS-1$
+            }
+        }
+
+        try {
+            write(newContextFiles);
+        } catch (IOException e) {
+            warnings.add(getString("Warning.34", //$NON-NLS-1$
+                    file.getPath(), e.getMessage()));
+        }
+    }
+
+    private List<String> getPaths(List<GeneratedFile> generatedFiles,
+            GeneratedFileWriter fileWriter) {
+        List<String> answer = new ArrayList<String>();
+        for (GeneratedFile generatedFile : generatedFiles) {
+            File targetFile = fileWriter.getTargetFile(generatedFile);
+            if (targetFile == null) {
+                return null;
+            }
+            answer.add(targetFile.getAbsolutePath());
+        }
+        return answer;
+    }
+
+    private void read() throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), ENCODING));
+        try {
+            String line = reader.readLine();
+            if (!HEADER.equals(line)) {
+                throw new IOException(getString("RuntimeError.26")); //$NON-NLS-1$
+            }
+
+            List<String> currentFiles = previousContextFiles;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("context ")) { //$NON-NLS-1$
+                    previousContextFingerprint = line.substring(8);
+                    currentFiles = previousContextFiles;
+                } else if (line.startsWith("table ")) { //$NON-NLS-1$
+                    int index = line.indexOf(' ', 6);
+                    if (index == -1) {
+                        throw new IOException(getString("RuntimeError.26")); //$NON-NLS-1$
+                    }
+                    TableEntry entry = new TableEntry(line.substring(6, index));
+                    entry.files = new ArrayList<String>();
+                    previousTables.put(line.substring(index + 1), entry);
+                    currentFiles = entry.files;
+                } else if (line.startsWith("file ")) { //$NON-NLS-1$
+                    currentFiles.add(line.substring(5));
+                } else if (line.length() > 0 && !line.startsWith("#")) { //$NON-NLS-1$
+                    throw new IOException(getString("RuntimeError.26")); //$NON-NLS-1$
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void write(List<String> newContextFiles) throws IOException {
+        File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(getString("RuntimeError.25", directory.getPath())); //$NON-NLS-1$
+        }
+
+        File tempFile = File.createTempFile("." + file.getName() + ".", null, directory); //$NON-NLS-1$ //$NON-NLS-2$
+        try {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), ENCODING);
+            try {
+                writer.write(HEADER);
+                writer.write('\n');
+                if (contextFingerprint != null) {
+                    writer.write("context "); //$NON-NLS-1$
+                    writer.write(contextFingerprint);
+                    writer.write('\n');
+                }
+                writeFiles(writer, newContextFiles);
+                for (Map.Entry<String, TableEntry> entry : tables.entrySet()) {
+                    writer.write("table "); //$NON-NLS-1$
+                    writer.write(entry.getValue().fingerprint);
+                    writer.write(' ');
+                    writer.write(entry.getKey());
+                    writer.write('\n');
+                    writeFiles(writer, entry.getValue().files);
+                }
+            } finally {
+                writer.close();
+            }
+
+            if (!tempFile.renameTo(file)) {
+                // some platforms will not rename over an existing file
+                file.delete();
+                if (!tempFile.renameTo(file)) {
+                    throw new IOException(getString("RuntimeError.24", file.getPath())); //$NON-NLS-1$
+                }
+            }
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    private void writeFiles(Writer writer, List<String> files)
+            throws IOException {
+        for (String path : files) {
+            writer.write("file "); //$NON-NLS-1$
+            writer.write(path);
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Returns the key of a table in the manifest. The domain object name is
+     * part of the key because the same table may be configured more than
+     * once.
+     * 
+     * @param introspectedTable
+     *            the table
+     * @return the key
+     */
+    private static String getTableKey(IntrospectedTable introspectedTable) {
+        return introspectedTable.getFullyQualifiedTable().toString() + ' '
+                + introspectedTable.getFullyQualifiedTable().getDomainObjectName();
+    }
+
+    /**
+     * Calculates the fingerprint of everything in a context, except the
+     * tables, that affects the generated code.
+     * 
+     * @param context
+     *            the context
+     * @return the fingerprint
+     */
+    private static String calculateContextFingerprint(Context context) {
+        XmlElement xmlElement = context.toXmlElement();
+        Iterator<Element> iter = xmlElement.getElements().iterator();
+        while (iter.hasNext()) {
+            Element element = iter.next();
+            if (element instanceof XmlElement
+                    && "table".equals(((XmlElement) element).getName())) { //$NON-NLS-1$
+                iter.remove();
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(getGeneratorVersion());
+        sb.append('\n');
+        sb.append(xmlElement.getFormattedContent(0));
+        appendClassStamps(sb, context);
+        return digest(sb.toString());
+    }
+
+    /**
+     * Appends the stamps of the class path entries of a context, and of the
+     * code sources of its plugins, comment generator and formatters, so that
+     * a rebuilt plugin or driver generates the whole context again.
+     * 
+     * @param sb
+     *            the fingerprint content
+     * @param context
+     *            the context
+     */
+    private static void appendClassStamps(StringBuilder sb, Context context) {
+        Set<File> files = new LinkedHashSet<File>();
+        for (ClassLoader classLoader : context.getGenerationSession()
+                .getExternalClassLoaders()) {
+            if (classLoader instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+                    addFile(files, url);
+                }
+            }
+        }
+
+        List<Class<?>> classes = new ArrayList<Class<?>>();
+        for (PluginConfiguration pluginConfiguration : context
+                .getPluginConfigurations()) {
+            try {
+                classes.add(ObjectFactory.internalClassForName(pluginConfiguration
+                        .getConfigurationType()));
+            } catch (ClassNotFoundException e) {
+                // the plugin could not be created either
+            }
+        }
+        classes.add(context.getCommentGenerator().getClass());
+        classes.add(context.getJavaFormatter().getClass());
+        classes.add(context.getXmlFormatter().getClass());
+        for (Class<?> clazz : classes) {
+            CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+            if (codeSource != null && codeSource.getLocation() != null) {
+                addFile(files, codeSource.getLocation());
+            }
+        }
+
+        Map<File, String> stamps = new TreeMap<File, String>(
+                ConfigurationWatcher.getStamps(new ArrayList<File>(files)));
+        for (Map.Entry<File, String> entry : stamps.entrySet()) {
+            sb.append('\n');
+            sb.append(entry.getKey().getPath());
+            sb.append('=');
+            sb.append(entry.getValue());
+        }
+    }
+
+    private static void addFile(Set<File> files, URL url) {
+        File file = ConfigurationWatcher.toFile(url);
+        if (file != null) {
+            files.add(file);
+        }
+    }
+
+    /**
+     * Calculates the fingerprint of the introspected columns and keys, and
+     * the configuration, of a table.
+     * 
+     * @param introspectedTable
+     *            the table
+     * @return the fingerprint
+     */
+    private static String calculateTableFingerprint(
+            IntrospectedTable introspectedTable) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(introspectedTable.getTableConfiguration().toXmlElement()
+                .getFormattedContent(0));
+        sb.append('\n');
+        sb.append(introspectedTable.getFullyQualifiedTable());
+        sb.append('\n');
+        sb.append(introspectedTable.getRemarks());
+        sb.append('\n');
+        sb.append(introspectedTable.getTableType());
+        sb.append('\n');
+        appendColumns(sb, "pk", introspectedTable.getPrimaryKeyColumns()); //$NON-NLS-1$
+        appendColumns(sb, "base", introspectedTable.getBaseColumns()); //$NON-NLS-1$
+        appendColumns(sb, "blob", introspectedTable.getBLOBColumns()); //$NON-NLS-1$
+        return digest(sb.toString());
+    }
+
+    private static void appendColumns(StringBuilder sb, String kind,
+            List<IntrospectedColumn> columns) {
+        for (IntrospectedColumn column : columns) {
+            sb.append(kind);
+            sb.append('|').append(column.getActualColumnName());
+            sb.append('|').append(column.isColumnNameDelimited());
+            sb.append('|').append(column.getJdbcType());
+            sb.append('|').append(column.getJdbcTypeName());
+            sb.append('|').append(column.getLength());
+            sb.append('|').append(column.getScale());
+            sb.append('|').append(column.isNullable());
+            sb.append('|').append(column.getRemarks());
+            sb.append('|').append(column.getDefaultValue());
+            sb.append('|').append(column.isIdentity());
+            sb.append('|').append(column.isSequenceColumn());
+            sb.append('|').append(column.isAutoIncrement());
+            sb.append('|').append(column.isGeneratedColumn());
+            sb.append('|').append(column.isGeneratedAlways());
+            sb.append('|').append(column.getJavaProperty());
+            sb.append('|').append(column.getFullyQualifiedJavaType());
+            sb.append('|').append(column.getTypeHandler());
+            sb.append('|').append(column.getTableAlias());
+            sb.append('|').append(column.getProperties());
+            sb.append('\n');
+        }
+    }
+
+    /**
+     * Returns the version of MyBatis Generator, so that a new version always
+     * generates every table.
+     * 
+     * @return the version
+     */
+    private static synchronized String getGeneratorVersion() {
+        if (generatorVersion == null) {
+            Properties properties = new Properties();
+            InputStream is = GenerationManifest.class.getResourceAsStream(
+                    "/META-INF/maven/org.mybatis.generator/mybatis-generator-core/pom.properties"); //$NON-NLS-1$
+            if (is != null) {
+                try {
+                    properties.load(is);
+                } catch (IOException e) {
+                    // ignore
+                } finally {
+                    try {
+                        is.close();
+                    } catch (IOException e) {
+                        // ignore
+                    }
+                }
+            }
+
+            generatorVersion = properties.getProperty("version"); //$NON-NLS-1$
+            if (generatorVersion == null) {
+                generatorVersion = GenerationManifest.class.getPackage()
+                        .getImplementationVersion();
+            }
+            if (generatorVersion == null) {
+                generatorVersion = ""; //$NON-NLS-1$
+            }
+        }
+
+        return generatorVersion;
+    }
+
+    /**
+     * The fingerprint and files of a single table.
+     */
+    private static class TableEntry {
+        private String fingerprint;
+        private List<String> files;
+        private List<GeneratedFile> generatedFiles;
+
+        TableEntry(String fingerprint) {
+            super();
+            this.fingerprint = fingerprint;
+        }
+
+        boolean filesExist() {
+            if (files == null) {
+                return false;
+            }
+
+            for (String path : files) {
+                if (!new File(path).exists()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.mybatis.generator.api.ConnectionFactory;
+import org.mybatis.generator.codegen.RootClassInfo;
+import org.mybatis.generator.internal.db.ConnectionCache;
+
+/**
+ * This class holds the state that belongs to a single generation run: the
+ * class loaders used to load JDBC drivers, root classes and resources, and
+ * the root class information read from those classes. Every run of
+ * MyBatisGenerator uses a new session, so runs in the same JVM (for example,
+ * parallel Maven builds) don't see or clear each other's class loaders.
+ * 
+ * <p>The session of a run is available from the contexts of the run. While a
+ * run is in progress it is also the current session of the thread running the
+ * generator and of the worker threads used by the run, so that the static
+ * methods of ObjectFactory and RootClassInfo still work for plugins that call
+ * them. Outside of a run, the current session is a default session shared by
+ * the whole JVM.
+ */
+public class GenerationSession {
+
+    /** The session used when no session is set on the current thread. */
+    private static final GenerationSession defaultSession = new GenerationSession();
+
+    /** The session set on the current thread. */
+    private static final ThreadLocal<GenerationSession> currentSession = new ThreadLocal<GenerationSession>();
+
+    /** The class loaders used to load external classes. */
+    private List<ClassLoader> externalClassLoaders = new CopyOnWriteArrayList<ClassLoader>();
+
+    /** The class loaders used to find resources. */
+    private List<ClassLoader> resourceClassLoaders = new CopyOnWriteArrayList<ClassLoader>();
+
+    /** The root class info, by class name. */
+    private Map<String, RootClassInfo> rootClassInfoMap = new HashMap<String, RootClassInfo>();
+
+    /** The connections kept open between runs, or null if they are not kept. */
+    private ConnectionCache connectionCache;
+
+    public GenerationSession() {
+        super();
+    }
+
+    /**
+     * Returns the session set on the current thread, or the default session if
+     * no session is set.
+     *
+     * @return the current session
+     */
+    public static GenerationSession getCurrent() {
+        GenerationSession session = currentSession.get();
+        return session == null ? defaultSession : session;
+    }
+
+    /**
+     * Returns the default session. The default session is used by threads that
+     * are not running a generation.
+     *
+     * @return the default session
+     */
+    public static GenerationSession getDefault() {
+        return defaultSession;
+    }
+
+    /**
+     * Sets the session of the current thread. Callers should restore the
+     * previous session when they are done.
+     *
+     * @param session
+     *            the session, or null to use the default session
+     * @return the session that was set on the current thread before, or null
+     *         if there was none
+     */
+    public static GenerationSession setCurrent(GenerationSession session) {
+        GenerationSession previous = currentSession.get();
+        if (session == null) {
+            currentSession.remove();
+        } else {
+            currentSession.set(session);
+        }
+        return previous;
+    }
+
+    public void addExternalClassLoader(ClassLoader classLoader) {
+        externalClassLoaders.add(classLoader);
+    }
+
+    public void addResourceClassLoader(ClassLoader classLoader) {
+        resourceClassLoaders.add(classLoader);
+    }
+
+    /**
+     * Returns the class loaders used to load external classes.
+     *
+     * @return the class loaders, in the order they are searched
+     */
+    public List<ClassLoader> getExternalClassLoaders() {
+        return Collections.unmodifiableList(externalClassLoaders);
+    }
+
+    /**
+     * Sets whether database connections are kept open when a run that uses
+     * this session is finished, so that later runs with the same session can
+     * reuse them. The default is false. Sessions that keep connections must be
+     * closed when they are no longer used.
+     *
+     * @param retainConnections
+     *            true to keep connections open between runs
+     */
+    public synchronized void setRetainConnections(boolean retainConnections) {
+        if (retainConnections && connectionCache == null) {
+            connectionCache = new ConnectionCache();
+        } else if (!retainConnections && connectionCache != null) {
+            connectionCache.close();
+            connectionCache = null;
+        }
+    }
+
+    /**
+     * Returns the connection factory to use for a context. If this session
+     * keeps connections between runs, the returned factory reuses connections
+     * of earlier runs of the same context.
+     *
+     * @param contextId
+     *            the context id
+     * @param connectionFactory
+     *            the connection factory of the context
+     * @return the connection factory to use
+     */
+    public synchronized ConnectionFactory getConnectionFactory(
+            String contextId, ConnectionFactory connectionFactory) {
+        if (connectionCache == null) {
+            return connectionFactory;
+        }
+
+        return connectionCache.wrap(contextId, connectionFactory);
+    }
+
+    /**
+     * Closes any connections kept open by this session.
+     */
+    public void close() {
+        setRetainConnections(false);
+    }
+
+    /**
+     * Clears the class loaders and the root class info of this session.
+     */
+    public void clear() {
+        externalClassLoaders.clear();
+        resourceClassLoaders.clear();
+        synchronized (rootClassInfoMap) {
+            rootClassInfoMap.clear();
+        }
+    }
+
+    /**
+     * Moves the class loaders of this session to another session. Class
+     * loaders added to this session while they are moved stay in this
+     * session.
+     *
+     * @param session
+     *            the session that receives the class loaders
+     */
+    public void moveClassLoadersTo(GenerationSession session) {
+        List<ClassLoader> classLoaders = new ArrayList<ClassLoader>(externalClassLoaders);
+        session.externalClassLoaders.addAll(classLoaders);
+        externalClassLoaders.removeAll(classLoaders);
+
+        classLoaders = new ArrayList<ClassLoader>(resourceClassLoaders);
+        session.resourceClassLoaders.addAll(classLoaders);
+        resourceClassLoaders.removeAll(classLoaders);
+    }
+
+    /**
+     * Loads a class with the external class loaders of this session. If the
+     * class is not found, it is loaded with the internal class loaders.
+     *
+     * @param type
+     *            the class name
+     * @return the class
+     * @throws ClassNotFoundException
+     *             if the class cannot be found
+     */
+    public Class<?> externalClassForName(String type)
+            throws ClassNotFoundException {
+
+        Class<?> clazz;
+
+        for (ClassLoader classLoader : externalClassLoaders) {
+            try {
+                clazz = Class.forName(type, true, classLoader);
+                return clazz;
+            } catch (Throwable e) {
+                // ignore - fail safe below
+            }
+        }
+
+        return ObjectFactory.internalClassForName(type);
+    }
+
+    /**
+     * Finds a resource with the resource class loaders of this session. If
+     * the resource is not found, it is found with the context class loader of
+     * the current thread or the class loader of the generator.
+     *
+     * @param resource
+     *            the resource name
+     * @return the resource URL, or null if the resource cannot be found
+     */
+    public URL getResource(String resource) {
+        URL url;
+
+        for (ClassLoader classLoader : resourceClassLoaders) {
+            url = classLoader.getResource(resource);
+            if (url != null) {
+              return url;
+            }
+        }
+
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        url = cl.getResource(resource);
+
+        if (url == null) {
+            url = ObjectFactory.class.getClassLoader().getResource(resource);
+        }
+
+        return url;
+    }
+
+    /**
+     * Returns the root class info for a class. The class is read once per
+     * session.
+     *
+     * @param className
+     *            the root class name
+     * @param warnings
+     *            the list that receives warnings about the class
+     * @return the root class info
+     */
+    public RootClassInfo getRootClassInfo(String className,
+            List<String> warnings) {
+        RootClassInfo classInfo;
+        synchronized (rootClassInfoMap) {
+            classInfo = rootClassInfoMap.get(className);
+            if (classInfo == null) {
+                classInfo = new RootClassInfo(className, warnings, this);
+                rootClassInfoMap.put(className, classInfo);
+            }
+        }
+
+        // warnings about individual properties belong to the caller, which
+        // may be generating a different table on a different thread
+        return classInfo.withWarnings(warnings);
+    }
+}
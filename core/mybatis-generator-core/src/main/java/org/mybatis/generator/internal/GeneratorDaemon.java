@@ -0,0 +1,590 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.mybatis.generator.internal.util.ClassloaderUtility.getCustomClassloader;
+import static org.mybatis.generator.internal.util.DigestUtility.toHex;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mybatis.generator.config.Configuration;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.JavaClientGeneratorConfiguration;
+import org.mybatis.generator.config.JavaModelGeneratorConfiguration;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.config.SqlMapGeneratorConfiguration;
+import org.mybatis.generator.config.xml.ConfigurationParser;
+import org.mybatis.generator.exception.XMLParserException;
+
+/**
+ * A long running generator process that accepts generation requests on a
+ * local socket. The daemon keeps the parsed configuration, the class loaders
+ * for the class path entries and the database connections of each
+ * configuration file between requests, so that repeated runs don't pay for
+ * starting a JVM, parsing the configuration, loading the JDBC driver and
+ * connecting to the database every time. Everything kept for a configuration
+ * file is discarded when the file, one of its properties files or one of its
+ * class path entries changes.
+ * 
+ * <p>The daemon only listens on the loopback interface. A request is a list
+ * of <code>name=value</code> lines followed by an empty line; the daemon
+ * answers with the output of the run and closes the connection. Requests for
+ * the same configuration file are run one at a time, requests for different
+ * files run concurrently. Requests are sent by <code>ShellRunner</code> with
+ * <code>-daemonPort</code>; the Maven plugin and the Ant task resolve
+ * properties and target projects in their own process and always run there.
+ * 
+ * <p>A request runs the code of the plugins and class path entries named by
+ * its configuration, so the daemon only runs requests of the user who started
+ * it. When it opens its socket, the daemon writes a random token to a file in
+ * the user's home directory that only the user can read, and it rejects every
+ * request that does not carry the token.
+ */
+public class GeneratorDaemon {
+
+    /** The port used when no port is specified. */
+    public static final int DEFAULT_PORT = 7911;
+
+    /** The encoding of requests and responses. */
+    private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+    /** The request line that carries the token of the daemon. */
+    private static final String TOKEN = "token"; //$NON-NLS-1$
+
+    /**
+     * Runs the requests received by the daemon.
+     */
+    public interface RequestHandler {
+
+        /**
+         * Runs a request.
+         *
+         * @param arguments
+         *            the arguments of the request
+         * @param daemon
+         *            the daemon, which supplies the cached configurations
+         * @param out
+         *            the stream that receives the output of the request
+         */
+        void handleRequest(Map<String, String> arguments,
+                GeneratorDaemon daemon, PrintStream out);
+    }
+
+    /** The port. */
+    private int port;
+
+    /** The request handler. */
+    private RequestHandler requestHandler;
+
+    /** The server socket, while the daemon is running. */
+    private ServerSocket serverSocket;
+
+    /** Set when the daemon is stopped. */
+    private volatile boolean stopped;
+
+    /** The token that requests must carry, while the daemon is running. */
+    private String token;
+
+    /** The file the token is written to, while the daemon is running. */
+    private File tokenFile;
+
+    /**
+     * The cached configurations, by canonical configuration file and working
+     * directory.
+     */
+    private Map<String, CachedConfiguration> configurations = new HashMap<String, CachedConfiguration>();
+
+    public GeneratorDaemon(int port, RequestHandler requestHandler) {
+        super();
+        this.port = port;
+        this.requestHandler = requestHandler;
+    }
+
+    /**
+     * Opens the socket and writes the token file. Call <code>run</code> to
+     * accept requests.
+     *
+     * @throws IOException
+     *             if the socket cannot be opened, for example because
+     *             another daemon is using the port, or if the token file
+     *             cannot be written
+     */
+    public void open() throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getByName(null));
+        try {
+            byte[] bytes = new byte[16];
+            new SecureRandom().nextBytes(bytes);
+            token = toHex(bytes);
+            tokenFile = getTokenFile(serverSocket.getLocalPort());
+            writeTokenFile(tokenFile, token);
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the file that holds the token of the daemon listening on a port.
+     *
+     * @param port
+     *            the port
+     * @return the token file
+     */
+    public static File getTokenFile(int port) {
+        File directory = new File(System.getProperty("user.home"), //$NON-NLS-1$
+                ".mybatis-generator"); //$NON-NLS-1$
+        return new File(directory, "daemon-" + port + ".token"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static void writeTokenFile(File file, String token)
+            throws IOException {
+        File directory = file.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(getString("RuntimeError.31", //$NON-NLS-1$
+                    file.getPath()));
+        }
+        restrictToOwner(directory);
+
+        // restrict the empty file before the token is written to it
+        if ((file.exists() && !file.delete()) || !file.createNewFile()) {
+            throw new IOException(getString("RuntimeError.31", //$NON-NLS-1$
+                    file.getPath()));
+        }
+        restrictToOwner(file);
+
+        OutputStreamWriter writer = new OutputStreamWriter(
+                new FileOutputStream(file), ENCODING);
+        try {
+            writer.write(token);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Removes all access to a file except the owner's (0600 for files, 0700
+     * for directories). File systems without POSIX permissions ignore some of
+     * these calls; there the home directory of the user protects the file.
+     *
+     * @param file
+     *            the file or directory
+     */
+    private static void restrictToOwner(File file) {
+        file.setReadable(false, false);
+        file.setWritable(false, false);
+        file.setExecutable(false, false);
+        file.setReadable(true, true);
+        file.setWritable(true, true);
+        if (file.isDirectory()) {
+            file.setExecutable(true, true);
+        }
+    }
+
+    private static String readTokenFile(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(file), ENCODING));
+            try {
+                return reader.readLine();
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            // the file belongs to someone else
+            return null;
+        }
+    }
+
+    /**
+     * Accepts requests until the daemon is stopped. Each request runs on its
+     * own thread.
+     *
+     * @throws IOException
+     *             if the socket fails
+     */
+    public void run() throws IOException {
+        try {
+            while (!stopped) {
+                final Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketException e) {
+                    if (stopped) {
+                        break;
+                    }
+                    throw e;
+                }
+
+                Thread thread = new Thread(new Runnable() {
+                    public void run() {
+                        handleConnection(socket);
+                    }
+                }, "MyBatis Generator daemon request"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } finally {
+            serverSocket.close();
+            tokenFile.delete();
+            synchronized (configurations) {
+                for (CachedConfiguration configuration : configurations.values()) {
+                    configuration.close();
+                }
+                configurations.clear();
+            }
+        }
+    }
+
+    /**
+     * Stops the daemon. Requests that are running are allowed to finish.
+     */
+    public void stop() {
+        stopped = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    public int getPort() {
+        return serverSocket == null ? port : serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the cached configuration for a configuration file, with relative
+     * paths resolved against the working directory of the daemon.
+     *
+     * @param configurationFile
+     *            the configuration file
+     * @return the cached configuration
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws XMLParserException
+     *             if the file is not a valid configuration
+     * @see #getConfiguration(File, File)
+     */
+    public CachedConfiguration getConfiguration(File configurationFile)
+            throws IOException, XMLParserException {
+        return getConfiguration(configurationFile, null);
+    }
+
+    /**
+     * Returns the cached configuration for a configuration file. The file is
+     * parsed again if it, one of its properties files, or one of its class
+     * path entries has changed since it was last parsed.
+     * 
+     * <p>The relative class path entries, target projects, generation
+     * manifests and metadata caches of the configuration are resolved against
+     * the working directory of the client, so that a run writes the same files
+     * whether or not it is sent to the daemon.
+     *
+     * @param configurationFile
+     *            the configuration file
+     * @param workingDirectory
+     *            the working directory of the client, or null to use the
+     *            working directory of the daemon
+     * @return the cached configuration
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws XMLParserException
+     *             if the file is not a valid configuration
+     */
+    public CachedConfiguration getConfiguration(File configurationFile,
+            File workingDirectory) throws IOException, XMLParserException {
+        File file = configurationFile.getCanonicalFile();
+        File directory = workingDirectory == null ? null : workingDirectory
+                .getCanonicalFile();
+        String key = file.getPath() + File.pathSeparator
+                + (directory == null ? "" : directory.getPath()); //$NON-NLS-1$
+        synchronized (configurations) {
+            CachedConfiguration answer = configurations.get(key);
+            if (answer != null && !answer.isCurrent()) {
+                configurations.remove(key);
+                answer.close();
+                answer = null;
+            }
+
+            if (answer == null) {
+                answer = new CachedConfiguration(file, directory);
+                configurations.put(key, answer);
+            }
+
+            return answer;
+        }
+    }
+
+    /**
+     * Sends a request to a daemon running on this machine and copies the
+     * output of the request to a stream.
+     *
+     * @param port
+     *            the port of the daemon
+     * @param arguments
+     *            the arguments of the request
+     * @param out
+     *            the stream that receives the output of the request
+     * @return false if no daemon of this user is running on the port
+     * @throws IOException
+     *             if the request fails after it has been sent
+     */
+    public static boolean forward(int port, Map<String, String> arguments,
+            PrintStream out) throws IOException {
+        String token = readTokenFile(getTokenFile(port));
+        if (token == null) {
+            return false;
+        }
+
+        Socket socket;
+        try {
+            socket = new Socket(InetAddress.getByName(null), port);
+        } catch (ConnectException e) {
+            return false;
+        }
+
+        try {
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+                    socket.getOutputStream(), ENCODING));
+            writer.print(TOKEN);
+            writer.print('=');
+            writer.print(token);
+            writer.print('\n');
+            for (Map.Entry<String, String> entry : arguments.entrySet()) {
+                writer.print(entry.getKey());
+                writer.print('=');
+                writer.print(entry.getValue());
+                writer.print('\n');
+            }
+            writer.print('\n');
+            writer.flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), ENCODING));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                out.println(line);
+            }
+        } finally {
+            socket.close();
+        }
+
+        return true;
+    }
+
+    private void handleConnection(Socket socket) {
+        try {
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        socket.getInputStream(), ENCODING));
+                Map<String, String> arguments = new LinkedHashMap<String, String>();
+                String line;
+                while ((line = reader.readLine()) != null && line.length() > 0) {
+                    int index = line.indexOf('=');
+                    if (index > 0) {
+                        arguments.put(line.substring(0, index), line.substring(index + 1));
+                    }
+                }
+
+                PrintStream out = new PrintStream(socket.getOutputStream(), true, ENCODING);
+                if (!isValidToken(arguments.remove(TOKEN))) {
+                    out.println(getString("RuntimeError.32")); //$NON-NLS-1$
+                } else {
+                    try {
+                        requestHandler.handleRequest(arguments, this, out);
+                    } catch (RuntimeException e) {
+                        // the details stay on the console of the daemon
+                        e.printStackTrace();
+                        out.println(getString("RuntimeError.33", e.toString())); //$NON-NLS-1$
+                    }
+                }
+                out.flush();
+            } finally {
+                socket.close();
+            }
+        } catch (IOException e) {
+            // the client went away - nothing more to do
+        }
+    }
+
+    private boolean isValidToken(String requestToken) {
+        try {
+            return requestToken != null
+                    && MessageDigest.isEqual(token.getBytes(ENCODING),
+                            requestToken.getBytes(ENCODING));
+        } catch (UnsupportedEncodingException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A parsed configuration and the generation session that is used for every
+     * run of the configuration.
+     */
+    public static class CachedConfiguration {
+        private File configurationFile;
+        private long lastModified;
+        private long length;
+        private List<File> propertiesFiles = new ArrayList<File>();
+        private Map<File, String> propertiesStamps;
+        private Map<File, String> classPathStamps;
+        private Configuration configuration;
+        private List<String> warnings = new ArrayList<String>();
+        private GenerationSession generationSession;
+
+        CachedConfiguration(File configurationFile, File workingDirectory)
+                throws IOException, XMLParserException {
+            super();
+            this.configurationFile = configurationFile;
+            lastModified = configurationFile.lastModified();
+            length = configurationFile.length();
+
+            generationSession = new GenerationSession();
+            ConfigurationParser cp = new ConfigurationParser(null, warnings,
+                    generationSession);
+            configuration = cp.parseConfiguration(configurationFile);
+            if (workingDirectory != null) {
+                resolvePaths(workingDirectory);
+            }
+
+            for (URL url : cp.getPropertiesUrls()) {
+                File file = ConfigurationWatcher.toFile(url);
+                if (file != null) {
+                    propertiesFiles.add(file);
+                }
+            }
+            propertiesStamps = ConfigurationWatcher.getStamps(propertiesFiles);
+            classPathStamps = ConfigurationWatcher.getClassPathStamps(
+                    configuration.getClassPathEntries());
+            if (!configuration.getClassPathEntries().isEmpty()) {
+                generationSession.addExternalClassLoader(getCustomClassloader(
+                        configuration.getClassPathEntries()));
+            }
+            generationSession.setRetainConnections(true);
+        }
+
+        boolean isCurrent() {
+            if (configurationFile.lastModified() != lastModified
+                    || configurationFile.length() != length) {
+                return false;
+            }
+
+            return propertiesStamps.equals(ConfigurationWatcher
+                    .getStamps(propertiesFiles))
+                    && classPathStamps.equals(ConfigurationWatcher
+                            .getClassPathStamps(configuration
+                                    .getClassPathEntries()));
+        }
+
+        private void resolvePaths(File workingDirectory) {
+            List<String> entries = configuration.getClassPathEntries();
+            for (int i = 0; i < entries.size(); i++) {
+                entries.set(i, resolve(workingDirectory, entries.get(i)));
+            }
+
+            for (Context context : configuration.getContexts()) {
+                JavaModelGeneratorConfiguration javaModelGeneratorConfiguration = context
+                        .getJavaModelGeneratorConfiguration();
+                if (javaModelGeneratorConfiguration != null) {
+                    javaModelGeneratorConfiguration.setTargetProject(resolve(
+                            workingDirectory, javaModelGeneratorConfiguration
+                                    .getTargetProject()));
+                }
+
+                SqlMapGeneratorConfiguration sqlMapGeneratorConfiguration = context
+                        .getSqlMapGeneratorConfiguration();
+                if (sqlMapGeneratorConfiguration != null) {
+                    sqlMapGeneratorConfiguration.setTargetProject(resolve(
+                            workingDirectory, sqlMapGeneratorConfiguration
+                                    .getTargetProject()));
+                }
+
+                JavaClientGeneratorConfiguration javaClientGeneratorConfiguration = context
+                        .getJavaClientGeneratorConfiguration();
+                if (javaClientGeneratorConfiguration != null) {
+                    javaClientGeneratorConfiguration.setTargetProject(resolve(
+                            workingDirectory, javaClientGeneratorConfiguration
+                                    .getTargetProject()));
+                }
+
+                for (String property : new String[] {
+                        PropertyRegistry.CONTEXT_GENERATION_MANIFEST,
+                        PropertyRegistry.CONTEXT_METADATA_CACHE }) {
+                    String value = context.getProperty(property);
+                    if (value != null) {
+                        context.addProperty(property, resolve(
+                                workingDirectory, value));
+                    }
+                }
+            }
+        }
+
+        private static String resolve(File workingDirectory, String path) {
+            if (path == null || new File(path).isAbsolute()) {
+                return path;
+            }
+
+            return new File(workingDirectory, path).getPath();
+        }
+
+        void close() {
+            generationSession.close();
+        }
+
+        public Configuration getConfiguration() {
+            return configuration;
+        }
+
+        /**
+         * Returns the warnings reported when the configuration was parsed.
+         *
+         * @return the warnings
+         */
+        public List<String> getWarnings() {
+            return warnings;
+        }
+
+        public GenerationSession getGenerationSession() {
+            return generationSession;
+        }
+    }
+}
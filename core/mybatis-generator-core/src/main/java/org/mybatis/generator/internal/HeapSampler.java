@@ -0,0 +1,93 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Records the highest heap usage of the JVM while a run is in progress. The
+ * total used heap is sampled periodically on a daemon thread, so the peak is
+ * the highest total seen at one moment, and it includes garbage that was not
+ * collected yet. Allocations that are collected between two samples are not
+ * seen. Unlike the peak usage of the memory pools, the sampler doesn't change
+ * any state of the JVM, so samplers of concurrent runs don't interfere.
+ */
+public class HeapSampler implements Runnable {
+
+    /** The time between samples, in milliseconds. */
+    private static final long INTERVAL = 10L;
+
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+
+    private volatile long peakUsedBytes;
+
+    private volatile boolean stopped;
+
+    private Thread thread;
+
+    /**
+     * Takes the first sample and starts sampling.
+     */
+    public synchronized void start() {
+        sample();
+        thread = new Thread(this, "HeapSampler"); //$NON-NLS-1$
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Takes the last sample and stops sampling. Calling this method more than
+     * once has no effect.
+     *
+     * @return the highest heap usage sampled, in bytes
+     */
+    public synchronized long stop() {
+        if (thread != null) {
+            stopped = true;
+            thread.interrupt();
+            thread = null;
+            sample();
+        }
+
+        return peakUsedBytes;
+    }
+
+    public long getPeakUsedBytes() {
+        return peakUsedBytes;
+    }
+
+    public void run() {
+        while (!stopped) {
+            try {
+                Thread.sleep(INTERVAL);
+            } catch (InterruptedException e) {
+                // stopped
+                return;
+            }
+            sample();
+        }
+    }
+
+    private void sample() {
+        long usedBytes = memoryMXBean.getHeapMemoryUsage().getUsed();
+        synchronized (memoryMXBean) {
+            if (usedBytes > peakUsedBytes) {
+                peakUsedBytes = usedBytes;
+            }
+        }
+    }
+}
@@ -41,6 +41,7 @@ public class JDBCConnectionFactory implements ConnectionFactory {
     private String connectionURL;
     private String driverClass;
     private Properties otherProperties;
+    private GenerationSession generationSession;
 
     /**
      * This constructor is called when there is a JDBCConnectionConfiguration
@@ -57,6 +58,20 @@ public class JDBCConnectionFactory implements ConnectionFactory {
         otherProperties = config.getProperties();
     }
     
+    /**
+     * This constructor is called when there is a JDBCConnectionConfiguration
+     * specified in the configuration. The JDBC driver is loaded with the
+     * class loaders of the generation session.
+     * 
+     * @param config
+     * @param generationSession
+     */
+    public JDBCConnectionFactory(JDBCConnectionConfiguration config,
+            GenerationSession generationSession) {
+        this(config);
+        this.generationSession = generationSession;
+    }
+
     /**
      * This constructor is called when this connection factory is specified 
      * as the type in a ConnectionFactory configuration element. 
@@ -94,7 +109,9 @@ public class JDBCConnectionFactory implements ConnectionFactory {
         Driver driver;
 
         try {
-            Class<?> clazz = ObjectFactory.externalClassForName(driverClass);
+            GenerationSession session = generationSession == null ? GenerationSession
+                    .getCurrent() : generationSession;
+            Class<?> clazz = session.externalClassForName(driverClass);
             driver = (Driver) clazz.newInstance();
         } catch (Exception e) {
             throw new RuntimeException(getString("RuntimeError.8"), e); //$NON-NLS-1$
@@ -19,7 +19,6 @@ import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
 import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.mybatis.generator.api.CommentGenerator;
@@ -54,16 +53,6 @@ import org.mybatis.generator.internal.types.JavaTypeResolverDefaultImpl;
 public class ObjectFactory {
     
     /** The external class loaders. */
-    private static List<ClassLoader> externalClassLoaders;
-    
-    /** The resource class loaders. */
-    private static List<ClassLoader> resourceClassLoaders;
-    
-    static {
-    	externalClassLoaders = new ArrayList<ClassLoader>();
-        resourceClassLoaders = new ArrayList<ClassLoader>();
-    }
-    
     /**
      * Utility class. No instances allowed
      */
@@ -72,15 +61,16 @@ public class ObjectFactory {
     }
 
     /**
-     * Clears the class loaders.  This method should be called at the beginning of
-     * a generation run so that and change to the classloading configuration
-     * will be reflected.  For example, if the eclipse launcher changes configuration
-     * it might not be updated if eclipse hasn't been restarted.
-     * 
+     * Clears the class loaders of the default generation session. Each
+     * generation run uses a new {@link GenerationSession}, so this method is
+     * no longer needed to see changes in the class loading configuration
+     * between runs.
+     *
+     * @deprecated generation runs no longer share class loaders
      */
+    @Deprecated
     public static void reset() {
-        externalClassLoaders.clear();
-        resourceClassLoaders.clear();
+        GenerationSession.getDefault().clear();
     }
 
     /**
@@ -89,10 +79,14 @@ public class ObjectFactory {
      *
      * @param classLoader
      *            the class loader
+     * @deprecated add the class loader to the {@link GenerationSession} that is passed to the
+     *             ConfigurationParser. This method adds the class loader to the current session. Outside of a run, the
+     *             class loader is used by the next run only
      */
-    public static synchronized void addResourceClassLoader(
+    @Deprecated
+    public static void addResourceClassLoader(
             ClassLoader classLoader) {
-        ObjectFactory.resourceClassLoaders.add(classLoader);
+        GenerationSession.getCurrent().addResourceClassLoader(classLoader);
     }
 
     /**
@@ -102,16 +96,20 @@ public class ObjectFactory {
      *
      * @param classLoader
      *            the class loader
+     * @deprecated use classPathEntry elements in the configuration, or add the class loader to the
+     *             {@link GenerationSession} of the run. This method adds the class loader to the current session.
+     *             Outside of a run, the class loader is used by the next run only
      */
-    public static synchronized void addExternalClassLoader(
+    @Deprecated
+    public static void addExternalClassLoader(
             ClassLoader classLoader) {
-        ObjectFactory.externalClassLoaders.add(classLoader);
+        GenerationSession.getCurrent().addExternalClassLoader(classLoader);
     }
     
     /**
      * This method returns a class loaded from the context classloader, or the classloader supplied by a client. This is
      * appropriate for JDBC drivers, model root classes, etc. It is not appropriate for any class that extends one of
-     * the supplied classes or interfaces.
+     * the supplied classes or interfaces. The class loaders of the current {@link GenerationSession} are searched.
      *
      * @param type
      *            the type
@@ -121,19 +119,7 @@ public class ObjectFactory {
      */
     public static Class<?> externalClassForName(String type)
             throws ClassNotFoundException {
-
-        Class<?> clazz;
-
-        for (ClassLoader classLoader : externalClassLoaders) {
-            try {
-                clazz = Class.forName(type, true, classLoader);
-                return clazz;
-            } catch (Throwable e) {
-                // ignore - fail safe below
-            }
-        }
-        
-        return internalClassForName(type);
+        return GenerationSession.getCurrent().externalClassForName(type);
     }
 
     /**
@@ -185,30 +171,14 @@ public class ObjectFactory {
     }
 
     /**
-     * Gets the resource.
+     * Gets the resource. The resource class loaders of the current {@link GenerationSession} are searched.
      *
      * @param resource
      *            the resource
      * @return the resource
      */
     public static URL getResource(String resource) {
-        URL url;
-
-        for (ClassLoader classLoader : resourceClassLoaders) {
-            url = classLoader.getResource(resource);
-            if (url != null) {
-              return url;
-            }
-        }
-        
-        ClassLoader cl = Thread.currentThread().getContextClassLoader();
-        url = cl.getResource(resource);
-
-        if (url == null) {
-            url = ObjectFactory.class.getClassLoader().getResource(resource);
-        }
-
-        return url;
+        return GenerationSession.getCurrent().getResource(resource);
     }
 
     /**
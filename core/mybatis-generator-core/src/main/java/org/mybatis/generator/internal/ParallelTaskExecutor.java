@@ -0,0 +1,311 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mybatis.generator.api.ProgressCallback;
+
+/**
+ * This class runs a batch of independent tasks on a bounded thread pool and
+ * hands the results back in submission order.
+ *
+ * <p>All interaction with the ProgressCallback happens on the thread that calls
+ * <code>awaitAll</code>, so callbacks that are not thread safe (for example,
+ * progress monitors in an IDE) can still be used. While waiting, the calling
+ * thread polls <code>checkCancel()</code> so that a cancel request stops all
+ * outstanding tasks promptly.
+ *
+ * <p>An executor is used for a single batch of work. The thread pool is shut
+ * down when <code>awaitAll</code> returns or fails, unless the executor runs
+ * its tasks on a thread pool shared with other batches. An executor may be given a
+ * window, which limits the number of tasks that have been started but whose
+ * results have not been handed back yet. The remaining tasks are started one
+ * at a time as earlier results are handed back, so finished results do not
+ * pile up behind a slow task.
+ *
+ * @param <T>
+ *            the result type of the tasks
+ */
+public class ParallelTaskExecutor<T> {
+
+    /** How often the calling thread checks for a cancel request while waiting. */
+    private static final long CANCEL_POLL_MILLIS = 100L;
+
+    /** The executor service. */
+    private ExecutorService executorService;
+
+    /** True if the executor service is shared with other batches, and must not be shut down. */
+    private boolean sharedExecutorService;
+
+    /** The tasks, in submission order. */
+    private List<Callable<T>> tasks;
+
+    /** The futures of the started tasks, in submission order. */
+    private List<Future<T>> futures;
+
+    /** The maximum number of started tasks whose results are not handed back yet, or 0. */
+    private int window;
+
+    /**
+     * Creates an executor with the specified number of worker threads.
+     *
+     * @param name
+     *            the name used as a prefix for the worker threads
+     * @param threads
+     *            the maximum number of tasks that will run concurrently
+     */
+    public ParallelTaskExecutor(String name, int threads) {
+        this(name, threads, 0);
+    }
+
+    /**
+     * Creates an executor with the specified number of worker threads and a
+     * window of tasks.
+     *
+     * @param name
+     *            the name used as a prefix for the worker threads
+     * @param threads
+     *            the maximum number of tasks that will run concurrently
+     * @param window
+     *            the maximum number of tasks that are started before the
+     *            results of earlier tasks have been handed back, or 0 to start
+     *            every task as soon as it is submitted
+     */
+    public ParallelTaskExecutor(String name, int threads, int window) {
+        super();
+        executorService = newExecutorService(name, threads);
+        tasks = new ArrayList<Callable<T>>();
+        futures = new ArrayList<Future<T>>();
+        this.window = window;
+    }
+
+    /**
+     * Creates an executor that runs its tasks on a thread pool shared with
+     * other batches. The thread pool is not shut down by this executor, and a
+     * cancel only cancels the tasks of this executor.
+     *
+     * @param executorService
+     *            the shared thread pool, usually created with
+     *            <code>newExecutorService</code>
+     */
+    public ParallelTaskExecutor(ExecutorService executorService) {
+        super();
+        this.executorService = executorService;
+        sharedExecutorService = true;
+        tasks = new ArrayList<Callable<T>>();
+        futures = new ArrayList<Future<T>>();
+    }
+
+    /**
+     * Creates a thread pool with daemon worker threads.
+     *
+     * @param name
+     *            the name used as a prefix for the worker threads
+     * @param threads
+     *            the number of worker threads
+     * @return the thread pool
+     */
+    public static ExecutorService newExecutorService(String name, int threads) {
+        return Executors.newFixedThreadPool(Math.max(1, threads),
+                new WorkerThreadFactory(name));
+    }
+
+    /**
+     * Submits a task for execution. The task will start as soon as a worker
+     * thread is available and the task is inside the window. The task runs
+     * with the current generation session of the calling thread.
+     *
+     * @param task
+     *            the task
+     */
+    public void submit(final Callable<T> task) {
+        final GenerationSession session = GenerationSession.getCurrent();
+        tasks.add(new Callable<T>() {
+            public T call() throws Exception {
+                GenerationSession previousSession = GenerationSession.setCurrent(session);
+                try {
+                    return task.call();
+                } finally {
+                    GenerationSession.setCurrent(previousSession);
+                }
+            }
+        });
+        startTasks(0);
+    }
+
+    /**
+     * Starts the submitted tasks that are inside the window.
+     *
+     * @param handedBack
+     *            the number of results that have been handed back
+     */
+    private void startTasks(int handedBack) {
+        int limit = window == 0 ? tasks.size()
+                : Math.min(tasks.size(), handedBack + window);
+        while (futures.size() < limit) {
+            int index = futures.size();
+            futures.add(executorService.submit(tasks.get(index)));
+            // the future holds the task until it has run
+            tasks.set(index, null);
+        }
+    }
+
+    /**
+     * Waits for all submitted tasks to complete. The listener (if any) is
+     * notified on the calling thread as each result becomes available, in
+     * submission order.
+     *
+     * <p>If any task fails, or if the callback reports a cancel, all remaining
+     * tasks are cancelled and the worker threads are interrupted.
+     *
+     * @param callback
+     *            the progress callback used to check for cancellation
+     * @param listener
+     *            a listener to notify as results become available, or
+     *            <code>null</code>
+     * @return the task results in submission order
+     * @throws InterruptedException
+     *             if the callback reports a cancel
+     * @throws ExecutionException
+     *             if any task throws an exception. The exception is from the
+     *             first failed task in submission order
+     */
+    public List<T> awaitAll(ProgressCallback callback,
+            ResultListener<T> listener) throws InterruptedException,
+            ExecutionException {
+        List<T> answer = new ArrayList<T>(tasks.size());
+        boolean completed = false;
+
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                startTasks(i);
+                T result = awaitResult(futures.get(i), callback);
+                answer.add(result);
+                if (listener != null) {
+                    listener.resultAvailable(i, result);
+                }
+            }
+            completed = true;
+        } finally {
+            if (completed) {
+                if (!sharedExecutorService) {
+                    executorService.shutdown();
+                }
+            } else {
+                cancel();
+            }
+        }
+
+        return answer;
+    }
+
+    /**
+     * Cancels all outstanding tasks and interrupts the worker threads that
+     * run them.
+     */
+    public void cancel() {
+        for (Future<T> future : futures) {
+            future.cancel(true);
+        }
+        if (!sharedExecutorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private T awaitResult(Future<T> future, ProgressCallback callback)
+            throws InterruptedException, ExecutionException {
+        while (true) {
+            callback.checkCancel();
+            try {
+                return future.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // not done yet - check for cancel and wait again
+            }
+        }
+    }
+
+    /**
+     * Unwraps the cause of an ExecutionException thrown by
+     * <code>awaitAll</code>. Unchecked exceptions and errors are rethrown
+     * directly; anything else is returned so the caller can rethrow it as the
+     * appropriate checked exception.
+     *
+     * @param e
+     *            the execution exception
+     * @return the checked exception that caused the failure
+     */
+    public static Throwable unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        } else if (cause == null) {
+            throw new RuntimeException(e);
+        }
+
+        return cause;
+    }
+
+    /**
+     * Receives task results, in submission order, on the thread that called
+     * <code>awaitAll</code>.
+     *
+     * @param <T>
+     *            the result type
+     */
+    public interface ResultListener<T> {
+
+        /**
+         * Called when the result of a task is available.
+         *
+         * @param index
+         *            the index of the task in submission order
+         * @param result
+         *            the task result
+         * @throws InterruptedException
+         *             if processing should be halted
+         */
+        void resultAvailable(int index, T result) throws InterruptedException;
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private String name;
+        private AtomicInteger threadNumber = new AtomicInteger(1);
+
+        WorkerThreadFactory(String name) {
+            super();
+            this.name = name;
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, name + '-' + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -16,12 +16,14 @@
 package org.mybatis.generator.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 
 import org.mybatis.generator.api.GeneratedJavaFile;
 import org.mybatis.generator.api.GeneratedXmlFile;
 import org.mybatis.generator.api.Plugin;
+import org.mybatis.generator.api.PluginAdapter;
 import org.mybatis.generator.api.IntrospectedColumn;
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.dom.java.Field;
@@ -38,6 +40,10 @@ import org.mybatis.generator.config.Context;
  * implements the rule that if any plugin returns "false" from a method, then no
  * other plugin is called.
  * <p>
+ * Each hook only calls the plugins that implement it. Plugins that inherit a
+ * hook from PluginAdapter are skipped, which does not change the result
+ * because the adapter methods do nothing and return true.
+ * <p>
  * This class does not follow the normal plugin lifecycle and should not be
  * subclassed by clients.
  * 
@@ -45,14 +51,295 @@ import org.mybatis.generator.config.Context;
  * 
  */
 public final class PluginAggregator implements Plugin {
-    private List<Plugin> plugins;
+    /** The hook methods of the plugin interface, by hook index. */
+    private static final List<java.lang.reflect.Method> HOOKS =
+            new ArrayList<java.lang.reflect.Method>();
+
+    private static final int MODEL_BASE_RECORD_CLASS_GENERATED = hook(
+            "modelBaseRecordClassGenerated", //$NON-NLS-1$
+            TopLevelClass.class, IntrospectedTable.class);
+    private static final int MODEL_RECORD_WITH_BLOBS_CLASS_GENERATED = hook(
+            "modelRecordWithBLOBsClassGenerated", //$NON-NLS-1$
+            TopLevelClass.class, IntrospectedTable.class);
+    private static final int SQL_MAP_COUNT_BY_EXAMPLE_ELEMENT_GENERATED = hook(
+            "sqlMapCountByExampleElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_DELETE_BY_EXAMPLE_ELEMENT_GENERATED = hook(
+            "sqlMapDeleteByExampleElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_DELETE_BY_PRIMARY_KEY_ELEMENT_GENERATED = hook(
+            "sqlMapDeleteByPrimaryKeyElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int MODEL_EXAMPLE_CLASS_GENERATED = hook(
+            "modelExampleClassGenerated", //$NON-NLS-1$
+            TopLevelClass.class, IntrospectedTable.class);
+    private static final int CONTEXT_GENERATE_ADDITIONAL_JAVA_FILES_TABLE = hook(
+            "contextGenerateAdditionalJavaFiles", //$NON-NLS-1$
+            IntrospectedTable.class);
+    private static final int CONTEXT_GENERATE_ADDITIONAL_XML_FILES_TABLE = hook(
+            "contextGenerateAdditionalXmlFiles", //$NON-NLS-1$
+            IntrospectedTable.class);
+    private static final int MODEL_PRIMARY_KEY_CLASS_GENERATED = hook(
+            "modelPrimaryKeyClassGenerated", //$NON-NLS-1$
+            TopLevelClass.class, IntrospectedTable.class);
+    private static final int SQL_MAP_RESULT_MAP_WITHOUT_BLOBS_ELEMENT_GENERATED = hook(
+            "sqlMapResultMapWithoutBLOBsElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_EXAMPLE_WHERE_CLAUSE_ELEMENT_GENERATED = hook(
+            "sqlMapExampleWhereClauseElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_INSERT_ELEMENT_GENERATED = hook(
+            "sqlMapInsertElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_RESULT_MAP_WITH_BLOBS_ELEMENT_GENERATED = hook(
+            "sqlMapResultMapWithBLOBsElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_SELECT_BY_EXAMPLE_WITHOUT_BLOBS_ELEMENT_GENERATED = hook(
+            "sqlMapSelectByExampleWithoutBLOBsElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_SELECT_BY_EXAMPLE_WITH_BLOBS_ELEMENT_GENERATED = hook(
+            "sqlMapSelectByExampleWithBLOBsElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_SELECT_BY_PRIMARY_KEY_ELEMENT_GENERATED = hook(
+            "sqlMapSelectByPrimaryKeyElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_GENERATED = hook(
+            "sqlMapGenerated", //$NON-NLS-1$
+            GeneratedXmlFile.class, IntrospectedTable.class);
+    private static final int SQL_MAP_UPDATE_BY_EXAMPLE_SELECTIVE_ELEMENT_GENERATED = hook(
+            "sqlMapUpdateByExampleSelectiveElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_UPDATE_BY_EXAMPLE_WITH_BLOBS_ELEMENT_GENERATED = hook(
+            "sqlMapUpdateByExampleWithBLOBsElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_UPDATE_BY_EXAMPLE_WITHOUT_BLOBS_ELEMENT_GENERATED = hook(
+            "sqlMapUpdateByExampleWithoutBLOBsElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_UPDATE_BY_PRIMARY_KEY_SELECTIVE_ELEMENT_GENERATED = hook(
+            "sqlMapUpdateByPrimaryKeySelectiveElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_UPDATE_BY_PRIMARY_KEY_WITH_BLOBS_ELEMENT_GENERATED = hook(
+            "sqlMapUpdateByPrimaryKeyWithBLOBsElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_UPDATE_BY_PRIMARY_KEY_WITHOUT_BLOBS_ELEMENT_GENERATED = hook(
+            "sqlMapUpdateByPrimaryKeyWithoutBLOBsElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int CLIENT_COUNT_BY_EXAMPLE_METHOD_GENERATED_INTERFACE = hook(
+            "clientCountByExampleMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_COUNT_BY_EXAMPLE_METHOD_GENERATED_CLASS = hook(
+            "clientCountByExampleMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_DELETE_BY_EXAMPLE_METHOD_GENERATED_INTERFACE = hook(
+            "clientDeleteByExampleMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_DELETE_BY_EXAMPLE_METHOD_GENERATED_CLASS = hook(
+            "clientDeleteByExampleMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_DELETE_BY_PRIMARY_KEY_METHOD_GENERATED_INTERFACE = hook(
+            "clientDeleteByPrimaryKeyMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_DELETE_BY_PRIMARY_KEY_METHOD_GENERATED_CLASS = hook(
+            "clientDeleteByPrimaryKeyMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_INSERT_METHOD_GENERATED_INTERFACE = hook(
+            "clientInsertMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_INSERT_METHOD_GENERATED_CLASS = hook(
+            "clientInsertMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_GENERATED = hook(
+            "clientGenerated", //$NON-NLS-1$
+            Interface.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_SELECT_ALL_METHOD_GENERATED_CLASS = hook(
+            "clientSelectAllMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_SELECT_ALL_METHOD_GENERATED_INTERFACE = hook(
+            "clientSelectAllMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_SELECT_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED_INTERFACE = hook(
+            "clientSelectByExampleWithBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_SELECT_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED_CLASS = hook(
+            "clientSelectByExampleWithBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_SELECT_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED_INTERFACE = hook(
+            "clientSelectByExampleWithoutBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_SELECT_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED_CLASS = hook(
+            "clientSelectByExampleWithoutBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_SELECT_BY_PRIMARY_KEY_METHOD_GENERATED_INTERFACE = hook(
+            "clientSelectByPrimaryKeyMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_SELECT_BY_PRIMARY_KEY_METHOD_GENERATED_CLASS = hook(
+            "clientSelectByPrimaryKeyMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_EXAMPLE_SELECTIVE_METHOD_GENERATED_INTERFACE = hook(
+            "clientUpdateByExampleSelectiveMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_EXAMPLE_SELECTIVE_METHOD_GENERATED_CLASS = hook(
+            "clientUpdateByExampleSelectiveMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED_INTERFACE = hook(
+            "clientUpdateByExampleWithBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED_CLASS = hook(
+            "clientUpdateByExampleWithBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED_INTERFACE = hook(
+            "clientUpdateByExampleWithoutBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED_CLASS = hook(
+            "clientUpdateByExampleWithoutBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_PRIMARY_KEY_SELECTIVE_METHOD_GENERATED_INTERFACE = hook(
+            "clientUpdateByPrimaryKeySelectiveMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_PRIMARY_KEY_SELECTIVE_METHOD_GENERATED_CLASS = hook(
+            "clientUpdateByPrimaryKeySelectiveMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_PRIMARY_KEY_WITH_BLOBS_METHOD_GENERATED_INTERFACE = hook(
+            "clientUpdateByPrimaryKeyWithBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_PRIMARY_KEY_WITH_BLOBS_METHOD_GENERATED_CLASS = hook(
+            "clientUpdateByPrimaryKeyWithBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_PRIMARY_KEY_WITHOUT_BLOBS_METHOD_GENERATED_INTERFACE = hook(
+            "clientUpdateByPrimaryKeyWithoutBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_UPDATE_BY_PRIMARY_KEY_WITHOUT_BLOBS_METHOD_GENERATED_CLASS = hook(
+            "clientUpdateByPrimaryKeyWithoutBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int CONTEXT_GENERATE_ADDITIONAL_JAVA_FILES = hook(
+            "contextGenerateAdditionalJavaFiles"); //$NON-NLS-1$
+    private static final int CONTEXT_GENERATE_ADDITIONAL_XML_FILES = hook(
+            "contextGenerateAdditionalXmlFiles"); //$NON-NLS-1$
+    private static final int SQL_MAP_DOCUMENT_GENERATED = hook(
+            "sqlMapDocumentGenerated", //$NON-NLS-1$
+            Document.class, IntrospectedTable.class);
+    private static final int MODEL_FIELD_GENERATED = hook(
+            "modelFieldGenerated", //$NON-NLS-1$
+            Field.class, TopLevelClass.class, IntrospectedColumn.class, IntrospectedTable.class, Plugin.ModelClassType.class);
+    private static final int MODEL_GETTER_METHOD_GENERATED = hook(
+            "modelGetterMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedColumn.class, IntrospectedTable.class, Plugin.ModelClassType.class);
+    private static final int MODEL_SETTER_METHOD_GENERATED = hook(
+            "modelSetterMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedColumn.class, IntrospectedTable.class, Plugin.ModelClassType.class);
+    private static final int SQL_MAP_INSERT_SELECTIVE_ELEMENT_GENERATED = hook(
+            "sqlMapInsertSelectiveElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int CLIENT_INSERT_SELECTIVE_METHOD_GENERATED_INTERFACE = hook(
+            "clientInsertSelectiveMethodGenerated", //$NON-NLS-1$
+            Method.class, Interface.class, IntrospectedTable.class);
+    private static final int CLIENT_INSERT_SELECTIVE_METHOD_GENERATED_CLASS = hook(
+            "clientInsertSelectiveMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int INITIALIZED = hook(
+            "initialized", //$NON-NLS-1$
+            IntrospectedTable.class);
+    private static final int SQL_MAP_BASE_COLUMN_LIST_ELEMENT_GENERATED = hook(
+            "sqlMapBaseColumnListElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int SQL_MAP_BLOB_COLUMN_LIST_ELEMENT_GENERATED = hook(
+            "sqlMapBlobColumnListElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+    private static final int PROVIDER_GENERATED = hook(
+            "providerGenerated", //$NON-NLS-1$
+            TopLevelClass.class, IntrospectedTable.class);
+    private static final int PROVIDER_APPLY_WHERE_METHOD_GENERATED = hook(
+            "providerApplyWhereMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int PROVIDER_COUNT_BY_EXAMPLE_METHOD_GENERATED = hook(
+            "providerCountByExampleMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int PROVIDER_DELETE_BY_EXAMPLE_METHOD_GENERATED = hook(
+            "providerDeleteByExampleMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int PROVIDER_INSERT_SELECTIVE_METHOD_GENERATED = hook(
+            "providerInsertSelectiveMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int PROVIDER_SELECT_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED = hook(
+            "providerSelectByExampleWithBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int PROVIDER_SELECT_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED = hook(
+            "providerSelectByExampleWithoutBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int PROVIDER_UPDATE_BY_EXAMPLE_SELECTIVE_METHOD_GENERATED = hook(
+            "providerUpdateByExampleSelectiveMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int PROVIDER_UPDATE_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED = hook(
+            "providerUpdateByExampleWithBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int PROVIDER_UPDATE_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED = hook(
+            "providerUpdateByExampleWithoutBLOBsMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int PROVIDER_UPDATE_BY_PRIMARY_KEY_SELECTIVE_METHOD_GENERATED = hook(
+            "providerUpdateByPrimaryKeySelectiveMethodGenerated", //$NON-NLS-1$
+            Method.class, TopLevelClass.class, IntrospectedTable.class);
+    private static final int SQL_MAP_SELECT_ALL_ELEMENT_GENERATED = hook(
+            "sqlMapSelectAllElementGenerated", //$NON-NLS-1$
+            XmlElement.class, IntrospectedTable.class);
+
+    /**
+     * The plugins that implement each hook, by hook index. Plugins that inherit
+     * a hook from PluginAdapter are not called for that hook, because the
+     * adapter does nothing and lets the generation continue.
+     */
+    private Plugin[][] hookPlugins;
+
+    /** The profiler of the plugins, or null if the plugins are not profiled. */
+    private PluginProfiler profiler;
 
     public PluginAggregator() {
-        plugins = new ArrayList<Plugin>();
+        hookPlugins = new Plugin[HOOKS.size()][];
+        Arrays.fill(hookPlugins, new Plugin[0]);
+    }
+
+    /**
+     * Constructs an aggregator that records the time of every plugin hook call
+     * in the specified profiler.
+     *
+     * @param profiler
+     *            the profiler, or null if the plugins should not be profiled
+     */
+    public PluginAggregator(PluginProfiler profiler) {
+        this();
+        this.profiler = profiler;
     }
 
     public void addPlugin(Plugin plugin) {
-        plugins.add(plugin);
+        Plugin caller = profiler == null ? plugin : profiler.profile(plugin);
+        for (int i = 0; i < hookPlugins.length; i++) {
+            if (implementsHook(plugin, HOOKS.get(i))) {
+                Plugin[] callers = new Plugin[hookPlugins[i].length + 1];
+                System.arraycopy(hookPlugins[i], 0, callers, 0,
+                        hookPlugins[i].length);
+                callers[hookPlugins[i].length] = caller;
+                hookPlugins[i] = callers;
+            }
+        }
+    }
+
+    private static int hook(String name, Class<?>... parameterTypes) {
+        try {
+            HOOKS.add(Plugin.class.getMethod(name, parameterTypes));
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        return HOOKS.size() - 1;
+    }
+
+    private static boolean implementsHook(Plugin plugin,
+            java.lang.reflect.Method hook) {
+        try {
+            return plugin.getClass().getMethod(hook.getName(),
+                    hook.getParameterTypes()).getDeclaringClass() != PluginAdapter.class;
+        } catch (NoSuchMethodException e) {
+            // every plugin implements every hook, so this cannot happen
+            return true;
+        }
     }
 
     public void setContext(Context context) {
@@ -71,7 +358,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[MODEL_BASE_RECORD_CLASS_GENERATED]) {
             if (!plugin.modelBaseRecordClassGenerated(tlc, introspectedTable)) {
                 rc = false;
                 break;
@@ -85,7 +372,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[MODEL_RECORD_WITH_BLOBS_CLASS_GENERATED]) {
             if (!plugin.modelRecordWithBLOBsClassGenerated(tlc,
                     introspectedTable)) {
                 rc = false;
@@ -100,7 +387,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable table) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_COUNT_BY_EXAMPLE_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapCountByExampleElementGenerated(element, table)) {
                 rc = false;
                 break;
@@ -114,7 +401,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable table) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_DELETE_BY_EXAMPLE_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapDeleteByExampleElementGenerated(element, table)) {
                 rc = false;
                 break;
@@ -128,7 +415,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable table) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_DELETE_BY_PRIMARY_KEY_ELEMENT_GENERATED]) {
             if (!plugin
                     .sqlMapDeleteByPrimaryKeyElementGenerated(element, table)) {
                 rc = false;
@@ -143,7 +430,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[MODEL_EXAMPLE_CLASS_GENERATED]) {
             if (!plugin.modelExampleClassGenerated(tlc, introspectedTable)) {
                 rc = false;
                 break;
@@ -156,7 +443,7 @@ public final class PluginAggregator implements Plugin {
     public List<GeneratedJavaFile> contextGenerateAdditionalJavaFiles(
             IntrospectedTable introspectedTable) {
         List<GeneratedJavaFile> answer = new ArrayList<GeneratedJavaFile>();
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CONTEXT_GENERATE_ADDITIONAL_JAVA_FILES_TABLE]) {
             List<GeneratedJavaFile> temp = plugin
                     .contextGenerateAdditionalJavaFiles(introspectedTable);
             if (temp != null) {
@@ -169,7 +456,7 @@ public final class PluginAggregator implements Plugin {
     public List<GeneratedXmlFile> contextGenerateAdditionalXmlFiles(
             IntrospectedTable introspectedTable) {
         List<GeneratedXmlFile> answer = new ArrayList<GeneratedXmlFile>();
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CONTEXT_GENERATE_ADDITIONAL_XML_FILES_TABLE]) {
             List<GeneratedXmlFile> temp = plugin
                     .contextGenerateAdditionalXmlFiles(introspectedTable);
             if (temp != null) {
@@ -183,7 +470,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[MODEL_PRIMARY_KEY_CLASS_GENERATED]) {
             if (!plugin.modelPrimaryKeyClassGenerated(tlc, introspectedTable)) {
                 rc = false;
                 break;
@@ -197,7 +484,7 @@ public final class PluginAggregator implements Plugin {
             XmlElement element, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_RESULT_MAP_WITHOUT_BLOBS_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapResultMapWithoutBLOBsElementGenerated(element,
                     introspectedTable)) {
                 rc = false;
@@ -212,7 +499,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_EXAMPLE_WHERE_CLAUSE_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapExampleWhereClauseElementGenerated(element,
                     introspectedTable)) {
                 rc = false;
@@ -227,7 +514,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_INSERT_ELEMENT_GENERATED]) {
             if (!plugin
                     .sqlMapInsertElementGenerated(element, introspectedTable)) {
                 rc = false;
@@ -242,7 +529,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_RESULT_MAP_WITH_BLOBS_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapResultMapWithBLOBsElementGenerated(element,
                     introspectedTable)) {
                 rc = false;
@@ -257,7 +544,7 @@ public final class PluginAggregator implements Plugin {
             XmlElement element, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_SELECT_BY_EXAMPLE_WITHOUT_BLOBS_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapSelectByExampleWithoutBLOBsElementGenerated(
                     element, introspectedTable)) {
                 rc = false;
@@ -272,7 +559,7 @@ public final class PluginAggregator implements Plugin {
             XmlElement element, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_SELECT_BY_EXAMPLE_WITH_BLOBS_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapSelectByExampleWithBLOBsElementGenerated(element,
                     introspectedTable)) {
                 rc = false;
@@ -287,7 +574,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_SELECT_BY_PRIMARY_KEY_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapSelectByPrimaryKeyElementGenerated(element,
                     introspectedTable)) {
                 rc = false;
@@ -302,7 +589,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_GENERATED]) {
             if (!plugin.sqlMapGenerated(sqlMap, introspectedTable)) {
                 rc = false;
                 break;
@@ -316,7 +603,7 @@ public final class PluginAggregator implements Plugin {
             XmlElement element, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_UPDATE_BY_EXAMPLE_SELECTIVE_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapUpdateByExampleSelectiveElementGenerated(element,
                     introspectedTable)) {
                 rc = false;
@@ -331,7 +618,7 @@ public final class PluginAggregator implements Plugin {
             XmlElement element, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_UPDATE_BY_EXAMPLE_WITH_BLOBS_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapUpdateByExampleWithBLOBsElementGenerated(element,
                     introspectedTable)) {
                 rc = false;
@@ -346,7 +633,7 @@ public final class PluginAggregator implements Plugin {
             XmlElement element, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_UPDATE_BY_EXAMPLE_WITHOUT_BLOBS_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapUpdateByExampleWithoutBLOBsElementGenerated(
                     element, introspectedTable)) {
                 rc = false;
@@ -361,7 +648,7 @@ public final class PluginAggregator implements Plugin {
             XmlElement element, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_UPDATE_BY_PRIMARY_KEY_SELECTIVE_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapUpdateByPrimaryKeySelectiveElementGenerated(
                     element, introspectedTable)) {
                 rc = false;
@@ -376,7 +663,7 @@ public final class PluginAggregator implements Plugin {
             XmlElement element, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_UPDATE_BY_PRIMARY_KEY_WITH_BLOBS_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapUpdateByPrimaryKeyWithBLOBsElementGenerated(
                     element, introspectedTable)) {
                 rc = false;
@@ -391,7 +678,7 @@ public final class PluginAggregator implements Plugin {
             XmlElement element, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_UPDATE_BY_PRIMARY_KEY_WITHOUT_BLOBS_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapUpdateByPrimaryKeyWithoutBLOBsElementGenerated(
                     element, introspectedTable)) {
                 rc = false;
@@ -406,7 +693,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_COUNT_BY_EXAMPLE_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientCountByExampleMethodGenerated(method, interfaze,
                     introspectedTable)) {
                 rc = false;
@@ -421,7 +708,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_COUNT_BY_EXAMPLE_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientCountByExampleMethodGenerated(method, topLevelClass,
                     introspectedTable)) {
                 rc = false;
@@ -436,7 +723,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_DELETE_BY_EXAMPLE_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientDeleteByExampleMethodGenerated(method, interfaze,
                     introspectedTable)) {
                 rc = false;
@@ -451,7 +738,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_DELETE_BY_EXAMPLE_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientDeleteByExampleMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -466,7 +753,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_DELETE_BY_PRIMARY_KEY_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientDeleteByPrimaryKeyMethodGenerated(method, interfaze,
                     introspectedTable)) {
                 rc = false;
@@ -481,7 +768,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_DELETE_BY_PRIMARY_KEY_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientDeleteByPrimaryKeyMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -496,7 +783,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_INSERT_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientInsertMethodGenerated(method, interfaze,
                     introspectedTable)) {
                 rc = false;
@@ -511,7 +798,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_INSERT_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientInsertMethodGenerated(method, topLevelClass,
                     introspectedTable)) {
                 rc = false;
@@ -527,7 +814,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_GENERATED]) {
             if (!plugin.clientGenerated(interfaze, topLevelClass, introspectedTable)) {
                 rc = false;
                 break;
@@ -541,7 +828,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_SELECT_ALL_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientSelectAllMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -556,7 +843,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_SELECT_ALL_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientSelectAllMethodGenerated(method,
                     interfaze, introspectedTable)) {
                 rc = false;
@@ -571,7 +858,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_SELECT_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientSelectByExampleWithBLOBsMethodGenerated(method,
                     interfaze, introspectedTable)) {
                 rc = false;
@@ -586,7 +873,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_SELECT_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientSelectByExampleWithBLOBsMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -601,7 +888,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_SELECT_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientSelectByExampleWithoutBLOBsMethodGenerated(method,
                     interfaze, introspectedTable)) {
                 rc = false;
@@ -616,7 +903,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_SELECT_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientSelectByExampleWithoutBLOBsMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -631,7 +918,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_SELECT_BY_PRIMARY_KEY_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientSelectByPrimaryKeyMethodGenerated(method, interfaze,
                     introspectedTable)) {
                 rc = false;
@@ -646,7 +933,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_SELECT_BY_PRIMARY_KEY_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientSelectByPrimaryKeyMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -661,7 +948,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_EXAMPLE_SELECTIVE_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientUpdateByExampleSelectiveMethodGenerated(method,
                     interfaze, introspectedTable)) {
                 rc = false;
@@ -676,7 +963,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_EXAMPLE_SELECTIVE_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientUpdateByExampleSelectiveMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -691,7 +978,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientUpdateByExampleWithBLOBsMethodGenerated(method,
                     interfaze, introspectedTable)) {
                 rc = false;
@@ -706,7 +993,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientUpdateByExampleWithBLOBsMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -721,7 +1008,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientUpdateByExampleWithoutBLOBsMethodGenerated(method,
                     interfaze, introspectedTable)) {
                 rc = false;
@@ -736,7 +1023,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientUpdateByExampleWithoutBLOBsMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -751,7 +1038,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_PRIMARY_KEY_SELECTIVE_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientUpdateByPrimaryKeySelectiveMethodGenerated(method,
                     interfaze, introspectedTable)) {
                 rc = false;
@@ -766,7 +1053,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_PRIMARY_KEY_SELECTIVE_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientUpdateByPrimaryKeySelectiveMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -781,7 +1068,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_PRIMARY_KEY_WITH_BLOBS_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientUpdateByPrimaryKeyWithBLOBsMethodGenerated(method,
                     interfaze, introspectedTable)) {
                 rc = false;
@@ -796,7 +1083,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_PRIMARY_KEY_WITH_BLOBS_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientUpdateByPrimaryKeyWithBLOBsMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -812,7 +1099,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_PRIMARY_KEY_WITHOUT_BLOBS_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientUpdateByPrimaryKeyWithoutBLOBsMethodGenerated(
                     method, interfaze, introspectedTable)) {
                 rc = false;
@@ -828,7 +1115,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_UPDATE_BY_PRIMARY_KEY_WITHOUT_BLOBS_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientUpdateByPrimaryKeyWithoutBLOBsMethodGenerated(
                     method, topLevelClass, introspectedTable)) {
                 rc = false;
@@ -841,7 +1128,7 @@ public final class PluginAggregator implements Plugin {
 
     public List<GeneratedJavaFile> contextGenerateAdditionalJavaFiles() {
         List<GeneratedJavaFile> answer = new ArrayList<GeneratedJavaFile>();
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CONTEXT_GENERATE_ADDITIONAL_JAVA_FILES]) {
             List<GeneratedJavaFile> temp = plugin
                     .contextGenerateAdditionalJavaFiles();
             if (temp != null) {
@@ -853,7 +1140,7 @@ public final class PluginAggregator implements Plugin {
 
     public List<GeneratedXmlFile> contextGenerateAdditionalXmlFiles() {
         List<GeneratedXmlFile> answer = new ArrayList<GeneratedXmlFile>();
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CONTEXT_GENERATE_ADDITIONAL_XML_FILES]) {
             List<GeneratedXmlFile> temp = plugin
                     .contextGenerateAdditionalXmlFiles();
             if (temp != null) {
@@ -867,7 +1154,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_DOCUMENT_GENERATED]) {
             if (!plugin.sqlMapDocumentGenerated(document, introspectedTable)) {
                 rc = false;
                 break;
@@ -883,7 +1170,7 @@ public final class PluginAggregator implements Plugin {
             Plugin.ModelClassType modelClassType) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[MODEL_FIELD_GENERATED]) {
             if (!plugin.modelFieldGenerated(field, topLevelClass,
                     introspectedColumn, introspectedTable, modelClassType)) {
                 rc = false;
@@ -900,7 +1187,7 @@ public final class PluginAggregator implements Plugin {
             Plugin.ModelClassType modelClassType) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[MODEL_GETTER_METHOD_GENERATED]) {
             if (!plugin.modelGetterMethodGenerated(method, topLevelClass,
                     introspectedColumn, introspectedTable, modelClassType)) {
                 rc = false;
@@ -917,7 +1204,7 @@ public final class PluginAggregator implements Plugin {
             Plugin.ModelClassType modelClassType) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[MODEL_SETTER_METHOD_GENERATED]) {
             if (!plugin.modelSetterMethodGenerated(method, topLevelClass,
                     introspectedColumn, introspectedTable, modelClassType)) {
                 rc = false;
@@ -932,7 +1219,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_INSERT_SELECTIVE_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapInsertSelectiveElementGenerated(element,
                     introspectedTable)) {
                 rc = false;
@@ -947,7 +1234,7 @@ public final class PluginAggregator implements Plugin {
             Interface interfaze, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_INSERT_SELECTIVE_METHOD_GENERATED_INTERFACE]) {
             if (!plugin.clientInsertSelectiveMethodGenerated(method, interfaze,
                     introspectedTable)) {
                 rc = false;
@@ -962,7 +1249,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[CLIENT_INSERT_SELECTIVE_METHOD_GENERATED_CLASS]) {
             if (!plugin.clientInsertSelectiveMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -974,7 +1261,7 @@ public final class PluginAggregator implements Plugin {
     }
 
     public void initialized(IntrospectedTable introspectedTable) {
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[INITIALIZED]) {
             plugin.initialized(introspectedTable);
         }
     }
@@ -983,7 +1270,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_BASE_COLUMN_LIST_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapBaseColumnListElementGenerated(element,
                     introspectedTable)) {
                 rc = false;
@@ -998,7 +1285,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_BLOB_COLUMN_LIST_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapBlobColumnListElementGenerated(element,
                     introspectedTable)) {
                 rc = false;
@@ -1013,7 +1300,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[PROVIDER_GENERATED]) {
             if (!plugin.providerGenerated(topLevelClass, introspectedTable)) {
                 rc = false;
                 break;
@@ -1027,7 +1314,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[PROVIDER_APPLY_WHERE_METHOD_GENERATED]) {
             if (!plugin.providerApplyWhereMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -1042,7 +1329,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[PROVIDER_COUNT_BY_EXAMPLE_METHOD_GENERATED]) {
             if (!plugin.providerCountByExampleMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -1057,7 +1344,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[PROVIDER_DELETE_BY_EXAMPLE_METHOD_GENERATED]) {
             if (!plugin.providerDeleteByExampleMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -1072,7 +1359,7 @@ public final class PluginAggregator implements Plugin {
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[PROVIDER_INSERT_SELECTIVE_METHOD_GENERATED]) {
             if (!plugin.providerInsertSelectiveMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -1088,7 +1375,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[PROVIDER_SELECT_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED]) {
             if (!plugin.providerSelectByExampleWithBLOBsMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -1104,7 +1391,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[PROVIDER_SELECT_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED]) {
             if (!plugin.providerSelectByExampleWithoutBLOBsMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -1120,7 +1407,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[PROVIDER_UPDATE_BY_EXAMPLE_SELECTIVE_METHOD_GENERATED]) {
             if (!plugin.providerUpdateByExampleSelectiveMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -1136,7 +1423,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[PROVIDER_UPDATE_BY_EXAMPLE_WITH_BLOBS_METHOD_GENERATED]) {
             if (!plugin.providerUpdateByExampleWithBLOBsMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -1152,7 +1439,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[PROVIDER_UPDATE_BY_EXAMPLE_WITHOUT_BLOBS_METHOD_GENERATED]) {
             if (!plugin.providerUpdateByExampleWithoutBLOBsMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -1168,7 +1455,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[PROVIDER_UPDATE_BY_PRIMARY_KEY_SELECTIVE_METHOD_GENERATED]) {
             if (!plugin.providerUpdateByPrimaryKeySelectiveMethodGenerated(method,
                     topLevelClass, introspectedTable)) {
                 rc = false;
@@ -1183,7 +1470,7 @@ public final class PluginAggregator implements Plugin {
             IntrospectedTable introspectedTable) {
         boolean rc = true;
 
-        for (Plugin plugin : plugins) {
+        for (Plugin plugin : hookPlugins[SQL_MAP_SELECT_ALL_ELEMENT_GENERATED]) {
             if (!plugin.sqlMapSelectAllElementGenerated(element, introspectedTable)) {
                 rc = false;
                 break;
@@ -0,0 +1,271 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mybatis.generator.api.Plugin;
+import org.mybatis.generator.api.ProgressCallback;
+
+/**
+ * This class is for internal use only. It records the number of calls, and the
+ * cumulative and maximum time of the calls, for every hook method of every
+ * plugin class in a generation run. Plugins are profiled by adding them to a
+ * {@link PluginAggregator} that uses the profiler.
+ * <p>
+ * The time of a hook includes the time of any plugin hooks it calls itself.
+ * Instances of this class are thread safe, so tables may be generated
+ * concurrently while they are profiled.
+ */
+public class PluginProfiler {
+    private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+    private static final String HEADER = "plugin,hook,calls,totalNanos,maxNanos"; //$NON-NLS-1$
+
+    /** The statistics of each plugin class, by hook name. */
+    private final Map<String, Map<String, HookStatistics>> statistics =
+            new HashMap<String, Map<String, HookStatistics>>();
+
+    public PluginProfiler() {
+        super();
+    }
+
+    /**
+     * Returns a plugin that records the time of every hook method call before
+     * delegating to the specified plugin.
+     *
+     * @param plugin
+     *            the plugin to profile
+     * @return the profiling plugin
+     */
+    public Plugin profile(final Plugin plugin) {
+        final String pluginName = plugin.getClass().getName();
+
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(),
+                new Class<?>[] { Plugin.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) throws Throwable {
+                        if (method.getDeclaringClass() != Plugin.class) {
+                            // equals, hashCode and toString
+                            return invokePlugin(plugin, method, args);
+                        }
+
+                        long start = System.nanoTime();
+                        try {
+                            return invokePlugin(plugin, method, args);
+                        } finally {
+                            record(pluginName, method.getName(),
+                                    System.nanoTime() - start);
+                        }
+                    }
+                });
+    }
+
+    private static Object invokePlugin(Plugin plugin, Method method,
+            Object[] args) throws Throwable {
+        try {
+            return method.invoke(plugin, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private synchronized void record(String pluginName, String hookName,
+            long nanos) {
+        Map<String, HookStatistics> hooks = statistics.get(pluginName);
+        if (hooks == null) {
+            hooks = new HashMap<String, HookStatistics>();
+            statistics.put(pluginName, hooks);
+        }
+
+        HookStatistics hook = hooks.get(hookName);
+        if (hook == null) {
+            hook = new HookStatistics(pluginName, hookName);
+            hooks.put(hookName, hook);
+        }
+
+        hook.calls++;
+        hook.totalNanos += nanos;
+        hook.maxNanos = Math.max(hook.maxNanos, nanos);
+    }
+
+    /**
+     * Reports the profile. For every plugin class, starting with the plugin
+     * with the highest cumulative time, a warning with the total time and the
+     * slowest hook of the plugin is added, and the time of every hook is
+     * reported to the progress callback.
+     *
+     * @param callback
+     *            the progress callback
+     * @param warnings
+     *            the warnings
+     */
+    public void report(ProgressCallback callback, List<String> warnings) {
+        for (Map.Entry<String, List<HookStatistics>> entry : getProfile()
+                .entrySet()) {
+            List<HookStatistics> hooks = entry.getValue();
+            HookStatistics slowestHook = hooks.get(0);
+            long calls = 0;
+            long totalNanos = 0;
+            for (HookStatistics hook : hooks) {
+                calls += hook.calls;
+                totalNanos += hook.totalNanos;
+            }
+
+            warnings.add(getString("Warning.36", entry.getKey(), //$NON-NLS-1$
+                    formatMillis(totalNanos), Long.toString(calls),
+                    slowestHook.hookName,
+                    formatMillis(slowestHook.totalNanos)));
+
+            for (HookStatistics hook : hooks) {
+                callback.startTask(getString("Progress.27", entry.getKey(), //$NON-NLS-1$
+                        hook.hookName, Long.toString(hook.calls),
+                        formatMillis(hook.totalNanos),
+                        formatMillis(hook.maxNanos)));
+            }
+        }
+    }
+
+    /**
+     * Writes the profile to a CSV file with one line for every hook of every
+     * plugin class. The columns are the plugin class, the hook method, the
+     * number of calls, and the cumulative and maximum time of the calls in
+     * nanoseconds.
+     *
+     * @param file
+     *            the file
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void write(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(getString("RuntimeError.25", directory.getPath())); //$NON-NLS-1$
+        }
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), ENCODING);
+        try {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (List<HookStatistics> hooks : getProfile().values()) {
+                for (HookStatistics hook : hooks) {
+                    writer.write(hook.pluginName);
+                    writer.write(',');
+                    writer.write(hook.hookName);
+                    writer.write(',');
+                    writer.write(Long.toString(hook.calls));
+                    writer.write(',');
+                    writer.write(Long.toString(hook.totalNanos));
+                    writer.write(',');
+                    writer.write(Long.toString(hook.maxNanos));
+                    writer.write('\n');
+                }
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Returns a copy of the statistics, by plugin class. Plugins, and the hooks
+     * of each plugin, are sorted by descending cumulative time.
+     */
+    private synchronized Map<String, List<HookStatistics>> getProfile() {
+        final Map<String, Long> pluginNanos = new HashMap<String, Long>();
+        Map<String, List<HookStatistics>> profile = new HashMap<String, List<HookStatistics>>();
+        for (Map.Entry<String, Map<String, HookStatistics>> entry : statistics
+                .entrySet()) {
+            List<HookStatistics> hooks = new ArrayList<HookStatistics>();
+            long totalNanos = 0;
+            for (HookStatistics hook : entry.getValue().values()) {
+                hooks.add(hook.copy());
+                totalNanos += hook.totalNanos;
+            }
+            Collections.sort(hooks, new Comparator<HookStatistics>() {
+                public int compare(HookStatistics o1, HookStatistics o2) {
+                    int rc = compareNanos(o1.totalNanos, o2.totalNanos);
+                    return rc == 0 ? o1.hookName.compareTo(o2.hookName) : rc;
+                }
+            });
+            profile.put(entry.getKey(), hooks);
+            pluginNanos.put(entry.getKey(), totalNanos);
+        }
+
+        List<String> pluginNames = new ArrayList<String>(profile.keySet());
+        Collections.sort(pluginNames, new Comparator<String>() {
+            public int compare(String o1, String o2) {
+                int rc = compareNanos(pluginNanos.get(o1), pluginNanos.get(o2));
+                return rc == 0 ? o1.compareTo(o2) : rc;
+            }
+        });
+
+        Map<String, List<HookStatistics>> answer = new LinkedHashMap<String, List<HookStatistics>>();
+        for (String pluginName : pluginNames) {
+            answer.put(pluginName, profile.get(pluginName));
+        }
+
+        return answer;
+    }
+
+    /** Orders larger times first. */
+    private static int compareNanos(long nanos1, long nanos2) {
+        return nanos1 > nanos2 ? -1 : nanos1 < nanos2 ? 1 : 0;
+    }
+
+    private static String formatMillis(long nanos) {
+        long micros = nanos / 1000L;
+        String fraction = Long.toString(1000L + micros % 1000L).substring(1);
+        return Long.toString(micros / 1000L) + '.' + fraction;
+    }
+
+    private static class HookStatistics {
+        private final String pluginName;
+        private final String hookName;
+        private long calls;
+        private long totalNanos;
+        private long maxNanos;
+
+        HookStatistics(String pluginName, String hookName) {
+            this.pluginName = pluginName;
+            this.hookName = hookName;
+        }
+
+        HookStatistics copy() {
+            HookStatistics answer = new HookStatistics(pluginName, hookName);
+            answer.calls = calls;
+            answer.totalNanos = totalNanos;
+            answer.maxNanos = maxNanos;
+            return answer;
+        }
+    }
+}
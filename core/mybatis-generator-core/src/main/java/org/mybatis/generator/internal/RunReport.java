@@ -0,0 +1,617 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.mybatis.generator.api.GeneratedFile;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+
+/**
+ * This class is for internal use only. It collects the measurements of a
+ * generation run - the time of each phase, context and table, the metadata
+ * round trips to the database, the files written or left unchanged, the peak
+ * heap and the warnings - and writes them to a file as a JSON document, so
+ * that runs can be compared by build tools.
+ * <p>
+ * Instances of this class are thread safe, so tables may be introspected and
+ * generated concurrently while they are measured.
+ */
+public class RunReport {
+    private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+    /** The version of the JSON document, increased when a field changes meaning or is removed. */
+    private static final int FORMAT_VERSION = 1;
+
+    private final long startTime = System.currentTimeMillis();
+
+    private final long startNanos = System.nanoTime();
+
+    private long totalNanos;
+
+    private long introspectionNanos;
+
+    private long generationNanos;
+
+    private long saveNanos;
+
+    /** The contexts of the run, in the order they were first reported. */
+    private final Map<String, ContextReport> contexts = new LinkedHashMap<String, ContextReport>();
+
+    /** The statistics that generated files are added to once they have been written. */
+    private final Map<GeneratedFile, FileStatistics> pendingFiles = new IdentityHashMap<GeneratedFile, FileStatistics>();
+
+    /** The statistics of all files of the run. */
+    private final FileStatistics files = new FileStatistics();
+
+    private final List<Warning> warnings = new ArrayList<Warning>();
+
+    /** Samples the heap usage while the run is in progress. */
+    private final HeapSampler heapSampler = new HeapSampler();
+
+    /** The highest heap usage sampled during the run. */
+    private long peakHeapBytes;
+
+    /** If false, the generated files are not written, so they are not tracked. */
+    private final boolean writeFiles;
+
+    /**
+     * Creates a report, and starts sampling the heap usage of the run. The
+     * report must be closed if the run does not finish.
+     *
+     * @param writeFiles
+     *            true if the generated files of the run are written. If false,
+     *            the report does not keep references to the generated files
+     */
+    public RunReport(boolean writeFiles) {
+        super();
+        this.writeFiles = writeFiles;
+        heapSampler.start();
+    }
+
+    public synchronized void introspectionFinished(long nanos) {
+        introspectionNanos = nanos;
+    }
+
+    public synchronized void generationFinished(long nanos) {
+        generationNanos = nanos;
+    }
+
+    public synchronized void saveFinished(long nanos) {
+        saveNanos = nanos;
+    }
+
+    /**
+     * Records the end of the run.
+     */
+    public synchronized void runFinished() {
+        totalNanos = System.nanoTime() - startNanos;
+        peakHeapBytes = heapSampler.stop();
+    }
+
+    /**
+     * Stops sampling the heap usage. Does nothing if the run has finished.
+     */
+    public void close() {
+        heapSampler.stop();
+    }
+
+    /**
+     * Adds a context to the report. Contexts are reported in the order they
+     * are first recorded, so contexts that run concurrently are added before
+     * they start to keep them in configuration order.
+     *
+     * @param contextId
+     *            the context id
+     */
+    public synchronized void addContext(String contextId) {
+        getContext(contextId);
+    }
+
+    public synchronized void contextIntrospected(String contextId, long nanos) {
+        getContext(contextId).introspectionNanos += nanos;
+    }
+
+    public synchronized void contextGenerated(String contextId, long nanos) {
+        getContext(contextId).generationNanos += nanos;
+    }
+
+    /**
+     * Records the introspection of a table configuration.
+     *
+     * @param contextId
+     *            the context id
+     * @param table
+     *            the fully qualified name of the table configuration
+     * @param nanos
+     *            the time of the introspection
+     * @param metadataRoundTrips
+     *            the number of metadata calls that were sent to the database
+     */
+    public synchronized void tableIntrospected(String contextId, String table,
+            long nanos, int metadataRoundTrips) {
+        ContextReport context = getContext(contextId);
+        TableReport tableReport = context.getTable(table);
+        tableReport.introspectionNanos += nanos;
+        tableReport.metadataRoundTrips += metadataRoundTrips;
+        context.metadataRoundTrips += metadataRoundTrips;
+    }
+
+    /**
+     * Records the generation of a table. The statistics of the generated
+     * files are added to the table when the files are written.
+     *
+     * @param contextId
+     *            the context id
+     * @param table
+     *            the fully qualified name of the introspected table
+     * @param nanos
+     *            the time of the generation
+     * @param javaFiles
+     *            the Java files generated for the table
+     * @param xmlFiles
+     *            the XML files generated for the table
+     */
+    public synchronized void tableGenerated(String contextId, String table,
+            long nanos, List<GeneratedJavaFile> javaFiles,
+            List<GeneratedXmlFile> xmlFiles) {
+        TableReport tableReport = getContext(contextId).getTable(table);
+        tableReport.generationNanos += nanos;
+        addPendingFiles(tableReport.files, javaFiles, xmlFiles);
+    }
+
+    /**
+     * Records the files that plugins generate for a context as a whole.
+     *
+     * @param contextId
+     *            the context id
+     * @param nanos
+     *            the time plugins took to generate the files
+     * @param javaFiles
+     *            the Java files
+     * @param xmlFiles
+     *            the XML files
+     */
+    public synchronized void contextFilesGenerated(String contextId,
+            long nanos, List<GeneratedJavaFile> javaFiles,
+            List<GeneratedXmlFile> xmlFiles) {
+        ContextReport context = getContext(contextId);
+        context.additionalFilesNanos += nanos;
+        addPendingFiles(context.additionalFiles, javaFiles, xmlFiles);
+    }
+
+    /**
+     * Records the outcome of writing a generated file.
+     *
+     * @param generatedFile
+     *            the generated file
+     * @param written
+     *            false if the file could not be written
+     * @param merged
+     *            true if the file was merged with an existing file
+     * @param unchanged
+     *            true if the file was left untouched because its content did
+     *            not change
+     * @param bytes
+     *            the size of the file
+     * @param mergeNanos
+     *            the time spent merging the file
+     * @param writeNanos
+     *            the time spent rendering and writing the file
+     */
+    public synchronized void fileWritten(GeneratedFile generatedFile,
+            boolean written, boolean merged, boolean unchanged, long bytes,
+            long mergeNanos, long writeNanos) {
+        FileStatistics fileStatistics = new FileStatistics();
+        if (!written) {
+            fileStatistics.failed++;
+        } else if (unchanged) {
+            fileStatistics.unchanged++;
+        } else {
+            if (merged) {
+                fileStatistics.merged++;
+            } else {
+                fileStatistics.written++;
+            }
+            fileStatistics.bytesWritten += bytes;
+        }
+        fileStatistics.mergeNanos += mergeNanos;
+        fileStatistics.writeNanos += writeNanos;
+
+        files.add(fileStatistics);
+        FileStatistics owner = pendingFiles.remove(generatedFile);
+        if (owner != null) {
+            owner.add(fileStatistics);
+        }
+    }
+
+    /**
+     * Records warnings.
+     *
+     * @param contextId
+     *            the context the warnings belong to, or null
+     * @param phase
+     *            the phase of the run that added the warnings
+     * @param messages
+     *            the warnings
+     */
+    public synchronized void addWarnings(String contextId, String phase,
+            List<String> messages) {
+        for (String message : messages) {
+            warnings.add(new Warning(contextId, phase, message));
+        }
+    }
+
+    /**
+     * Writes the report to a file as a JSON document.
+     *
+     * @param file
+     *            the file
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void write(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(getString("RuntimeError.25", directory.getPath())); //$NON-NLS-1$
+        }
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), ENCODING);
+        try {
+            writer.write(toJson());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Returns the report as a JSON document.
+     *
+     * @return the document
+     */
+    public synchronized String toJson() {
+        SimpleDateFormat format = new SimpleDateFormat(
+                "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT); //$NON-NLS-1$
+        format.setTimeZone(TimeZone.getTimeZone("UTC")); //$NON-NLS-1$
+
+        int metadataRoundTrips = 0;
+        for (ContextReport context : contexts.values()) {
+            metadataRoundTrips += context.metadataRoundTrips;
+        }
+
+        JsonWriter json = new JsonWriter();
+        json.beginObject();
+        json.name("formatVersion").value(FORMAT_VERSION); //$NON-NLS-1$
+        json.name("startTime").value(format.format(new Date(startTime))); //$NON-NLS-1$
+        json.name("totalMillis").millis(totalNanos); //$NON-NLS-1$
+        json.name("introspectionMillis").millis(introspectionNanos); //$NON-NLS-1$
+        json.name("generationMillis").millis(generationNanos); //$NON-NLS-1$
+        json.name("saveMillis").millis(saveNanos); //$NON-NLS-1$
+        json.name("peakHeapBytes").value(peakHeapBytes); //$NON-NLS-1$
+        json.name("metadataRoundTrips").value(metadataRoundTrips); //$NON-NLS-1$
+        json.name("files"); //$NON-NLS-1$
+        files.write(json);
+
+        json.name("contexts").beginArray(); //$NON-NLS-1$
+        for (ContextReport context : contexts.values()) {
+            context.write(json);
+        }
+        json.endArray();
+
+        json.name("warnings").beginArray(); //$NON-NLS-1$
+        for (Warning warning : warnings) {
+            json.beginObject();
+            json.name("context").value(warning.contextId); //$NON-NLS-1$
+            json.name("phase").value(warning.phase); //$NON-NLS-1$
+            json.name("message").value(warning.message); //$NON-NLS-1$
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        return json.toString();
+    }
+
+    private ContextReport getContext(String contextId) {
+        ContextReport answer = contexts.get(contextId);
+        if (answer == null) {
+            answer = new ContextReport(contextId);
+            contexts.put(contextId, answer);
+        }
+        return answer;
+    }
+
+    private void addPendingFiles(FileStatistics owner,
+            List<GeneratedJavaFile> javaFiles, List<GeneratedXmlFile> xmlFiles) {
+        if (!writeFiles) {
+            return;
+        }
+
+        for (GeneratedJavaFile gjf : javaFiles) {
+            pendingFiles.put(gjf, owner);
+        }
+        for (GeneratedXmlFile gxf : xmlFiles) {
+            pendingFiles.put(gxf, owner);
+        }
+    }
+
+    private static class ContextReport {
+        private String id;
+        private long introspectionNanos;
+        private long generationNanos;
+        private long additionalFilesNanos;
+        private int metadataRoundTrips;
+        private Map<String, TableReport> tables = new LinkedHashMap<String, TableReport>();
+        private FileStatistics additionalFiles = new FileStatistics();
+
+        ContextReport(String id) {
+            super();
+            this.id = id;
+        }
+
+        TableReport getTable(String name) {
+            TableReport answer = tables.get(name);
+            if (answer == null) {
+                answer = new TableReport(name);
+                tables.put(name, answer);
+            }
+            return answer;
+        }
+
+        void write(JsonWriter json) {
+            FileStatistics files = new FileStatistics();
+            files.add(additionalFiles);
+            for (TableReport table : tables.values()) {
+                files.add(table.files);
+            }
+
+            json.beginObject();
+            json.name("id").value(id); //$NON-NLS-1$
+            json.name("introspectionMillis").millis(introspectionNanos); //$NON-NLS-1$
+            json.name("generationMillis").millis(generationNanos); //$NON-NLS-1$
+            json.name("metadataRoundTrips").value(metadataRoundTrips); //$NON-NLS-1$
+            json.name("files"); //$NON-NLS-1$
+            files.write(json);
+            json.name("tables").beginArray(); //$NON-NLS-1$
+            for (TableReport table : tables.values()) {
+                table.write(json);
+            }
+            json.endArray();
+            json.name("additionalFiles").beginObject(); //$NON-NLS-1$
+            json.name("generationMillis").millis(additionalFilesNanos); //$NON-NLS-1$
+            json.name("files"); //$NON-NLS-1$
+            additionalFiles.write(json);
+            json.endObject();
+            json.endObject();
+        }
+    }
+
+    private static class TableReport {
+        private String name;
+        private long introspectionNanos;
+        private long generationNanos;
+        private int metadataRoundTrips;
+        private FileStatistics files = new FileStatistics();
+
+        TableReport(String name) {
+            super();
+            this.name = name;
+        }
+
+        void write(JsonWriter json) {
+            json.beginObject();
+            json.name("name").value(name); //$NON-NLS-1$
+            json.name("introspectionMillis").millis(introspectionNanos); //$NON-NLS-1$
+            json.name("metadataRoundTrips").value(metadataRoundTrips); //$NON-NLS-1$
+            json.name("generationMillis").millis(generationNanos); //$NON-NLS-1$
+            json.name("files"); //$NON-NLS-1$
+            files.write(json);
+            json.endObject();
+        }
+    }
+
+    private static class FileStatistics {
+        private int written;
+        private int merged;
+        private int unchanged;
+        private int failed;
+        private long bytesWritten;
+        private long mergeNanos;
+        private long writeNanos;
+
+        void add(FileStatistics other) {
+            written += other.written;
+            merged += other.merged;
+            unchanged += other.unchanged;
+            failed += other.failed;
+            bytesWritten += other.bytesWritten;
+            mergeNanos += other.mergeNanos;
+            writeNanos += other.writeNanos;
+        }
+
+        void write(JsonWriter json) {
+            json.beginObject();
+            json.name("written").value(written); //$NON-NLS-1$
+            json.name("merged").value(merged); //$NON-NLS-1$
+            json.name("unchanged").value(unchanged); //$NON-NLS-1$
+            json.name("failed").value(failed); //$NON-NLS-1$
+            json.name("bytesWritten").value(bytesWritten); //$NON-NLS-1$
+            json.name("mergeMillis").millis(mergeNanos); //$NON-NLS-1$
+            json.name("writeMillis").millis(writeNanos); //$NON-NLS-1$
+            json.endObject();
+        }
+    }
+
+    private static class Warning {
+        private String contextId;
+        private String phase;
+        private String message;
+
+        Warning(String contextId, String phase, String message) {
+            super();
+            this.contextId = contextId;
+            this.phase = phase;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Writes an indented JSON document. Names and values are separated with
+     * commas as needed.
+     */
+    private static class JsonWriter {
+        private StringBuilder sb = new StringBuilder();
+        private int depth;
+        private boolean first = true;
+        private boolean afterName;
+
+        JsonWriter beginObject() {
+            return begin('{');
+        }
+
+        JsonWriter endObject() {
+            return end('}');
+        }
+
+        JsonWriter beginArray() {
+            return begin('[');
+        }
+
+        JsonWriter endArray() {
+            return end(']');
+        }
+
+        JsonWriter name(String name) {
+            separate();
+            string(name);
+            sb.append(": "); //$NON-NLS-1$
+            afterName = true;
+            return this;
+        }
+
+        JsonWriter value(String value) {
+            separate();
+            if (value == null) {
+                sb.append("null"); //$NON-NLS-1$
+            } else {
+                string(value);
+            }
+            return this;
+        }
+
+        JsonWriter value(long value) {
+            separate();
+            sb.append(value);
+            return this;
+        }
+
+        JsonWriter millis(long nanos) {
+            separate();
+            sb.append(String.format(Locale.ROOT, "%.3f", nanos / 1000000.0)); //$NON-NLS-1$
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return sb.append('\n').toString();
+        }
+
+        private JsonWriter begin(char c) {
+            separate();
+            sb.append(c);
+            depth++;
+            first = true;
+            return this;
+        }
+
+        private JsonWriter end(char c) {
+            depth--;
+            if (!first) {
+                newLine();
+            }
+            sb.append(c);
+            first = false;
+            return this;
+        }
+
+        private void separate() {
+            if (afterName) {
+                afterName = false;
+                return;
+            }
+            if (!first) {
+                sb.append(',');
+            }
+            if (depth > 0) {
+                newLine();
+            }
+            first = false;
+        }
+
+        private void newLine() {
+            sb.append('\n');
+            for (int i = 0; i < depth; i++) {
+                sb.append("  "); //$NON-NLS-1$
+            }
+        }
+
+        private void string(String s) {
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                case '"':
+                    sb.append("\\\""); //$NON-NLS-1$
+                    break;
+                case '\\':
+                    sb.append("\\\\"); //$NON-NLS-1$
+                    break;
+                case '\n':
+                    sb.append("\\n"); //$NON-NLS-1$
+                    break;
+                case '\r':
+                    sb.append("\\r"); //$NON-NLS-1$
+                    break;
+                case '\t':
+                    sb.append("\\t"); //$NON-NLS-1$
+                    break;
+                default:
+                    if (c < ' ') {
+                        sb.append(String.format("\\u%04x", (int) c)); //$NON-NLS-1$
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+            sb.append('"');
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.mybatis.generator.api.ConnectionFactory;
+import org.mybatis.generator.config.ConnectionFactoryConfiguration;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.JDBCConnectionConfiguration;
+import org.mybatis.generator.internal.db.CachingMetadataSource;
+import org.mybatis.generator.internal.db.ConnectionCache;
+import org.mybatis.generator.internal.db.MetadataCache;
+import org.mybatis.generator.internal.db.MetadataSource;
+
+/**
+ * Lets the contexts of a generation run that connect to the same database
+ * share their connections and the raw metadata they read. Contexts connect to
+ * the same database when their &lt;jdbcConnection&gt; elements (driver, URL,
+ * user, password and properties) or their &lt;connectionFactory&gt; elements
+ * (type and properties) are equal.
+ * 
+ * <p>When a context of such a group has finished its introspection, its
+ * connections are kept open for the next context of the group instead of
+ * being closed. The metadata read by a context - columns, primary keys, table
+ * remarks and how the database stores identifiers - is held in memory and
+ * returned to the later contexts of the group without asking the database
+ * again. Every context still applies its own table configurations, column
+ * overrides, renaming rules and Java type resolver to the shared metadata.
+ * 
+ * <p>Contexts that are the only ones to use their database are not affected.
+ * Nothing is shared between runs: the connections are closed when the run
+ * closes this object. All methods are thread safe.
+ */
+public class SharedIntrospection {
+
+    /** The number of contexts that use each database, by connection key. */
+    private Map<String, Integer> contextCounts = new HashMap<String, Integer>();
+
+    /** The connections kept open between the contexts of a group. */
+    private ConnectionCache connectionCache = new ConnectionCache();
+
+    /** The metadata read by the contexts of all groups, by connection key. */
+    private MetadataCache metadataCache = MetadataCache.newInMemoryInstance();
+
+    /**
+     * Instantiates a new shared introspection for the contexts of a run.
+     * 
+     * @param contexts
+     *            the contexts of the run
+     */
+    public SharedIntrospection(List<Context> contexts) {
+        super();
+        for (Context context : contexts) {
+            String key = getConnectionKey(context);
+            if (key != null) {
+                Integer count = contextCounts.get(key);
+                contextCounts.put(key, count == null ? 1 : count + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns true if another context of the run uses the same database as
+     * the context.
+     * 
+     * @param context
+     *            the context
+     * @return true if the context shares its connections and metadata
+     */
+    public boolean isShared(Context context) {
+        String key = getConnectionKey(context);
+        if (key == null) {
+            return false;
+        }
+
+        Integer count = contextCounts.get(key);
+        return count != null && count > 1;
+    }
+
+    /**
+     * Returns the connection factory a context should use. For a shared
+     * context, connections that are closed are kept open for the next context
+     * of the group, and connections kept open by an earlier context are
+     * reused.
+     * 
+     * @param context
+     *            the context
+     * @param connectionFactory
+     *            the connection factory of the context
+     * @return the connection factory to use
+     */
+    public ConnectionFactory getConnectionFactory(Context context,
+            ConnectionFactory connectionFactory) {
+        if (!isShared(context)) {
+            return connectionFactory;
+        }
+
+        return connectionCache.wrap(getConnectionKey(context),
+                connectionFactory);
+    }
+
+    /**
+     * Returns the metadata source a context should use. For a shared context,
+     * the returned source answers from the metadata already read by the
+     * contexts of its group, and adds the metadata it reads from the source.
+     * 
+     * @param context
+     *            the context
+     * @param metadataSource
+     *            the source that reads metadata for the context
+     * @return the metadata source to use
+     */
+    public MetadataSource getMetadataSource(Context context,
+            MetadataSource metadataSource) {
+        if (!isShared(context)) {
+            return metadataSource;
+        }
+
+        return new CachingMetadataSource(metadataCache,
+                getConnectionKey(context), metadataSource, 0L, false);
+    }
+
+    /**
+     * Closes the connections kept open for the contexts of the run.
+     */
+    public void close() {
+        connectionCache.close();
+    }
+
+    /**
+     * Returns a key that is equal for contexts that connect to the same
+     * database in the same way. The key contains the password, so it is never
+     * written anywhere.
+     * 
+     * @param context
+     *            the context
+     * @return the key, or null if the context has no connection configuration
+     */
+    private static String getConnectionKey(Context context) {
+        StringBuilder sb = new StringBuilder();
+        JDBCConnectionConfiguration jdbcConnectionConfiguration = context
+                .getJdbcConnectionConfiguration();
+        ConnectionFactoryConfiguration connectionFactoryConfiguration = context
+                .getConnectionFactoryConfiguration();
+        if (jdbcConnectionConfiguration != null) {
+            sb.append("jdbc"); //$NON-NLS-1$
+            sb.append('\u0000').append(jdbcConnectionConfiguration.getDriverClass());
+            sb.append('\u0000').append(jdbcConnectionConfiguration.getConnectionURL());
+            sb.append('\u0000').append(jdbcConnectionConfiguration.getUserId());
+            sb.append('\u0000').append(jdbcConnectionConfiguration.getPassword());
+            appendProperties(sb, jdbcConnectionConfiguration.getProperties());
+        } else if (connectionFactoryConfiguration != null) {
+            sb.append("factory"); //$NON-NLS-1$
+            sb.append('\u0000').append(connectionFactoryConfiguration.getConfigurationType());
+            appendProperties(sb, connectionFactoryConfiguration.getProperties());
+        } else {
+            return null;
+        }
+
+        return sb.toString();
+    }
+
+    private static void appendProperties(StringBuilder sb, Properties properties) {
+        Map<Object, Object> sortedProperties = new TreeMap<Object, Object>(properties);
+        for (Map.Entry<Object, Object> entry : sortedProperties.entrySet()) {
+            sb.append('\u0000').append(entry.getKey());
+            sb.append('=').append(entry.getValue());
+        }
+    }
+}
@@ -21,8 +21,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -30,6 +32,10 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.dom.DefaultXmlFormatter;
+import org.mybatis.generator.api.dom.OutputUtilities;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.XmlElement;
 import org.mybatis.generator.config.MergeConstants;
 import org.mybatis.generator.exception.ShellException;
 import org.w3c.dom.Comment;
@@ -65,6 +71,9 @@ public class XmlFileMergerJaxp {
         }
     }
 
+    /** The document builder used on this thread. */
+    private static final ThreadLocal<DocumentBuilder> documentBuilder = new ThreadLocal<DocumentBuilder>();
+
     /**
      * Utility class - no instances allowed
      */
@@ -72,12 +81,47 @@ public class XmlFileMergerJaxp {
         super();
     }
 
+    /**
+     * Merges a generated XML file into an existing file.
+     * 
+     * <p>If the generated file uses the default XML formatter, the generated
+     * document is written directly into the merged file, and the content of
+     * the existing file that is not replaced is copied to the merged file
+     * unchanged. Otherwise, or if the existing file has a form that the direct
+     * merge doesn't handle, both files are parsed with a DOM parser and the
+     * merged document is pretty printed.
+     *
+     * @param generatedXmlFile
+     *            the generated file
+     * @param existingFile
+     *            the existing file
+     * @return the merged source
+     * @throws ShellException
+     *             if the files cannot be merged
+     */
     public static String getMergedSource(GeneratedXmlFile generatedXmlFile,
             File existingFile) throws ShellException {
 
         try {
+            String existingSource = readFile(existingFile);
+
+            org.mybatis.generator.api.dom.xml.Document document = generatedXmlFile.getDocument();
+            if (generatedXmlFile.getXmlFormatter().getClass() == DefaultXmlFormatter.class
+                    && document.getPublicId() != null
+                    && document.getSystemId() != null) {
+                ExistingXmlFile existingXmlFile = ExistingXmlFile.parse(existingSource);
+                if (existingXmlFile != null && existingXmlFile.getDocTypeName() != null) {
+                    if (!document.getRootElement().getName().equals(existingXmlFile.getDocTypeName())) {
+                        throw new ShellException(getString("Warning.12", //$NON-NLS-1$
+                                existingFile.getName()));
+                    }
+
+                    return getMergedSource(document.getRootElement(), existingXmlFile);
+                }
+            }
+
             return getMergedSource(new InputSource(new StringReader(generatedXmlFile.getFormattedContent())),
-                new InputSource(new InputStreamReader(new FileInputStream(existingFile), "UTF-8")), //$NON-NLS-1$
+                new InputSource(new StringReader(existingSource)),
                 existingFile.getName());
         } catch (IOException e) {
             throw new ShellException(getString("Warning.13", //$NON-NLS-1$
@@ -90,16 +134,102 @@ public class XmlFileMergerJaxp {
                     existingFile.getName()), e);
         }
     }
-    
+
+    private static String getMergedSource(XmlElement newRootElement,
+            ExistingXmlFile existingFile) {
+        String source = existingFile.getSource();
+        StringBuilder sb = new StringBuilder(source.length());
+
+        try {
+            sb.append(source, 0, existingFile.getRootStart());
+
+            // the root element takes all attributes from the new element
+            sb.append('<');
+            sb.append(existingFile.getRootElementName());
+            List<Attribute> attributes = new ArrayList<Attribute>(newRootElement.getAttributes());
+            Collections.sort(attributes);
+            for (Attribute attribute : attributes) {
+                sb.append(' ');
+                attribute.render(sb);
+            }
+            sb.append('>');
+
+            // the new generated elements go first
+            for (org.mybatis.generator.api.dom.xml.Element element : newRootElement.getElements()) {
+                OutputUtilities.newLine(sb);
+                element.render(sb, 1);
+            }
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new RuntimeException(e);
+        }
+
+        // then everything else except the old generated elements and
+        // any white space before the old elements
+        List<ExistingXmlFile.Child> children = existingFile.getChildren();
+        int size = children.size();
+        for (int i = 0; i < size; i++) {
+            ExistingXmlFile.Child child = children.get(i);
+            if (child.isGenerated()) {
+                continue;
+            } else if (child.isWhiteSpace() && i + 1 < size
+                    && children.get(i + 1).isGenerated()) {
+                continue;
+            }
+
+            sb.append(source, child.getStart(), child.getEnd());
+        }
+
+        sb.append(source, existingFile.getRootContentEnd(), source.length());
+
+        return sb.toString();
+    }
+
+    private static String readFile(File file) throws IOException {
+        StringBuilder sb = new StringBuilder((int) file.length());
+        Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8"); //$NON-NLS-1$
+        try {
+            char[] buffer = new char[8192];
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                sb.append(buffer, 0, count);
+            }
+        } finally {
+            reader.close();
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Gets the document builder for this thread. Document builders are not
+     * thread safe, but one builder can parse any number of documents.
+     *
+     * @return the document builder
+     * @throws ParserConfigurationException
+     *             if the document builder cannot be created
+     */
+    private static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = documentBuilder.get();
+        if (builder == null) {
+            DocumentBuilderFactory factory = DocumentBuilderFactory
+                    .newInstance();
+            factory.setExpandEntityReferences(false);
+            builder = factory.newDocumentBuilder();
+            documentBuilder.set(builder);
+        } else {
+            builder.reset();
+        }
+
+        builder.setEntityResolver(new NullEntityResolver());
+        return builder;
+    }
+
     public static String getMergedSource(InputSource newFile,
             InputSource existingFile, String existingFileName) throws IOException, SAXException,
             ParserConfigurationException, ShellException {
 
-        DocumentBuilderFactory factory = DocumentBuilderFactory
-                .newInstance();
-        factory.setExpandEntityReferences(false);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        builder.setEntityResolver(new NullEntityResolver());
+        DocumentBuilder builder = getDocumentBuilder();
 
         Document existingDocument = builder.parse(existingFile);
         Document newDocument = builder.parse(newFile);
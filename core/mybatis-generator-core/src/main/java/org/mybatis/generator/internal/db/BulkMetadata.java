@@ -0,0 +1,160 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds the metadata of whole schemas, read with one query per catalog and
+ * schema instead of one query per table. The metadata is read the first time
+ * it is needed, and kept until this object is discarded. Instances are shared
+ * by all the BulkMetadataSource objects used to introspect a context, and are
+ * thread safe.
+ */
+public class BulkMetadata {
+
+    /** The columns of each catalog and schema pattern. */
+    private Map<List<String>, List<ColumnMetadata>> columns;
+
+    /** The tables of each catalog and schema pattern. */
+    private Map<List<String>, List<TableMetadata>> tables;
+
+    /** The primary key columns of each catalog and schema. */
+    private Map<List<String>, List<KeyColumnMetadata>> primaryKeys;
+
+    /** The catalogs and schemas whose primary keys cannot be read in bulk. */
+    private Set<List<String>> primaryKeysNotSupported;
+
+    /** The search string escape, once it has been read. */
+    private String searchStringEscape;
+
+    /**
+     * Instantiates a new bulk metadata holder.
+     */
+    public BulkMetadata() {
+        super();
+        columns = new HashMap<List<String>, List<ColumnMetadata>>();
+        tables = new HashMap<List<String>, List<TableMetadata>>();
+        primaryKeys = new HashMap<List<String>, List<KeyColumnMetadata>>();
+        primaryKeysNotSupported = new HashSet<List<String>>();
+    }
+
+    /**
+     * Returns the columns of every table in a catalog and schema pattern.
+     * 
+     * @param source
+     *            the source used if the columns have not been read yet
+     * @param catalog
+     *            the catalog, or null
+     * @param schemaPattern
+     *            the schema pattern, or null
+     * @return the columns
+     * @throws SQLException
+     *             if the metadata cannot be read
+     */
+    public synchronized List<ColumnMetadata> getColumns(
+            JdbcMetadataSource source, String catalog, String schemaPattern)
+            throws SQLException {
+        List<String> key = MetadataCache.key(catalog, schemaPattern);
+        List<ColumnMetadata> answer = columns.get(key);
+        if (answer == null) {
+            answer = source.getColumns(catalog, schemaPattern, "%"); //$NON-NLS-1$
+            columns.put(key, answer);
+        }
+        return answer;
+    }
+
+    /**
+     * Returns every table in a catalog and schema pattern.
+     * 
+     * @param source
+     *            the source used if the tables have not been read yet
+     * @param catalog
+     *            the catalog, or null
+     * @param schemaPattern
+     *            the schema pattern, or null
+     * @return the tables
+     * @throws SQLException
+     *             if the metadata cannot be read
+     */
+    public synchronized List<TableMetadata> getTables(
+            JdbcMetadataSource source, String catalog, String schemaPattern)
+            throws SQLException {
+        List<String> key = MetadataCache.key(catalog, schemaPattern);
+        List<TableMetadata> answer = tables.get(key);
+        if (answer == null) {
+            answer = source.getTables(catalog, schemaPattern, "%"); //$NON-NLS-1$
+            tables.put(key, answer);
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the primary key columns of every table in a catalog and schema.
+     * 
+     * @param source
+     *            the source used if the primary keys have not been read yet
+     * @param catalog
+     *            the catalog, or null
+     * @param schema
+     *            the schema, or null
+     * @return the primary key columns, or null if the driver cannot return
+     *         the primary keys of more than one table at a time
+     */
+    public synchronized List<KeyColumnMetadata> getPrimaryKeys(
+            JdbcMetadataSource source, String catalog, String schema) {
+        List<String> key = MetadataCache.key(catalog, schema);
+        if (primaryKeysNotSupported.contains(key)) {
+            return null;
+        }
+
+        List<KeyColumnMetadata> answer = primaryKeys.get(key);
+        if (answer == null) {
+            try {
+                answer = source.getPrimaryKeys(catalog, schema);
+                primaryKeys.put(key, answer);
+            } catch (SQLException e) {
+                primaryKeysNotSupported.add(key);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the search string escape of the database.
+     * 
+     * @param source
+     *            the source used if the escape has not been read yet
+     * @return the search string escape
+     * @throws SQLException
+     *             if the metadata cannot be read
+     */
+    public synchronized String getSearchStringEscape(JdbcMetadataSource source)
+            throws SQLException {
+        if (searchStringEscape == null) {
+            searchStringEscape = source.getSearchStringEscape();
+            if (searchStringEscape == null) {
+                searchStringEscape = ""; //$NON-NLS-1$
+            }
+        }
+        return searchStringEscape;
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A metadata source that reads the columns, primary keys and tables of a
+ * whole catalog and schema at once, and answers the per table requests of the
+ * DatabaseIntrospector from memory. The results are the same as the results
+ * of a JdbcMetadataSource, but a context with many tables in the same schema
+ * needs three metadata queries instead of three queries per table.
+ * 
+ * <p>If the driver cannot return the primary keys of a whole schema, primary
+ * keys are read one table at a time.
+ * 
+ * <p>Names are matched exactly as the database returns them. The
+ * DatabaseIntrospector already converts unquoted names to upper or lower case
+ * when the database stores identifiers in that case, but databases that store
+ * mixed case identifiers may compare names without regard to case, or with
+ * other rules of their own. So when no row of the schema matches a table, the
+ * request is passed to the database, and the database's own rules decide.
+ * Tables named in the database's own case need no additional queries.
+ */
+public class BulkMetadataSource implements MetadataSource {
+
+    /** The schema metadata, shared by every source used for a context. */
+    private BulkMetadata bulkMetadata;
+
+    /** The source that reads metadata from the database. */
+    private JdbcMetadataSource delegate;
+
+    /**
+     * Instantiates a new bulk metadata source.
+     * 
+     * @param bulkMetadata
+     *            the schema metadata
+     * @param delegate
+     *            the source that reads metadata from the database
+     */
+    public BulkMetadataSource(BulkMetadata bulkMetadata,
+            JdbcMetadataSource delegate) {
+        super();
+        this.bulkMetadata = bulkMetadata;
+        this.delegate = delegate;
+    }
+
+    public boolean storesLowerCaseIdentifiers() throws SQLException {
+        return delegate.storesLowerCaseIdentifiers();
+    }
+
+    public boolean storesUpperCaseIdentifiers() throws SQLException {
+        return delegate.storesUpperCaseIdentifiers();
+    }
+
+    public String getSearchStringEscape() throws SQLException {
+        return delegate.getSearchStringEscape();
+    }
+
+    public List<ColumnMetadata> getColumns(String catalog,
+            String schemaPattern, String tableNamePattern) throws SQLException {
+        String escape = bulkMetadata.getSearchStringEscape(delegate);
+        List<ColumnMetadata> answer = new ArrayList<ColumnMetadata>();
+        for (ColumnMetadata column : bulkMetadata.getColumns(delegate,
+                catalog, schemaPattern)) {
+            if (matchesPattern(column.getTableName(), tableNamePattern, escape)) {
+                answer.add(column);
+            }
+        }
+
+        if (answer.isEmpty()) {
+            return delegate.getColumns(catalog, schemaPattern, tableNamePattern);
+        }
+
+        return answer;
+    }
+
+    public List<String> getPrimaryKeyColumns(String catalog, String schema,
+            String tableName) throws SQLException {
+        List<KeyColumnMetadata> keyColumns = bulkMetadata.getPrimaryKeys(
+                delegate, catalog, schema);
+        if (keyColumns == null) {
+            return delegate.getPrimaryKeyColumns(catalog, schema, tableName);
+        }
+
+        // keep primary columns in key sequence order
+        Map<Short, String> answer = new TreeMap<Short, String>();
+        for (KeyColumnMetadata keyColumn : keyColumns) {
+            if (matchesName(keyColumn.getTableCatalog(), catalog)
+                    && matchesName(keyColumn.getTableSchema(), schema)
+                    && tableName.equals(keyColumn.getTableName())) {
+                answer.put(keyColumn.getKeySequence(), keyColumn.getColumnName());
+            }
+        }
+
+        if (answer.isEmpty() && !containsTable(catalog, schema, tableName)) {
+            // the database may match the name with rules of its own
+            return delegate.getPrimaryKeyColumns(catalog, schema, tableName);
+        }
+
+        return new ArrayList<String>(answer.values());
+    }
+
+    public TableMetadata getTable(String catalog, String schema,
+            String tableName) throws SQLException {
+        String escape = bulkMetadata.getSearchStringEscape(delegate);
+        for (TableMetadata table : bulkMetadata.getTables(delegate, catalog,
+                schema)) {
+            if (matchesPattern(table.getTableName(), tableName, escape)) {
+                return table;
+            }
+        }
+
+        return delegate.getTable(catalog, schema, tableName);
+    }
+
+    private boolean containsTable(String catalog, String schema,
+            String tableName) throws SQLException {
+        for (TableMetadata table : bulkMetadata.getTables(delegate, catalog,
+                schema)) {
+            if (matchesName(table.getTableCatalog(), catalog)
+                    && matchesName(table.getTableSchema(), schema)
+                    && tableName.equals(table.getTableName())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns true if a value matches a DatabaseMetaData search pattern. In a
+     * pattern, "%" matches any sequence of characters, "_" matches any single
+     * character, and the search string escape makes the next character match
+     * itself. A null pattern matches everything.
+     * 
+     * @param value
+     *            the value
+     * @param pattern
+     *            the pattern
+     * @param escape
+     *            the search string escape, or an empty string if the database
+     *            has none
+     * @return true if the value matches
+     */
+    static boolean matchesPattern(String value, String pattern, String escape) {
+        if (pattern == null) {
+            return true;
+        }
+
+        String localValue = value == null ? "" : value; //$NON-NLS-1$
+
+        // split the pattern into characters, and flags that tell whether
+        // each character is a wildcard
+        StringBuilder chars = new StringBuilder();
+        List<Boolean> wildcards = new ArrayList<Boolean>();
+        int i = 0;
+        while (i < pattern.length()) {
+            if (escape.length() > 0 && pattern.startsWith(escape, i)
+                    && i + escape.length() < pattern.length()) {
+                i += escape.length();
+                chars.append(pattern.charAt(i));
+                wildcards.add(Boolean.FALSE);
+            } else {
+                char c = pattern.charAt(i);
+                chars.append(c);
+                wildcards.add(c == '%' || c == '_');
+            }
+            i++;
+        }
+
+        // matched[j] is true if the first j pattern characters match the
+        // part of the value that has been processed
+        int length = chars.length();
+        boolean[] matched = new boolean[length + 1];
+        matched[0] = true;
+        for (int j = 0; j < length; j++) {
+            matched[j + 1] = matched[j] && wildcards.get(j)
+                    && chars.charAt(j) == '%';
+        }
+
+        for (int k = 0; k < localValue.length(); k++) {
+            boolean[] next = new boolean[length + 1];
+            for (int j = 0; j < length; j++) {
+                char c = chars.charAt(j);
+                if (wildcards.get(j) && c == '%') {
+                    next[j + 1] = matched[j + 1] || matched[j] || next[j];
+                } else if (wildcards.get(j) || c == localValue.charAt(k)) {
+                    next[j + 1] = matched[j];
+                }
+            }
+            matched = next;
+        }
+
+        return matched[length];
+    }
+
+    /**
+     * Returns true if a catalog or schema name returned by the database
+     * matches a name passed to DatabaseMetaData.getPrimaryKeys(). A null name
+     * matches everything, and an empty name matches only rows without a name.
+     * 
+     * @param value
+     *            the value returned by the database
+     * @param name
+     *            the name
+     * @return true if the value matches
+     */
+    static boolean matchesName(String value, String name) {
+        if (name == null) {
+            return true;
+        }
+
+        if (name.length() == 0) {
+            return value == null || value.length() == 0;
+        }
+
+        return name.equals(value);
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A metadata source that answers from a MetadataCache when it can, and reads
+ * from another metadata source (and records the result in the cache) when it
+ * cannot. Failures of the other source are never cached.
+ */
+public class CachingMetadataSource implements MetadataSource {
+
+    /** The cache. */
+    private MetadataCache cache;
+
+    /** The key of the connection in the cache. */
+    private String connectionKey;
+
+    /** The source used when the cache has no valid entry. */
+    private MetadataSource delegate;
+
+    /** The time, in milliseconds, that an entry is valid. */
+    private long timeToLive;
+
+    /** If true, the cache is never read - every value is read again and cached. */
+    private boolean refresh;
+
+    /**
+     * Instantiates a new caching metadata source.
+     * 
+     * @param cache
+     *            the cache
+     * @param connectionKey
+     *            the key of the connection in the cache
+     * @param delegate
+     *            the source used when the cache has no valid entry
+     * @param timeToLive
+     *            the time, in milliseconds, that an entry is valid. Zero or
+     *            less means that entries do not expire
+     * @param refresh
+     *            if true, every value is read from the delegate and the cache
+     *            is updated
+     */
+    public CachingMetadataSource(MetadataCache cache, String connectionKey,
+            MetadataSource delegate, long timeToLive, boolean refresh) {
+        super();
+        this.cache = cache;
+        this.connectionKey = connectionKey;
+        this.delegate = delegate;
+        this.timeToLive = timeToLive;
+        this.refresh = refresh;
+    }
+
+    public boolean storesLowerCaseIdentifiers() throws SQLException {
+        List<String> key = MetadataCache.key("storesLowerCaseIdentifiers"); //$NON-NLS-1$
+        MetadataCache.Entry entry = getEntry(key);
+        if (entry != null) {
+            return (Boolean) entry.getValue();
+        }
+
+        boolean answer = delegate.storesLowerCaseIdentifiers();
+        cache.put(connectionKey, key, answer);
+        return answer;
+    }
+
+    public boolean storesUpperCaseIdentifiers() throws SQLException {
+        List<String> key = MetadataCache.key("storesUpperCaseIdentifiers"); //$NON-NLS-1$
+        MetadataCache.Entry entry = getEntry(key);
+        if (entry != null) {
+            return (Boolean) entry.getValue();
+        }
+
+        boolean answer = delegate.storesUpperCaseIdentifiers();
+        cache.put(connectionKey, key, answer);
+        return answer;
+    }
+
+    public String getSearchStringEscape() throws SQLException {
+        List<String> key = MetadataCache.key("searchStringEscape"); //$NON-NLS-1$
+        MetadataCache.Entry entry = getEntry(key);
+        if (entry != null) {
+            return (String) entry.getValue();
+        }
+
+        String answer = delegate.getSearchStringEscape();
+        cache.put(connectionKey, key, answer);
+        return answer;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<ColumnMetadata> getColumns(String catalog,
+            String schemaPattern, String tableNamePattern) throws SQLException {
+        List<String> key = MetadataCache.key("columns", //$NON-NLS-1$
+                catalog, schemaPattern, tableNamePattern);
+        MetadataCache.Entry entry = getEntry(key);
+        if (entry != null) {
+            return (List<ColumnMetadata>) entry.getValue();
+        }
+
+        ArrayList<ColumnMetadata> answer = new ArrayList<ColumnMetadata>(
+                delegate.getColumns(catalog, schemaPattern, tableNamePattern));
+        cache.put(connectionKey, key, answer);
+        return answer;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> getPrimaryKeyColumns(String catalog, String schema,
+            String tableName) throws SQLException {
+        List<String> key = MetadataCache.key("primaryKey", //$NON-NLS-1$
+                catalog, schema, tableName);
+        MetadataCache.Entry entry = getEntry(key);
+        if (entry != null) {
+            return (List<String>) entry.getValue();
+        }
+
+        ArrayList<String> answer = new ArrayList<String>(
+                delegate.getPrimaryKeyColumns(catalog, schema, tableName));
+        cache.put(connectionKey, key, answer);
+        return answer;
+    }
+
+    public TableMetadata getTable(String catalog, String schema,
+            String tableName) throws SQLException {
+        List<String> key = MetadataCache.key("table", //$NON-NLS-1$
+                catalog, schema, tableName);
+        MetadataCache.Entry entry = getEntry(key);
+        if (entry != null) {
+            return (TableMetadata) entry.getValue();
+        }
+
+        TableMetadata answer = delegate.getTable(catalog, schema, tableName);
+        cache.put(connectionKey, key, answer);
+        return answer;
+    }
+
+    private MetadataCache.Entry getEntry(List<String> key) {
+        if (refresh) {
+            return null;
+        }
+
+        return cache.get(connectionKey, key, timeToLive);
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+/**
+ * A single row returned by DatabaseMetaData.getColumns(). Only the fields used
+ * by the DatabaseIntrospector are kept.
+ */
+public class ColumnMetadata {
+
+    /** The table catalog. */
+    private String tableCatalog;
+
+    /** The table schema. */
+    private String tableSchema;
+
+    /** The table name. */
+    private String tableName;
+
+    /** The column name. */
+    private String columnName;
+
+    /** The JDBC data type. */
+    private int dataType;
+
+    /** The column size. */
+    private int columnSize;
+
+    /** The decimal digits. */
+    private int decimalDigits;
+
+    /** The nullability, as one of the DatabaseMetaData.columnNullable constants. */
+    private int nullable;
+
+    /** The remarks. */
+    private String remarks;
+
+    /** The default value. */
+    private String defaultValue;
+
+    /** The value of IS_AUTOINCREMENT, or null if the driver does not report it. */
+    private String autoIncrement;
+
+    /** The value of IS_GENERATEDCOLUMN, or null if the driver does not report it. */
+    private String generatedColumn;
+
+    /**
+     * Instantiates a new column metadata.
+     */
+    public ColumnMetadata() {
+        super();
+    }
+
+    public String getTableCatalog() {
+        return tableCatalog;
+    }
+
+    public void setTableCatalog(String tableCatalog) {
+        this.tableCatalog = tableCatalog;
+    }
+
+    public String getTableSchema() {
+        return tableSchema;
+    }
+
+    public void setTableSchema(String tableSchema) {
+        this.tableSchema = tableSchema;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public void setColumnName(String columnName) {
+        this.columnName = columnName;
+    }
+
+    public int getDataType() {
+        return dataType;
+    }
+
+    public void setDataType(int dataType) {
+        this.dataType = dataType;
+    }
+
+    public int getColumnSize() {
+        return columnSize;
+    }
+
+    public void setColumnSize(int columnSize) {
+        this.columnSize = columnSize;
+    }
+
+    public int getDecimalDigits() {
+        return decimalDigits;
+    }
+
+    public void setDecimalDigits(int decimalDigits) {
+        this.decimalDigits = decimalDigits;
+    }
+
+    public int getNullable() {
+        return nullable;
+    }
+
+    public void setNullable(int nullable) {
+        this.nullable = nullable;
+    }
+
+    public String getRemarks() {
+        return remarks;
+    }
+
+    public void setRemarks(String remarks) {
+        this.remarks = remarks;
+    }
+
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    public void setDefaultValue(String defaultValue) {
+        this.defaultValue = defaultValue;
+    }
+
+    public String getAutoIncrement() {
+        return autoIncrement;
+    }
+
+    public void setAutoIncrement(String autoIncrement) {
+        this.autoIncrement = autoIncrement;
+    }
+
+    public String getGeneratedColumn() {
+        return generatedColumn;
+    }
+
+    public void setGeneratedColumn(String generatedColumn) {
+        this.generatedColumn = generatedColumn;
+    }
+}
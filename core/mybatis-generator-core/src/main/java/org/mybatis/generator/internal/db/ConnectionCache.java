@@ -0,0 +1,198 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Properties;
+
+import org.mybatis.generator.api.ConnectionFactory;
+
+/**
+ * Keeps database connections open between generation runs. Connections
+ * obtained through a connection factory returned by <code>wrap</code> are
+ * handed back to the cache instead of being closed, and are reused by later
+ * runs that use the same key. A cached connection is checked with
+ * <code>Connection.isValid</code> before it is reused.
+ * 
+ * <p>This is used by long running processes such as the generator daemon,
+ * where opening new connections for every run would dominate the run time.
+ */
+public class ConnectionCache {
+
+    /** How long to wait for a cached connection to answer a validity check. */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    /** The idle connections, by key. */
+    private Map<String, LinkedList<Connection>> idleConnections = new HashMap<String, LinkedList<Connection>>();
+
+    /** Set when the cache is closed. */
+    private boolean closed;
+
+    public ConnectionCache() {
+        super();
+    }
+
+    /**
+     * Returns a connection factory that reuses connections cached under the
+     * key, and opens new connections with the factory when there are none.
+     *
+     * @param key
+     *            the key of the connections. Connections are only reused for
+     *            the same key
+     * @param connectionFactory
+     *            the factory that opens new connections
+     * @return the connection factory
+     */
+    public ConnectionFactory wrap(final String key,
+            final ConnectionFactory connectionFactory) {
+        return new ConnectionFactory() {
+            public Connection getConnection() throws SQLException {
+                Connection connection = takeIdleConnection(key);
+                if (connection == null) {
+                    connection = connectionFactory.getConnection();
+                }
+
+                return (Connection) Proxy.newProxyInstance(
+                        Connection.class.getClassLoader(),
+                        new Class<?>[] { Connection.class },
+                        new CachedConnectionHandler(key, connection));
+            }
+
+            public void addConfigurationProperties(Properties properties) {
+                connectionFactory.addConfigurationProperties(properties);
+            }
+        };
+    }
+
+    /**
+     * Closes all idle connections. Connections that are in use are closed when
+     * they are returned.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            for (LinkedList<Connection> connections : idleConnections.values()) {
+                for (Connection connection : connections) {
+                    closeConnection(connection);
+                }
+            }
+            idleConnections.clear();
+        }
+    }
+
+    private Connection takeIdleConnection(String key) {
+        while (true) {
+            Connection connection;
+            synchronized (this) {
+                LinkedList<Connection> connections = idleConnections.get(key);
+                if (connections == null || connections.isEmpty()) {
+                    return null;
+                }
+                connection = connections.removeFirst();
+            }
+
+            if (isValid(connection)) {
+                return connection;
+            }
+
+            closeConnection(connection);
+        }
+    }
+
+    private void returnConnection(String key, Connection connection) {
+        synchronized (this) {
+            if (!closed) {
+                LinkedList<Connection> connections = idleConnections.get(key);
+                if (connections == null) {
+                    connections = new LinkedList<Connection>();
+                    idleConnections.put(key, connections);
+                }
+                connections.addLast(connection);
+                return;
+            }
+        }
+
+        closeConnection(connection);
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        } catch (AbstractMethodError e) {
+            // a pre JDBC 4 driver - assume the connection is still usable
+            return true;
+        }
+    }
+
+    private static void closeConnection(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Returns the connection to the cache when it is closed.
+     */
+    private class CachedConnectionHandler implements InvocationHandler {
+        private String key;
+        private Connection connection;
+        private boolean closed;
+
+        CachedConnectionHandler(String key, Connection connection) {
+            super();
+            this.key = key;
+            this.connection = connection;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args)
+                throws Throwable {
+            String name = method.getName();
+            synchronized (this) {
+                if ("close".equals(name) && method.getParameterTypes().length == 0) { //$NON-NLS-1$
+                    if (!closed) {
+                        closed = true;
+                        returnConnection(key, connection);
+                    }
+                    return null;
+                } else if ("isClosed".equals(name) && method.getParameterTypes().length == 0) { //$NON-NLS-1$
+                    return closed;
+                } else if (closed) {
+                    throw new SQLException(getString("RuntimeError.27")); //$NON-NLS-1$
+                }
+            }
+
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.mybatis.generator.api.ConnectionFactory;
+import org.mybatis.generator.logging.Log;
+import org.mybatis.generator.logging.LogFactory;
+
+/**
+ * A small, bounded pool of connections used for concurrent introspection.
+ * Connections are opened on demand through the configured ConnectionFactory,
+ * up to the maximum size of the pool. If the database refuses a connection
+ * after at least one connection has been opened, the pool shrinks to the
+ * number of connections it already has instead of failing.
+ *
+ * <p>All connections are closed when the pool is closed.
+ */
+public class ConnectionPool {
+
+    /** The connection factory. */
+    private ConnectionFactory connectionFactory;
+
+    /** The maximum number of connections. */
+    private int maxSize;
+
+    /** All connections opened by this pool. */
+    private List<Connection> allConnections;
+
+    /** The connections that are not currently in use. */
+    private LinkedList<Connection> idleConnections;
+
+    /** Set when the pool is closed. */
+    private boolean closed;
+
+    /** The logger. */
+    private Log logger;
+
+    /**
+     * Instantiates a new connection pool.
+     *
+     * @param connectionFactory
+     *            the connection factory
+     * @param maxSize
+     *            the maximum number of connections to open
+     */
+    public ConnectionPool(ConnectionFactory connectionFactory, int maxSize) {
+        super();
+        this.connectionFactory = connectionFactory;
+        this.maxSize = Math.max(1, maxSize);
+        allConnections = new ArrayList<Connection>();
+        idleConnections = new LinkedList<Connection>();
+        logger = LogFactory.getLog(getClass());
+    }
+
+    /**
+     * Opens the first connection of the pool. This is done on the calling
+     * thread so that connection errors are reported before any work is
+     * started.
+     *
+     * @throws SQLException
+     *             if the connection cannot be opened
+     * @throws InterruptedException
+     *             if the pool has been closed
+     */
+    public void open() throws SQLException, InterruptedException {
+        release(acquire());
+    }
+
+    /**
+     * Returns an idle connection, opening a new one if the pool is not yet at
+     * its maximum size. Blocks until a connection is available.
+     *
+     * @return the connection
+     * @throws SQLException
+     *             if a connection cannot be opened and there are no other
+     *             connections in the pool
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting for a connection
+     */
+    public Connection acquire() throws SQLException, InterruptedException {
+        synchronized (this) {
+            while (true) {
+                if (closed) {
+                    throw new InterruptedException();
+                }
+
+                if (!idleConnections.isEmpty()) {
+                    return idleConnections.removeFirst();
+                }
+
+                if (allConnections.size() < maxSize) {
+                    break;
+                }
+
+                wait();
+            }
+
+            // reserve the slot while the connection is opened outside the lock
+            allConnections.add(null);
+        }
+
+        Connection connection = null;
+        try {
+            connection = connectionFactory.getConnection();
+        } catch (SQLException e) {
+            synchronized (this) {
+                allConnections.remove(null);
+                if (allConnections.isEmpty()) {
+                    throw e;
+                }
+
+                // the database will not give us any more connections - make do
+                // with the ones we have
+                maxSize = allConnections.size();
+                if (logger.isDebugEnabled()) {
+                    logger.debug(getString("Tracing.5", //$NON-NLS-1$
+                            Integer.toString(maxSize), e.getMessage()));
+                }
+            }
+            return acquire();
+        }
+
+        synchronized (this) {
+            if (closed) {
+                closeConnection(connection);
+                throw new InterruptedException();
+            }
+            allConnections.remove(null);
+            allConnections.add(connection);
+        }
+
+        return connection;
+    }
+
+    /**
+     * Returns a connection to the pool.
+     *
+     * @param connection
+     *            the connection
+     */
+    public synchronized void release(Connection connection) {
+        if (closed) {
+            return;
+        }
+
+        idleConnections.addLast(connection);
+        notifyAll();
+    }
+
+    /**
+     * Closes every connection opened by this pool, including any that are
+     * still in use. Closing a connection that is in use is the most reliable
+     * way to abort long running metadata calls when processing is cancelled.
+     */
+    public synchronized void close() {
+        closed = true;
+        for (Connection connection : allConnections) {
+            closeConnection(connection);
+        }
+        allConnections.clear();
+        idleConnections.clear();
+        notifyAll();
+    }
+
+    private void closeConnection(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -25,16 +25,17 @@ import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
 import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
 import java.sql.DatabaseMetaData;
-import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
-import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -49,7 +50,10 @@ import org.mybatis.generator.config.Context;
 import org.mybatis.generator.config.GeneratedKey;
 import org.mybatis.generator.config.PropertyRegistry;
 import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.internal.BufferedProgressCallback;
+import org.mybatis.generator.internal.FlightRecorder;
 import org.mybatis.generator.internal.ObjectFactory;
+import org.mybatis.generator.internal.ParallelTaskExecutor;
 import org.mybatis.generator.logging.Log;
 import org.mybatis.generator.logging.LogFactory;
 
@@ -60,8 +64,8 @@ import org.mybatis.generator.logging.LogFactory;
  */
 public class DatabaseIntrospector {
 
-    /** The database meta data. */
-    private DatabaseMetaData databaseMetaData;
+    /** The metadata source. */
+    private MetadataSource metadataSource;
     
     /** The java type resolver. */
     private JavaTypeResolver javaTypeResolver;
@@ -75,6 +79,9 @@ public class DatabaseIntrospector {
     /** The logger. */
     private Log logger;
 
+    /** The pool used to introspect the tables matched by wildcards concurrently, or null. */
+    private MetadataSourcePool metadataSourcePool;
+
     /**
      * Instantiates a new database introspector.
      *
@@ -90,14 +97,56 @@ public class DatabaseIntrospector {
     public DatabaseIntrospector(Context context,
             DatabaseMetaData databaseMetaData,
             JavaTypeResolver javaTypeResolver, List<String> warnings) {
+        this(context, new JdbcMetadataSource(databaseMetaData),
+                javaTypeResolver, warnings);
+    }
+
+    /**
+     * Instantiates a new database introspector that reads metadata from the
+     * specified source.
+     *
+     * @param context
+     *            the context
+     * @param metadataSource
+     *            the metadata source
+     * @param javaTypeResolver
+     *            the java type resolver
+     * @param warnings
+     *            the warnings
+     */
+    public DatabaseIntrospector(Context context,
+            MetadataSource metadataSource,
+            JavaTypeResolver javaTypeResolver, List<String> warnings) {
         super();
         this.context = context;
-        this.databaseMetaData = databaseMetaData;
+        if (FlightRecorder.isEnabled()) {
+            this.metadataSource = new RecordingMetadataSource(metadataSource,
+                    context.getId());
+        } else {
+            this.metadataSource = metadataSource;
+        }
         this.javaTypeResolver = javaTypeResolver;
         this.warnings = warnings;
         logger = LogFactory.getLog(getClass());
     }
 
+    /**
+     * Sets the pool of metadata sources used to introspect the tables matched
+     * by a table configuration with wildcards concurrently. Once the columns of
+     * all matched tables have been read and resolved, the primary key and the
+     * remarks of every table are read on a thread of their own with a source
+     * from the pool. The introspected tables and the warnings are the same,
+     * and in the same order, as when the tables are introspected one at a
+     * time.
+     *
+     * @param metadataSourcePool
+     *            the pool, or null to introspect the matched tables one at a
+     *            time with the metadata source of this introspector
+     */
+    public void setMetadataSourcePool(MetadataSourcePool metadataSourcePool) {
+        this.metadataSourcePool = metadataSourcePool;
+    }
+
     /**
      * Calculate primary key.
      *
@@ -105,54 +154,27 @@ public class DatabaseIntrospector {
      *            the table
      * @param introspectedTable
      *            the introspected table
+     * @param metadataSource
+     *            the metadata source
+     * @param warnings
+     *            the warnings
      */
     private void calculatePrimaryKey(FullyQualifiedTable table,
-            IntrospectedTable introspectedTable) {
-        ResultSet rs = null;
-
+            IntrospectedTable introspectedTable, MetadataSource metadataSource,
+            List<String> warnings) {
+        List<String> keyColumns;
         try {
-            rs = databaseMetaData.getPrimaryKeys(
+            keyColumns = metadataSource.getPrimaryKeyColumns(
                     table.getIntrospectedCatalog(), table
                             .getIntrospectedSchema(), table
                             .getIntrospectedTableName());
         } catch (SQLException e) {
-            closeResultSet(rs);
             warnings.add(getString("Warning.15")); //$NON-NLS-1$
             return;
         }
 
-        try {
-            // keep primary columns in key sequence order
-            Map<Short, String> keyColumns = new TreeMap<Short, String>();
-            while (rs.next()) {
-                String columnName = rs.getString("COLUMN_NAME"); //$NON-NLS-1$
-                short keySeq = rs.getShort("KEY_SEQ"); //$NON-NLS-1$
-                keyColumns.put(keySeq, columnName);
-            }
-            
-            for (String columnName : keyColumns.values()) {
-                introspectedTable.addPrimaryKeyColumn(columnName);
-            }
-        } catch (SQLException e) {
-            // ignore the primary key if there's any error
-        } finally {
-            closeResultSet(rs);
-        }
-    }
-
-    /**
-     * Close result set.
-     *
-     * @param rs
-     *            the rs
-     */
-    private void closeResultSet(ResultSet rs) {
-        if (rs != null) {
-            try {
-                rs.close();
-            } catch (SQLException e) {
-                // ignore
-            }
+        for (String columnName : keyColumns) {
+            introspectedTable.addPrimaryKeyColumn(columnName);
         }
     }
 
@@ -217,6 +239,26 @@ public class DatabaseIntrospector {
      */
     public List<IntrospectedTable> introspectTables(TableConfiguration tc)
             throws SQLException {
+        if (!FlightRecorder.isEnabled()) {
+            return introspectTablesInternal(tc);
+        }
+
+        int callCount = ((RecordingMetadataSource) metadataSource).getCallCount();
+        FlightRecorder.Event event = FlightRecorder.begin(
+                FlightRecorder.EventType.TABLE_INTROSPECTION, context.getId(),
+                composeFullyQualifiedTableName(tc.getCatalog(),
+                        tc.getSchema(), tc.getTableName(), '.'), tc.getTableName());
+        try {
+            return introspectTablesInternal(tc);
+        } finally {
+            event.setCount(((RecordingMetadataSource) metadataSource)
+                    .getCallCount() - callCount);
+            event.end();
+        }
+    }
+
+    private List<IntrospectedTable> introspectTablesInternal(TableConfiguration tc)
+            throws SQLException {
 
         // get the raw columns from the DB
         Map<ActualTableName, List<IntrospectedColumn>> columns = getColumns(tc);
@@ -485,7 +527,7 @@ public class DatabaseIntrospector {
                     if (stringHasValue(columnOverride
                             .getJavaType())) {
                         introspectedColumn
-                                .setFullyQualifiedJavaType(new FullyQualifiedJavaType(
+                                .setFullyQualifiedJavaType(FullyQualifiedJavaType.of(
                                         columnOverride.getJavaType()));
                     }
 
@@ -540,14 +582,14 @@ public class DatabaseIntrospector {
             localCatalog = tc.getCatalog();
             localSchema = tc.getSchema();
             localTableName = tc.getTableName();
-        } else if (databaseMetaData.storesLowerCaseIdentifiers()) {
+        } else if (metadataSource.storesLowerCaseIdentifiers()) {
             localCatalog = tc.getCatalog() == null ? null : tc.getCatalog()
                     .toLowerCase();
             localSchema = tc.getSchema() == null ? null : tc.getSchema()
                     .toLowerCase();
             localTableName = tc.getTableName() == null ? null : tc
                     .getTableName().toLowerCase();
-        } else if (databaseMetaData.storesUpperCaseIdentifiers()) {
+        } else if (metadataSource.storesUpperCaseIdentifiers()) {
             localCatalog = tc.getCatalog() == null ? null : tc.getCatalog()
                     .toUpperCase();
             localSchema = tc.getSchema() == null ? null : tc.getSchema()
@@ -561,7 +603,7 @@ public class DatabaseIntrospector {
         }
 
         if (tc.isWildcardEscapingEnabled()) {
-            String escapeString = databaseMetaData.getSearchStringEscape();
+            String escapeString = metadataSource.getSearchStringEscape();
 
             StringBuilder sb = new StringBuilder();
             StringTokenizer st;
@@ -599,48 +641,55 @@ public class DatabaseIntrospector {
             logger.debug(getString("Tracing.1", fullTableName)); //$NON-NLS-1$
         }
 
-        ResultSet rs = databaseMetaData.getColumns(localCatalog, localSchema,
-                localTableName, "%"); //$NON-NLS-1$
-        
-        boolean supportsIsAutoIncrement = false;
-        boolean supportsIsGeneratedColumn = false;
-        ResultSetMetaData rsmd = rs.getMetaData();
-        int colCount = rsmd.getColumnCount();
-        for (int i = 1; i <= colCount; i++) {
-            if ("IS_AUTOINCREMENT".equals(rsmd.getColumnName(i))) { //$NON-NLS-1$
-                supportsIsAutoIncrement = true;
+        List<ColumnMetadata> columnMetadata = metadataSource.getColumns(
+                localCatalog, localSchema, localTableName);
+
+        Pattern includePattern = getTablePattern(tc,
+                PropertyRegistry.TABLE_INCLUDE_PATTERN);
+        Pattern excludePattern = getTablePattern(tc,
+                PropertyRegistry.TABLE_EXCLUDE_PATTERN);
+        Set<ActualTableName> skippedTables = new HashSet<ActualTableName>();
+
+        for (ColumnMetadata cm : columnMetadata) {
+            ActualTableName atn = new ActualTableName(
+                    cm.getTableCatalog(),
+                    cm.getTableSchema(),
+                    cm.getTableName());
+
+            if (skippedTables.contains(atn)) {
+                continue;
             }
-            if ("IS_GENERATEDCOLUMN".equals(rsmd.getColumnName(i))) { //$NON-NLS-1$
-                supportsIsGeneratedColumn = true;
+
+            if (!answer.containsKey(atn)
+                    && !isTableIncluded(cm.getTableName(), includePattern,
+                            excludePattern)) {
+                skippedTables.add(atn);
+                if (logger.isDebugEnabled()) {
+                    logger.debug(getString("Tracing.6", atn.toString())); //$NON-NLS-1$
+                }
+                continue;
             }
-        }
 
-        while (rs.next()) {
             IntrospectedColumn introspectedColumn = ObjectFactory
                     .createIntrospectedColumn(context);
 
             introspectedColumn.setTableAlias(tc.getAlias());
-            introspectedColumn.setJdbcType(rs.getInt("DATA_TYPE")); //$NON-NLS-1$
-            introspectedColumn.setLength(rs.getInt("COLUMN_SIZE")); //$NON-NLS-1$
-            introspectedColumn.setActualColumnName(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
+            introspectedColumn.setJdbcType(cm.getDataType());
+            introspectedColumn.setLength(cm.getColumnSize());
+            introspectedColumn.setActualColumnName(cm.getColumnName());
             introspectedColumn
-                    .setNullable(rs.getInt("NULLABLE") == DatabaseMetaData.columnNullable); //$NON-NLS-1$
-            introspectedColumn.setScale(rs.getInt("DECIMAL_DIGITS")); //$NON-NLS-1$
-            introspectedColumn.setRemarks(rs.getString("REMARKS")); //$NON-NLS-1$
-            introspectedColumn.setDefaultValue(rs.getString("COLUMN_DEF")); //$NON-NLS-1$
-            
-            if (supportsIsAutoIncrement) {
-                introspectedColumn.setAutoIncrement("YES".equals(rs.getString("IS_AUTOINCREMENT"))); //$NON-NLS-1$ //$NON-NLS-2$
-            }
-            
-            if (supportsIsGeneratedColumn) {
-                introspectedColumn.setGeneratedColumn("YES".equals(rs.getString("IS_GENERATEDCOLUMN"))); //$NON-NLS-1$ //$NON-NLS-2$
+                    .setNullable(cm.getNullable() == DatabaseMetaData.columnNullable);
+            introspectedColumn.setScale(cm.getDecimalDigits());
+            introspectedColumn.setRemarks(cm.getRemarks());
+            introspectedColumn.setDefaultValue(cm.getDefaultValue());
+
+            if (cm.getAutoIncrement() != null) {
+                introspectedColumn.setAutoIncrement("YES".equals(cm.getAutoIncrement())); //$NON-NLS-1$
             }
 
-            ActualTableName atn = new ActualTableName(
-                    rs.getString("TABLE_CAT"), //$NON-NLS-1$
-                    rs.getString("TABLE_SCHEM"), //$NON-NLS-1$
-                    rs.getString("TABLE_NAME")); //$NON-NLS-1$
+            if (cm.getGeneratedColumn() != null) {
+                introspectedColumn.setGeneratedColumn("YES".equals(cm.getGeneratedColumn())); //$NON-NLS-1$
+            }
 
             List<IntrospectedColumn> columns = answer.get(atn);
             if (columns == null) {
@@ -659,8 +708,6 @@ public class DatabaseIntrospector {
             }
         }
 
-        closeResultSet(rs);
-
         if (answer.size() > 1
                 && !stringContainsSQLWildcard(localSchema)
                 && !stringContainsSQLWildcard(localTableName)) {
@@ -687,6 +734,44 @@ public class DatabaseIntrospector {
         return answer;
     }
 
+    /**
+     * Returns the compiled table name pattern held by a property of the table
+     * configuration.
+     *
+     * @param tc
+     *            the tc
+     * @param propertyName
+     *            the name of the property
+     * @return the pattern, or null if the property is not set
+     */
+    private Pattern getTablePattern(TableConfiguration tc, String propertyName) {
+        String regex = tc.getProperty(propertyName);
+        return regex == null ? null : Pattern.compile(regex);
+    }
+
+    /**
+     * Returns true if a table matched by the table configuration should be
+     * introspected. The patterns must match the whole actual table name.
+     *
+     * @param tableName
+     *            the actual table name
+     * @param includePattern
+     *            the include pattern, or null to include every table
+     * @param excludePattern
+     *            the exclude pattern, or null to exclude no table
+     * @return true if the table should be introspected
+     */
+    private boolean isTableIncluded(String tableName, Pattern includePattern,
+            Pattern excludePattern) {
+        if (includePattern != null
+                && !includePattern.matcher(tableName).matches()) {
+            return false;
+        }
+
+        return excludePattern == null
+                || !excludePattern.matcher(tableName).matches();
+    }
+
     /**
      * Calculate introspected tables.
      *
@@ -695,59 +780,166 @@ public class DatabaseIntrospector {
      * @param columns
      *            the columns
      * @return the list
+     * @throws SQLException
+     *             if the introspection is interrupted
      */
     private List<IntrospectedTable> calculateIntrospectedTables(
             TableConfiguration tc,
-            Map<ActualTableName, List<IntrospectedColumn>> columns) {
+            Map<ActualTableName, List<IntrospectedColumn>> columns)
+            throws SQLException {
         boolean delimitIdentifiers = tc.isDelimitIdentifiers()
                 || stringContainsSpace(tc.getCatalog())
                 || stringContainsSpace(tc.getSchema())
                 || stringContainsSpace(tc.getTableName());
 
+        if (metadataSourcePool != null && metadataSourcePool.getThreads() > 1
+                && columns.size() > 1) {
+            return calculateIntrospectedTablesConcurrently(tc, columns,
+                    delimitIdentifiers);
+        }
+
         List<IntrospectedTable> answer = new ArrayList<IntrospectedTable>();
 
         for (Map.Entry<ActualTableName, List<IntrospectedColumn>> entry : columns
                 .entrySet()) {
-            ActualTableName atn = entry.getKey();
-
-            // we only use the returned catalog and schema if something was
-            // actually
-            // specified on the table configuration. If something was returned
-            // from the DB for these fields, but nothing was specified on the
-            // table
-            // configuration, then some sort of DB default is being returned
-            // and we don't want that in our SQL
-            FullyQualifiedTable table = new FullyQualifiedTable(
-                    stringHasValue(tc.getCatalog()) ? atn
-                            .getCatalog() : null,
-                    stringHasValue(tc.getSchema()) ? atn
-                            .getSchema() : null,
-                    atn.getTableName(),
-                    tc.getDomainObjectName(),
-                    tc.getAlias(),
-                    isTrue(tc.getProperty(PropertyRegistry.TABLE_IGNORE_QUALIFIERS_AT_RUNTIME)),
-                    tc.getProperty(PropertyRegistry.TABLE_RUNTIME_CATALOG),
-                    tc.getProperty(PropertyRegistry.TABLE_RUNTIME_SCHEMA),
-                    tc.getProperty(PropertyRegistry.TABLE_RUNTIME_TABLE_NAME),
-                    delimitIdentifiers, context);
-
-            IntrospectedTable introspectedTable = ObjectFactory
-                    .createIntrospectedTable(tc, table, context);
+            answer.add(calculateIntrospectedTable(tc, entry.getKey(),
+                    entry.getValue(), delimitIdentifiers, metadataSource,
+                    warnings));
+        }
 
-            for (IntrospectedColumn introspectedColumn : entry.getValue()) {
-                introspectedTable.addColumn(introspectedColumn);
-            }
+        return answer;
+    }
 
-            calculatePrimaryKey(table, introspectedTable);
-            
-            enhanceIntrospectedTable(introspectedTable);
+    /**
+     * Calculates the introspected tables on the executor of the metadata
+     * source pool, one task for each table. The results are merged in the
+     * order of the columns map, so the tables and warnings are the same as
+     * when the tables are calculated one at a time.
+     *
+     * @param tc
+     *            the tc
+     * @param columns
+     *            the columns
+     * @param delimitIdentifiers
+     *            true if the identifiers of the table configuration are
+     *            delimited
+     * @return the list
+     * @throws SQLException
+     *             if the introspection is interrupted
+     */
+    private List<IntrospectedTable> calculateIntrospectedTablesConcurrently(
+            final TableConfiguration tc,
+            Map<ActualTableName, List<IntrospectedColumn>> columns,
+            final boolean delimitIdentifiers) throws SQLException {
+        metadataSourcePool.releaseIntrospectorConnection();
+
+        ParallelTaskExecutor<TableResult> executor = new ParallelTaskExecutor<TableResult>(
+                metadataSourcePool.getExecutorService());
+        for (final Map.Entry<ActualTableName, List<IntrospectedColumn>> entry : columns
+                .entrySet()) {
+            executor.submit(new Callable<TableResult>() {
+                public TableResult call() throws Exception {
+                    TableResult result = new TableResult();
+                    MetadataSource pooledSource = metadataSourcePool.acquire();
+                    try {
+                        MetadataSource source = pooledSource;
+                        if (FlightRecorder.isEnabled()) {
+                            source = new RecordingMetadataSource(source,
+                                    context.getId());
+                        }
+                        result.introspectedTable = calculateIntrospectedTable(
+                                tc, entry.getKey(), entry.getValue(),
+                                delimitIdentifiers, source, result.warnings);
+                    } finally {
+                        metadataSourcePool.release(pooledSource);
+                    }
+                    return result;
+                }
+            });
+        }
 
-            answer.add(introspectedTable);
+        List<TableResult> results;
+        try {
+            // a cancel interrupts the introspecting thread
+            results = executor.awaitAll(new BufferedProgressCallback(), null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = ParallelTaskExecutor.unwrap(e);
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+
+        List<IntrospectedTable> answer = new ArrayList<IntrospectedTable>();
+        for (TableResult result : results) {
+            warnings.addAll(result.warnings);
+            answer.add(result.introspectedTable);
         }
 
         return answer;
     }
 
+    /**
+     * Creates the introspected table for one of the tables matched by a table
+     * configuration, and reads its primary key and remarks.
+     *
+     * @param tc
+     *            the tc
+     * @param atn
+     *            the actual table name
+     * @param columns
+     *            the columns of the table
+     * @param delimitIdentifiers
+     *            true if the identifiers of the table configuration are
+     *            delimited
+     * @param metadataSource
+     *            the metadata source
+     * @param warnings
+     *            the warnings
+     * @return the introspected table
+     */
+    private IntrospectedTable calculateIntrospectedTable(TableConfiguration tc,
+            ActualTableName atn, List<IntrospectedColumn> columns,
+            boolean delimitIdentifiers, MetadataSource metadataSource,
+            List<String> warnings) {
+        // we only use the returned catalog and schema if something was
+        // actually
+        // specified on the table configuration. If something was returned
+        // from the DB for these fields, but nothing was specified on the
+        // table
+        // configuration, then some sort of DB default is being returned
+        // and we don't want that in our SQL
+        FullyQualifiedTable table = new FullyQualifiedTable(
+                stringHasValue(tc.getCatalog()) ? atn
+                        .getCatalog() : null,
+                stringHasValue(tc.getSchema()) ? atn
+                        .getSchema() : null,
+                atn.getTableName(),
+                tc.getDomainObjectName(),
+                tc.getAlias(),
+                isTrue(tc.getProperty(PropertyRegistry.TABLE_IGNORE_QUALIFIERS_AT_RUNTIME)),
+                tc.getProperty(PropertyRegistry.TABLE_RUNTIME_CATALOG),
+                tc.getProperty(PropertyRegistry.TABLE_RUNTIME_SCHEMA),
+                tc.getProperty(PropertyRegistry.TABLE_RUNTIME_TABLE_NAME),
+                delimitIdentifiers, context);
+
+        IntrospectedTable introspectedTable = ObjectFactory
+                .createIntrospectedTable(tc, table, context);
+
+        for (IntrospectedColumn introspectedColumn : columns) {
+            introspectedTable.addColumn(introspectedColumn);
+        }
+
+        calculatePrimaryKey(table, introspectedTable, metadataSource, warnings);
+
+        enhanceIntrospectedTable(introspectedTable, metadataSource, warnings);
+
+        return introspectedTable;
+    }
+
     /**
      * This method calls database metadata to retrieve some extra information about the table
      * such as remarks associated with the table and the type.
@@ -755,22 +947,31 @@ public class DatabaseIntrospector {
      * If there is any error, we just add a warning and continue.
      * 
      * @param introspectedTable
+     * @param metadataSource
+     * @param warnings
      */
-    private void enhanceIntrospectedTable(IntrospectedTable introspectedTable) {
+    private void enhanceIntrospectedTable(IntrospectedTable introspectedTable,
+            MetadataSource metadataSource, List<String> warnings) {
         try {
             FullyQualifiedTable fqt = introspectedTable.getFullyQualifiedTable();
 
-            ResultSet rs = databaseMetaData.getTables(fqt.getIntrospectedCatalog(), fqt.getIntrospectedSchema(),
-                    fqt.getIntrospectedTableName(), null);
-            if (rs.next()) {
-                String remarks = rs.getString("REMARKS"); //$NON-NLS-1$
-                String tableType = rs.getString("TABLE_TYPE"); //$NON-NLS-1$
-                introspectedTable.setRemarks(remarks);
-                introspectedTable.setTableType(tableType);
+            TableMetadata tableMetadata = metadataSource.getTable(fqt.getIntrospectedCatalog(),
+                    fqt.getIntrospectedSchema(), fqt.getIntrospectedTableName());
+            if (tableMetadata != null) {
+                introspectedTable.setRemarks(tableMetadata.getRemarks());
+                introspectedTable.setTableType(tableMetadata.getTableType());
             }
-            closeResultSet(rs);
         } catch (SQLException e) {
             warnings.add(getString("Warning.27", e.getMessage())); //$NON-NLS-1$
         }
     }
+
+    /**
+     * The result of calculating one of the tables matched by a table
+     * configuration on a worker thread.
+     */
+    private static class TableResult {
+        private IntrospectedTable introspectedTable;
+        private List<String> warnings = new ArrayList<String>();
+    }
 }
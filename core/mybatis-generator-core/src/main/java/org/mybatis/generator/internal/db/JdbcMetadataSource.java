@@ -0,0 +1,243 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A metadata source that reads the metadata from a JDBC DatabaseMetaData
+ * object. Every method call results in a call to the database.
+ * 
+ * <p>Subclasses may override getDatabaseMetaData() to obtain the metadata
+ * object lazily, so that no connection is opened unless metadata is actually
+ * needed.
+ */
+public class JdbcMetadataSource implements MetadataSource {
+
+    /** The database meta data. */
+    private DatabaseMetaData databaseMetaData;
+
+    /**
+     * Instantiates a new JDBC metadata source.
+     * 
+     * @param databaseMetaData
+     *            the database meta data. May be null if a subclass overrides
+     *            getDatabaseMetaData()
+     */
+    public JdbcMetadataSource(DatabaseMetaData databaseMetaData) {
+        super();
+        this.databaseMetaData = databaseMetaData;
+    }
+
+    /**
+     * Returns the database meta data used by this source.
+     * 
+     * @return the database meta data
+     * @throws SQLException
+     *             if the meta data cannot be obtained
+     */
+    protected DatabaseMetaData getDatabaseMetaData() throws SQLException {
+        return databaseMetaData;
+    }
+
+    public boolean storesLowerCaseIdentifiers() throws SQLException {
+        return getDatabaseMetaData().storesLowerCaseIdentifiers();
+    }
+
+    public boolean storesUpperCaseIdentifiers() throws SQLException {
+        return getDatabaseMetaData().storesUpperCaseIdentifiers();
+    }
+
+    public String getSearchStringEscape() throws SQLException {
+        return getDatabaseMetaData().getSearchStringEscape();
+    }
+
+    public List<ColumnMetadata> getColumns(String catalog,
+            String schemaPattern, String tableNamePattern) throws SQLException {
+        ResultSet rs = getDatabaseMetaData().getColumns(catalog, schemaPattern,
+                tableNamePattern, "%"); //$NON-NLS-1$
+
+        try {
+            boolean supportsIsAutoIncrement = false;
+            boolean supportsIsGeneratedColumn = false;
+            ResultSetMetaData rsmd = rs.getMetaData();
+            int colCount = rsmd.getColumnCount();
+            for (int i = 1; i <= colCount; i++) {
+                if ("IS_AUTOINCREMENT".equals(rsmd.getColumnName(i))) { //$NON-NLS-1$
+                    supportsIsAutoIncrement = true;
+                }
+                if ("IS_GENERATEDCOLUMN".equals(rsmd.getColumnName(i))) { //$NON-NLS-1$
+                    supportsIsGeneratedColumn = true;
+                }
+            }
+
+            List<ColumnMetadata> answer = new ArrayList<ColumnMetadata>();
+            while (rs.next()) {
+                ColumnMetadata column = new ColumnMetadata();
+                column.setTableCatalog(rs.getString("TABLE_CAT")); //$NON-NLS-1$
+                column.setTableSchema(rs.getString("TABLE_SCHEM")); //$NON-NLS-1$
+                column.setTableName(rs.getString("TABLE_NAME")); //$NON-NLS-1$
+                column.setColumnName(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
+                column.setDataType(rs.getInt("DATA_TYPE")); //$NON-NLS-1$
+                column.setColumnSize(rs.getInt("COLUMN_SIZE")); //$NON-NLS-1$
+                column.setDecimalDigits(rs.getInt("DECIMAL_DIGITS")); //$NON-NLS-1$
+                column.setNullable(rs.getInt("NULLABLE")); //$NON-NLS-1$
+                column.setRemarks(rs.getString("REMARKS")); //$NON-NLS-1$
+                column.setDefaultValue(rs.getString("COLUMN_DEF")); //$NON-NLS-1$
+
+                if (supportsIsAutoIncrement) {
+                    column.setAutoIncrement(rs.getString("IS_AUTOINCREMENT")); //$NON-NLS-1$
+                }
+
+                if (supportsIsGeneratedColumn) {
+                    column.setGeneratedColumn(rs.getString("IS_GENERATEDCOLUMN")); //$NON-NLS-1$
+                }
+
+                answer.add(column);
+            }
+
+            return answer;
+        } finally {
+            closeResultSet(rs);
+        }
+    }
+
+    public List<String> getPrimaryKeyColumns(String catalog, String schema,
+            String tableName) throws SQLException {
+        ResultSet rs = getDatabaseMetaData().getPrimaryKeys(catalog, schema,
+                tableName);
+
+        try {
+            // keep primary columns in key sequence order
+            Map<Short, String> keyColumns = new TreeMap<Short, String>();
+            while (rs.next()) {
+                String columnName = rs.getString("COLUMN_NAME"); //$NON-NLS-1$
+                short keySeq = rs.getShort("KEY_SEQ"); //$NON-NLS-1$
+                keyColumns.put(keySeq, columnName);
+            }
+
+            return new ArrayList<String>(keyColumns.values());
+        } catch (SQLException e) {
+            // ignore the primary key if there's any error
+            return new ArrayList<String>();
+        } finally {
+            closeResultSet(rs);
+        }
+    }
+
+    public TableMetadata getTable(String catalog, String schema,
+            String tableName) throws SQLException {
+        List<TableMetadata> tables = getTables(catalog, schema, tableName);
+        return tables.isEmpty() ? null : tables.get(0);
+    }
+
+    /**
+     * Returns all tables that match the specified patterns, in the order
+     * returned by the database.
+     * 
+     * @param catalog
+     *            the catalog, or null
+     * @param schemaPattern
+     *            the schema pattern, or null
+     * @param tableNamePattern
+     *            the table name pattern
+     * @return the tables
+     * @throws SQLException
+     *             if the metadata cannot be read
+     */
+    public List<TableMetadata> getTables(String catalog, String schemaPattern,
+            String tableNamePattern) throws SQLException {
+        ResultSet rs = getDatabaseMetaData().getTables(catalog, schemaPattern,
+                tableNamePattern, null);
+
+        try {
+            List<TableMetadata> answer = new ArrayList<TableMetadata>();
+            while (rs.next()) {
+                TableMetadata table = new TableMetadata();
+                table.setTableCatalog(rs.getString("TABLE_CAT")); //$NON-NLS-1$
+                table.setTableSchema(rs.getString("TABLE_SCHEM")); //$NON-NLS-1$
+                table.setTableName(rs.getString("TABLE_NAME")); //$NON-NLS-1$
+                table.setRemarks(rs.getString("REMARKS")); //$NON-NLS-1$
+                table.setTableType(rs.getString("TABLE_TYPE")); //$NON-NLS-1$
+                answer.add(table);
+            }
+
+            return answer;
+        } finally {
+            closeResultSet(rs);
+        }
+    }
+
+    /**
+     * Returns the primary key columns of every table in a catalog and schema.
+     * Not all drivers support this - the JDBC specification requires a table
+     * name for DatabaseMetaData.getPrimaryKeys().
+     * 
+     * @param catalog
+     *            the catalog, or null
+     * @param schema
+     *            the schema, or null
+     * @return the primary key columns, in the order returned by the database
+     * @throws SQLException
+     *             if the driver does not support this, or the metadata cannot
+     *             be read
+     */
+    public List<KeyColumnMetadata> getPrimaryKeys(String catalog,
+            String schema) throws SQLException {
+        ResultSet rs = getDatabaseMetaData().getPrimaryKeys(catalog, schema,
+                null);
+
+        try {
+            List<KeyColumnMetadata> answer = new ArrayList<KeyColumnMetadata>();
+            while (rs.next()) {
+                KeyColumnMetadata column = new KeyColumnMetadata();
+                column.setTableCatalog(rs.getString("TABLE_CAT")); //$NON-NLS-1$
+                column.setTableSchema(rs.getString("TABLE_SCHEM")); //$NON-NLS-1$
+                column.setTableName(rs.getString("TABLE_NAME")); //$NON-NLS-1$
+                column.setColumnName(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
+                column.setKeySequence(rs.getShort("KEY_SEQ")); //$NON-NLS-1$
+                answer.add(column);
+            }
+
+            return answer;
+        } finally {
+            closeResultSet(rs);
+        }
+    }
+
+    /**
+     * Close result set.
+     * 
+     * @param rs
+     *            the rs
+     */
+    private void closeResultSet(ResultSet rs) {
+        if (rs != null) {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                // ignore
+            }
+        }
+    }
+}
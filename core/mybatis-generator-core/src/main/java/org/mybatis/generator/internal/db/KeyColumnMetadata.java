@@ -0,0 +1,88 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.io.Serializable;
+
+/**
+ * A single row returned by DatabaseMetaData.getPrimaryKeys().
+ */
+public class KeyColumnMetadata implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The table catalog. */
+    private String tableCatalog;
+
+    /** The table schema. */
+    private String tableSchema;
+
+    /** The table name. */
+    private String tableName;
+
+    /** The column name. */
+    private String columnName;
+
+    /** The sequence number of the column within the key. */
+    private short keySequence;
+
+    /**
+     * Instantiates a new key column metadata.
+     */
+    public KeyColumnMetadata() {
+        super();
+    }
+
+    public String getTableCatalog() {
+        return tableCatalog;
+    }
+
+    public void setTableCatalog(String tableCatalog) {
+        this.tableCatalog = tableCatalog;
+    }
+
+    public String getTableSchema() {
+        return tableSchema;
+    }
+
+    public void setTableSchema(String tableSchema) {
+        this.tableSchema = tableSchema;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public void setColumnName(String columnName) {
+        this.columnName = columnName;
+    }
+
+    public short getKeySequence() {
+        return keySequence;
+    }
+
+    public void setKeySequence(short keySequence) {
+        this.keySequence = keySequence;
+    }
+}
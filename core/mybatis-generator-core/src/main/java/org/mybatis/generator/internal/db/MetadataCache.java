@@ -0,0 +1,561 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A persistent cache of raw database metadata. The cache is held in memory
+ * and saved to a single GZIP compressed file. Entries are grouped by
+ * connection (usually the JDBC URL and user), and are keyed by the kind of
+ * metadata and the catalog, schema and table they describe. Every entry
+ * records the time it was read from the database so that it can be expired.
+ * 
+ * <p>The file has a versioned binary format that only holds the kinds of
+ * values the cache stores (strings, booleans, lists of strings, column
+ * metadata and table metadata), so a shared cache file cannot make the
+ * generator create arbitrary objects. Files of other versions are ignored.
+ * 
+ * <p>Each connection may also record a schema fingerprint. When the
+ * fingerprint of a connection changes, all entries for that connection are
+ * discarded.
+ * 
+ * <p>There is a single instance of the cache for each file while it is in
+ * use, so contexts that share a cache file also share the entries in memory.
+ * Every cache returned by <code>getInstance</code> must be released when the
+ * context is done with it; the cache is dropped from memory when all of its
+ * users have released it. Caches that are only held in memory, for the length
+ * of a generation run, have no file. All methods are thread safe.
+ */
+public class MetadataCache {
+
+    /** Identifies a cache file ("MBGM"). */
+    private static final int MAGIC = 0x4d42474d;
+
+    /** The version of the file format. Files of other versions are ignored. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The kinds of values in the file. */
+    private static final byte NULL_VALUE = 0;
+    private static final byte BOOLEAN_VALUE = 1;
+    private static final byte STRING_VALUE = 2;
+    private static final byte STRING_LIST_VALUE = 3;
+    private static final byte COLUMN_LIST_VALUE = 4;
+    private static final byte TABLE_VALUE = 5;
+
+    /** The caches in use, keyed by canonical file path. */
+    private static final Map<String, MetadataCache> instances = new HashMap<String, MetadataCache>();
+
+    /** The number of users of a cache in the instances map. Guarded by instances. */
+    private int users;
+
+    /** The cache file, or null if the cache is only held in memory. */
+    private File file;
+
+    /** The entries and fingerprints of every connection. */
+    private Snapshot snapshot;
+
+    /** The last modified time of the file when it was last read or written. */
+    private long fileTimestamp;
+
+    /** Set when there are changes that have not been saved. */
+    private boolean dirty;
+
+    /**
+     * Instantiates a new metadata cache.
+     * 
+     * @param file
+     *            the cache file, or null
+     */
+    private MetadataCache(File file) {
+        super();
+        this.file = file;
+        snapshot = new Snapshot();
+        fileTimestamp = -1L;
+    }
+
+    /**
+     * Returns the cache for the specified file. Call <code>release</code> when
+     * the cache is no longer needed.
+     * 
+     * @param file
+     *            the cache file. The file does not need to exist
+     * @return the cache
+     */
+    public static MetadataCache getInstance(File file) {
+        File canonicalFile;
+        try {
+            canonicalFile = file.getCanonicalFile();
+        } catch (IOException e) {
+            canonicalFile = file.getAbsoluteFile();
+        }
+
+        synchronized (instances) {
+            MetadataCache answer = instances.get(canonicalFile.getPath());
+            if (answer == null) {
+                answer = new MetadataCache(canonicalFile);
+                instances.put(canonicalFile.getPath(), answer);
+            }
+            answer.users++;
+            return answer;
+        }
+    }
+
+    /**
+     * Releases a cache returned by <code>getInstance</code>. When every user
+     * has released the cache, it is dropped from memory and the next call to
+     * <code>getInstance</code> reads the file again. Changes that have not
+     * been saved are lost.
+     */
+    public void release() {
+        if (file == null) {
+            return;
+        }
+
+        synchronized (instances) {
+            if (--users == 0) {
+                instances.remove(file.getPath());
+            }
+        }
+    }
+
+    /**
+     * Returns a new cache that is only held in memory. Loading and saving the
+     * cache does nothing.
+     * 
+     * @return the cache
+     */
+    public static MetadataCache newInMemoryInstance() {
+        return new MetadataCache(null);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Reads the cache file if it exists and has changed since it was last
+     * read or written by this cache. If the file cannot be read, the cache is
+     * emptied.
+     * 
+     * @throws IOException
+     *             if the file exists but cannot be read
+     */
+    public synchronized void load() throws IOException {
+        if (file == null || !file.exists()) {
+            return;
+        }
+
+        long timestamp = file.lastModified();
+        if (timestamp == fileTimestamp) {
+            return;
+        }
+
+        fileTimestamp = timestamp;
+        snapshot = new Snapshot();
+        dirty = false;
+
+        DataInputStream in = new DataInputStream(new GZIPInputStream(
+                new BufferedInputStream(new FileInputStream(file))));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(getString("RuntimeError.34", file.getPath())); //$NON-NLS-1$
+            }
+
+            if (in.readInt() == FORMAT_VERSION) {
+                snapshot = readSnapshot(in);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes the cache file if there are unsaved changes. The file is written
+     * to a temporary file first, and then renamed, so that a failed write
+     * never leaves a damaged cache behind.
+     * 
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty || file == null) {
+            return;
+        }
+
+        File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(getString("RuntimeError.25", directory.getPath())); //$NON-NLS-1$
+        }
+
+        File tempFile = File.createTempFile("." + file.getName() + ".", null, directory); //$NON-NLS-1$ //$NON-NLS-2$
+        try {
+            DataOutputStream out = new DataOutputStream(new GZIPOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile))));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeSnapshot(out, snapshot);
+            } finally {
+                out.close();
+            }
+
+            if (!tempFile.renameTo(file)) {
+                // some platforms will not rename over an existing file
+                file.delete();
+                if (!tempFile.renameTo(file)) {
+                    throw new IOException(getString("RuntimeError.24", file.getPath())); //$NON-NLS-1$
+                }
+            }
+        } finally {
+            tempFile.delete();
+        }
+
+        fileTimestamp = file.lastModified();
+        dirty = false;
+    }
+
+    /**
+     * Records the schema fingerprint of a connection. If the fingerprint is
+     * different from the one that was recorded before, all entries for the
+     * connection are discarded.
+     * 
+     * @param connectionKey
+     *            the connection key
+     * @param fingerprint
+     *            the fingerprint
+     * @return true if the entries of the connection were discarded
+     */
+    public synchronized boolean updateFingerprint(String connectionKey,
+            String fingerprint) {
+        String oldFingerprint = snapshot.fingerprints.get(connectionKey);
+        if (fingerprint.equals(oldFingerprint)) {
+            return false;
+        }
+
+        snapshot.fingerprints.put(connectionKey, fingerprint);
+        dirty = true;
+        return snapshot.entries.remove(connectionKey) != null;
+    }
+
+    /**
+     * Returns a cached value.
+     * 
+     * @param connectionKey
+     *            the connection key
+     * @param key
+     *            the key of the value, as returned by key()
+     * @param timeToLive
+     *            the time, in milliseconds, that an entry is valid. Zero or
+     *            less means that entries do not expire
+     * @return the entry, or null if there is no valid entry. The value of the
+     *         returned entry may be null
+     */
+    public synchronized Entry get(String connectionKey, List<String> key,
+            long timeToLive) {
+        Map<List<String>, Entry> entries = snapshot.entries.get(connectionKey);
+        if (entries == null) {
+            return null;
+        }
+
+        Entry entry = entries.get(key);
+        if (entry != null && timeToLive > 0
+                && System.currentTimeMillis() - entry.timestamp > timeToLive) {
+            entries.remove(key);
+            dirty = true;
+            return null;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Adds a value to the cache.
+     * 
+     * @param connectionKey
+     *            the connection key
+     * @param key
+     *            the key of the value, as returned by key()
+     * @param value
+     *            the value. May be null. Other values than strings, booleans,
+     *            lists of strings, lists of column metadata and table metadata
+     *            cannot be saved
+     */
+    public synchronized void put(String connectionKey, List<String> key,
+            Object value) {
+        HashMap<List<String>, Entry> entries = snapshot.entries.get(connectionKey);
+        if (entries == null) {
+            entries = new HashMap<List<String>, Entry>();
+            snapshot.entries.put(connectionKey, entries);
+        }
+
+        entries.put(key, new Entry(value, System.currentTimeMillis()));
+        dirty = true;
+    }
+
+    /**
+     * Builds a cache key.
+     * 
+     * @param kind
+     *            the kind of metadata
+     * @param parts
+     *            the catalog, schema, and table name (or patterns) the
+     *            metadata describes. Parts may be null
+     * @return the key
+     */
+    public static List<String> key(String kind, String... parts) {
+        List<String> answer = new ArrayList<String>(parts.length + 1);
+        answer.add(kind);
+        answer.addAll(Arrays.asList(parts));
+        return answer;
+    }
+
+    private static void writeSnapshot(DataOutputStream out, Snapshot snapshot)
+            throws IOException {
+        out.writeInt(snapshot.fingerprints.size());
+        for (Map.Entry<String, String> fingerprint : snapshot.fingerprints
+                .entrySet()) {
+            writeString(out, fingerprint.getKey());
+            writeString(out, fingerprint.getValue());
+        }
+
+        out.writeInt(snapshot.entries.size());
+        for (Map.Entry<String, HashMap<List<String>, Entry>> connection : snapshot.entries
+                .entrySet()) {
+            writeString(out, connection.getKey());
+            out.writeInt(connection.getValue().size());
+            for (Map.Entry<List<String>, Entry> entry : connection.getValue()
+                    .entrySet()) {
+                writeStrings(out, entry.getKey());
+                out.writeLong(entry.getValue().timestamp);
+                writeValue(out, entry.getValue().value);
+            }
+        }
+    }
+
+    private static Snapshot readSnapshot(DataInputStream in)
+            throws IOException {
+        Snapshot answer = new Snapshot();
+        int fingerprintCount = in.readInt();
+        for (int i = 0; i < fingerprintCount; i++) {
+            answer.fingerprints.put(readString(in), readString(in));
+        }
+
+        int connectionCount = in.readInt();
+        for (int i = 0; i < connectionCount; i++) {
+            String connectionKey = readString(in);
+            HashMap<List<String>, Entry> entries = new HashMap<List<String>, Entry>();
+            int entryCount = in.readInt();
+            for (int j = 0; j < entryCount; j++) {
+                List<String> key = readStrings(in);
+                long timestamp = in.readLong();
+                entries.put(key, new Entry(readValue(in), timestamp));
+            }
+            answer.entries.put(connectionKey, entries);
+        }
+
+        return answer;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value)
+            throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_VALUE);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN_VALUE);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING_VALUE);
+            writeString(out, (String) value);
+        } else if (value instanceof TableMetadata) {
+            TableMetadata table = (TableMetadata) value;
+            out.writeByte(TABLE_VALUE);
+            writeString(out, table.getTableCatalog());
+            writeString(out, table.getTableSchema());
+            writeString(out, table.getTableName());
+            writeString(out, table.getRemarks());
+            writeString(out, table.getTableType());
+        } else if (value instanceof List<?>
+                && !((List<?>) value).isEmpty()
+                && ((List<?>) value).get(0) instanceof ColumnMetadata) {
+            List<?> columns = (List<?>) value;
+            out.writeByte(COLUMN_LIST_VALUE);
+            out.writeInt(columns.size());
+            for (Object element : columns) {
+                ColumnMetadata column = (ColumnMetadata) element;
+                writeString(out, column.getTableCatalog());
+                writeString(out, column.getTableSchema());
+                writeString(out, column.getTableName());
+                writeString(out, column.getColumnName());
+                out.writeInt(column.getDataType());
+                out.writeInt(column.getColumnSize());
+                out.writeInt(column.getDecimalDigits());
+                out.writeInt(column.getNullable());
+                writeString(out, column.getRemarks());
+                writeString(out, column.getDefaultValue());
+                writeString(out, column.getAutoIncrement());
+                writeString(out, column.getGeneratedColumn());
+            }
+        } else if (value instanceof List<?>) {
+            List<String> strings = new ArrayList<String>();
+            for (Object element : (List<?>) value) {
+                strings.add((String) element);
+            }
+            out.writeByte(STRING_LIST_VALUE);
+            writeStrings(out, strings);
+        } else {
+            throw new IOException(getString("RuntimeError.35", //$NON-NLS-1$
+                    value.getClass().getName()));
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+        case NULL_VALUE:
+            return null;
+
+        case BOOLEAN_VALUE:
+            return in.readBoolean();
+
+        case STRING_VALUE:
+            return readString(in);
+
+        case STRING_LIST_VALUE:
+            return readStrings(in);
+
+        case TABLE_VALUE:
+            TableMetadata table = new TableMetadata();
+            table.setTableCatalog(readString(in));
+            table.setTableSchema(readString(in));
+            table.setTableName(readString(in));
+            table.setRemarks(readString(in));
+            table.setTableType(readString(in));
+            return table;
+
+        case COLUMN_LIST_VALUE:
+            int count = in.readInt();
+            ArrayList<ColumnMetadata> columns = new ArrayList<ColumnMetadata>(count);
+            for (int i = 0; i < count; i++) {
+                ColumnMetadata column = new ColumnMetadata();
+                column.setTableCatalog(readString(in));
+                column.setTableSchema(readString(in));
+                column.setTableName(readString(in));
+                column.setColumnName(readString(in));
+                column.setDataType(in.readInt());
+                column.setColumnSize(in.readInt());
+                column.setDecimalDigits(in.readInt());
+                column.setNullable(in.readInt());
+                column.setRemarks(readString(in));
+                column.setDefaultValue(readString(in));
+                column.setAutoIncrement(readString(in));
+                column.setGeneratedColumn(readString(in));
+                columns.add(column);
+            }
+            return columns;
+
+        default:
+            throw new IOException(getString("RuntimeError.35", //$NON-NLS-1$
+                    Byte.toString(kind)));
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings)
+            throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            writeString(out, string);
+        }
+    }
+
+    private static ArrayList<String> readStrings(DataInputStream in)
+            throws IOException {
+        int count = in.readInt();
+        ArrayList<String> answer = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            answer.add(readString(in));
+        }
+        return answer;
+    }
+
+    /**
+     * Writes a string that may be null. Strings are written as UTF-8 bytes,
+     * because remarks and default values can be longer than writeUTF allows.
+     */
+    private static void writeString(DataOutputStream out, String string)
+            throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = string.getBytes("UTF-8"); //$NON-NLS-1$
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8"); //$NON-NLS-1$
+    }
+
+    /**
+     * A cached value and the time it was read from the database.
+     */
+    public static class Entry {
+        private Object value;
+        private long timestamp;
+
+        Entry(Object value, long timestamp) {
+            super();
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * The contents of the cache file.
+     */
+    private static class Snapshot {
+        private HashMap<String, String> fingerprints = new HashMap<String, String>();
+        private HashMap<String, HashMap<List<String>, Entry>> entries = new HashMap<String, HashMap<List<String>, Entry>>();
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * This interface describes the raw database metadata used by the
+ * DatabaseIntrospector. The default implementation reads the metadata from a
+ * JDBC DatabaseMetaData object. Other implementations may cache the metadata,
+ * or fetch it in bulk.
+ * 
+ * <p>The patterns passed to these methods have the same meaning as the
+ * patterns passed to the corresponding DatabaseMetaData methods.
+ */
+public interface MetadataSource {
+
+    /**
+     * Returns true if the database stores unquoted identifiers in lower case.
+     * 
+     * @return true if identifiers are stored in lower case
+     * @throws SQLException
+     *             if the metadata cannot be read
+     * @see java.sql.DatabaseMetaData#storesLowerCaseIdentifiers()
+     */
+    boolean storesLowerCaseIdentifiers() throws SQLException;
+
+    /**
+     * Returns true if the database stores unquoted identifiers in upper case.
+     * 
+     * @return true if identifiers are stored in upper case
+     * @throws SQLException
+     *             if the metadata cannot be read
+     * @see java.sql.DatabaseMetaData#storesUpperCaseIdentifiers()
+     */
+    boolean storesUpperCaseIdentifiers() throws SQLException;
+
+    /**
+     * Returns the string used to escape wildcard characters in patterns.
+     * 
+     * @return the search string escape
+     * @throws SQLException
+     *             if the metadata cannot be read
+     * @see java.sql.DatabaseMetaData#getSearchStringEscape()
+     */
+    String getSearchStringEscape() throws SQLException;
+
+    /**
+     * Returns the columns of all tables that match the specified patterns, in
+     * the order returned by the database.
+     * 
+     * @param catalog
+     *            the catalog, or null
+     * @param schemaPattern
+     *            the schema pattern, or null
+     * @param tableNamePattern
+     *            the table name pattern
+     * @return the columns
+     * @throws SQLException
+     *             if the metadata cannot be read
+     * @see java.sql.DatabaseMetaData#getColumns(String, String, String,
+     *      String)
+     */
+    List<ColumnMetadata> getColumns(String catalog, String schemaPattern,
+            String tableNamePattern) throws SQLException;
+
+    /**
+     * Returns the names of the primary key columns of a table, in key sequence
+     * order. If the primary key columns cannot be read completely, an empty
+     * list is returned.
+     * 
+     * @param catalog
+     *            the catalog, or null
+     * @param schema
+     *            the schema, or null
+     * @param tableName
+     *            the table name
+     * @return the primary key column names
+     * @throws SQLException
+     *             if the primary key query fails
+     * @see java.sql.DatabaseMetaData#getPrimaryKeys(String, String, String)
+     */
+    List<String> getPrimaryKeyColumns(String catalog, String schema,
+            String tableName) throws SQLException;
+
+    /**
+     * Returns the remarks and type of a table.
+     * 
+     * @param catalog
+     *            the catalog, or null
+     * @param schema
+     *            the schema, or null
+     * @param tableName
+     *            the table name
+     * @return the table metadata, or null if the table was not found
+     * @throws SQLException
+     *             if the metadata cannot be read
+     * @see java.sql.DatabaseMetaData#getTables(String, String, String,
+     *      String[])
+     */
+    TableMetadata getTable(String catalog, String schema, String tableName)
+            throws SQLException;
+}
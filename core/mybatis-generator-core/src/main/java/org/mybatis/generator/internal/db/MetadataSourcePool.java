@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * This interface lends metadata sources to the threads that introspect the
+ * tables matched by a table configuration with wildcards. Every thread
+ * acquires a source for each table and releases it when the table is done, so
+ * the tables share the connections of the pool.
+ * 
+ * <p>The tables run on the executor of the pool. When several table
+ * configurations are introspected concurrently, their pools share a single
+ * executor, so the number of threads does not grow with the number of table
+ * configurations.
+ * 
+ * <p>All methods must be thread safe.
+ */
+public interface MetadataSourcePool {
+
+    /**
+     * Returns the number of tables that may be introspected concurrently.
+     * 
+     * @return the number of threads
+     */
+    int getThreads();
+
+    /**
+     * Returns the executor that runs the tables. The executor is owned by the
+     * pool and must not be shut down by the introspector.
+     * 
+     * @return the executor
+     */
+    ExecutorService getExecutorService();
+
+    /**
+     * Called by the introspecting thread before the tables are handed to the
+     * worker threads. The introspecting thread only waits for the workers
+     * from then on, so any connection held by its own metadata source should
+     * be returned to the connection pool for the workers to use.
+     */
+    void releaseIntrospectorConnection();
+
+    /**
+     * Returns a metadata source for the current thread.
+     * 
+     * @return the metadata source
+     */
+    MetadataSource acquire();
+
+    /**
+     * Returns a metadata source acquired from this pool, and any connection
+     * it holds.
+     * 
+     * @param metadataSource
+     *            the metadata source
+     */
+    void release(MetadataSource metadataSource);
+}
@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import org.mybatis.generator.internal.FlightRecorder;
+import org.mybatis.generator.internal.FlightRecorder.EventType;
+
+/**
+ * A metadata source that emits a Flight Recorder event for every call to
+ * another metadata source, and counts the calls.
+ */
+public class RecordingMetadataSource implements MetadataSource {
+
+    /** The source that answers the calls. */
+    private MetadataSource delegate;
+
+    /** The id of the context. */
+    private String contextId;
+
+    /** The number of calls. */
+    private int callCount;
+
+    public RecordingMetadataSource(MetadataSource delegate, String contextId) {
+        super();
+        this.delegate = delegate;
+        this.contextId = contextId;
+    }
+
+    public int getCallCount() {
+        return callCount;
+    }
+
+    public boolean storesLowerCaseIdentifiers() throws SQLException {
+        FlightRecorder.Event event = begin(null, "storesLowerCaseIdentifiers"); //$NON-NLS-1$
+        try {
+            return delegate.storesLowerCaseIdentifiers();
+        } finally {
+            event.end();
+        }
+    }
+
+    public boolean storesUpperCaseIdentifiers() throws SQLException {
+        FlightRecorder.Event event = begin(null, "storesUpperCaseIdentifiers"); //$NON-NLS-1$
+        try {
+            return delegate.storesUpperCaseIdentifiers();
+        } finally {
+            event.end();
+        }
+    }
+
+    public String getSearchStringEscape() throws SQLException {
+        FlightRecorder.Event event = begin(null, "getSearchStringEscape"); //$NON-NLS-1$
+        try {
+            return delegate.getSearchStringEscape();
+        } finally {
+            event.end();
+        }
+    }
+
+    public List<ColumnMetadata> getColumns(String catalog,
+            String schemaPattern, String tableNamePattern) throws SQLException {
+        FlightRecorder.Event event = begin(getTableName(catalog,
+                schemaPattern, tableNamePattern), "getColumns"); //$NON-NLS-1$
+        try {
+            List<ColumnMetadata> answer = delegate.getColumns(catalog,
+                    schemaPattern, tableNamePattern);
+            event.setCount(answer.size());
+            return answer;
+        } finally {
+            event.end();
+        }
+    }
+
+    public List<String> getPrimaryKeyColumns(String catalog, String schema,
+            String tableName) throws SQLException {
+        FlightRecorder.Event event = begin(getTableName(catalog, schema,
+                tableName), "getPrimaryKeyColumns"); //$NON-NLS-1$
+        try {
+            List<String> answer = delegate.getPrimaryKeyColumns(catalog,
+                    schema, tableName);
+            event.setCount(answer.size());
+            return answer;
+        } finally {
+            event.end();
+        }
+    }
+
+    public TableMetadata getTable(String catalog, String schema,
+            String tableName) throws SQLException {
+        FlightRecorder.Event event = begin(getTableName(catalog, schema,
+                tableName), "getTable"); //$NON-NLS-1$
+        try {
+            TableMetadata answer = delegate.getTable(catalog, schema,
+                    tableName);
+            event.setCount(answer == null ? 0 : 1);
+            return answer;
+        } finally {
+            event.end();
+        }
+    }
+
+    private FlightRecorder.Event begin(String table, String method) {
+        callCount++;
+        return FlightRecorder.begin(EventType.METADATA_CALL, contextId, table,
+                method);
+    }
+
+    private static String getTableName(String catalog, String schema,
+            String tableName) {
+        StringBuilder sb = new StringBuilder();
+        if (catalog != null && catalog.length() > 0) {
+            sb.append(catalog);
+            sb.append('.');
+        }
+        if (schema != null && schema.length() > 0) {
+            sb.append(schema);
+            sb.append('.');
+        }
+        sb.append(tableName);
+        return sb.toString();
+    }
+}
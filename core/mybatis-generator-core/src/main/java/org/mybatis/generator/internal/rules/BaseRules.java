@@ -105,7 +105,7 @@ public abstract class BaseRules implements Rules {
             answer = introspectedTable.getPrimaryKeyType();
         }
 
-        return new FullyQualifiedJavaType(answer);
+        return FullyQualifiedJavaType.of(answer);
     }
 
     /**
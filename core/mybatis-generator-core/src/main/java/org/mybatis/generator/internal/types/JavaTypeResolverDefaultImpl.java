@@ -52,74 +52,74 @@ public class JavaTypeResolverDefaultImpl implements JavaTypeResolver {
         typeMap = new HashMap<Integer, JdbcTypeInformation>();
 
         typeMap.put(Types.ARRAY, new JdbcTypeInformation("ARRAY", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Object.class.getName())));
+                FullyQualifiedJavaType.of(Object.class.getName())));
         typeMap.put(Types.BIGINT, new JdbcTypeInformation("BIGINT", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Long.class.getName())));
+                FullyQualifiedJavaType.of(Long.class.getName())));
         typeMap.put(Types.BINARY, new JdbcTypeInformation("BINARY", //$NON-NLS-1$
-                new FullyQualifiedJavaType("byte[]"))); //$NON-NLS-1$
+                FullyQualifiedJavaType.of("byte[]"))); //$NON-NLS-1$
         typeMap.put(Types.BIT, new JdbcTypeInformation("BIT", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Boolean.class.getName())));
+                FullyQualifiedJavaType.of(Boolean.class.getName())));
         typeMap.put(Types.BLOB, new JdbcTypeInformation("BLOB", //$NON-NLS-1$
-                new FullyQualifiedJavaType("byte[]"))); //$NON-NLS-1$
+                FullyQualifiedJavaType.of("byte[]"))); //$NON-NLS-1$
         typeMap.put(Types.BOOLEAN, new JdbcTypeInformation("BOOLEAN", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Boolean.class.getName())));
+                FullyQualifiedJavaType.of(Boolean.class.getName())));
         typeMap.put(Types.CHAR, new JdbcTypeInformation("CHAR", //$NON-NLS-1$
-                new FullyQualifiedJavaType(String.class.getName())));
+                FullyQualifiedJavaType.of(String.class.getName())));
         typeMap.put(Types.CLOB, new JdbcTypeInformation("CLOB", //$NON-NLS-1$
-                new FullyQualifiedJavaType(String.class.getName())));
+                FullyQualifiedJavaType.of(String.class.getName())));
         typeMap.put(Types.DATALINK, new JdbcTypeInformation("DATALINK", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Object.class.getName())));
+                FullyQualifiedJavaType.of(Object.class.getName())));
         typeMap.put(Types.DATE, new JdbcTypeInformation("DATE", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Date.class.getName())));
+                FullyQualifiedJavaType.of(Date.class.getName())));
         typeMap.put(Types.DECIMAL, new JdbcTypeInformation("DECIMAL", //$NON-NLS-1$
-                new FullyQualifiedJavaType(BigDecimal.class.getName())));
+                FullyQualifiedJavaType.of(BigDecimal.class.getName())));
         typeMap.put(Types.DISTINCT, new JdbcTypeInformation("DISTINCT", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Object.class.getName())));
+                FullyQualifiedJavaType.of(Object.class.getName())));
         typeMap.put(Types.DOUBLE, new JdbcTypeInformation("DOUBLE", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Double.class.getName())));
+                FullyQualifiedJavaType.of(Double.class.getName())));
         typeMap.put(Types.FLOAT, new JdbcTypeInformation("FLOAT", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Double.class.getName())));
+                FullyQualifiedJavaType.of(Double.class.getName())));
         typeMap.put(Types.INTEGER, new JdbcTypeInformation("INTEGER", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Integer.class.getName())));
+                FullyQualifiedJavaType.of(Integer.class.getName())));
         typeMap.put(Types.JAVA_OBJECT, new JdbcTypeInformation("JAVA_OBJECT", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Object.class.getName())));
+                FullyQualifiedJavaType.of(Object.class.getName())));
         typeMap.put(Types.LONGNVARCHAR, new JdbcTypeInformation("LONGNVARCHAR", //$NON-NLS-1$
-                new FullyQualifiedJavaType(String.class.getName())));
+                FullyQualifiedJavaType.of(String.class.getName())));
         typeMap.put(Types.LONGVARBINARY, new JdbcTypeInformation(
                 "LONGVARBINARY", //$NON-NLS-1$
-                new FullyQualifiedJavaType("byte[]"))); //$NON-NLS-1$
+                FullyQualifiedJavaType.of("byte[]"))); //$NON-NLS-1$
         typeMap.put(Types.LONGVARCHAR, new JdbcTypeInformation("LONGVARCHAR", //$NON-NLS-1$
-                new FullyQualifiedJavaType(String.class.getName())));
+                FullyQualifiedJavaType.of(String.class.getName())));
         typeMap.put(Types.NCHAR, new JdbcTypeInformation("NCHAR", //$NON-NLS-1$
-                new FullyQualifiedJavaType(String.class.getName())));
+                FullyQualifiedJavaType.of(String.class.getName())));
         typeMap.put(Types.NCLOB, new JdbcTypeInformation("NCLOB", //$NON-NLS-1$
-                new FullyQualifiedJavaType(String.class.getName())));
+                FullyQualifiedJavaType.of(String.class.getName())));
         typeMap.put(Types.NVARCHAR, new JdbcTypeInformation("NVARCHAR", //$NON-NLS-1$
-                new FullyQualifiedJavaType(String.class.getName())));
+                FullyQualifiedJavaType.of(String.class.getName())));
         typeMap.put(Types.NULL, new JdbcTypeInformation("NULL", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Object.class.getName())));
+                FullyQualifiedJavaType.of(Object.class.getName())));
         typeMap.put(Types.NUMERIC, new JdbcTypeInformation("NUMERIC", //$NON-NLS-1$
-                new FullyQualifiedJavaType(BigDecimal.class.getName())));
+                FullyQualifiedJavaType.of(BigDecimal.class.getName())));
         typeMap.put(Types.OTHER, new JdbcTypeInformation("OTHER", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Object.class.getName())));
+                FullyQualifiedJavaType.of(Object.class.getName())));
         typeMap.put(Types.REAL, new JdbcTypeInformation("REAL", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Float.class.getName())));
+                FullyQualifiedJavaType.of(Float.class.getName())));
         typeMap.put(Types.REF, new JdbcTypeInformation("REF", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Object.class.getName())));
+                FullyQualifiedJavaType.of(Object.class.getName())));
         typeMap.put(Types.SMALLINT, new JdbcTypeInformation("SMALLINT", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Short.class.getName())));
+                FullyQualifiedJavaType.of(Short.class.getName())));
         typeMap.put(Types.STRUCT, new JdbcTypeInformation("STRUCT", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Object.class.getName())));
+                FullyQualifiedJavaType.of(Object.class.getName())));
         typeMap.put(Types.TIME, new JdbcTypeInformation("TIME", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Date.class.getName())));
+                FullyQualifiedJavaType.of(Date.class.getName())));
         typeMap.put(Types.TIMESTAMP, new JdbcTypeInformation("TIMESTAMP", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Date.class.getName())));
+                FullyQualifiedJavaType.of(Date.class.getName())));
         typeMap.put(Types.TINYINT, new JdbcTypeInformation("TINYINT", //$NON-NLS-1$
-                new FullyQualifiedJavaType(Byte.class.getName())));
+                FullyQualifiedJavaType.of(Byte.class.getName())));
         typeMap.put(Types.VARBINARY, new JdbcTypeInformation("VARBINARY", //$NON-NLS-1$
-                new FullyQualifiedJavaType("byte[]"))); //$NON-NLS-1$
+                FullyQualifiedJavaType.of("byte[]"))); //$NON-NLS-1$
         typeMap.put(Types.VARCHAR, new JdbcTypeInformation("VARCHAR", //$NON-NLS-1$
-                new FullyQualifiedJavaType(String.class.getName())));
+                FullyQualifiedJavaType.of(String.class.getName())));
     }
 
     public void addConfigurationProperties(Properties properties) {
@@ -163,7 +163,7 @@ public class JavaTypeResolverDefaultImpl implements JavaTypeResolver {
         FullyQualifiedJavaType answer;
         
         if (column.getLength() > 1) {
-            answer = new FullyQualifiedJavaType("byte[]"); //$NON-NLS-1$
+            answer = FullyQualifiedJavaType.of("byte[]"); //$NON-NLS-1$
         } else {
             answer = defaultType;
         }
@@ -177,11 +177,11 @@ public class JavaTypeResolverDefaultImpl implements JavaTypeResolver {
         if (column.getScale() > 0 || column.getLength() > 18 || forceBigDecimals) {
             answer = defaultType;
         } else if (column.getLength() > 9) {
-            answer = new FullyQualifiedJavaType(Long.class.getName());
+            answer = FullyQualifiedJavaType.of(Long.class.getName());
         } else if (column.getLength() > 4) {
-            answer = new FullyQualifiedJavaType(Integer.class.getName());
+            answer = FullyQualifiedJavaType.of(Integer.class.getName());
         } else {
-            answer = new FullyQualifiedJavaType(Short.class.getName());
+            answer = FullyQualifiedJavaType.of(Short.class.getName());
         }
         
         return answer;
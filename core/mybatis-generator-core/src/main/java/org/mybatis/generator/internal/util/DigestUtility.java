@@ -0,0 +1,92 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.util;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the SHA-1 digests used to detect changed content, such as
+ * generated files, table fingerprints and configuration snapshots.
+ */
+public class DigestUtility {
+
+    /**
+     * Utility class. No instances allowed
+     */
+    private DigestUtility() {
+        super();
+    }
+
+    /**
+     * Returns a new SHA-1 message digest.
+     * 
+     * @return the message digest
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the SHA-1 digest of some bytes as a hexadecimal string.
+     * 
+     * @param bytes
+     *            the bytes
+     * @return the digest
+     */
+    public static String digest(byte[] bytes) {
+        return toHex(newDigest().digest(bytes));
+    }
+
+    /**
+     * Returns the SHA-1 digest of the UTF-8 encoding of a string as a
+     * hexadecimal string.
+     * 
+     * @param value
+     *            the string
+     * @return the digest
+     */
+    public static String digest(String value) {
+        try {
+            return digest(value.getBytes("UTF-8")); //$NON-NLS-1$
+        } catch (UnsupportedEncodingException e) {
+            // every Java platform supports UTF-8
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns some bytes as a lower case hexadecimal string.
+     * 
+     * @param bytes
+     *            the bytes
+     * @return the hexadecimal string
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
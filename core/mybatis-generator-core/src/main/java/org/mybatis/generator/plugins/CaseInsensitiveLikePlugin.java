@@ -18,6 +18,7 @@ package org.mybatis.generator.plugins;
 import java.util.List;
 
 import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
 import org.mybatis.generator.api.IntrospectedColumn;
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
@@ -39,7 +40,8 @@ import org.mybatis.generator.codegen.ibatis2.Ibatis2FormattingUtilities;
  * @author Jeff Butler
  * 
  */
-public class CaseInsensitiveLikePlugin extends PluginAdapter {
+public class CaseInsensitiveLikePlugin extends PluginAdapter implements
+        ThreadSafePlugin {
 
     /**
      * 
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Properties;
 
 import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
 import org.mybatis.generator.api.IntrospectedColumn;
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.dom.OutputUtilities;
@@ -48,7 +49,8 @@ import org.mybatis.generator.api.dom.java.TopLevelClass;
  * @author Jeff Butler
  * 
  */
-public class EqualsHashCodePlugin extends PluginAdapter {
+public class EqualsHashCodePlugin extends PluginAdapter implements
+        ThreadSafePlugin {
 
     private boolean useEqualsHashCodeFromRoot;
 
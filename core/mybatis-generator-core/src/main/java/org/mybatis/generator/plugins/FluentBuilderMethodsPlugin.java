@@ -18,6 +18,7 @@ package org.mybatis.generator.plugins;
 import org.mybatis.generator.api.IntrospectedColumn;
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
 import org.mybatis.generator.api.dom.java.JavaVisibility;
 import org.mybatis.generator.api.dom.java.Method;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
@@ -37,7 +38,8 @@ import java.util.List;
  *
  * @author Stefan Lack
  */
-public class FluentBuilderMethodsPlugin extends  PluginAdapter {
+public class FluentBuilderMethodsPlugin extends  PluginAdapter implements
+        ThreadSafePlugin {
 
     public boolean validate(List<String> warnings) {
         return true;
@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Properties;
 
 import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.dom.java.Field;
 import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
@@ -38,7 +39,8 @@ import org.mybatis.generator.api.dom.java.TopLevelClass;
  * @author Jeff Butler
  * 
  */
-public class SerializablePlugin extends PluginAdapter {
+public class SerializablePlugin extends PluginAdapter implements
+        ThreadSafePlugin {
 
     private FullyQualifiedJavaType serializable;
     private FullyQualifiedJavaType gwtSerializable;
@@ -47,8 +49,8 @@ public class SerializablePlugin extends PluginAdapter {
 
     public SerializablePlugin() {
         super();
-        serializable = new FullyQualifiedJavaType("java.io.Serializable"); //$NON-NLS-1$
-        gwtSerializable = new FullyQualifiedJavaType("com.google.gwt.user.client.rpc.IsSerializable"); //$NON-NLS-1$
+        serializable = FullyQualifiedJavaType.of("java.io.Serializable"); //$NON-NLS-1$
+        gwtSerializable = FullyQualifiedJavaType.of("com.google.gwt.user.client.rpc.IsSerializable"); //$NON-NLS-1$
     }
 
     public boolean validate(List<String> warnings) {
@@ -100,7 +102,7 @@ public class SerializablePlugin extends PluginAdapter {
             field.setInitializationString("1L"); //$NON-NLS-1$
             field.setName("serialVersionUID"); //$NON-NLS-1$
             field.setStatic(true);
-            field.setType(new FullyQualifiedJavaType("long")); //$NON-NLS-1$
+            field.setType(FullyQualifiedJavaType.of("long")); //$NON-NLS-1$
             field.setVisibility(JavaVisibility.PRIVATE);
             context.getCommentGenerator().addFieldComment(field, introspectedTable);
 
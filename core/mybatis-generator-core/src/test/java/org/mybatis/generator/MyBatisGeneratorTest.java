@@ -16,20 +16,45 @@
 package org.mybatis.generator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.Test;
+import org.mybatis.generator.api.GeneratedFileCallback;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
 import org.mybatis.generator.api.MyBatisGenerator;
+import org.mybatis.generator.api.dom.DefaultJavaFormatter;
+import org.mybatis.generator.config.CommentGeneratorConfiguration;
 import org.mybatis.generator.config.Configuration;
 import org.mybatis.generator.config.ConnectionFactoryConfiguration;
 import org.mybatis.generator.config.Context;
 import org.mybatis.generator.config.JDBCConnectionConfiguration;
 import org.mybatis.generator.config.ModelType;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.config.TableConfiguration;
 import org.mybatis.generator.config.xml.ConfigurationParser;
 import org.mybatis.generator.exception.InvalidConfigurationException;
+import org.mybatis.generator.exception.ShellException;
 import org.mybatis.generator.internal.DefaultShellCallback;
+import org.mybatis.generator.internal.NullProgressCallback;
 
 public class MyBatisGeneratorTest {
 
@@ -106,4 +131,494 @@ public class MyBatisGeneratorTest {
             throw e;
         }
     }
+
+    @Test
+    public void testConcurrentIntrospectionMatchesSerialIntrospection() throws Exception {
+        List<String> serialWarnings = new ArrayList<String>();
+        List<String> serialFiles = generateAll(1, 1, serialWarnings);
+
+        List<String> concurrentWarnings = new ArrayList<String>();
+        List<String> concurrentFiles = generateAll(4, 1, concurrentWarnings);
+
+        assertEquals(serialWarnings, concurrentWarnings);
+        assertEquals(serialFiles, concurrentFiles);
+    }
+
+    @Test
+    public void testConcurrentGenerationMatchesSerialGeneration() throws Exception {
+        List<String> serialWarnings = new ArrayList<String>();
+        List<String> serialFiles = generateAll(1, 1, serialWarnings);
+
+        List<String> concurrentWarnings = new ArrayList<String>();
+        List<String> concurrentFiles = generateAll(1, 4, concurrentWarnings);
+
+        assertEquals(serialWarnings, concurrentWarnings);
+        assertEquals(serialFiles, concurrentFiles);
+    }
+
+    @Test
+    public void testUnmarkedFormatterFallsBackToSerialGeneration() throws Exception {
+        List<String> serialWarnings = new ArrayList<String>();
+        List<String> serialFiles = generateAll(1, 1, serialWarnings);
+
+        List<String> warnings = new ArrayList<String>();
+        Configuration config = parseConfigurationWithoutDates(warnings);
+        for (Context context : config.getContexts()) {
+            context.addProperty(PropertyRegistry.CONTEXT_JAVA_FORMATTER, UnmarkedJavaFormatter.class.getName());
+        }
+        List<String> files = generateAll(config, 1, 4, warnings);
+
+        List<String> fallbackWarnings = new ArrayList<String>();
+        for (Iterator<String> iter = warnings.iterator(); iter.hasNext(); ) {
+            String warning = iter.next();
+            if (warning.startsWith(UnmarkedJavaFormatter.class.getName())) {
+                assertTrue(warning, warning.contains("does not implement ThreadSafeJavaFormatter"));
+                fallbackWarnings.add(warning);
+                iter.remove();
+            }
+        }
+        assertFalse(fallbackWarnings.isEmpty());
+        assertEquals(serialWarnings, warnings);
+        assertEquals(serialFiles, files);
+    }
+
+    @Test
+    public void testConcurrentContextsMatchSerialContexts() throws Exception {
+        List<List<String>> serialResults = generateWithContextThreads(1);
+        List<List<String>> concurrentResults = generateWithContextThreads(4);
+        assertEquals(serialResults.get(0), concurrentResults.get(0));
+        assertEquals(serialResults.get(1), concurrentResults.get(1));
+
+        // the contexts that share target packages are reported before the run starts
+        List<String> concurrentTasks = concurrentResults.get(2);
+        assertTrue(concurrentTasks.toString(), concurrentTasks.remove(
+                "Contexts miscellaneousTests, miscellaneousTests_NoClient generate into the same target directories, running them one after another"));
+        assertEquals(serialResults.get(2), concurrentTasks);
+    }
+
+    @Test
+    public void testStreamingGenerationMatchesCollectedGeneration() throws Exception {
+        List<String> collectedWarnings = new ArrayList<String>();
+        List<String> collectedFiles = generateAll(1, 1, collectedWarnings);
+
+        for (int generationThreads : new int[] { 1, 4 }) {
+            List<String> warnings = new ArrayList<String>();
+            Configuration config = parseConfigurationWithoutDates(warnings);
+            MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, new DefaultShellCallback(true), warnings);
+            myBatisGenerator.setGenerationThreads(generationThreads);
+            myBatisGenerator.setStreaming(true);
+
+            final List<String> javaFiles = new ArrayList<String>();
+            final List<String> xmlFiles = new ArrayList<String>();
+            myBatisGenerator.setGeneratedFileCallback(new GeneratedFileCallback() {
+                public void filesGenerated(List<GeneratedJavaFile> generatedJavaFiles,
+                        List<GeneratedXmlFile> generatedXmlFiles) {
+                    for (GeneratedJavaFile gjf : generatedJavaFiles) {
+                        javaFiles.add(gjf.getTargetPackage() + '.' + gjf.getFileName() + '\n' + gjf.getFormattedContent());
+                    }
+                    for (GeneratedXmlFile gxf : generatedXmlFiles) {
+                        xmlFiles.add(gxf.getTargetPackage() + '.' + gxf.getFileName() + '\n' + gxf.getFormattedContent());
+                    }
+                }
+            });
+            myBatisGenerator.generate(null, null, null, false);
+
+            assertTrue(myBatisGenerator.getGeneratedJavaFiles().isEmpty());
+            assertTrue(myBatisGenerator.getGeneratedXmlFiles().isEmpty());
+            List<String> streamedFiles = new ArrayList<String>(javaFiles);
+            streamedFiles.addAll(xmlFiles);
+            assertEquals(collectedWarnings, warnings);
+            assertEquals(collectedFiles, streamedFiles);
+        }
+    }
+
+    @Test
+    public void testConcurrentWritesProduceGeneratedContentAndSkipUnchangedFiles() throws Exception {
+        final File targetDirectory = File.createTempFile("mbg", "");
+        assertTrue(targetDirectory.delete());
+        assertTrue(targetDirectory.mkdir());
+
+        try {
+            JavaCodeGenerationTest.createDatabase();
+            List<String> warnings = new ArrayList<String>();
+            Configuration config = parseConfigurationWithoutDates(warnings);
+
+            DefaultShellCallback shellCallback = new DefaultShellCallback(true) {
+                @Override
+                public File getDirectory(String targetProject, String targetPackage) throws ShellException {
+                    return super.getDirectory(targetDirectory.getAbsolutePath(), targetPackage);
+                }
+            };
+
+            MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, shellCallback, warnings);
+            myBatisGenerator.setWriteThreads(4);
+            myBatisGenerator.generate(null, null, null, true);
+
+            for (GeneratedJavaFile gjf : myBatisGenerator.getGeneratedJavaFiles()) {
+                File file = new File(shellCallback.getDirectory(null, gjf.getTargetPackage()), gjf.getFileName());
+                assertEquals(gjf.getFormattedContent(), readFile(file, gjf.getFileEncoding()));
+            }
+            for (GeneratedXmlFile gxf : myBatisGenerator.getGeneratedXmlFiles()) {
+                File file = new File(shellCallback.getDirectory(null, gxf.getTargetPackage()), gxf.getFileName());
+                assertEquals(gxf.getFormattedContent(), readFile(file, "UTF-8"));
+            }
+            int javaFileCount = myBatisGenerator.getGeneratedJavaFiles().size();
+            assertEquals(javaFileCount + myBatisGenerator.getGeneratedXmlFiles().size(),
+                    myBatisGenerator.getWrittenFileCount());
+
+            // a second run leaves the unchanged Java files alone
+            GeneratedJavaFile gjf = myBatisGenerator.getGeneratedJavaFiles().get(0);
+            File file = new File(shellCallback.getDirectory(null, gjf.getTargetPackage()), gjf.getFileName());
+            assertTrue(file.setLastModified(10000L));
+            myBatisGenerator.generate(null, null, null, true);
+            assertEquals(0, myBatisGenerator.getWrittenFileCount());
+            assertTrue(myBatisGenerator.getUnchangedFileCount() >= javaFileCount);
+            assertEquals(10000L, file.lastModified());
+        } finally {
+            deleteRecursively(targetDirectory);
+        }
+    }
+
+    @Test
+    public void testGenerationManifestSkipsUnchangedTablesAndDeletesOrphanedFiles() throws Exception {
+        final File targetDirectory = File.createTempFile("mbg", "");
+        assertTrue(targetDirectory.delete());
+        assertTrue(targetDirectory.mkdir());
+
+        try {
+            JavaCodeGenerationTest.createDatabase();
+            List<String> warnings = new ArrayList<String>();
+            Configuration config = parseConfigurationWithoutDates(warnings);
+            Context context = config.getContext("FlatJava5");
+            context.addProperty("generationManifest", new File(targetDirectory, "manifest.txt").getAbsolutePath());
+            context.addProperty("deleteOrphanedFiles", "true");
+            Set<String> contextIds = Collections.singleton("FlatJava5");
+
+            DefaultShellCallback shellCallback = new DefaultShellCallback(true) {
+                @Override
+                public File getDirectory(String targetProject, String targetPackage) throws ShellException {
+                    return super.getDirectory(targetDirectory.getAbsolutePath(), targetPackage);
+                }
+            };
+
+            MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, shellCallback, warnings);
+            myBatisGenerator.generate(null, contextIds, null, true);
+            int fileCount = myBatisGenerator.getGeneratedJavaFiles().size()
+                    + myBatisGenerator.getGeneratedXmlFiles().size();
+            assertTrue(fileCount > 0);
+            assertEquals(fileCount, myBatisGenerator.getWrittenFileCount());
+
+            // nothing changed, so no table is generated
+            File reportFile = new File(targetDirectory, "report.json");
+            myBatisGenerator.setReportFile(reportFile);
+            myBatisGenerator.generate(null, contextIds, null, true);
+            assertEquals(0, myBatisGenerator.getGeneratedJavaFiles().size());
+            assertEquals(0, myBatisGenerator.getGeneratedXmlFiles().size());
+            String report = readFile(reportFile, "UTF-8");
+            assertTrue(report, report.contains("\"id\": \"FlatJava5\""));
+            assertTrue(report, report.contains("\"name\": \"EnumTest\""));
+            assertFalse(report, report.contains("\"metadataRoundTrips\": 0,"));
+            myBatisGenerator.setReportFile(null);
+
+            // streaming records the written files in the manifest in the same way
+            myBatisGenerator.setStreaming(true);
+            context.addProperty("generationManifest", new File(targetDirectory, "streaming.txt").getAbsolutePath());
+            myBatisGenerator.generate(null, contextIds, null, true);
+            assertEquals(fileCount, myBatisGenerator.getUnchangedFileCount());
+            myBatisGenerator.generate(null, contextIds, null, true);
+            assertEquals(0, myBatisGenerator.getUnchangedFileCount());
+            myBatisGenerator.setStreaming(false);
+            context.addProperty("generationManifest", new File(targetDirectory, "manifest.txt").getAbsolutePath());
+
+            // a rebuilt class path entry regenerates the context
+            File classesDirectory = new File(targetDirectory, "classes");
+            assertTrue(classesDirectory.mkdir());
+            File classFile = new File(classesDirectory, "MyPlugin.class");
+            writeFile(classFile, "version 1");
+            config.addClasspathEntry(classesDirectory.getAbsolutePath());
+            myBatisGenerator.generate(null, contextIds, null, true);
+            assertEquals(fileCount, myBatisGenerator.getUnchangedFileCount());
+            myBatisGenerator.generate(null, contextIds, null, true);
+            assertEquals(0, myBatisGenerator.getUnchangedFileCount());
+            writeFile(classFile, "version 22");
+            myBatisGenerator.generate(null, contextIds, null, true);
+            assertEquals(fileCount, myBatisGenerator.getUnchangedFileCount());
+            config.getClassPathEntries().clear();
+
+            // removing a table regenerates the context and deletes the files of the table
+            File enumTestFile = new File(shellCallback.getDirectory(null, "mbg.test.mb3.generated.flat.model"),
+                    "Enumtest.java");
+            assertTrue(enumTestFile.exists());
+            Iterator<TableConfiguration> iter = context.getTableConfigurations().iterator();
+            while (iter.hasNext()) {
+                if ("EnumTest".equals(iter.next().getTableName())) {
+                    iter.remove();
+                }
+            }
+            myBatisGenerator.generate(null, contextIds, null, true);
+            assertFalse(enumTestFile.exists());
+            assertTrue(myBatisGenerator.getGeneratedJavaFiles().size()
+                    + myBatisGenerator.getGeneratedXmlFiles().size() < fileCount);
+        } finally {
+            deleteRecursively(targetDirectory);
+        }
+    }
+
+    @Test
+    public void testBulkIntrospectionMatchesPerTableIntrospection() throws Exception {
+        List<String> perTableWarnings = new ArrayList<String>();
+        List<String> perTableFiles = generateAll(1, 1, perTableWarnings);
+
+        for (int introspectionThreads : new int[] { 1, 4 }) {
+            JavaCodeGenerationTest.createDatabase();
+            List<String> bulkWarnings = new ArrayList<String>();
+            Configuration config = parseConfigurationWithoutDates(bulkWarnings);
+            for (Context context : config.getContexts()) {
+                context.addProperty("bulkIntrospection", "true");
+            }
+            assertEquals(perTableFiles, generateAll(config, introspectionThreads, bulkWarnings));
+            assertEquals(perTableWarnings, bulkWarnings);
+        }
+    }
+
+    @Test
+    public void testMetadataCacheAllowsGenerationWithoutDatabase() throws Exception {
+        File cacheFile = File.createTempFile("mbg", ".cache");
+        assertTrue(cacheFile.delete());
+
+        try {
+            List<String> uncachedWarnings = new ArrayList<String>();
+            List<String> uncachedFiles = generateAll(1, 1, uncachedWarnings);
+
+            // the first run reads the database and fills the cache
+            JavaCodeGenerationTest.createDatabase();
+            List<String> coldWarnings = new ArrayList<String>();
+            Configuration config = parseConfigurationWithoutDates(coldWarnings);
+            for (Context context : config.getContexts()) {
+                context.addProperty("metadataCache", cacheFile.getPath());
+            }
+            assertEquals(uncachedFiles, generateAll(config, 4, coldWarnings));
+            assertEquals(uncachedWarnings, coldWarnings);
+            assertTrue(cacheFile.exists());
+
+            // the second run must not see the tables in the database
+            dropDatabase();
+            List<String> warmWarnings = new ArrayList<String>();
+            config = parseConfigurationWithoutDates(warmWarnings);
+            for (Context context : config.getContexts()) {
+                context.addProperty("metadataCache", cacheFile.getPath());
+            }
+            assertEquals(uncachedFiles, generateAll(config, 1, warmWarnings));
+            assertEquals(uncachedWarnings, warmWarnings);
+        } finally {
+            cacheFile.delete();
+        }
+    }
+
+    @Test
+    public void testSharedIntrospectionMatchesSeparateIntrospection() throws Exception {
+        File reportFile = File.createTempFile("mbg", ".json");
+
+        try {
+            // a property unique to each context keeps the contexts from sharing
+            JavaCodeGenerationTest.createDatabase();
+            List<String> separateWarnings = new ArrayList<String>();
+            Configuration config = parseConfigurationWithoutDates(separateWarnings);
+            for (Context context : config.getContexts()) {
+                if (context.getJdbcConnectionConfiguration() != null) {
+                    context.getJdbcConnectionConfiguration().addProperty("mbgContext", context.getId());
+                } else {
+                    context.getConnectionFactoryConfiguration().addProperty("mbgContext", context.getId());
+                }
+            }
+            List<String> separateFiles = generateAll(config, 4, separateWarnings, reportFile);
+            int separateRoundTrips = getMetadataRoundTrips(readFile(reportFile, "UTF-8"));
+
+            JavaCodeGenerationTest.createDatabase();
+            List<String> sharedWarnings = new ArrayList<String>();
+            config = parseConfigurationWithoutDates(sharedWarnings);
+            assertEquals(separateFiles, generateAll(config, 4, sharedWarnings, reportFile));
+            assertEquals(separateWarnings, sharedWarnings);
+            int sharedRoundTrips = getMetadataRoundTrips(readFile(reportFile, "UTF-8"));
+            assertTrue(sharedRoundTrips + " < " + separateRoundTrips, sharedRoundTrips < separateRoundTrips);
+        } finally {
+            reportFile.delete();
+        }
+    }
+
+    @Test
+    public void testConcurrentWildcardTablesMatchSerialWildcardTables() throws Exception {
+        List<String> serialWarnings = new ArrayList<String>();
+        List<String> serialFiles = generateWildcardTables(1, null, serialWarnings);
+
+        List<String> concurrentWarnings = new ArrayList<String>();
+        List<String> concurrentFiles = generateWildcardTables(4, null, concurrentWarnings);
+
+        assertEquals(serialWarnings, concurrentWarnings);
+        assertEquals(serialFiles, concurrentFiles);
+        assertTrue(containsFile(serialFiles, "Pkblobs"));
+
+        List<String> filteredWarnings = new ArrayList<String>();
+        List<String> filteredFiles = generateWildcardTables(4, "PKBLOBS", filteredWarnings);
+        assertFalse(containsFile(filteredFiles, "Pkblobs"));
+        assertTrue(containsFile(filteredFiles, "Pkfieldsblobs"));
+        assertTrue(filteredFiles.size() < serialFiles.size());
+    }
+
+    private List<String> generateWildcardTables(int introspectionThreads, String excludeTablePattern,
+            List<String> warnings) throws Exception {
+        JavaCodeGenerationTest.createDatabase();
+        Configuration config = parseConfigurationWithoutDates(warnings);
+        Context context = config.getContext("FlatJava5");
+        context.getTableConfigurations().clear();
+        TableConfiguration tc = new TableConfiguration(context);
+        tc.setTableName("PK%");
+        if (excludeTablePattern != null) {
+            tc.addProperty("excludeTablePattern", excludeTablePattern);
+        }
+        context.addTableConfiguration(tc);
+
+        MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, new DefaultShellCallback(true), warnings);
+        myBatisGenerator.setIntrospectionThreads(introspectionThreads);
+        myBatisGenerator.generate(null, Collections.singleton("FlatJava5"), null, false);
+        return getGeneratedFiles(myBatisGenerator);
+    }
+
+    private boolean containsFile(List<String> files, String domainObjectName) {
+        for (String file : files) {
+            if (file.contains('.' + domainObjectName + ".java\n")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int getMetadataRoundTrips(String report) {
+        Matcher matcher = Pattern.compile("\"metadataRoundTrips\": (\\d+)").matcher(report);
+        assertTrue(report, matcher.find());
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private void dropDatabase() throws Exception {
+        Class.forName("org.hsqldb.jdbcDriver");
+        Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:aname", "sa", "");
+        try {
+            Statement statement = connection.createStatement();
+            statement.execute("drop schema mbgtest if exists cascade");
+            statement.execute("drop schema public cascade");
+            statement.close();
+        } finally {
+            connection.close();
+        }
+    }
+
+    private Configuration parseConfigurationWithoutDates(List<String> warnings) throws Exception {
+        ConfigurationParser cp = new ConfigurationParser(warnings);
+        Configuration config = cp.parseConfiguration(this.getClass().getResourceAsStream("/scripts/generatorConfig.xml"));
+        for (Context context : config.getContexts()) {
+            // dates in comments would make the runs differ
+            if (context.getCommentGeneratorConfiguration() == null) {
+                context.setCommentGeneratorConfiguration(new CommentGeneratorConfiguration());
+            }
+            context.getCommentGeneratorConfiguration().addProperty("suppressDate", "true");
+        }
+        return config;
+    }
+
+    private void writeFile(File file, String content) throws IOException {
+        OutputStream os = new FileOutputStream(file);
+        try {
+            os.write(content.getBytes("UTF-8"));
+        } finally {
+            os.close();
+        }
+    }
+
+    private String readFile(File file, String encoding) throws IOException {
+        InputStreamReader reader = encoding == null ? new InputStreamReader(new FileInputStream(file))
+                : new InputStreamReader(new FileInputStream(file), encoding);
+        StringBuilder sb = new StringBuilder();
+        char[] buffer = new char[4096];
+        int count;
+        while ((count = reader.read(buffer)) != -1) {
+            sb.append(buffer, 0, count);
+        }
+        reader.close();
+        return sb.toString();
+    }
+
+    private void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Returns the generated files, the warnings and the progress messages of a run.
+     */
+    private List<List<String>> generateWithContextThreads(int contextThreads) throws Exception {
+        JavaCodeGenerationTest.createDatabase();
+        List<String> warnings = new ArrayList<String>();
+        Configuration config = parseConfigurationWithoutDates(warnings);
+        MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, new DefaultShellCallback(true), warnings);
+        myBatisGenerator.setContextThreads(contextThreads);
+        final List<String> tasks = new ArrayList<String>();
+        myBatisGenerator.generate(new NullProgressCallback() {
+            @Override
+            public void startTask(String taskName) {
+                tasks.add(taskName);
+            }
+        }, null, null, false);
+
+        List<List<String>> results = new ArrayList<List<String>>();
+        results.add(getGeneratedFiles(myBatisGenerator));
+        results.add(warnings);
+        results.add(tasks);
+        return results;
+    }
+
+    private List<String> generateAll(int introspectionThreads, int generationThreads, List<String> warnings) throws Exception {
+        JavaCodeGenerationTest.createDatabase();
+        Configuration config = parseConfigurationWithoutDates(warnings);
+        return generateAll(config, introspectionThreads, generationThreads, warnings);
+    }
+
+    private List<String> generateAll(Configuration config, int introspectionThreads, List<String> warnings) throws Exception {
+        return generateAll(config, introspectionThreads, 1, warnings);
+    }
+
+    private List<String> generateAll(Configuration config, int introspectionThreads, List<String> warnings,
+            File reportFile) throws Exception {
+        MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, new DefaultShellCallback(true), warnings);
+        myBatisGenerator.setIntrospectionThreads(introspectionThreads);
+        myBatisGenerator.setReportFile(reportFile);
+        myBatisGenerator.generate(null, null, null, false);
+        return getGeneratedFiles(myBatisGenerator);
+    }
+
+    private List<String> generateAll(Configuration config, int introspectionThreads, int generationThreads, List<String> warnings) throws Exception {
+        MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, new DefaultShellCallback(true), warnings);
+        myBatisGenerator.setIntrospectionThreads(introspectionThreads);
+        myBatisGenerator.setGenerationThreads(generationThreads);
+        myBatisGenerator.generate(null, null, null, false);
+        return getGeneratedFiles(myBatisGenerator);
+    }
+
+    public static class UnmarkedJavaFormatter extends DefaultJavaFormatter {
+    }
+
+    private List<String> getGeneratedFiles(MyBatisGenerator myBatisGenerator) {
+        List<String> files = new ArrayList<String>();
+        for (GeneratedJavaFile gjf : myBatisGenerator.getGeneratedJavaFiles()) {
+            files.add(gjf.getTargetPackage() + '.' + gjf.getFileName() + '\n' + gjf.getFormattedContent());
+        }
+        for (GeneratedXmlFile gxf : myBatisGenerator.getGeneratedXmlFiles()) {
+            files.add(gxf.getTargetPackage() + '.' + gxf.getFileName() + '\n' + gxf.getFormattedContent());
+        }
+        return files;
+    }
 }
@@ -17,6 +17,7 @@ package org.mybatis.generator.api.dom.java;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Set;
@@ -271,4 +272,26 @@ public class FullyQualifiedJavaTypeTest {
         assertFalse(fqjt.isPrimitive());
         assertTrue(fqjt.isArray());
     }
+
+    @Test
+    public void testSharedType() {
+        FullyQualifiedJavaType fqjt = FullyQualifiedJavaType.of("java.util.Map<java.lang.String, com.foo.Bar>"); //$NON-NLS-1$
+        assertSame(fqjt, FullyQualifiedJavaType.of("java.util.Map<java.lang.String, com.foo.Bar>")); //$NON-NLS-1$
+        assertEquals(new FullyQualifiedJavaType("java.util.Map<java.lang.String, com.foo.Bar>"), fqjt); //$NON-NLS-1$
+        assertEquals("Map<String, Bar>", fqjt.getShortName()); //$NON-NLS-1$
+        assertEquals(2, fqjt.getImportList().size());
+        assertSame(FullyQualifiedJavaType.of("com.foo.Bar"), fqjt.getTypeArguments().get(1)); //$NON-NLS-1$
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSharedTypeCannotBeChanged() {
+        FullyQualifiedJavaType fqjt = FullyQualifiedJavaType.of("java.util.List"); //$NON-NLS-1$
+        fqjt.addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSharedTypeArgumentCannotBeChanged() {
+        FullyQualifiedJavaType fqjt = FullyQualifiedJavaType.of("java.util.List<java.util.List>"); //$NON-NLS-1$
+        fqjt.getTypeArguments().get(0).addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+    }
 }
@@ -185,4 +185,62 @@ public class InnerClassTest {
 
         assertEquals(excepted, clazz.getFormattedContent(0, null));
     }
+
+    @Test
+    public void testRenderUsesFormattedContentOfSubclasses() throws Exception {
+        TopLevelClass clazz = new TopLevelClass("com.foo.UserClass");
+        clazz.addField(new Field("test", FullyQualifiedJavaType.getStringInstance()) {
+            @Override
+            public String getFormattedContent(int indentLevel, CompilationUnit compilationUnit) {
+                return "// custom field";
+            }
+        });
+        clazz.addMethod(new Method("method1") {
+            @Override
+            public String getFormattedContent(int indentLevel, boolean interfaceMethod,
+                    CompilationUnit compilationUnit) {
+                return "// custom method";
+            }
+        });
+        // a subclass that does not override getFormattedContent is written as before
+        Method method2 = new Method("method2") {
+        };
+        method2.addBodyLine("return;");
+        clazz.addMethod(method2);
+        clazz.addInnerClass(new InnerClass("InnerUserClass") {
+            @Override
+            public String getFormattedContent(int indentLevel, CompilationUnit compilationUnit) {
+                return "// custom class";
+            }
+        });
+
+        String expected = "package com.foo;" + LF
+                + "" + LF
+                + "class UserClass {" + LF
+                + "// custom field" + LF
+                + "" + LF
+                + "// custom method" + LF
+                + "" + LF
+                + "    void method2() {" + LF
+                + "        return;" + LF
+                + "    }" + LF
+                + "" + LF
+                + "// custom class" + LF
+                + "}";
+
+        StringBuilder sb = new StringBuilder();
+        clazz.render(sb);
+        assertEquals(expected, sb.toString());
+        assertEquals(expected, clazz.getFormattedContent());
+
+        TopLevelClass customClass = new TopLevelClass("com.foo.CustomClass") {
+            @Override
+            public String getFormattedContent() {
+                return "// custom compilation unit";
+            }
+        };
+        sb = new StringBuilder();
+        customClass.render(sb);
+        assertEquals("// custom compilation unit", sb.toString());
+    }
 }
@@ -25,8 +25,7 @@ public class JavaDomUtilsTest {
         Interface interfaze = new Interface(new FullyQualifiedJavaType("com.foo.UserMapper"));
         
         FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType("java.util.Map<java.math.BigDecimal, java.util.List<com.beeant.dto.User>>");
-        assertEquals("java.util.Map<java.math.BigDecimal, java.util.List<com.beeant.dto.User>>",
-                JavaDomUtils.calculateTypeName(interfaze, fqjt));
+        assertTypeName("java.util.Map<java.math.BigDecimal, java.util.List<com.beeant.dto.User>>", interfaze, fqjt);
     }
 
     @Test
@@ -36,8 +35,7 @@ public class JavaDomUtilsTest {
         interfaze.addImportedType(new FullyQualifiedJavaType("java.util.Map"));
         
         FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType("java.util.Map<java.math.BigDecimal, java.util.List<com.beeant.dto.User>>");
-        assertEquals("Map<java.math.BigDecimal, java.util.List<com.beeant.dto.User>>",
-                JavaDomUtils.calculateTypeName(interfaze, fqjt));
+        assertTypeName("Map<java.math.BigDecimal, java.util.List<com.beeant.dto.User>>", interfaze, fqjt);
     }
 
     @Test
@@ -49,8 +47,7 @@ public class JavaDomUtilsTest {
         interfaze.addImportedType(new FullyQualifiedJavaType("java.util.List"));
         
         FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType("java.util.Map<java.math.BigDecimal, java.util.List<com.beeant.dto.User>>");
-        assertEquals("java.util.Map<BigDecimal, List<User>>",
-                JavaDomUtils.calculateTypeName(interfaze, fqjt));
+        assertTypeName("java.util.Map<BigDecimal, List<User>>", interfaze, fqjt);
     }
 
     @Test
@@ -60,8 +57,7 @@ public class JavaDomUtilsTest {
         interfaze.addImportedType(new FullyQualifiedJavaType("com.beeant.dto.User"));
         
         FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType("java.util.Map<java.math.BigDecimal, java.util.List<com.beeant.dto.User>>");
-        assertEquals("java.util.Map<java.math.BigDecimal, java.util.List<User>>",
-                JavaDomUtils.calculateTypeName(interfaze, fqjt));
+        assertTypeName("java.util.Map<java.math.BigDecimal, java.util.List<User>>", interfaze, fqjt);
     }
 
     @Test
@@ -74,8 +70,7 @@ public class JavaDomUtilsTest {
         interfaze.addImportedType(new FullyQualifiedJavaType("java.math.BigDecimal"));
         
         FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType("java.util.Map<java.math.BigDecimal, java.util.List<com.beeant.dto.User>>");
-        assertEquals("Map<BigDecimal, List<User>>",
-                JavaDomUtils.calculateTypeName(interfaze, fqjt));
+        assertTypeName("Map<BigDecimal, List<User>>", interfaze, fqjt);
     }
 
     @Test
@@ -88,8 +83,7 @@ public class JavaDomUtilsTest {
         interfaze.addImportedType(new FullyQualifiedJavaType("java.math.BigDecimal"));
         
         FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType("java.util.Map<java.math.BigDecimal, java.util.List<? extends com.beeant.dto.User>>");
-        assertEquals("Map<BigDecimal, List<? extends User>>",
-                JavaDomUtils.calculateTypeName(interfaze, fqjt));
+        assertTypeName("Map<BigDecimal, List<? extends User>>", interfaze, fqjt);
     }
 
     @Test
@@ -101,8 +95,7 @@ public class JavaDomUtilsTest {
         interfaze.addImportedType(new FullyQualifiedJavaType("java.math.BigDecimal"));
         
         FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType("java.util.Map<java.math.BigDecimal, java.util.List<? super com.beeant.dto.User>>");
-        assertEquals("Map<BigDecimal, List<? super com.beeant.dto.User>>",
-                JavaDomUtils.calculateTypeName(interfaze, fqjt));
+        assertTypeName("Map<BigDecimal, List<? super com.beeant.dto.User>>", interfaze, fqjt);
     }
 
     @Test
@@ -114,7 +107,15 @@ public class JavaDomUtilsTest {
         interfaze.addImportedType(new FullyQualifiedJavaType("java.math.BigDecimal"));
         
         FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType("java.util.Map<java.math.BigDecimal, java.util.List<?>>");
-        assertEquals("Map<BigDecimal, List<?>>",
-                JavaDomUtils.calculateTypeName(interfaze, fqjt));
+        assertTypeName("Map<BigDecimal, List<?>>", interfaze, fqjt);
+    }
+
+    private void assertTypeName(String expected, CompilationUnit compilationUnit, FullyQualifiedJavaType fqjt) {
+        assertEquals(expected, JavaDomUtils.calculateTypeName(compilationUnit, fqjt));
+
+        // the resolver used when rendering must agree, also for a repeated lookup
+        TypeNameResolver typeNames = new TypeNameResolver(compilationUnit);
+        assertEquals(expected, typeNames.getTypeName(fqjt));
+        assertEquals(expected, typeNames.getTypeName(fqjt));
     }
 }
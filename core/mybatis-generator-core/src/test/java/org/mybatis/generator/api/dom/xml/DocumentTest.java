@@ -0,0 +1,118 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api.dom.xml;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class DocumentTest {
+
+    private static final String LS = System.getProperty("line.separator");
+
+    @Test
+    public void testRenderMatchesFormattedContent() throws Exception {
+        XmlElement select = new XmlElement("select");
+        select.addAttribute(new Attribute("resultMap", "BaseResultMap"));
+        select.addAttribute(new Attribute("id", "selectAll"));
+        select.addElement(new TextElement("select *"));
+        XmlElement where = new XmlElement("where");
+        where.addElement(new TextElement("id = #{id}"));
+        select.addElement(where);
+        select.addElement(new XmlElement("include"));
+
+        XmlElement mapper = new XmlElement("mapper");
+        mapper.addAttribute(new Attribute("namespace", "test.Mapper"));
+        mapper.addElement(select);
+
+        Document document = new Document("-//mybatis.org//DTD Mapper 3.0//EN",
+                "http://mybatis.org/dtd/mybatis-3-mapper.dtd");
+        document.setRootElement(mapper);
+
+        String expected = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + LS
+                + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">" + LS
+                + "<mapper namespace=\"test.Mapper\">" + LS
+                + "  <select id=\"selectAll\" resultMap=\"BaseResultMap\">" + LS
+                + "    select *" + LS
+                + "    <where>" + LS
+                + "      id = #{id}" + LS
+                + "    </where>" + LS
+                + "    <include />" + LS
+                + "  </select>" + LS
+                + "</mapper>";
+
+        StringWriter writer = new StringWriter();
+        document.render(writer);
+        assertEquals(expected, writer.toString());
+        assertEquals(expected, document.getFormattedContent());
+    }
+
+    @Test
+    public void testRenderUsesFormattedContentOfCustomElements() throws Exception {
+        XmlElement root = new XmlElement("root");
+        root.addElement(new Element() {
+            @Override
+            public String getFormattedContent(int indentLevel) {
+                return "<!-- level " + indentLevel + " -->";
+            }
+        });
+
+        StringBuilder sb = new StringBuilder();
+        root.render(sb, 0);
+        assertEquals("<root>" + LS + "<!-- level 1 -->" + LS + "</root>", sb.toString());
+    }
+
+    @Test
+    public void testRenderUsesFormattedContentOfSubclasses() throws Exception {
+        XmlElement root = new XmlElement("root");
+        root.addElement(new XmlElement("child") {
+            @Override
+            public String getFormattedContent(int indentLevel) {
+                return "<!-- custom -->";
+            }
+        });
+        root.addElement(new TextElement("text") {
+            @Override
+            public String getFormattedContent(int indentLevel) {
+                return "<!-- custom text -->";
+            }
+        });
+        // a subclass that does not override getFormattedContent is written as before
+        XmlElement plain = new XmlElement("plain") {
+        };
+        plain.addElement(new TextElement("content"));
+        root.addElement(plain);
+
+        Document document = new Document();
+        document.setRootElement(root);
+
+        String expected = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + LS
+                + "<root>" + LS
+                + "<!-- custom -->" + LS
+                + "<!-- custom text -->" + LS
+                + "  <plain>" + LS
+                + "    content" + LS
+                + "  </plain>" + LS
+                + "</root>";
+
+        StringBuilder sb = new StringBuilder();
+        document.render(sb);
+        assertEquals(expected, sb.toString());
+        assertEquals(expected, document.getFormattedContent());
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.config.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+import org.mybatis.generator.config.Configuration;
+import org.mybatis.generator.config.Context;
+
+public class ConfigurationCacheTest {
+
+    private static final String CONFIGURATION =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<!DOCTYPE generatorConfiguration PUBLIC"
+            + " \"-//mybatis.org//DTD MyBatis Generator Configuration 1.0//EN\""
+            + " \"http://mybatis.org/dtd/mybatis-generator-config_1_0.dtd\">"
+            + "<generatorConfiguration>"
+            + "<properties url=\"%1$s\"/>"
+            + "<context id=\"ctx\">"
+            + "<jdbcConnection driverClass=\"org.hsqldb.jdbcDriver\" connectionURL=\"jdbc:hsqldb:mem:aname\"/>"
+            + "<javaModelGenerator targetPackage=\"${model.package}\" targetProject=\"src\"/>"
+            + "<sqlMapGenerator targetPackage=\"${mapper.package}\" targetProject=\"src\"/>"
+            + "<table tableName=\"FOO\"><columnOverride column=\"BAR\" property=\"baz\"/></table>"
+            + "</context>"
+            + "</generatorConfiguration>";
+
+    @Test
+    public void testThatSnapshotIsUsedWhileTheFileIsUnchanged() throws Exception {
+        File configurationFile = File.createTempFile("generatorConfig", ".xml");
+        File propertiesFile = new File(configurationFile.getPath() + ".properties");
+        File cacheDirectory = new File(configurationFile.getPath() + ".cache");
+        ConfigurationCache cache = new ConfigurationCache(cacheDirectory);
+        File snapshotFile = cache.getSnapshotFile(configurationFile);
+        try {
+            write(propertiesFile, "model.package=first.model");
+            write(configurationFile, String.format(CONFIGURATION,
+                    propertiesFile.toURI().toURL()));
+            Properties extraProperties = new Properties();
+            extraProperties.setProperty("mapper.package", "first.mapper");
+
+            Context context = parse(configurationFile, cacheDirectory, extraProperties, null);
+            assertEquals("first.model", context.getJavaModelGeneratorConfiguration().getTargetPackage());
+            assertTrue(snapshotFile.exists());
+
+            byte[] content = read(configurationFile);
+            assertNotNull(cache.load(configurationFile, content, new ArrayList<String>()));
+            ConfigurationParser cp = new ConfigurationParser(extraProperties, null);
+            cp.setCacheDirectory(cacheDirectory);
+            context = cp.parseConfiguration(configurationFile).getContexts().get(0);
+            assertEquals(1, cp.getPropertiesUrls().size());
+            assertEquals("first.mapper", context.getSqlMapGeneratorConfiguration().getTargetPackage());
+            assertEquals("baz", context.getTableConfigurations().get(0)
+                    .getColumnOverrides().get(0).getJavaProperty());
+            // attributes with default values in the DTD are part of the snapshot
+            assertTrue(context.getTableConfigurations().get(0).isInsertStatementEnabled());
+
+            // properties are resolved on every run
+            extraProperties.setProperty("mapper.package", "second.mapper");
+            write(propertiesFile, "model.package=second.model");
+            context = parse(configurationFile, cacheDirectory, extraProperties, null);
+            assertEquals("second.mapper", context.getSqlMapGeneratorConfiguration().getTargetPackage());
+            assertEquals("second.model", context.getJavaModelGeneratorConfiguration().getTargetPackage());
+
+            write(configurationFile, String.format(CONFIGURATION,
+                    propertiesFile.toURI().toURL()).replace("baz", "qux"));
+            assertNull(cache.load(configurationFile, read(configurationFile), new ArrayList<String>()));
+            context = parse(configurationFile, cacheDirectory, extraProperties, null);
+            assertEquals("qux", context.getTableConfigurations().get(0)
+                    .getColumnOverrides().get(0).getJavaProperty());
+
+            // a damaged snapshot is reported and replaced
+            write(snapshotFile, "not a snapshot");
+            List<String> warnings = new ArrayList<String>();
+            context = parse(configurationFile, cacheDirectory, extraProperties, warnings);
+            assertEquals("qux", context.getTableConfigurations().get(0)
+                    .getColumnOverrides().get(0).getJavaProperty());
+            assertEquals(1, warnings.size());
+            assertNotNull(cache.load(configurationFile, read(configurationFile), new ArrayList<String>()));
+        } finally {
+            snapshotFile.delete();
+            cacheDirectory.delete();
+            propertiesFile.delete();
+            configurationFile.delete();
+        }
+    }
+
+    @Test
+    public void testThatDocumentsWithExternalEntitiesAreNotCached() throws Exception {
+        File configurationFile = File.createTempFile("generatorConfig", ".xml");
+        File propertiesFile = new File(configurationFile.getPath() + ".properties");
+        File entityFile = new File(configurationFile.getPath() + ".tables");
+        File cacheDirectory = new File(configurationFile.getPath() + ".cache");
+        ConfigurationCache cache = new ConfigurationCache(cacheDirectory);
+        File snapshotFile = cache.getSnapshotFile(configurationFile);
+        try {
+            write(propertiesFile, "model.package=first.model");
+            write(entityFile, "<table tableName=\"FOO\"><columnOverride column=\"BAR\" property=\"baz\"/></table>");
+            write(configurationFile, String.format(CONFIGURATION, propertiesFile.toURI().toURL())
+                    .replace(".dtd\">", ".dtd\" [<!ENTITY tables SYSTEM \""
+                            + entityFile.toURI().toURL() + "\">]>")
+                    .replace("<table tableName=\"FOO\"><columnOverride column=\"BAR\" property=\"baz\"/></table>",
+                            "&tables;"));
+            Properties extraProperties = new Properties();
+            extraProperties.setProperty("mapper.package", "first.mapper");
+
+            Context context = parse(configurationFile, cacheDirectory, extraProperties, null);
+            assertEquals("baz", context.getTableConfigurations().get(0)
+                    .getColumnOverrides().get(0).getJavaProperty());
+            assertFalse(snapshotFile.exists());
+
+            // changes to the external entity are seen on the next run
+            write(entityFile, "<table tableName=\"FOO\"><columnOverride column=\"BAR\" property=\"qux\"/></table>");
+            context = parse(configurationFile, cacheDirectory, extraProperties, null);
+            assertEquals("qux", context.getTableConfigurations().get(0)
+                    .getColumnOverrides().get(0).getJavaProperty());
+            assertFalse(snapshotFile.exists());
+        } finally {
+            snapshotFile.delete();
+            cacheDirectory.delete();
+            entityFile.delete();
+            propertiesFile.delete();
+            configurationFile.delete();
+        }
+    }
+
+    private static Context parse(File configurationFile, File cacheDirectory,
+            Properties extraProperties, List<String> warnings) throws Exception {
+        ConfigurationParser cp = new ConfigurationParser(extraProperties, warnings);
+        cp.setCacheDirectory(cacheDirectory);
+        Configuration configuration = cp.parseConfiguration(configurationFile);
+        return configuration.getContexts().get(0);
+    }
+
+    private static byte[] read(File file) throws Exception {
+        byte[] answer = new byte[(int) file.length()];
+        InputStream is = new FileInputStream(file);
+        try {
+            int offset = 0;
+            while (offset < answer.length) {
+                offset += is.read(answer, offset, answer.length - offset);
+            }
+        } finally {
+            is.close();
+        }
+        return answer;
+    }
+
+    private static void write(File file, String content) throws Exception {
+        OutputStream os = new FileOutputStream(file);
+        try {
+            os.write(content.getBytes("UTF-8"));
+        } finally {
+            os.close();
+        }
+    }
+}
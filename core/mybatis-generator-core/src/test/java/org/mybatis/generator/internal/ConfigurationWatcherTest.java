@@ -0,0 +1,213 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mybatis.generator.config.Configuration;
+
+public class ConfigurationWatcherTest {
+
+    private static final String CONFIGURATION =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<!DOCTYPE generatorConfiguration PUBLIC"
+            + " \"-//mybatis.org//DTD MyBatis Generator Configuration 1.0//EN\""
+            + " \"http://mybatis.org/dtd/mybatis-generator-config_1_0.dtd\">"
+            + "<generatorConfiguration>"
+            + "<context id=\"first\">"
+            + "<jdbcConnection driverClass=\"org.hsqldb.jdbcDriver\" connectionURL=\"jdbc:hsqldb:mem:aname\"/>"
+            + "<javaModelGenerator targetPackage=\"%1$s\" targetProject=\"src\"/>"
+            + "<table tableName=\"FOO\"/>"
+            + "</context>"
+            + "<context id=\"second\">"
+            + "<jdbcConnection driverClass=\"org.hsqldb.jdbcDriver\" connectionURL=\"jdbc:hsqldb:mem:aname\"/>"
+            + "<javaModelGenerator targetPackage=\"%2$s\" targetProject=\"src\"/>"
+            + "<table tableName=\"FOO\"/>"
+            + "</context>"
+            + "</generatorConfiguration>";
+
+    /** Marks a run of all contexts in the queue. */
+    private static final Set<String> ALL = Collections.singleton("*");
+
+    @Test
+    public void testThatOnlyChangedContextsAreGenerated() throws Exception {
+        final File configurationFile = File.createTempFile("generatorConfig", ".xml");
+        final File directory = new File(configurationFile.getPath() + ".scripts");
+        assertTrue(directory.mkdir());
+        try {
+            write(configurationFile, String.format(CONFIGURATION, "first", "second"));
+
+            final BlockingQueue<Set<String>> runs = new LinkedBlockingQueue<Set<String>>();
+            final ConfigurationWatcher watcher = new ConfigurationWatcher(configurationFile,
+                    null, Collections.singletonList(directory));
+            watcher.setPollInterval(20L);
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        watcher.watch(new ConfigurationWatcher.Listener() {
+                            public void generate(Configuration configuration,
+                                    GenerationSession generationSession,
+                                    Set<String> contextIds, List<String> warnings) {
+                                runs.add(contextIds == null ? ALL : contextIds);
+                            }
+
+                            public void parseFailed(Exception e) {
+                                runs.add(Collections.<String> emptySet());
+                            }
+                        });
+                    } catch (InterruptedException e) {
+                        // stopped
+                    }
+                }
+            });
+            thread.start();
+
+            try {
+                assertEquals(ALL, runs.poll(10, TimeUnit.SECONDS));
+
+                write(configurationFile, String.format(CONFIGURATION, "first", "second.changed"));
+                assertEquals(Collections.singleton("second"), runs.poll(10, TimeUnit.SECONDS));
+
+                write(new File(directory, "V2__add_table.sql"), "create table t (id int)");
+                assertEquals(ALL, runs.poll(10, TimeUnit.SECONDS));
+
+                // a change that doesn't affect any context
+                write(configurationFile, String.format(CONFIGURATION, "first", "second.changed") + " ");
+                assertNull(runs.poll(500, TimeUnit.MILLISECONDS));
+            } finally {
+                thread.interrupt();
+                thread.join();
+            }
+        } finally {
+            new File(directory, "V2__add_table.sql").delete();
+            directory.delete();
+            configurationFile.delete();
+        }
+    }
+
+    @Test
+    public void testThatChangedClassesStartANewSession() throws Exception {
+        final File configurationFile = File.createTempFile("generatorConfig", ".xml");
+        File directory = new File(configurationFile.getPath() + ".classes");
+        File packageDirectory = new File(directory, "com/example");
+        assertTrue(packageDirectory.mkdirs());
+        File classFile = new File(packageDirectory, "MyPlugin.class");
+        try {
+            write(classFile, "version 1");
+            write(configurationFile, String.format(CONFIGURATION, "first", "second")
+                    .replace("<generatorConfiguration>", "<generatorConfiguration><classPathEntry location=\""
+                            + directory.getPath() + "\"/>"));
+
+            final BlockingQueue<Set<String>> runs = new LinkedBlockingQueue<Set<String>>();
+            final BlockingQueue<GenerationSession> sessions = new LinkedBlockingQueue<GenerationSession>();
+            final ConfigurationWatcher watcher = new ConfigurationWatcher(configurationFile,
+                    null, null);
+            watcher.setPollInterval(20L);
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        watcher.watch(new ConfigurationWatcher.Listener() {
+                            public void generate(Configuration configuration,
+                                    GenerationSession generationSession,
+                                    Set<String> contextIds, List<String> warnings) {
+                                sessions.add(generationSession);
+                                runs.add(contextIds == null ? ALL : contextIds);
+                            }
+
+                            public void parseFailed(Exception e) {
+                                runs.add(Collections.<String> emptySet());
+                            }
+                        });
+                    } catch (InterruptedException e) {
+                        // stopped
+                    }
+                }
+            });
+            thread.start();
+
+            try {
+                assertEquals(ALL, runs.poll(10, TimeUnit.SECONDS));
+                GenerationSession firstSession = sessions.take();
+
+                // a recompiled plugin needs new class loaders for all contexts
+                write(classFile, "version 22");
+                Set<String> contextIds = runs.poll(10, TimeUnit.SECONDS);
+                assertTrue(String.valueOf(contextIds), contextIds.contains("first")
+                        && contextIds.contains("second"));
+                assertNotSame(firstSession, sessions.take());
+            } finally {
+                thread.interrupt();
+                thread.join();
+            }
+        } finally {
+            classFile.delete();
+            packageDirectory.delete();
+            packageDirectory.getParentFile().delete();
+            directory.delete();
+            configurationFile.delete();
+        }
+    }
+
+    @Test
+    public void testThatClassPathDirectoriesAreStampedFileByFile() throws Exception {
+        File directory = File.createTempFile("classes", "");
+        assertTrue(directory.delete());
+        File packageDirectory = new File(directory, "com/example");
+        assertTrue(packageDirectory.mkdirs());
+        File classFile = new File(packageDirectory, "MyPlugin.class");
+        try {
+            write(classFile, "version 1");
+            List<String> entries = Collections.singletonList(directory.getPath());
+            Map<File, String> stamps = ConfigurationWatcher.getClassPathStamps(entries);
+            long directoryModified = packageDirectory.lastModified();
+
+            // recompiling rewrites the file but leaves the directories alone
+            write(classFile, "version 22");
+            assertTrue(packageDirectory.setLastModified(directoryModified));
+            assertFalse(stamps.equals(ConfigurationWatcher.getClassPathStamps(entries)));
+        } finally {
+            classFile.delete();
+            packageDirectory.delete();
+            packageDirectory.getParentFile().delete();
+            directory.delete();
+        }
+    }
+
+    private static void write(File file, String content) throws Exception {
+        OutputStream os = new FileOutputStream(file);
+        try {
+            os.write(content.getBytes("UTF-8"));
+        } finally {
+            os.close();
+        }
+    }
+}
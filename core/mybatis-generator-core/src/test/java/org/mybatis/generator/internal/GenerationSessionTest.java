@@ -0,0 +1,93 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+public class GenerationSessionTest {
+
+    @Test
+    public void testThatSessionsHaveSeparateResourceClassLoaders() throws Exception {
+        final URL resource = new URL("file:/tmp/generatorConfig.properties");
+        ClassLoader classLoader = new URLClassLoader(new URL[0]) {
+            @Override
+            public URL getResource(String name) {
+                return "generatorConfig.properties".equals(name) ? resource : null;
+            }
+        };
+
+        GenerationSession session1 = new GenerationSession();
+        session1.addResourceClassLoader(classLoader);
+        GenerationSession session2 = new GenerationSession();
+
+        assertEquals(resource, session1.getResource("generatorConfig.properties"));
+        assertNull(session2.getResource("generatorConfig.properties"));
+    }
+
+    @Test
+    public void testThatMovedClassLoadersLeaveTheSession() throws Exception {
+        final URL resource = new URL("file:/tmp/generatorConfig.properties");
+        ClassLoader classLoader = new URLClassLoader(new URL[0]) {
+            @Override
+            public URL getResource(String name) {
+                return "generatorConfig.properties".equals(name) ? resource : null;
+            }
+        };
+
+        GenerationSession session1 = new GenerationSession();
+        session1.addResourceClassLoader(classLoader);
+        GenerationSession session2 = new GenerationSession();
+        session1.moveClassLoadersTo(session2);
+
+        assertNull(session1.getResource("generatorConfig.properties"));
+        assertEquals(resource, session2.getResource("generatorConfig.properties"));
+    }
+
+    @Test
+    public void testThatWorkerThreadsUseTheSessionOfTheSubmitter() throws Exception {
+        final GenerationSession session = new GenerationSession();
+        ParallelTaskExecutor<GenerationSession> executor = new ParallelTaskExecutor<GenerationSession>(
+                "GenerationSessionTest", 2);
+
+        GenerationSession previousSession = GenerationSession.setCurrent(session);
+        try {
+            for (int i = 0; i < 4; i++) {
+                executor.submit(new Callable<GenerationSession>() {
+                    public GenerationSession call() {
+                        return GenerationSession.getCurrent();
+                    }
+                });
+            }
+        } finally {
+            GenerationSession.setCurrent(previousSession);
+        }
+
+        List<GenerationSession> results = executor.awaitAll(new NullProgressCallback(), null);
+        for (GenerationSession result : results) {
+            assertSame(session, result);
+        }
+        assertSame(GenerationSession.getDefault(), GenerationSession.getCurrent());
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.mybatis.generator.config.Context;
+
+public class GeneratorDaemonTest {
+
+    @Test
+    public void testThatRequestsAreRunByTheDaemon() throws Exception {
+        final GeneratorDaemon daemon = new GeneratorDaemon(0, new GeneratorDaemon.RequestHandler() {
+            public void handleRequest(Map<String, String> arguments, GeneratorDaemon daemon, PrintStream out) {
+                for (Map.Entry<String, String> entry : arguments.entrySet()) {
+                    out.println(entry.getKey() + " -> " + entry.getValue());
+                }
+            }
+        });
+        daemon.open();
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    daemon.run();
+                } catch (Exception e) {
+                    // stopped
+                }
+            }
+        });
+        thread.start();
+
+        try {
+            Map<String, String> arguments = new LinkedHashMap<String, String>();
+            arguments.put("-configfile", "/tmp/generator Config.xml");
+            arguments.put("-tables", "schema.table1,schema.table2");
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            PrintStream out = new PrintStream(bytes, true, "UTF-8");
+
+            assertTrue(GeneratorDaemon.forward(daemon.getPort(), arguments, out));
+
+            String nl = System.getProperty("line.separator");
+            assertEquals("-configfile -> /tmp/generator Config.xml" + nl
+                    + "-tables -> schema.table1,schema.table2" + nl,
+                    bytes.toString("UTF-8"));
+        } finally {
+            daemon.stop();
+            thread.join();
+        }
+    }
+
+    @Test
+    public void testThatRequestsWithoutTheTokenAreRejected() throws Exception {
+        final List<Map<String, String>> requests = new ArrayList<Map<String, String>>();
+        final GeneratorDaemon daemon = new GeneratorDaemon(0, new GeneratorDaemon.RequestHandler() {
+            public void handleRequest(Map<String, String> arguments, GeneratorDaemon daemon, PrintStream out) {
+                requests.add(arguments);
+            }
+        });
+        daemon.open();
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    daemon.run();
+                } catch (Exception e) {
+                    // stopped
+                }
+            }
+        });
+        thread.start();
+
+        try {
+            File tokenFile = GeneratorDaemon.getTokenFile(daemon.getPort());
+            assertTrue(tokenFile.isFile());
+            assertTrue(tokenFile.canRead());
+
+            for (String request : new String[] { "-configfile=x.xml\n\n", "token=guess\n-configfile=x.xml\n\n" }) {
+                Socket socket = new Socket(InetAddress.getByName(null), daemon.getPort());
+                try {
+                    socket.getOutputStream().write(request.getBytes("UTF-8"));
+                    socket.getOutputStream().flush();
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+                    assertEquals(getString("RuntimeError.32"), reader.readLine());
+                    assertNull(reader.readLine());
+                } finally {
+                    socket.close();
+                }
+            }
+            assertTrue(requests.isEmpty());
+        } finally {
+            daemon.stop();
+            thread.join();
+        }
+        assertFalse(GeneratorDaemon.getTokenFile(daemon.getPort()).exists());
+    }
+
+    @Test
+    public void testThatRelativePathsAreResolvedAgainstTheWorkingDirectory() throws Exception {
+        File configurationFile = File.createTempFile("generatorConfig", ".xml");
+        File propertiesFile = File.createTempFile("generator", ".properties");
+        try {
+            write(propertiesFile, "target.project=src/main/java");
+            write(configurationFile, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<!DOCTYPE generatorConfiguration PUBLIC"
+                    + " \"-//mybatis.org//DTD MyBatis Generator Configuration 1.0//EN\""
+                    + " \"http://mybatis.org/dtd/mybatis-generator-config_1_0.dtd\">"
+                    + "<generatorConfiguration>"
+                    + "<properties url=\"" + propertiesFile.toURI().toURL() + "\"/>"
+                    + "<context id=\"first\">"
+                    + "<property name=\"generationManifest\" value=\"target/mbg.manifest\"/>"
+                    + "<jdbcConnection driverClass=\"org.hsqldb.jdbcDriver\" connectionURL=\"jdbc:hsqldb:mem:aname\"/>"
+                    + "<javaModelGenerator targetPackage=\"model\" targetProject=\"${target.project}\"/>"
+                    + "<table tableName=\"FOO\"/>"
+                    + "</context>"
+                    + "</generatorConfiguration>");
+
+            File workingDirectory = new File(System.getProperty("java.io.tmpdir")).getCanonicalFile();
+            GeneratorDaemon daemon = new GeneratorDaemon(0, null);
+            GeneratorDaemon.CachedConfiguration first = daemon.getConfiguration(configurationFile, workingDirectory);
+            Context context = first.getConfiguration().getContext("first");
+            assertEquals(new File(workingDirectory, "src/main/java").getPath(),
+                    context.getJavaModelGeneratorConfiguration().getTargetProject());
+            assertEquals(new File(workingDirectory, "target/mbg.manifest").getPath(),
+                    context.getProperty("generationManifest"));
+            assertSame(first, daemon.getConfiguration(configurationFile, workingDirectory));
+            assertNotSame(first, daemon.getConfiguration(configurationFile));
+
+            // a changed properties file is parsed again
+            write(propertiesFile, "target.project=src/main/generated");
+            propertiesFile.setLastModified(propertiesFile.lastModified() - 10000L);
+            GeneratorDaemon.CachedConfiguration second = daemon.getConfiguration(configurationFile, workingDirectory);
+            assertNotSame(first, second);
+            assertEquals(new File(workingDirectory, "src/main/generated").getPath(),
+                    second.getConfiguration().getContext("first").getJavaModelGeneratorConfiguration()
+                            .getTargetProject());
+        } finally {
+            configurationFile.delete();
+            propertiesFile.delete();
+        }
+    }
+
+    @Test
+    public void testThatForwardReportsAMissingDaemon() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        int port = socket.getLocalPort();
+        socket.close();
+
+        assertFalse(GeneratorDaemon.forward(port, new LinkedHashMap<String, String>(), System.out));
+    }
+
+    @Test
+    public void testThatConfigurationsAreParsedAgainWhenTheFileChanges() throws Exception {
+        File configurationFile = File.createTempFile("generatorConfig", ".xml");
+        configurationFile.deleteOnExit();
+        InputStream in = getClass().getResourceAsStream("/scripts/generatorConfig.xml");
+        OutputStream out = new FileOutputStream(configurationFile);
+        try {
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+        } finally {
+            in.close();
+            out.close();
+        }
+
+        GeneratorDaemon daemon = new GeneratorDaemon(0, null);
+        GeneratorDaemon.CachedConfiguration first = daemon.getConfiguration(configurationFile);
+        assertSame(first, daemon.getConfiguration(configurationFile));
+
+        configurationFile.setLastModified(configurationFile.lastModified() - 10000L);
+        GeneratorDaemon.CachedConfiguration second = daemon.getConfiguration(configurationFile);
+        assertNotSame(first, second);
+        assertNotSame(first.getConfiguration(), second.getConfiguration());
+        assertSame(second, daemon.getConfiguration(configurationFile));
+    }
+
+    private static void write(File file, String content) throws Exception {
+        OutputStream os = new FileOutputStream(file);
+        try {
+            os.write(content.getBytes("UTF-8"));
+        } finally {
+            os.close();
+        }
+    }
+}
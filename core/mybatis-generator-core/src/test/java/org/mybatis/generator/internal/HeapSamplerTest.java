@@ -0,0 +1,41 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HeapSamplerTest {
+
+    @Test
+    public void testThatThePeakIncludesObjectsHeldDuringTheRun() throws Exception {
+        HeapSampler heapSampler = new HeapSampler();
+        heapSampler.start();
+        long firstSample = heapSampler.getPeakUsedBytes();
+
+        byte[] data = new byte[32 * 1024 * 1024];
+        Thread.sleep(100L);
+        long peakUsedBytes = heapSampler.stop();
+
+        assertTrue(data.length > 0);
+        assertTrue(peakUsedBytes >= firstSample);
+        assertTrue(String.valueOf(peakUsedBytes), peakUsedBytes >= data.length);
+        // stopping again keeps the result
+        assertEquals(peakUsedBytes, heapSampler.stop());
+    }
+}
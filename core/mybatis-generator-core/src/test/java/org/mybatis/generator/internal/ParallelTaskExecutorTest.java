@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ParallelTaskExecutorTest {
+
+    @Test
+    public void testThatTheWindowLimitsTheStartedTasks() throws Exception {
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger handedBack = new AtomicInteger();
+        final AtomicInteger maxAhead = new AtomicInteger();
+        ParallelTaskExecutor<Integer> executor = new ParallelTaskExecutor<Integer>(
+                "ParallelTaskExecutorTest", 2, 3);
+        for (int i = 0; i < 20; i++) {
+            final int task = i;
+            executor.submit(new Callable<Integer>() {
+                public Integer call() throws Exception {
+                    int ahead = started.incrementAndGet() - handedBack.get();
+                    synchronized (maxAhead) {
+                        maxAhead.set(Math.max(maxAhead.get(), ahead));
+                    }
+                    // the first task is the slowest
+                    Thread.sleep(task == 0 ? 200L : 1L);
+                    return task;
+                }
+            });
+        }
+
+        List<Integer> results = executor.awaitAll(new NullProgressCallback(),
+                new ParallelTaskExecutor.ResultListener<Integer>() {
+                    public void resultAvailable(int index, Integer result) {
+                        assertEquals(index, result.intValue());
+                        handedBack.incrementAndGet();
+                    }
+                });
+
+        assertEquals(20, results.size());
+        assertEquals(20, started.get());
+        assertTrue(String.valueOf(maxAhead.get()), maxAhead.get() <= 3);
+    }
+
+    @Test
+    public void testThatBatchesShareTheExecutorService() throws Exception {
+        ExecutorService executorService = ParallelTaskExecutor.newExecutorService(
+                "ParallelTaskExecutorTest", 2);
+        try {
+            for (int batch = 0; batch < 3; batch++) {
+                ParallelTaskExecutor<String> executor = new ParallelTaskExecutor<String>(executorService);
+                for (int i = 0; i < 4; i++) {
+                    executor.submit(new Callable<String>() {
+                        public String call() {
+                            return Thread.currentThread().getName();
+                        }
+                    });
+                }
+
+                for (String threadName : executor.awaitAll(new NullProgressCallback(), null)) {
+                    assertTrue(threadName, threadName.equals("ParallelTaskExecutorTest-1")
+                            || threadName.equals("ParallelTaskExecutorTest-2"));
+                }
+                assertFalse(executorService.isShutdown());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
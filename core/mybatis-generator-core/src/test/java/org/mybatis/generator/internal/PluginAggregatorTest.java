@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.mybatis.generator.api.Plugin;
+
+public class PluginAggregatorTest {
+
+    @Test
+    public void testThatEveryHookCallsTheSamePluginMethod() throws Exception {
+        final List<Method> calls = new ArrayList<Method>();
+        Plugin plugin = (Plugin) Proxy.newProxyInstance(
+                Plugin.class.getClassLoader(), new Class<?>[] { Plugin.class },
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) {
+                        calls.add(method);
+                        return method.getReturnType() == boolean.class ? Boolean.TRUE
+                                : null;
+                    }
+                });
+
+        PluginAggregator aggregator = new PluginAggregator();
+        aggregator.addPlugin(plugin);
+
+        for (Method method : Plugin.class.getMethods()) {
+            if ("setContext".equals(method.getName()) //$NON-NLS-1$
+                    || "setProperties".equals(method.getName()) //$NON-NLS-1$
+                    || "validate".equals(method.getName())) { //$NON-NLS-1$
+                continue;
+            }
+
+            calls.clear();
+            method.invoke(aggregator,
+                    new Object[method.getParameterTypes().length]);
+            assertEquals(method.toString(), 1, calls.size());
+            assertEquals(method, calls.get(0));
+        }
+    }
+}
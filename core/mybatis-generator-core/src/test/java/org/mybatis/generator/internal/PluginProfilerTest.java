@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+
+public class PluginProfilerTest {
+
+    @Test
+    public void testThatHookCallsAreCountedPerPlugin() throws Exception {
+        PluginProfiler profiler = new PluginProfiler();
+        PluginAggregator aggregator = new PluginAggregator(profiler);
+        aggregator.addPlugin(new VetoingPlugin());
+        aggregator.addPlugin(new AcceptingPlugin());
+        aggregator.addPlugin(new PassivePlugin());
+
+        assertFalse(aggregator.modelBaseRecordClassGenerated(null, null));
+        assertFalse(aggregator.modelBaseRecordClassGenerated(null, null));
+        assertTrue(aggregator.modelPrimaryKeyClassGenerated(null, null));
+
+        // plugins are not called for hooks they inherit from PluginAdapter
+        List<String> warnings = new ArrayList<String>();
+        profiler.report(new NullProgressCallback(), warnings);
+        assertEquals(2, warnings.size());
+
+        File file = File.createTempFile("pluginProfile", ".csv");
+        try {
+            profiler.write(file);
+            List<String> lines = readLines(file);
+            assertEquals(4, lines.size());
+            assertEquals("plugin,hook,calls,totalNanos,maxNanos", lines.get(0));
+            // the accepting plugin is never called after the vetoing plugin
+            // returns false
+            assertTrue(lines.contains(line(VetoingPlugin.class,
+                    "modelBaseRecordClassGenerated", 2)));
+            assertTrue(lines.contains(line(VetoingPlugin.class,
+                    "modelPrimaryKeyClassGenerated", 1)));
+            assertTrue(lines.contains(line(AcceptingPlugin.class,
+                    "modelPrimaryKeyClassGenerated", 1)));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static String line(Class<?> pluginClass, String hook, int calls) {
+        return pluginClass.getName() + ',' + hook + ',' + calls;
+    }
+
+    private static List<String> readLines(File file) throws Exception {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // remove the times, which are not predictable
+                if (lines.isEmpty()) {
+                    lines.add(line);
+                } else {
+                    lines.add(line.substring(0, line.lastIndexOf(',',
+                            line.lastIndexOf(',') - 1)));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+
+    public static class VetoingPlugin extends PluginAdapter {
+        public boolean validate(List<String> warnings) {
+            return true;
+        }
+
+        @Override
+        public boolean modelBaseRecordClassGenerated(TopLevelClass topLevelClass,
+                IntrospectedTable introspectedTable) {
+            return false;
+        }
+
+        @Override
+        public boolean modelPrimaryKeyClassGenerated(TopLevelClass topLevelClass,
+                IntrospectedTable introspectedTable) {
+            return true;
+        }
+    }
+
+    public static class AcceptingPlugin extends PluginAdapter {
+        public boolean validate(List<String> warnings) {
+            return true;
+        }
+
+        @Override
+        public boolean modelBaseRecordClassGenerated(TopLevelClass topLevelClass,
+                IntrospectedTable introspectedTable) {
+            return true;
+        }
+
+        @Override
+        public boolean modelPrimaryKeyClassGenerated(TopLevelClass topLevelClass,
+                IntrospectedTable introspectedTable) {
+            return true;
+        }
+    }
+
+    public static class PassivePlugin extends PluginAdapter {
+        public boolean validate(List<String> warnings) {
+            return true;
+        }
+    }
+}
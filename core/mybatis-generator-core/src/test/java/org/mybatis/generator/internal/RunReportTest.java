@@ -0,0 +1,93 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.dom.xml.Document;
+
+public class RunReportTest {
+
+    @Test
+    public void testThatFilesAreAttributedToTheirTable() {
+        RunReport report = new RunReport(true);
+        GeneratedXmlFile mapper = new GeneratedXmlFile(new Document(), "FooMapper.xml", "foo", "target", true, null);
+        GeneratedXmlFile summary = new GeneratedXmlFile(new Document(), "Summary.xml", "foo", "target", false, null);
+
+        report.tableIntrospected("ctx", "FOO", 2000000L, 3);
+        report.tableGenerated("ctx", "FOO", 1000000L, Collections.<GeneratedJavaFile> emptyList(),
+                Arrays.asList(mapper));
+        report.contextFilesGenerated("ctx", 0L, Collections.<GeneratedJavaFile> emptyList(),
+                Arrays.asList(summary));
+        report.fileWritten(mapper, true, true, false, 1234L, 500000L, 250000L);
+        report.fileWritten(summary, true, false, true, 10L, 0L, 0L);
+        report.runFinished();
+
+        String json = report.toJson();
+        assertTrue(json, json.contains("\"formatVersion\": 1,"));
+        assertTrue(json, json.contains("\"metadataRoundTrips\": 3,"));
+        assertTrue(json, json.contains("\"name\": \"FOO\",\n"
+                + "          \"introspectionMillis\": 2.000,\n"
+                + "          \"metadataRoundTrips\": 3,\n"
+                + "          \"generationMillis\": 1.000,\n"
+                + "          \"files\": {\n"
+                + "            \"written\": 0,\n"
+                + "            \"merged\": 1,\n"
+                + "            \"unchanged\": 0,\n"
+                + "            \"failed\": 0,\n"
+                + "            \"bytesWritten\": 1234,\n"
+                + "            \"mergeMillis\": 0.500,\n"
+                + "            \"writeMillis\": 0.250\n"
+                + "          }"));
+        // unchanged files are not counted as bytes written
+        assertTrue(json, json.contains("\"additionalFiles\": {\n"
+                + "        \"generationMillis\": 0.000,\n"
+                + "        \"files\": {\n"
+                + "          \"written\": 0,\n"
+                + "          \"merged\": 0,\n"
+                + "          \"unchanged\": 1,\n"
+                + "          \"failed\": 0,\n"
+                + "          \"bytesWritten\": 0,"));
+    }
+
+    @Test
+    public void testThatWarningsAreEscaped() {
+        RunReport report = new RunReport(false);
+        List<String> warnings = new ArrayList<String>();
+        warnings.add("Column \"A\\B\"\n\u0001 ignored");
+        report.addWarnings(null, "save", warnings);
+        report.close();
+
+        String json = report.toJson();
+        assertTrue(json, json.contains("\"warnings\": [\n"
+                + "    {\n"
+                + "      \"context\": null,\n"
+                + "      \"phase\": \"save\",\n"
+                + "      \"message\": \"Column \\\"A\\\\B\\\"\\n\\u0001 ignored\"\n"
+                + "    }\n"
+                + "  ]\n"
+                + "}\n"));
+        assertTrue(json, json.contains("\"contexts\": [],"));
+    }
+}
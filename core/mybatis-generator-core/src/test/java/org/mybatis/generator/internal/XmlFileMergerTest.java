@@ -17,7 +17,11 @@ package org.mybatis.generator.internal;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringReader;
+import java.io.Writer;
 import java.util.Properties;
 
 import org.junit.Test;
@@ -67,6 +71,60 @@ public class XmlFileMergerTest {
         assertEquals(generatedFile1.getFormattedContent(), mergedSource);
     }
 
+    @Test
+    public void testThatCustomElementsAreCopiedUnchanged() throws Exception {
+        Properties p = new Properties();
+        p.setProperty(PropertyRegistry.COMMENT_GENERATOR_SUPPRESS_DATE, "true");
+        CommentGenerator commentGenerator = new DefaultCommentGenerator();
+        commentGenerator.addConfigurationProperties(p);
+
+        Document document = new Document(XmlConstants.MYBATIS3_MAPPER_PUBLIC_ID,
+                XmlConstants.MYBATIS3_MAPPER_SYSTEM_ID);
+        document.setRootElement(getSqlMapElement(commentGenerator));
+        GeneratedXmlFile generatedFile = new GeneratedXmlFile(document, "TestMapper.xml", "org.mybatis.test", "src",
+                true, new DefaultXmlFormatter());
+
+        String prolog = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<!DOCTYPE mapper PUBLIC \"" + XmlConstants.MYBATIS3_MAPPER_PUBLIC_ID
+                + "\" \"" + XmlConstants.MYBATIS3_MAPPER_SYSTEM_ID + "\">\n";
+        String customElement = "<select id=\"customSelect\"   resultType='int'><!-- keep > this -->\n"
+                + "    select count(*) from bar where foo &lt; 22 <![CDATA[ and bar < 3 ]]>\n"
+                + "  </select>";
+        String existingSource = prolog
+                + "<mapper namespace=\"org.mybatis.test.OldMapper\" >\n"
+                + "  " + customElement + "\n"
+                + "  <insert id=\"insert\" parameterType=\"org.mybatis.test.OldRecord\">\n"
+                + "    <!--\n"
+                + "      WARNING - @mbg.generated\n"
+                + "    -->\n"
+                + "    insert into myschema.oldtable (id) values (#{id})\n"
+                + "  </insert>\n"
+                + "  <sql id=\"ibatorgenerated_Old_Column_List\">id</sql>\n"
+                + "</mapper>\n";
+
+        File existingFile = File.createTempFile("TestMapper", ".xml");
+        existingFile.deleteOnExit();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(existingFile), "UTF-8");
+        try {
+            writer.write(existingSource);
+        } finally {
+            writer.close();
+        }
+
+        // the generated elements replace the old generated elements, and
+        // everything else is copied from the existing file
+        String generatedContent = generatedFile.getFormattedContent();
+        String rootStartTag = "<mapper namespace=\"org.mybatis.test.TestMapper\">";
+        int generatedStart = generatedContent.indexOf(rootStartTag);
+        int generatedEnd = generatedContent.lastIndexOf("</mapper>");
+        String expected = prolog
+                + generatedContent.substring(generatedStart, generatedEnd)
+                + "  " + customElement + "\n"
+                + "</mapper>\n";
+
+        assertEquals(expected, XmlFileMergerJaxp.getMergedSource(generatedFile, existingFile));
+    }
+
     private XmlElement getSqlMapElement(CommentGenerator commentGenerator) {
 
         XmlElement answer = new XmlElement("mapper");
@@ -0,0 +1,200 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.mybatis.generator.JavaCodeGenerationTest;
+
+public class BulkMetadataSourceTest {
+
+    @Test
+    public void testMatchesPattern() {
+        assertTrue(BulkMetadataSource.matchesPattern("FOO", null, "\\"));
+        assertTrue(BulkMetadataSource.matchesPattern("FOO", "FOO", "\\"));
+        assertFalse(BulkMetadataSource.matchesPattern("FOO", "foo", "\\"));
+        assertTrue(BulkMetadataSource.matchesPattern("FOO", "%", "\\"));
+        assertTrue(BulkMetadataSource.matchesPattern("FOO", "F%", "\\"));
+        assertTrue(BulkMetadataSource.matchesPattern("FOO", "%O%O%", "\\"));
+        assertFalse(BulkMetadataSource.matchesPattern("FOO", "%X%", "\\"));
+        assertTrue(BulkMetadataSource.matchesPattern("FOO_BAR", "FOO_BAR", "\\"));
+        assertTrue(BulkMetadataSource.matchesPattern("FOOXBAR", "FOO_BAR", "\\"));
+        assertFalse(BulkMetadataSource.matchesPattern("FOOXBAR", "FOO\\_BAR", "\\"));
+        assertTrue(BulkMetadataSource.matchesPattern("FOO_BAR", "FOO\\_BAR", "\\"));
+        assertTrue(BulkMetadataSource.matchesPattern("FOO_BAR", "FOO_BAR", ""));
+        assertFalse(BulkMetadataSource.matchesPattern("FOO", "FO", "\\"));
+        assertFalse(BulkMetadataSource.matchesPattern("FOO", "FOO_", "\\"));
+        assertTrue(BulkMetadataSource.matchesPattern("FOO", "FOO%", "\\"));
+    }
+
+    @Test
+    public void testBulkMetadataMatchesPerTableMetadata() throws Exception {
+        JavaCodeGenerationTest.createDatabase();
+        Class.forName("org.hsqldb.jdbcDriver");
+        Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:aname", "sa", "");
+        try {
+            JdbcMetadataSource jdbcSource = new JdbcMetadataSource(connection.getMetaData());
+            BulkMetadataSource bulkSource = new BulkMetadataSource(new BulkMetadata(), jdbcSource);
+
+            int tableCount = 0;
+            for (String schema : new String[] { "PUBLIC", "MBGTEST" }) {
+                for (TableMetadata table : jdbcSource.getTables(null, schema, "%")) {
+                    String tableName = table.getTableName();
+                    assertEquals(describeColumns(jdbcSource.getColumns(null, schema, tableName)),
+                            describeColumns(bulkSource.getColumns(null, schema, tableName)));
+                    assertEquals(jdbcSource.getPrimaryKeyColumns(null, schema, tableName),
+                            bulkSource.getPrimaryKeyColumns(null, schema, tableName));
+                    assertEquals(describeTable(jdbcSource.getTable(null, schema, tableName)),
+                            describeTable(bulkSource.getTable(null, schema, tableName)));
+                    tableCount++;
+                }
+            }
+            assertTrue(tableCount > 10);
+
+            // patterns and tables that do not exist
+            assertEquals(describeColumns(jdbcSource.getColumns(null, "PUBLIC", "PK%")),
+                    describeColumns(bulkSource.getColumns(null, "PUBLIC", "PK%")));
+            assertEquals(describeColumns(jdbcSource.getColumns(null, "PUBLIC", "NOT_A_TABLE")),
+                    describeColumns(bulkSource.getColumns(null, "PUBLIC", "NOT_A_TABLE")));
+            assertEquals(jdbcSource.getPrimaryKeyColumns(null, "PUBLIC", "NOT_A_TABLE"),
+                    bulkSource.getPrimaryKeyColumns(null, "PUBLIC", "NOT_A_TABLE"));
+            assertEquals(describeTable(jdbcSource.getTable(null, "PUBLIC", "NOT_A_TABLE")),
+                    describeTable(bulkSource.getTable(null, "PUBLIC", "NOT_A_TABLE")));
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testBulkPrimaryKeys() throws Exception {
+        // HSQLDB cannot return the primary keys of a whole schema, so use a
+        // source that can
+        JdbcMetadataSource jdbcSource = new JdbcMetadataSource(null) {
+            @Override
+            public List<KeyColumnMetadata> getPrimaryKeys(String catalog, String schema) {
+                List<KeyColumnMetadata> answer = new ArrayList<KeyColumnMetadata>();
+                answer.add(keyColumn("S1", "T1", "B", 2));
+                answer.add(keyColumn("S1", "T1", "A", 1));
+                answer.add(keyColumn("S1", "T2", "C", 1));
+                answer.add(keyColumn("S2", "T1", "D", 1));
+                return answer;
+            }
+
+            @Override
+            public List<TableMetadata> getTables(String catalog, String schemaPattern,
+                    String tableNamePattern) {
+                List<TableMetadata> answer = new ArrayList<TableMetadata>();
+                answer.add(table(schemaPattern, "T1"));
+                answer.add(table(schemaPattern, "T2"));
+                answer.add(table(schemaPattern, "T4"));
+                return answer;
+            }
+
+            @Override
+            public List<String> getPrimaryKeyColumns(String catalog, String schema, String tableName) {
+                // a database that ignores the case of names
+                return "t1".equals(tableName) ? Arrays.asList("A", "B") : new ArrayList<String>();
+            }
+        };
+        BulkMetadataSource bulkSource = new BulkMetadataSource(new BulkMetadata(), jdbcSource);
+
+        assertEquals(Arrays.asList("A", "B"), bulkSource.getPrimaryKeyColumns(null, "S1", "T1"));
+        assertEquals(Arrays.asList("C"), bulkSource.getPrimaryKeyColumns(null, "S1", "T2"));
+        assertEquals(Arrays.asList("D"), bulkSource.getPrimaryKeyColumns(null, "S2", "T1"));
+        assertEquals(new ArrayList<String>(), bulkSource.getPrimaryKeyColumns(null, "S1", "T3"));
+        assertEquals(new ArrayList<String>(), bulkSource.getPrimaryKeyColumns(null, "S1", "T4"));
+        assertEquals(Arrays.asList("A", "B"), bulkSource.getPrimaryKeyColumns(null, "S1", "t1"));
+    }
+
+    @Test
+    public void testThatNamesTheDatabaseMatchesAreReadPerTable() throws Exception {
+        JavaCodeGenerationTest.createDatabase();
+        Class.forName("org.hsqldb.jdbcDriver");
+        Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:aname", "sa", "");
+        try {
+            // a database that ignores the case of table names
+            JdbcMetadataSource jdbcSource = new JdbcMetadataSource(connection.getMetaData()) {
+                @Override
+                public List<ColumnMetadata> getColumns(String catalog, String schemaPattern,
+                        String tableNamePattern) throws SQLException {
+                    return super.getColumns(catalog, schemaPattern, tableNamePattern.toUpperCase());
+                }
+
+                @Override
+                public TableMetadata getTable(String catalog, String schema, String tableName)
+                        throws SQLException {
+                    return super.getTable(catalog, schema, tableName.toUpperCase());
+                }
+            };
+            BulkMetadataSource bulkSource = new BulkMetadataSource(new BulkMetadata(), jdbcSource);
+
+            String tableName = jdbcSource.getTables(null, "PUBLIC", "%").get(0).getTableName();
+            String mixedCaseName = tableName.charAt(0) + tableName.substring(1).toLowerCase();
+            assertEquals(describeColumns(jdbcSource.getColumns(null, "PUBLIC", tableName)),
+                    describeColumns(bulkSource.getColumns(null, "PUBLIC", mixedCaseName)));
+            assertEquals(describeTable(jdbcSource.getTable(null, "PUBLIC", tableName)),
+                    describeTable(bulkSource.getTable(null, "PUBLIC", mixedCaseName)));
+        } finally {
+            connection.close();
+        }
+    }
+
+    private TableMetadata table(String schema, String tableName) {
+        TableMetadata answer = new TableMetadata();
+        answer.setTableSchema(schema);
+        answer.setTableName(tableName);
+        return answer;
+    }
+
+    private KeyColumnMetadata keyColumn(String schema, String tableName, String columnName, int keySequence) {
+        KeyColumnMetadata answer = new KeyColumnMetadata();
+        answer.setTableSchema(schema);
+        answer.setTableName(tableName);
+        answer.setColumnName(columnName);
+        answer.setKeySequence((short) keySequence);
+        return answer;
+    }
+
+    private List<String> describeColumns(List<ColumnMetadata> columns) {
+        List<String> answer = new ArrayList<String>();
+        for (ColumnMetadata column : columns) {
+            answer.add(column.getTableCatalog() + '|' + column.getTableSchema() + '|' + column.getTableName()
+                    + '|' + column.getColumnName() + '|' + column.getDataType() + '|' + column.getColumnSize()
+                    + '|' + column.getDecimalDigits() + '|' + column.getNullable() + '|' + column.getRemarks()
+                    + '|' + column.getDefaultValue() + '|' + column.getAutoIncrement()
+                    + '|' + column.getGeneratedColumn());
+        }
+        return answer;
+    }
+
+    private String describeTable(TableMetadata table) {
+        if (table == null) {
+            return null;
+        }
+        return table.getTableCatalog() + '|' + table.getTableSchema() + '|' + table.getTableName()
+                + '|' + table.getRemarks() + '|' + table.getTableType();
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+public class MetadataCacheTest {
+
+    @Test
+    public void testThatSavedValuesAreReadBack() throws Exception {
+        File file = File.createTempFile("mbg", ".cache");
+        assertTrue(file.delete());
+        try {
+            ColumnMetadata column = new ColumnMetadata();
+            column.setTableSchema("PUBLIC");
+            column.setTableName("FOO");
+            column.setColumnName("ID");
+            column.setDataType(4);
+            column.setColumnSize(10);
+            column.setNullable(1);
+            column.setRemarks("the é id");
+            column.setAutoIncrement("YES");
+            TableMetadata table = new TableMetadata();
+            table.setTableName("FOO");
+            table.setRemarks("a table");
+
+            MetadataCache cache = MetadataCache.getInstance(file);
+            cache.updateFingerprint("url", "v1");
+            cache.put("url", MetadataCache.key("storesUpperCaseIdentifiers"), Boolean.TRUE);
+            cache.put("url", MetadataCache.key("searchStringEscape"), "\\");
+            cache.put("url", MetadataCache.key("columns", null, "PUBLIC", "FOO"),
+                    new ArrayList<ColumnMetadata>(Arrays.asList(column)));
+            cache.put("url", MetadataCache.key("primaryKey", null, "PUBLIC", "FOO"),
+                    new ArrayList<String>(Arrays.asList("ID")));
+            cache.put("url", MetadataCache.key("primaryKey", null, "PUBLIC", "BAR"),
+                    new ArrayList<String>());
+            cache.put("url", MetadataCache.key("table", null, "PUBLIC", "FOO"), table);
+            cache.put("url", MetadataCache.key("table", null, "PUBLIC", "BAR"), null);
+            cache.save();
+            cache.release();
+
+            MetadataCache loaded = MetadataCache.getInstance(file);
+            try {
+                assertNotSame(cache, loaded);
+                loaded.load();
+                assertEquals(Boolean.TRUE, loaded.get("url", MetadataCache.key("storesUpperCaseIdentifiers"), 0)
+                        .getValue());
+                assertEquals("\\", loaded.get("url", MetadataCache.key("searchStringEscape"), 0).getValue());
+
+                List<?> columns = (List<?>) loaded.get("url", MetadataCache.key("columns", null, "PUBLIC", "FOO"), 0)
+                        .getValue();
+                assertEquals(1, columns.size());
+                ColumnMetadata loadedColumn = (ColumnMetadata) columns.get(0);
+                assertNull(loadedColumn.getTableCatalog());
+                assertEquals("FOO", loadedColumn.getTableName());
+                assertEquals("ID", loadedColumn.getColumnName());
+                assertEquals(4, loadedColumn.getDataType());
+                assertEquals(10, loadedColumn.getColumnSize());
+                assertEquals(1, loadedColumn.getNullable());
+                assertEquals("the é id", loadedColumn.getRemarks());
+                assertEquals("YES", loadedColumn.getAutoIncrement());
+                assertNull(loadedColumn.getGeneratedColumn());
+
+                assertEquals(Arrays.asList("ID"),
+                        loaded.get("url", MetadataCache.key("primaryKey", null, "PUBLIC", "FOO"), 0).getValue());
+                assertEquals(new ArrayList<String>(),
+                        loaded.get("url", MetadataCache.key("primaryKey", null, "PUBLIC", "BAR"), 0).getValue());
+                TableMetadata loadedTable = (TableMetadata) loaded
+                        .get("url", MetadataCache.key("table", null, "PUBLIC", "FOO"), 0).getValue();
+                assertEquals("FOO", loadedTable.getTableName());
+                assertEquals("a table", loadedTable.getRemarks());
+                assertNull(loaded.get("url", MetadataCache.key("table", null, "PUBLIC", "BAR"), 0).getValue());
+                assertFalse(loaded.updateFingerprint("url", "v1"));
+            } finally {
+                loaded.release();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testThatCachesAreSharedUntilReleased() throws Exception {
+        File file = File.createTempFile("mbg", ".cache");
+        try {
+            MetadataCache first = MetadataCache.getInstance(file);
+            MetadataCache second = MetadataCache.getInstance(file);
+            assertSame(first, second);
+            first.release();
+            MetadataCache third = MetadataCache.getInstance(file);
+            assertSame(second, third);
+            second.release();
+            third.release();
+            assertNotSame(first, MetadataCache.getInstance(file));
+        } finally {
+            MetadataCache.getInstance(file).release();
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatSerializedObjectsAreNotRead() throws Exception {
+        File file = File.createTempFile("mbg", ".cache");
+        try {
+            ObjectOutputStream oos = new ObjectOutputStream(new GZIPOutputStream(new FileOutputStream(file)));
+            try {
+                oos.writeObject(new ArrayList<String>());
+            } finally {
+                oos.close();
+            }
+
+            MetadataCache cache = MetadataCache.getInstance(file);
+            try {
+                cache.load();
+            } finally {
+                cache.release();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testThatOtherFormatVersionsAreIgnored() throws Exception {
+        File file = File.createTempFile("mbg", ".cache");
+        try {
+            DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(file)));
+            try {
+                out.writeInt(0x4d42474d);
+                out.writeInt(99);
+                out.writeInt(12345);
+            } finally {
+                out.close();
+            }
+
+            MetadataCache cache = MetadataCache.getInstance(file);
+            try {
+                cache.load();
+                assertNull(cache.get("url", MetadataCache.key("searchStringEscape"), 0));
+            } finally {
+                cache.release();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -37,7 +37,7 @@ import org.mybatis.generator.config.Configuration;
 import org.mybatis.generator.config.xml.ConfigurationParser;
 import org.mybatis.generator.exception.InvalidConfigurationException;
 import org.mybatis.generator.exception.XMLParserException;
-import org.mybatis.generator.internal.ObjectFactory;
+import org.mybatis.generator.internal.GenerationSession;
 import org.mybatis.generator.internal.util.ClassloaderUtility;
 import org.mybatis.generator.internal.util.StringUtility;
 import org.mybatis.generator.internal.util.messages.Messages;
@@ -124,6 +124,71 @@ public class MyBatisGeneratorMojo extends AbstractMojo {
     @Parameter(property="mybatis.generator.contexts")
     private String contexts;
 
+    /**
+     * The number of tables to introspect concurrently in each context.
+     */
+    @Parameter(property="mybatis.generator.introspectionThreads", defaultValue="1")
+    private int introspectionThreads;
+
+    /**
+     * The number of tables to generate concurrently in each context.
+     */
+    @Parameter(property="mybatis.generator.generationThreads", defaultValue="1")
+    private int generationThreads;
+
+    /**
+     * The number of generated files to write concurrently.
+     */
+    @Parameter(property="mybatis.generator.writeThreads", defaultValue="1")
+    private int writeThreads;
+
+    /**
+     * The number of contexts to run concurrently.
+     */
+    @Parameter(property="mybatis.generator.contextThreads", defaultValue="1")
+    private int contextThreads;
+
+    /**
+     * If true, contexts that use a metadata cache read all metadata from the database and
+     * update the cache.
+     */
+    @Parameter(property="mybatis.generator.refreshMetadataCache", defaultValue="false")
+    private boolean refreshMetadataCache;
+
+    /**
+     * If true, the number of calls and the time of every plugin hook are recorded, and the
+     * slowest plugins are reported as warnings.
+     */
+    @Parameter(property="mybatis.generator.profilePlugins", defaultValue="false")
+    private boolean profilePlugins;
+
+    /**
+     * If specified, the plugin profile is also written to this file as CSV.
+     */
+    @Parameter(property="mybatis.generator.pluginProfileFile")
+    private File pluginProfileFile;
+
+    /**
+     * If true, the files of each table are written and released as soon as the table is
+     * generated, so that memory use does not grow with the number of tables.
+     */
+    @Parameter(property="mybatis.generator.streaming", defaultValue="false")
+    private boolean streaming;
+
+    /**
+     * If specified, a JSON report of the run, with the timings, metadata round trips, files
+     * written and warnings of every context and table, is written to this file.
+     */
+    @Parameter(property="mybatis.generator.reportFile")
+    private File reportFile;
+
+    /**
+     * If specified, a snapshot of the validated configuration file is kept in this directory
+     * and used instead of scanning and validating the XML while the file is unchanged.
+     */
+    @Parameter(property="mybatis.generator.configurationCacheDirectory")
+    private File configurationCacheDirectory;
+
     /**
      * Skip generator.
      */
@@ -138,32 +203,96 @@ public class MyBatisGeneratorMojo extends AbstractMojo {
 
     	LogFactory.setLogFactory(new MavenLogFactory(this));
 
-    	// add resource directories to the classpath.  This is required to support
-        // use of a properties file in the build.  Typically, the properties file
-        // is in the project's source tree, but the plugin classpath does not
-        // include the project classpath.
+        GenerationSession generationSession = new GenerationSession();
+        generationSession.addResourceClassLoader(getResourceClassLoader());
+
+        checkConfigurationFile();
+
+        List<String> warnings = new ArrayList<String>();
+
+        runScriptIfNecessary();
+
+        try {
+            ConfigurationParser cp = new ConfigurationParser(
+                    project.getProperties(), warnings, generationSession);
+            cp.setCacheDirectory(configurationCacheDirectory);
+            Configuration config = cp.parseConfiguration(configurationFile);
+
+            generate(config, null, getContextsToRun(), warnings);
+        } catch (XMLParserException e) {
+            for (String error : e.getErrors()) {
+                getLog().error(error);
+            }
+
+            throw new MojoExecutionException(e.getMessage());
+        } catch (SQLException e) {
+            throw new MojoExecutionException(e.getMessage());
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage());
+        } catch (InvalidConfigurationException e) {
+            for (String error : e.getErrors()) {
+                getLog().error(error);
+            }
+
+            throw new MojoExecutionException(e.getMessage());
+        } catch (InterruptedException e) {
+            // ignore (will never happen with the DefaultShellCallback)
+        }
+
+        for (String error : warnings) {
+            getLog().warn(error);
+        }
+
+        addOutputDirectoryToProject();
+    }
+
+    /**
+     * Returns a class loader for the resource directories of the project. This
+     * is required to support use of a properties file in the build. Typically,
+     * the properties file is in the project's source tree, but the plugin
+     * classpath does not include the project classpath.
+     *
+     * @return the class loader
+     */
+    protected ClassLoader getResourceClassLoader() {
         List<Resource> resources = project.getResources();
         List<String> resourceDirectories = new ArrayList<String>();
         for (Resource resource: resources) {
             resourceDirectories.add(resource.getDirectory());
         }
-        ClassLoader cl = ClassloaderUtility.getCustomClassloader(resourceDirectories);
-        ObjectFactory.addResourceClassLoader(cl);
+        return ClassloaderUtility.getCustomClassloader(resourceDirectories);
+    }
 
+    protected void checkConfigurationFile() throws MojoExecutionException {
         if (configurationFile == null) {
             throw new MojoExecutionException(
                     Messages.getString("RuntimeError.0")); //$NON-NLS-1$
         }
 
-        List<String> warnings = new ArrayList<String>();
-
         if (!configurationFile.exists()) {
             throw new MojoExecutionException(Messages.getString(
                     "RuntimeError.1", configurationFile.toString())); //$NON-NLS-1$
         }
+    }
 
-        runScriptIfNecessary();
-
+    /**
+     * Generates code for the configuration, and logs the number of files
+     * written.
+     *
+     * @param config
+     *            the configuration
+     * @param generationSession
+     *            the session to use, or null to use a new session
+     * @param contextsToRun
+     *            the contexts to generate. All contexts are generated if the
+     *            set is empty
+     * @param warnings
+     *            the list that receives warnings
+     */
+    protected void generate(Configuration config,
+            GenerationSession generationSession, Set<String> contextsToRun,
+            List<String> warnings) throws SQLException, IOException,
+            InvalidConfigurationException, InterruptedException {
         Set<String> fullyqualifiedTables = new HashSet<String>();
         if (StringUtility.stringHasValue(tableNames)) {
             StringTokenizer st = new StringTokenizer(tableNames, ","); //$NON-NLS-1$
@@ -175,6 +304,30 @@ public class MyBatisGeneratorMojo extends AbstractMojo {
             }
         }
 
+        ShellCallback callback = new MavenShellCallback(this, overwrite);
+
+        MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config,
+                callback, warnings);
+        myBatisGenerator.setIntrospectionThreads(introspectionThreads);
+        myBatisGenerator.setGenerationThreads(generationThreads);
+        myBatisGenerator.setWriteThreads(writeThreads);
+        myBatisGenerator.setContextThreads(contextThreads);
+        myBatisGenerator.setRefreshMetadataCache(refreshMetadataCache);
+        myBatisGenerator.setProfilePlugins(profilePlugins);
+        myBatisGenerator.setPluginProfileFile(pluginProfileFile);
+        myBatisGenerator.setStreaming(streaming);
+        myBatisGenerator.setReportFile(reportFile);
+        myBatisGenerator.setGenerationSession(generationSession);
+
+        myBatisGenerator.generate(new MavenProgressCallback(getLog(),
+                verbose), contextsToRun, fullyqualifiedTables);
+        getLog().info(Messages.getString("Progress.20", //$NON-NLS-1$
+                Integer.toString(myBatisGenerator.getWrittenFileCount()),
+                Integer.toString(myBatisGenerator.getMergedFileCount()),
+                Integer.toString(myBatisGenerator.getUnchangedFileCount())));
+    }
+
+    protected Set<String> getContextsToRun() {
         Set<String> contextsToRun = new HashSet<String>();
         if (StringUtility.stringHasValue(contexts)) {
             StringTokenizer st = new StringTokenizer(contexts, ","); //$NON-NLS-1$
@@ -185,44 +338,10 @@ public class MyBatisGeneratorMojo extends AbstractMojo {
                 }
             }
         }
+        return contextsToRun;
+    }
 
-        try {
-            ConfigurationParser cp = new ConfigurationParser(
-                    project.getProperties(), warnings);
-            Configuration config = cp.parseConfiguration(configurationFile);
-
-            ShellCallback callback = new MavenShellCallback(this, overwrite);
-
-            MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config,
-                    callback, warnings);
-
-            myBatisGenerator.generate(new MavenProgressCallback(getLog(),
-                    verbose), contextsToRun, fullyqualifiedTables);
-
-        } catch (XMLParserException e) {
-            for (String error : e.getErrors()) {
-                getLog().error(error);
-            }
-
-            throw new MojoExecutionException(e.getMessage());
-        } catch (SQLException e) {
-            throw new MojoExecutionException(e.getMessage());
-        } catch (IOException e) {
-            throw new MojoExecutionException(e.getMessage());
-        } catch (InvalidConfigurationException e) {
-            for (String error : e.getErrors()) {
-                getLog().error(error);
-            }
-
-            throw new MojoExecutionException(e.getMessage());
-        } catch (InterruptedException e) {
-            // ignore (will never happen with the DefaultShellCallback)
-        }
-
-        for (String error : warnings) {
-            getLog().warn(error);
-        }
-
+    protected void addOutputDirectoryToProject() {
         if (project != null && outputDirectory != null
                 && outputDirectory.exists()) {
             project.addCompileSourceRoot(outputDirectory.getAbsolutePath());
@@ -234,7 +353,7 @@ public class MyBatisGeneratorMojo extends AbstractMojo {
         }
     }
 
-    private void runScriptIfNecessary() throws MojoExecutionException {
+    protected void runScriptIfNecessary() throws MojoExecutionException {
         if (sqlScript == null) {
             return;
         }
@@ -248,4 +367,16 @@ public class MyBatisGeneratorMojo extends AbstractMojo {
     public File getOutputDirectory() {
         return outputDirectory;
     }
+
+    protected MavenProject getProject() {
+        return project;
+    }
+
+    protected File getConfigurationFile() {
+        return configurationFile;
+    }
+
+    protected boolean isSkip() {
+        return skip;
+    }
 }
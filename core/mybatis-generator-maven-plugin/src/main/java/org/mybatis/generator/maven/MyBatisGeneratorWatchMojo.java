@@ -0,0 +1,142 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.mybatis.generator.config.Configuration;
+import org.mybatis.generator.exception.InvalidConfigurationException;
+import org.mybatis.generator.exception.XMLParserException;
+import org.mybatis.generator.internal.ConfigurationWatcher;
+import org.mybatis.generator.internal.GenerationSession;
+import org.mybatis.generator.internal.util.messages.Messages;
+import org.mybatis.generator.logging.LogFactory;
+
+/**
+ * Goal which generates MyBatis/iBATIS artifacts, and then keeps watching the
+ * configuration file, the properties files it references and the watch
+ * directories, and generates the affected contexts again whenever they change.
+ * The goal runs until the build is stopped.
+ */
+@Mojo(name = "watch")
+public class MyBatisGeneratorWatchMojo extends MyBatisGeneratorMojo {
+
+    /**
+     * Directories (for example, the directories that hold DDL or migration
+     * scripts) whose changes regenerate all contexts.
+     */
+    @Parameter(property="mybatis.generator.watchDirectories")
+    private File[] watchDirectories;
+
+    /**
+     * The interval between checks for changes, in milliseconds.
+     */
+    @Parameter(property="mybatis.generator.watchInterval", defaultValue="500")
+    private long watchInterval;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (isSkip()) {
+            getLog().info( "MyBatis generator is skipped." );
+            return;
+        }
+
+        LogFactory.setLogFactory(new MavenLogFactory(this));
+
+        checkConfigurationFile();
+
+        runScriptIfNecessary();
+
+        List<File> directories = new ArrayList<File>();
+        if (watchDirectories != null) {
+            for (File directory : watchDirectories) {
+                directories.add(directory);
+            }
+        }
+
+        ConfigurationWatcher watcher = new ConfigurationWatcher(
+                getConfigurationFile(), getProject().getProperties(),
+                directories);
+        watcher.setPollInterval(watchInterval);
+        watcher.addResourceClassLoader(getResourceClassLoader());
+
+        try {
+            watcher.watch(new ConfigurationWatcher.Listener() {
+                public void generate(Configuration configuration,
+                        GenerationSession generationSession,
+                        Set<String> contextIds, List<String> warnings)
+                        throws InterruptedException {
+                    Set<String> contextsToRun = getContextsToRun();
+                    if (contextIds != null) {
+                        if (contextsToRun.isEmpty()) {
+                            contextsToRun.addAll(contextIds);
+                        } else {
+                            contextsToRun.retainAll(contextIds);
+                        }
+
+                        if (contextsToRun.isEmpty()) {
+                            return;
+                        }
+
+                        getLog().info(Messages.getString("Progress.26", //$NON-NLS-1$
+                                contextsToRun.toString()));
+                    }
+
+                    try {
+                        MyBatisGeneratorWatchMojo.this.generate(configuration,
+                                generationSession, contextsToRun, warnings);
+                    } catch (SQLException e) {
+                        getLog().error(e);
+                    } catch (IOException e) {
+                        getLog().error(e);
+                    } catch (InvalidConfigurationException e) {
+                        for (String error : e.getErrors()) {
+                            getLog().error(error);
+                        }
+                    }
+
+                    for (String warning : warnings) {
+                        getLog().warn(warning);
+                    }
+
+                    getLog().info(Messages.getString("Progress.25")); //$NON-NLS-1$
+                }
+
+                public void parseFailed(Exception e) {
+                    if (e instanceof XMLParserException) {
+                        for (String error : ((XMLParserException) e).getErrors()) {
+                            getLog().error(error);
+                        }
+                    } else {
+                        getLog().error(e);
+                    }
+
+                    getLog().info(Messages.getString("Progress.25")); //$NON-NLS-1$
+                }
+            });
+        } catch (InterruptedException e) {
+            // stopped
+        }
+    }
+}
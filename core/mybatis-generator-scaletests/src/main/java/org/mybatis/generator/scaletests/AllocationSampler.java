@@ -0,0 +1,141 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.scaletests;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures the bytes allocated by all threads of the JVM while a run is in
+ * progress. The allocated bytes of each thread are only reported by HotSpot
+ * based JVMs, through the <code>com.sun.management.ThreadMXBean</code>
+ * interface, so the interface is called by reflection.
+ * 
+ * <p>The JVM stops reporting a thread when it ends, so the threads are
+ * sampled periodically: the allocations of worker threads that end during the
+ * run are counted up to their last sample.
+ */
+class AllocationSampler implements Runnable {
+
+    /** The time between samples, in milliseconds. */
+    private static final long INTERVAL = 10L;
+
+    private Object threadMXBean;
+
+    /** ThreadMXBean.getAllThreadIds(). */
+    private Method getAllThreadIds;
+
+    /** com.sun.management.ThreadMXBean.getThreadAllocatedBytes(long[]). */
+    private Method getThreadAllocatedBytes;
+
+    /** The bytes allocated by each thread when it was first seen. */
+    private Map<Long, Long> firstSamples = new HashMap<Long, Long>();
+
+    /** The bytes allocated by each thread when it was last seen. */
+    private Map<Long, Long> lastSamples = new HashMap<Long, Long>();
+
+    private Thread thread;
+
+    private volatile boolean stopped;
+
+    /**
+     * Starts sampling the allocated bytes.
+     *
+     * @return false if the JVM doesn't report the allocated bytes
+     */
+    public boolean start() {
+        try {
+            threadMXBean = ManagementFactory.getThreadMXBean();
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean"); //$NON-NLS-1$
+            if (!type.isInstance(threadMXBean)) {
+                return false;
+            }
+            getAllThreadIds = type.getMethod("getAllThreadIds"); //$NON-NLS-1$
+            getThreadAllocatedBytes = type.getMethod(
+                    "getThreadAllocatedBytes", long[].class); //$NON-NLS-1$
+            sample();
+        } catch (Exception e) {
+            return false;
+        }
+
+        thread = new Thread(this, "AllocationSampler"); //$NON-NLS-1$
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Stops sampling.
+     *
+     * @return the bytes allocated by all threads since the sampler was
+     *         started, or -1 if they are not known
+     */
+    public long stop() {
+        if (thread == null) {
+            return -1L;
+        }
+
+        stopped = true;
+        thread.interrupt();
+        try {
+            thread.join();
+            sample();
+        } catch (Exception e) {
+            return -1L;
+        }
+
+        long answer = 0L;
+        for (Map.Entry<Long, Long> entry : lastSamples.entrySet()) {
+            answer += entry.getValue() - firstSamples.get(entry.getKey());
+        }
+        return answer;
+    }
+
+    public void run() {
+        while (!stopped) {
+            try {
+                Thread.sleep(INTERVAL);
+                sample();
+            } catch (InterruptedException e) {
+                // stopped
+            } catch (Exception e) {
+                return;
+            }
+        }
+    }
+
+    private void sample() throws Exception {
+        long[] ids = (long[]) getAllThreadIds.invoke(threadMXBean);
+        long[] bytes = (long[]) getThreadAllocatedBytes.invoke(threadMXBean, ids);
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] < 0L) {
+                // the thread ended, or the JVM doesn't measure it
+                continue;
+            } else if (thread != null && ids[i] == thread.getId()) {
+                continue;
+            }
+
+            Long id = Long.valueOf(ids[i]);
+            if (!firstSamples.containsKey(id)) {
+                // threads started during the run have allocated nothing before
+                firstSamples.put(id, thread == null ? Long.valueOf(bytes[i]) : Long.valueOf(0L));
+            }
+            lastSamples.put(id, Long.valueOf(bytes[i]));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.scaletests;
+
+import org.mybatis.generator.internal.NullProgressCallback;
+
+/**
+ * A progress callback that times the phases of a run.
+ */
+public class PhaseTimer extends NullProgressCallback {
+
+    private ScaleRun run;
+
+    private long phaseStart;
+
+    private int phase;
+
+    public PhaseTimer(ScaleRun run) {
+        super();
+        this.run = run;
+    }
+
+    @Override
+    public void introspectionStarted(int totalTasks) {
+        phaseStart = System.nanoTime();
+        phase = 1;
+    }
+
+    @Override
+    public void generationStarted(int totalTasks) {
+        endPhase();
+        phase = 2;
+    }
+
+    @Override
+    public void saveStarted(int totalTasks) {
+        endPhase();
+        phase = 3;
+    }
+
+    @Override
+    public void done() {
+        endPhase();
+        phase = 0;
+    }
+
+    private void endPhase() {
+        long now = System.nanoTime();
+        long millis = (now - phaseStart) / 1000000L;
+        phaseStart = now;
+
+        switch (phase) {
+        case 1:
+            run.setIntrospectionMillis(millis);
+            break;
+        case 2:
+            run.setGenerationMillis(millis);
+            break;
+        case 3:
+            run.setSaveMillis(millis);
+            break;
+        default:
+            break;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.scaletests;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.mybatis.generator.api.MyBatisGenerator;
+import org.mybatis.generator.config.Configuration;
+import org.mybatis.generator.config.xml.ConfigurationParser;
+import org.mybatis.generator.internal.DefaultShellCallback;
+import org.mybatis.generator.internal.HeapSampler;
+
+/**
+ * Runs the generator against a synthetic schema in an in-memory HSQLDB
+ * database for every target runtime and model type, and measures each run.
+ * 
+ * <p>When run from the command line, the harness is configured with system
+ * properties (see the scale profile in the POM), writes the results to a
+ * properties file, and exits with status 1 if any metric exceeds the budget:
+ * the results file of an earlier run, plus a tolerance.
+ */
+public class ScaleHarness {
+
+    /** The target runtimes and model types of the runs. */
+    private static final String[][] RUNS = {
+        { "MyBatis3", "conditional", "XMLMAPPER" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "MyBatis3", "flat", "XMLMAPPER" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "MyBatis3", "hierarchical", "XMLMAPPER" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "MyBatis3Simple", "flat", "XMLMAPPER" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "Ibatis2Java2", "conditional", "GENERIC-CI" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "Ibatis2Java2", "flat", "GENERIC-CI" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "Ibatis2Java2", "hierarchical", "GENERIC-CI" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "Ibatis2Java5", "conditional", "GENERIC-CI" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "Ibatis2Java5", "flat", "GENERIC-CI" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "Ibatis2Java5", "hierarchical", "GENERIC-CI" } //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    };
+
+    private static final String URL = "jdbc:hsqldb:mem:scale"; //$NON-NLS-1$
+
+    private ScaleSchema schema;
+
+    private File outputDirectory;
+
+    private boolean streaming;
+
+    public ScaleHarness(ScaleSchema schema, File outputDirectory) {
+        super();
+        this.schema = schema;
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Sets whether the generator streams the generated files (see
+     * {@link MyBatisGenerator#setStreaming(boolean)}), which lowers the peak
+     * heap of large schemas.
+     *
+     * @param streaming
+     *            true to stream the generated files
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Creates the schema and runs the generator for every target runtime and
+     * model type.
+     *
+     * @return the measurements of each run
+     */
+    public List<ScaleRun> run() throws Exception {
+        Class.forName("org.hsqldb.jdbcDriver"); //$NON-NLS-1$
+        Connection connection = DriverManager.getConnection(URL, "sa", ""); //$NON-NLS-1$ //$NON-NLS-2$
+        try {
+            schema.create(connection);
+
+            List<ScaleRun> answer = new ArrayList<ScaleRun>();
+            for (String[] run : RUNS) {
+                answer.add(run(run[0], run[1], run[2]));
+            }
+            return answer;
+        } finally {
+            connection.close();
+        }
+    }
+
+    private ScaleRun run(String targetRuntime, String modelType,
+            String clientType) throws Exception {
+        ScaleRun run = new ScaleRun(targetRuntime + "." + modelType); //$NON-NLS-1$
+        File directory = new File(outputDirectory, run.getName());
+        delete(directory);
+        if (!directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory); //$NON-NLS-1$
+        }
+
+        List<String> warnings = new ArrayList<String>();
+        ConfigurationParser cp = new ConfigurationParser(warnings);
+        Configuration config = cp.parseConfiguration(new ByteArrayInputStream(
+                getConfiguration(targetRuntime, modelType, clientType,
+                        directory).getBytes("UTF-8"))); //$NON-NLS-1$
+
+        MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config,
+                new DefaultShellCallback(true), warnings);
+        myBatisGenerator.setStreaming(streaming);
+
+        System.gc();
+        HeapSampler heapSampler = new HeapSampler();
+        heapSampler.start();
+        AllocationSampler allocationSampler = new AllocationSampler();
+        allocationSampler.start();
+
+        myBatisGenerator.generate(new PhaseTimer(run));
+
+        run.setAllocatedBytes(allocationSampler.stop());
+        run.setPeakHeapBytes(heapSampler.stop());
+
+        long[] output = new long[2];
+        measure(directory, output);
+        run.setOutputFiles((int) output[0]);
+        run.setOutputBytes(output[1]);
+
+        return run;
+    }
+
+    private String getConfiguration(String targetRuntime, String modelType,
+            String clientType, File directory) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"); //$NON-NLS-1$
+        sb.append("<!DOCTYPE generatorConfiguration PUBLIC"); //$NON-NLS-1$
+        sb.append(" \"-//mybatis.org//DTD MyBatis Generator Configuration 1.0//EN\""); //$NON-NLS-1$
+        sb.append(" \"http://mybatis.org/dtd/mybatis-generator-config_1_0.dtd\">"); //$NON-NLS-1$
+        sb.append("<generatorConfiguration>"); //$NON-NLS-1$
+        sb.append("<context id=\"scale\" targetRuntime=\""); //$NON-NLS-1$
+        sb.append(targetRuntime);
+        sb.append("\" defaultModelType=\""); //$NON-NLS-1$
+        sb.append(modelType);
+        sb.append("\">"); //$NON-NLS-1$
+        sb.append("<commentGenerator><property name=\"suppressDate\" value=\"true\"/></commentGenerator>"); //$NON-NLS-1$
+        sb.append("<jdbcConnection driverClass=\"org.hsqldb.jdbcDriver\" connectionURL=\""); //$NON-NLS-1$
+        sb.append(URL);
+        sb.append("\" userId=\"sa\"/>"); //$NON-NLS-1$
+        sb.append("<javaModelGenerator targetPackage=\"scale.model\" targetProject=\""); //$NON-NLS-1$
+        sb.append(directory.getAbsolutePath());
+        sb.append("\"/>"); //$NON-NLS-1$
+        sb.append("<sqlMapGenerator targetPackage=\"scale.mapper\" targetProject=\""); //$NON-NLS-1$
+        sb.append(directory.getAbsolutePath());
+        sb.append("\"/>"); //$NON-NLS-1$
+        sb.append("<javaClientGenerator type=\""); //$NON-NLS-1$
+        sb.append(clientType);
+        sb.append("\" targetPackage=\"scale.mapper\" targetProject=\""); //$NON-NLS-1$
+        sb.append(directory.getAbsolutePath());
+        sb.append("\"/>"); //$NON-NLS-1$
+        for (int i = 0; i < schema.getTableCount(); i++) {
+            sb.append("<table tableName=\""); //$NON-NLS-1$
+            sb.append(ScaleSchema.getTableName(i));
+            sb.append("\"/>"); //$NON-NLS-1$
+        }
+        sb.append("</context>"); //$NON-NLS-1$
+        sb.append("</generatorConfiguration>"); //$NON-NLS-1$
+        return sb.toString();
+    }
+
+    private static void measure(File file, long[] output) {
+        File[] files = file.listFiles();
+        if (files == null) {
+            output[0]++;
+            output[1] += file.length();
+            return;
+        }
+
+        for (File child : files) {
+            measure(child, output);
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Compares the runs with a budget.
+     *
+     * @param runs
+     *            the runs
+     * @param budget
+     *            the budget, in the format written by
+     *            {@link #toProperties(List)}. Metrics that are not in the
+     *            budget are not checked
+     * @param tolerance
+     *            the percentage by which a metric may exceed the budget
+     * @return a description of each metric that exceeds the budget
+     */
+    public static List<String> checkBudget(List<ScaleRun> runs,
+            Properties budget, int tolerance) {
+        List<String> answer = new ArrayList<String>();
+        for (ScaleRun run : runs) {
+            for (Map.Entry<String, Long> metric : run.getMetrics().entrySet()) {
+                String key = run.getName() + "." + metric.getKey(); //$NON-NLS-1$
+                String value = budget.getProperty(key);
+                if (value == null) {
+                    continue;
+                }
+
+                long limit = Long.parseLong(value.trim());
+                if (metric.getValue() > limit + limit * tolerance / 100L) {
+                    answer.add(key + " is " + metric.getValue() //$NON-NLS-1$
+                            + ", the budget is " + limit + " + " + tolerance + "%"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                }
+            }
+        }
+        return answer;
+    }
+
+    public static Properties toProperties(List<ScaleRun> runs) {
+        Properties answer = new Properties();
+        for (ScaleRun run : runs) {
+            for (Map.Entry<String, Long> metric : run.getMetrics().entrySet()) {
+                answer.setProperty(run.getName() + "." + metric.getKey(), //$NON-NLS-1$
+                        metric.getValue().toString());
+            }
+        }
+        return answer;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ScaleSchema schema = new ScaleSchema(
+                Integer.getInteger("scale.tables", 1000).intValue(), //$NON-NLS-1$
+                Integer.getInteger("scale.columns", 50).intValue(), //$NON-NLS-1$
+                System.getProperty("scale.types", ScaleSchema.DEFAULT_COLUMN_TYPES), //$NON-NLS-1$
+                Integer.getInteger("scale.keyColumns", 1).intValue(), //$NON-NLS-1$
+                Integer.getInteger("scale.blobColumns", 0).intValue()); //$NON-NLS-1$
+        File outputDirectory = new File(System.getProperty(
+                "scale.outputDirectory", "target/scale-output")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        ScaleHarness harness = new ScaleHarness(schema, outputDirectory);
+        harness.setStreaming(Boolean.getBoolean("scale.streaming")); //$NON-NLS-1$
+        List<ScaleRun> runs = harness.run();
+
+        System.out.println(String.format("%-28s %10s %10s %10s %10s %10s %10s %12s", //$NON-NLS-1$
+                "Run", "Intro ms", "Gen ms", "Save ms", "Total ms", "Peak MB", "Alloc MB/s", "Output KB")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+        for (ScaleRun run : runs) {
+            System.out.println(String.format("%-28s %10d %10d %10d %10d %10d %10d %12d", //$NON-NLS-1$
+                    run.getName(), run.getIntrospectionMillis(),
+                    run.getGenerationMillis(), run.getSaveMillis(),
+                    run.getTotalMillis(),
+                    run.getPeakHeapBytes() / (1024L * 1024L),
+                    run.getAllocationRate(), run.getOutputBytes() / 1024L));
+        }
+
+        String results = System.getProperty("scale.results"); //$NON-NLS-1$
+        if (results != null && results.length() > 0) {
+            OutputStream os = new FileOutputStream(results);
+            try {
+                toProperties(runs).store(os, "MyBatis Generator scale test results"); //$NON-NLS-1$
+            } finally {
+                os.close();
+            }
+        }
+
+        String budgetFile = System.getProperty("scale.budget"); //$NON-NLS-1$
+        if (budgetFile != null && budgetFile.length() > 0) {
+            Properties budget = new Properties();
+            InputStream is = new FileInputStream(budgetFile);
+            try {
+                budget.load(is);
+            } finally {
+                is.close();
+            }
+
+            List<String> regressions = checkBudget(runs, budget,
+                    Integer.getInteger("scale.tolerance", 25).intValue()); //$NON-NLS-1$
+            if (!regressions.isEmpty()) {
+                for (String regression : regressions) {
+                    System.out.println(regression);
+                }
+                System.exit(1);
+            }
+        }
+    }
+}
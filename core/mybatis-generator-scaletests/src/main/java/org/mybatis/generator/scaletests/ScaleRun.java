@@ -0,0 +1,146 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.scaletests;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The measurements of one generator run.
+ */
+public class ScaleRun {
+
+    private String name;
+
+    private long introspectionMillis;
+
+    private long generationMillis;
+
+    private long saveMillis;
+
+    /** The highest total heap in use during the run, sampled periodically. */
+    private long peakHeapBytes;
+
+    /** The bytes allocated by all threads during the run, or -1 if unknown. */
+    private long allocatedBytes = -1L;
+
+    private long outputBytes;
+
+    private int outputFiles;
+
+    public ScaleRun(String name) {
+        super();
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getIntrospectionMillis() {
+        return introspectionMillis;
+    }
+
+    public void setIntrospectionMillis(long introspectionMillis) {
+        this.introspectionMillis = introspectionMillis;
+    }
+
+    public long getGenerationMillis() {
+        return generationMillis;
+    }
+
+    public void setGenerationMillis(long generationMillis) {
+        this.generationMillis = generationMillis;
+    }
+
+    public long getSaveMillis() {
+        return saveMillis;
+    }
+
+    public void setSaveMillis(long saveMillis) {
+        this.saveMillis = saveMillis;
+    }
+
+    public long getTotalMillis() {
+        return introspectionMillis + generationMillis + saveMillis;
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public void setPeakHeapBytes(long peakHeapBytes) {
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Returns the allocation rate of all threads during the run.
+     *
+     * @return the allocated megabytes per second, or -1 if unknown
+     */
+    public long getAllocationRate() {
+        if (allocatedBytes < 0L) {
+            return -1L;
+        }
+
+        return allocatedBytes * 1000L / (1024L * 1024L)
+                / Math.max(1L, getTotalMillis());
+    }
+
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public void setOutputBytes(long outputBytes) {
+        this.outputBytes = outputBytes;
+    }
+
+    public int getOutputFiles() {
+        return outputFiles;
+    }
+
+    public void setOutputFiles(int outputFiles) {
+        this.outputFiles = outputFiles;
+    }
+
+    /**
+     * Returns the metrics of the run that can regress, by name. Larger values
+     * are worse.
+     *
+     * @return the metrics
+     */
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> answer = new LinkedHashMap<String, Long>();
+        answer.put("introspectionMillis", introspectionMillis); //$NON-NLS-1$
+        answer.put("generationMillis", generationMillis); //$NON-NLS-1$
+        answer.put("saveMillis", saveMillis); //$NON-NLS-1$
+        answer.put("totalMillis", getTotalMillis()); //$NON-NLS-1$
+        answer.put("peakHeapBytes", peakHeapBytes); //$NON-NLS-1$
+        if (allocatedBytes >= 0L) {
+            answer.put("allocatedBytes", allocatedBytes); //$NON-NLS-1$
+        }
+        answer.put("outputBytes", outputBytes); //$NON-NLS-1$
+        return answer;
+    }
+}
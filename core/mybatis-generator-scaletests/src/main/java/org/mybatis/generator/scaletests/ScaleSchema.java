@@ -0,0 +1,155 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.scaletests;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+
+/**
+ * A synthetic schema. Every table has the same shape: the key columns, then
+ * the other columns using the column types in turn, then the BLOB columns.
+ */
+public class ScaleSchema {
+
+    /** The column types used when no types are specified. */
+    public static final String DEFAULT_COLUMN_TYPES =
+            "VARCHAR(50),INTEGER,DECIMAL(10;2),TIMESTAMP,BIGINT,BOOLEAN,DATE,CHAR(1)"; //$NON-NLS-1$
+
+    private int tableCount;
+
+    private int columnCount;
+
+    private List<String> columnTypes;
+
+    private int keyColumnCount;
+
+    private int blobColumnCount;
+
+    /**
+     * Creates a schema.
+     *
+     * @param tableCount
+     *            the number of tables
+     * @param columnCount
+     *            the number of columns in each table, including the key and
+     *            BLOB columns
+     * @param columnTypes
+     *            a comma delimited list of column types. Commas within a type
+     *            are written as semicolons, for example DECIMAL(10;2)
+     * @param keyColumnCount
+     *            the number of primary key columns. More than one makes a
+     *            composite key
+     * @param blobColumnCount
+     *            the number of BLOB columns
+     */
+    public ScaleSchema(int tableCount, int columnCount, String columnTypes,
+            int keyColumnCount, int blobColumnCount) {
+        super();
+        if (keyColumnCount + blobColumnCount > columnCount) {
+            throw new IllegalArgumentException(
+                    "The key and BLOB columns don't fit in " + columnCount + " columns"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        this.tableCount = tableCount;
+        this.columnCount = columnCount;
+        this.keyColumnCount = keyColumnCount;
+        this.blobColumnCount = blobColumnCount;
+        this.columnTypes = new ArrayList<String>();
+        StringTokenizer st = new StringTokenizer(columnTypes, ","); //$NON-NLS-1$
+        while (st.hasMoreTokens()) {
+            String s = st.nextToken().trim();
+            if (s.length() > 0) {
+                this.columnTypes.add(s.replace(';', ','));
+            }
+        }
+
+        if (this.columnTypes.isEmpty()) {
+            throw new IllegalArgumentException("No column types"); //$NON-NLS-1$
+        }
+    }
+
+    public int getTableCount() {
+        return tableCount;
+    }
+
+    public static String getTableName(int index) {
+        return "SCALE_TABLE_" + index; //$NON-NLS-1$
+    }
+
+    /**
+     * Creates the tables, dropping any tables left by an earlier run.
+     *
+     * @param connection
+     *            the connection
+     * @throws SQLException
+     *             if the tables cannot be created
+     */
+    public void create(Connection connection) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            for (int i = 0; i < tableCount; i++) {
+                statement.execute("DROP TABLE " + getTableName(i) + " IF EXISTS"); //$NON-NLS-1$ //$NON-NLS-2$
+                statement.execute(getCreateTableStatement(getTableName(i)));
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private String getCreateTableStatement(String tableName) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CREATE TABLE "); //$NON-NLS-1$
+        sb.append(tableName);
+        sb.append(" ("); //$NON-NLS-1$
+
+        for (int i = 0; i < keyColumnCount; i++) {
+            sb.append("KEY_").append(i).append(" INTEGER NOT NULL, "); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        int otherColumnCount = columnCount - keyColumnCount - blobColumnCount;
+        for (int i = 0; i < otherColumnCount; i++) {
+            sb.append("COLUMN_").append(i).append(' '); //$NON-NLS-1$
+            sb.append(columnTypes.get(i % columnTypes.size()));
+            sb.append(", "); //$NON-NLS-1$
+        }
+
+        for (int i = 0; i < blobColumnCount; i++) {
+            sb.append("BLOB_").append(i); //$NON-NLS-1$
+            sb.append(i % 2 == 0 ? " BLOB, " : " CLOB, "); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        if (keyColumnCount > 0) {
+            sb.append("PRIMARY KEY ("); //$NON-NLS-1$
+            for (int i = 0; i < keyColumnCount; i++) {
+                if (i > 0) {
+                    sb.append(", "); //$NON-NLS-1$
+                }
+                sb.append("KEY_").append(i); //$NON-NLS-1$
+            }
+            sb.append(')');
+        } else {
+            // remove the last separator
+            sb.setLength(sb.length() - 2);
+        }
+
+        sb.append(')');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.scaletests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class ScaleHarnessTest {
+
+    @Test
+    public void testThatEveryRuntimeAndModelTypeIsMeasured() throws Exception {
+        ScaleSchema schema = new ScaleSchema(3, 12,
+                ScaleSchema.DEFAULT_COLUMN_TYPES, 2, 2);
+        List<ScaleRun> runs = new ScaleHarness(schema, new File(
+                "target/scale-test-output")).run();
+
+        assertEquals(10, runs.size());
+        for (ScaleRun run : runs) {
+            assertTrue(run.getName(), run.getOutputFiles() > 0);
+            assertTrue(run.getName(), run.getOutputBytes() > 0L);
+            assertTrue(run.getName(), run.getPeakHeapBytes() > 0L);
+        }
+
+        Properties budget = ScaleHarness.toProperties(runs);
+        assertTrue(ScaleHarness.checkBudget(runs, budget, 0).isEmpty());
+
+        budget.setProperty("MyBatis3.flat.outputBytes", "1");
+        List<String> regressions = ScaleHarness.checkBudget(runs, budget, 25);
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).startsWith("MyBatis3.flat.outputBytes is "));
+    }
+}